@@ -0,0 +1,362 @@
+/*
+ * Copyright 1999-2019 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.adapter.gateway.common.api.matcher;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.regex.Pattern;
+
+import com.alibaba.csp.sentinel.adapter.gateway.common.SentinelGatewayConstants;
+import com.alibaba.csp.sentinel.adapter.gateway.common.api.ApiDefinition;
+import com.alibaba.csp.sentinel.adapter.gateway.common.api.ApiPathPredicateItem;
+import com.alibaba.csp.sentinel.adapter.gateway.common.api.ApiPredicateItem;
+import com.alibaba.csp.sentinel.log.RecordLog;
+import com.alibaba.csp.sentinel.util.AssertUtil;
+import com.alibaba.csp.sentinel.util.StringUtil;
+import com.alibaba.csp.sentinel.util.function.Function;
+import com.alibaba.csp.sentinel.util.function.Predicate;
+
+/**
+ * <p>Matches a request path against the path predicates of all API definitions in one walk, instead of testing
+ * the API matchers one by one.</p>
+ *
+ * <p>The path predicates are compiled into a character trie:</p>
+ * <ul>
+ * <li>exact paths end at their trie node;</li>
+ * <li>Ant patterns of the {@code /literal/**} form are matched by their literal part and the path boundary;</li>
+ * <li>other Ant patterns and regex patterns are placed at the node of their literal prefix, so that they are
+ * only tested when the path starts with that prefix.</li>
+ * </ul>
+ *
+ * <p>Ant patterns are tested by the predicates from the given factory, as the Ant path matcher is provided by
+ * the gateway. Like the Ant path matcher of the gateway adapters, a prefix pattern that is not an Ant pattern
+ * never matches. As Ant matching ignores empty path segments, paths containing {@code //} are tested against
+ * all pattern predicates directly.</p>
+ *
+ * <p>The matcher is immutable, and should be rebuilt when API definitions change.</p>
+ *
+ * @since 1.8.7
+ */
+public class CompiledApiPathMatcher {
+
+    private static final String ANT_PREFIX_SUFFIX = "/**";
+
+    private final Node root;
+    /**
+     * All pattern candidates (both Ant and regex), for paths that cannot be matched via the trie.
+     */
+    private final Candidate[] allCandidates;
+
+    /**
+     * @param definitions       API definitions
+     * @param antMatcherFactory factory of Ant path predicates, which returns null if the pattern is not an Ant
+     *                          pattern (so it never matches)
+     */
+    public CompiledApiPathMatcher(Collection<ApiDefinition> definitions,
+                                  Function<String, Predicate<String>> antMatcherFactory) {
+        AssertUtil.notNull(antMatcherFactory, "antMatcherFactory cannot be null");
+        NodeBuilder rootBuilder = new NodeBuilder();
+        List<Candidate> candidates = new ArrayList<>();
+        if (definitions != null) {
+            for (ApiDefinition definition : definitions) {
+                if (definition == null || StringUtil.isBlank(definition.getApiName())
+                    || definition.getPredicateItems() == null) {
+                    continue;
+                }
+                for (ApiPredicateItem item : definition.getPredicateItems()) {
+                    if (item instanceof ApiPathPredicateItem) {
+                        try {
+                            addPathItem(rootBuilder, candidates, definition.getApiName(), (ApiPathPredicateItem)item,
+                                antMatcherFactory);
+                        } catch (Exception ex) {
+                            RecordLog.warn("[CompiledApiPathMatcher] Ignoring invalid path predicate of API <"
+                                + definition.getApiName() + ">: " + item, ex);
+                        }
+                    }
+                }
+            }
+        }
+        this.root = rootBuilder.build();
+        this.allCandidates = candidates.toArray(new Candidate[0]);
+    }
+
+    /**
+     * Get names of all APIs that match the path.
+     *
+     * @param path request path
+     * @return names of the matching APIs
+     */
+    public Set<String> match(String path) {
+        Set<String> apis = new HashSet<>();
+        match(path, path, apis);
+        return apis;
+    }
+
+    /**
+     * Collect names of all APIs that match the request, for gateways that match exact paths and patterns
+     * on different forms of the request path.
+     *
+     * @param exactPath   path to match the exact path predicates
+     * @param patternPath path to match the Ant and regex predicates
+     * @param apis        the set to collect API names into
+     */
+    public void match(String exactPath, String patternPath, Set<String> apis) {
+        if (exactPath != null) {
+            Node node = root;
+            for (int i = 0; i < exactPath.length() && node != null; i++) {
+                node = node.child(exactPath.charAt(i));
+            }
+            if (node != null) {
+                addAll(apis, node.exactApis);
+            }
+        }
+        if (patternPath == null) {
+            return;
+        }
+        if (patternPath.contains("//")) {
+            for (Candidate candidate : allCandidates) {
+                candidate.test(patternPath, apis);
+            }
+            return;
+        }
+        Node node = root;
+        int i = 0;
+        while (node != null) {
+            if (node.prefixApis != null
+                && (i < patternPath.length() ? patternPath.charAt(i) == '/' : i > 0)) {
+                addAll(apis, node.prefixApis);
+            }
+            if (node.candidates != null) {
+                for (Candidate candidate : node.candidates) {
+                    candidate.test(patternPath, apis);
+                }
+            }
+            if (i == patternPath.length()) {
+                break;
+            }
+            node = node.child(patternPath.charAt(i++));
+        }
+    }
+
+    private static void addPathItem(NodeBuilder root, List<Candidate> candidates, String apiName,
+                                    ApiPathPredicateItem item, Function<String, Predicate<String>> antMatcherFactory) {
+        String pattern = item.getPattern();
+        if (StringUtil.isBlank(pattern)) {
+            return;
+        }
+        switch (item.getMatchStrategy()) {
+            case SentinelGatewayConstants.URL_MATCH_STRATEGY_REGEX:
+                Candidate regex = new Candidate(apiName, new RegexPredicate(Pattern.compile(pattern)));
+                root.descend(regexLiteralPrefix(pattern)).addCandidate(regex);
+                candidates.add(regex);
+                break;
+            case SentinelGatewayConstants.URL_MATCH_STRATEGY_PREFIX:
+                Predicate<String> antPredicate = antMatcherFactory.apply(pattern);
+                if (antPredicate == null) {
+                    // Not an Ant pattern, which never matches.
+                    return;
+                }
+                Candidate ant = new Candidate(apiName, antPredicate);
+                candidates.add(ant);
+                String literal = pattern.substring(0, pattern.length() - ANT_PREFIX_SUFFIX.length());
+                if (pattern.endsWith(ANT_PREFIX_SUFFIX) && isPlainAntPrefix(literal)) {
+                    root.descend(literal).addPrefixApi(apiName);
+                } else {
+                    root.descend(antLiteralPrefix(pattern)).addCandidate(ant);
+                }
+                break;
+            default:
+                root.descend(pattern).addExactApi(apiName);
+                break;
+        }
+    }
+
+    /**
+     * @return whether the literal is made of non-empty path segments without wildcards, e.g. {@code /a/b}
+     */
+    private static boolean isPlainAntPrefix(String literal) {
+        if (literal.isEmpty()) {
+            return true;
+        }
+        if (literal.charAt(0) != '/' || literal.endsWith("/") || literal.contains("//")) {
+            return false;
+        }
+        for (int i = 0; i < literal.length(); i++) {
+            char c = literal.charAt(i);
+            if (c == '*' || c == '?' || c == '{' || c == '}') {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    static String antLiteralPrefix(String pattern) {
+        int end = 0;
+        while (end < pattern.length()) {
+            char c = pattern.charAt(end);
+            if (c == '*' || c == '?' || c == '{') {
+                break;
+            }
+            end++;
+        }
+        String prefix = pattern.substring(0, end);
+        // Ant matching ignores empty path segments, so a literal with them cannot be used as a path prefix.
+        return prefix.contains("//") ? "" : prefix;
+    }
+
+    static String regexLiteralPrefix(String regex) {
+        if (regex.indexOf('|') >= 0) {
+            // Alternations may start with anything.
+            return "";
+        }
+        int end = 0;
+        while (end < regex.length()) {
+            char c = regex.charAt(end);
+            if ("\\[](){}.*+?^$".indexOf(c) >= 0) {
+                if (c == '*' || c == '+' || c == '?' || c == '{') {
+                    // The quantifier applies to the previous character.
+                    end = Math.max(end - 1, 0);
+                }
+                break;
+            }
+            end++;
+        }
+        return regex.substring(0, end);
+    }
+
+    private static void addAll(Set<String> apis, String[] names) {
+        if (names != null) {
+            for (String name : names) {
+                apis.add(name);
+            }
+        }
+    }
+
+    private static final class Candidate {
+        private final String apiName;
+        private final Predicate<String> predicate;
+
+        Candidate(String apiName, Predicate<String> predicate) {
+            this.apiName = apiName;
+            this.predicate = predicate;
+        }
+
+        void test(String path, Set<String> apis) {
+            if (!apis.contains(apiName) && predicate.test(path)) {
+                apis.add(apiName);
+            }
+        }
+    }
+
+    private static final class RegexPredicate implements Predicate<String> {
+        private final Pattern regex;
+
+        RegexPredicate(Pattern regex) {
+            this.regex = regex;
+        }
+
+        @Override
+        public boolean test(String path) {
+            return regex.matcher(path).matches();
+        }
+    }
+
+    private static final class Node {
+        private final char[] keys;
+        private final Node[] children;
+        private final String[] exactApis;
+        private final String[] prefixApis;
+        private final Candidate[] candidates;
+
+        Node(char[] keys, Node[] children, String[] exactApis, String[] prefixApis, Candidate[] candidates) {
+            this.keys = keys;
+            this.children = children;
+            this.exactApis = exactApis;
+            this.prefixApis = prefixApis;
+            this.candidates = candidates;
+        }
+
+        Node child(char c) {
+            int low = 0;
+            int high = keys.length - 1;
+            while (low <= high) {
+                int mid = (low + high) >>> 1;
+                char key = keys[mid];
+                if (key < c) {
+                    low = mid + 1;
+                } else if (key > c) {
+                    high = mid - 1;
+                } else {
+                    return children[mid];
+                }
+            }
+            return null;
+        }
+    }
+
+    private static final class NodeBuilder {
+        private final Map<Character, NodeBuilder> children = new TreeMap<>();
+        private final Set<String> exactApis = new HashSet<>();
+        private final Set<String> prefixApis = new HashSet<>();
+        private final List<Candidate> candidates = new ArrayList<>();
+
+        NodeBuilder descend(String path) {
+            NodeBuilder node = this;
+            for (int i = 0; i < path.length(); i++) {
+                Character c = path.charAt(i);
+                NodeBuilder child = node.children.get(c);
+                if (child == null) {
+                    child = new NodeBuilder();
+                    node.children.put(c, child);
+                }
+                node = child;
+            }
+            return node;
+        }
+
+        void addExactApi(String apiName) {
+            exactApis.add(apiName);
+        }
+
+        void addPrefixApi(String apiName) {
+            prefixApis.add(apiName);
+        }
+
+        void addCandidate(Candidate candidate) {
+            candidates.add(candidate);
+        }
+
+        Node build() {
+            char[] keys = new char[children.size()];
+            Node[] nodes = new Node[children.size()];
+            int i = 0;
+            for (Map.Entry<Character, NodeBuilder> e : children.entrySet()) {
+                keys[i] = e.getKey();
+                nodes[i] = e.getValue().build();
+                i++;
+            }
+            return new Node(keys, nodes,
+                exactApis.isEmpty() ? null : exactApis.toArray(new String[0]),
+                prefixApis.isEmpty() ? null : prefixApis.toArray(new String[0]),
+                candidates.isEmpty() ? null : candidates.toArray(new Candidate[0]));
+        }
+    }
+}
@@ -0,0 +1,123 @@
+/*
+ * Copyright 1999-2019 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.adapter.gateway.common.api.matcher;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+import com.alibaba.csp.sentinel.adapter.gateway.common.SentinelGatewayConstants;
+import com.alibaba.csp.sentinel.adapter.gateway.common.api.ApiDefinition;
+import com.alibaba.csp.sentinel.adapter.gateway.common.api.ApiPathPredicateItem;
+import com.alibaba.csp.sentinel.adapter.gateway.common.api.ApiPredicateItem;
+import com.alibaba.csp.sentinel.util.function.Function;
+import com.alibaba.csp.sentinel.util.function.Predicate;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class CompiledApiPathMatcherTest {
+
+    /**
+     * A simplified Ant matcher: {@code **} matches any path, {@code *} matches within a segment.
+     */
+    private static final Function<String, Predicate<String>> ANT_FACTORY = new Function<String, Predicate<String>>() {
+        @Override
+        public Predicate<String> apply(String pattern) {
+            if (!pattern.contains("*") && !pattern.contains("?")) {
+                return null;
+            }
+            String regex = pattern.endsWith("/**")
+                ? Pattern.quote(pattern.substring(0, pattern.length() - 3)) + "(/.*)?"
+                : Pattern.quote(pattern).replace("*", "\\E[^/]*\\Q");
+            final Pattern p = Pattern.compile(regex);
+            return new Predicate<String>() {
+                @Override
+                public boolean test(String path) {
+                    return p.matcher(path.replaceAll("/+", "/")).matches();
+                }
+            };
+        }
+    };
+
+    @Test
+    public void testMatchAllStrategies() {
+        CompiledApiPathMatcher matcher = new CompiledApiPathMatcher(Arrays.asList(
+            api("exact", "/foo/bar", SentinelGatewayConstants.URL_MATCH_STRATEGY_EXACT),
+            api("prefix", "/foo/**", SentinelGatewayConstants.URL_MATCH_STRATEGY_PREFIX),
+            api("all", "/**", SentinelGatewayConstants.URL_MATCH_STRATEGY_PREFIX),
+            api("wildcard", "/foo/*/baz", SentinelGatewayConstants.URL_MATCH_STRATEGY_PREFIX),
+            api("regex", "/foo/\\d+", SentinelGatewayConstants.URL_MATCH_STRATEGY_REGEX),
+            api("alternation", "/a|/b", SentinelGatewayConstants.URL_MATCH_STRATEGY_REGEX),
+            api("notAnt", "/plain", SentinelGatewayConstants.URL_MATCH_STRATEGY_PREFIX)
+        ), ANT_FACTORY);
+
+        assertEquals(set("exact", "prefix", "all"), matcher.match("/foo/bar"));
+        assertEquals(set("prefix", "all"), matcher.match("/foo"));
+        assertEquals(set("prefix", "all"), matcher.match("/foo/"));
+        assertEquals(set("all"), matcher.match("/foobar"));
+        assertEquals(set("prefix", "all", "wildcard"), matcher.match("/foo/x/baz"));
+        assertEquals(set("prefix", "all", "regex"), matcher.match("/foo/123"));
+        assertEquals(set("all", "alternation"), matcher.match("/b"));
+        assertEquals(set("all"), matcher.match("/plain"));
+        assertEquals(set(), matcher.match("foo"));
+        // Empty segments are ignored by Ant matching.
+        assertEquals(set("prefix", "all", "wildcard"), matcher.match("//foo//x/baz"));
+    }
+
+    @Test
+    public void testMatchExactAndPatternPaths() {
+        CompiledApiPathMatcher matcher = new CompiledApiPathMatcher(Arrays.asList(
+            api("exact", "/foo", SentinelGatewayConstants.URL_MATCH_STRATEGY_EXACT),
+            api("regex", "/ctx/foo", SentinelGatewayConstants.URL_MATCH_STRATEGY_REGEX)
+        ), ANT_FACTORY);
+
+        Set<String> apis = new HashSet<>();
+        matcher.match("/foo", "/ctx/foo", apis);
+        assertEquals(set("exact", "regex"), apis);
+    }
+
+    @Test
+    public void testLiteralPrefix() {
+        assertEquals("/foo/", CompiledApiPathMatcher.antLiteralPrefix("/foo/*/bar"));
+        assertEquals("", CompiledApiPathMatcher.antLiteralPrefix("/foo//*"));
+        assertEquals("/fo", CompiledApiPathMatcher.regexLiteralPrefix("/foo?"));
+        assertEquals("/foo/", CompiledApiPathMatcher.regexLiteralPrefix("/foo/\\d+"));
+        assertEquals("", CompiledApiPathMatcher.regexLiteralPrefix("^/foo"));
+        assertEquals("", CompiledApiPathMatcher.regexLiteralPrefix("/a|/b"));
+    }
+
+    @Test
+    public void testInvalidDefinitionIgnored() {
+        CompiledApiPathMatcher matcher = new CompiledApiPathMatcher(Arrays.asList(
+            api("bad", "/foo/(", SentinelGatewayConstants.URL_MATCH_STRATEGY_REGEX),
+            api("good", "/foo", SentinelGatewayConstants.URL_MATCH_STRATEGY_EXACT)
+        ), ANT_FACTORY);
+        assertEquals(set("good"), matcher.match("/foo"));
+    }
+
+    private static ApiDefinition api(String name, String pattern, int strategy) {
+        return new ApiDefinition(name).setPredicateItems(Collections.<ApiPredicateItem>singleton(
+            new ApiPathPredicateItem().setPattern(pattern).setMatchStrategy(strategy)));
+    }
+
+    private static Set<String> set(String... names) {
+        return new HashSet<>(Arrays.asList(names));
+    }
+}
@@ -53,6 +53,7 @@ class SentinelNativeImageProcessor {
                 new RuntimeInitializedClassBuildItem("com.alibaba.csp.sentinel.slots.block.degrade.DegradeRuleManager"),
                 new RuntimeInitializedClassBuildItem("com.alibaba.csp.sentinel.node.metric.MetricTimerListener"),
                 new RuntimeInitializedClassBuildItem("com.alibaba.csp.sentinel.node.metric.MetricWriter"),
+                new RuntimeInitializedClassBuildItem("com.alibaba.csp.sentinel.node.metric.BinaryMetricWriter"),
                 new RuntimeInitializedClassBuildItem("com.alibaba.csp.sentinel.util.TimeUtil"),
                 new RuntimeInitializedClassBuildItem("com.alibaba.csp.sentinel.eagleeye.StatLogController"),
                 new RuntimeInitializedClassBuildItem("com.alibaba.csp.sentinel.slots.logger.EagleEyeLogUtil"),
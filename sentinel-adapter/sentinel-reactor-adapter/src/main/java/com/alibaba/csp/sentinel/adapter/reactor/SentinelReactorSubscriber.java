@@ -16,6 +16,8 @@
 package com.alibaba.csp.sentinel.adapter.reactor;
 
 import java.util.Optional;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
 
 import com.alibaba.csp.sentinel.AsyncEntry;
@@ -23,11 +25,13 @@ import com.alibaba.csp.sentinel.SphU;
 import com.alibaba.csp.sentinel.Tracer;
 import com.alibaba.csp.sentinel.context.ContextUtil;
 import com.alibaba.csp.sentinel.slots.block.BlockException;
+import com.alibaba.csp.sentinel.slots.block.flow.QueueingDelayHolder;
 import com.alibaba.csp.sentinel.util.AssertUtil;
 import com.alibaba.csp.sentinel.util.function.Supplier;
 
 import org.reactivestreams.Subscription;
 import reactor.core.CoreSubscriber;
+import reactor.core.scheduler.Schedulers;
 import reactor.util.context.Context;
 
 /**
@@ -44,6 +48,14 @@ public class SentinelReactorSubscriber<T> extends InheritableBaseSubscriber<T> {
     private volatile AsyncEntry currentEntry;
     private final AtomicBoolean entryExited = new AtomicBoolean(false);
 
+    /**
+     * Whether the subscriber is held by the queueing wait of the entry. The terminal signal that arrives
+     * during the wait is kept in {@code pendingTerminal} and delivered after the downstream is subscribed.
+     */
+    private volatile boolean waiting;
+    private Runnable pendingTerminal;
+    private final Object waitLock = new Object();
+
     public SentinelReactorSubscriber(EntryConfig entryConfig,
                                      CoreSubscriber<? super T> actual,
                                      boolean unary) {
@@ -89,10 +101,22 @@ public class SentinelReactorSubscriber<T> extends InheritableBaseSubscriber<T> {
             ContextUtil.enter(sentinelContextConfig.getContextName(), sentinelContextConfig.getOrigin());
         }
         try {
-            AsyncEntry entry = SphU.asyncEntry(entryConfig.getResourceName(), entryConfig.getResourceType(),
-                entryConfig.getEntryType(), entryConfig.getAcquireCount(), entryConfig.getArgs());
+            AsyncEntry entry;
+            long waitMs;
+            // Take over the queueing wait of rate limiting, so that the subscribing thread is never blocked.
+            QueueingDelayHolder.begin();
+            try {
+                entry = SphU.asyncEntry(entryConfig.getResourceName(), entryConfig.getResourceType(),
+                    entryConfig.getEntryType(), entryConfig.getAcquireCount(), entryConfig.getArgs());
+            } finally {
+                waitMs = QueueingDelayHolder.end();
+            }
             this.currentEntry = entry;
-            actual.onSubscribe(this);
+            if (waitMs > 0) {
+                resumeAfter(waitMs);
+            } else {
+                actual.onSubscribe(this);
+            }
         } catch (BlockException ex) {
             // Mark as completed (exited) explicitly.
             entryExited.set(true);
@@ -107,6 +131,41 @@ public class SentinelReactorSubscriber<T> extends InheritableBaseSubscriber<T> {
         }
     }
 
+    private void resumeAfter(long waitMs) {
+        waiting = true;
+        try {
+            Schedulers.parallel().schedule(this::resume, waitMs, TimeUnit.MILLISECONDS);
+        } catch (RejectedExecutionException ex) {
+            resume();
+        }
+    }
+
+    private void resume() {
+        actual.onSubscribe(this);
+        Runnable terminal;
+        synchronized (waitLock) {
+            waiting = false;
+            terminal = pendingTerminal;
+            pendingTerminal = null;
+        }
+        if (terminal != null) {
+            terminal.run();
+        }
+    }
+
+    private boolean deferIfWaiting(Runnable terminal) {
+        if (!waiting) {
+            return false;
+        }
+        synchronized (waitLock) {
+            if (waiting) {
+                pendingTerminal = terminal;
+                return true;
+            }
+        }
+        return false;
+    }
+
     @Override
     protected void hookOnSubscribe(Subscription subscription) {
         doWithContextOrCurrent(() -> currentContext().getOrEmpty(SentinelReactorConstants.SENTINEL_CONTEXT_KEY),
@@ -132,6 +191,9 @@ public class SentinelReactorSubscriber<T> extends InheritableBaseSubscriber<T> {
 
     @Override
     protected void hookOnComplete() {
+        if (deferIfWaiting(this::hookOnComplete)) {
+            return;
+        }
         tryCompleteEntry();
         actual.onComplete();
     }
@@ -145,6 +207,9 @@ public class SentinelReactorSubscriber<T> extends InheritableBaseSubscriber<T> {
 
     @Override
     protected void hookOnError(Throwable t) {
+        if (deferIfWaiting(() -> hookOnError(t))) {
+            return;
+        }
         if (currentEntry != null && currentEntry.getAsyncContext() != null) {
             // Normal requests with non-BlockException will go through here.
             Tracer.traceContext(t, 1, currentEntry.getAsyncContext());
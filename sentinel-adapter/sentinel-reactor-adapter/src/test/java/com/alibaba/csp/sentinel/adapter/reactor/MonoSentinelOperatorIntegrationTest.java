@@ -3,12 +3,15 @@ package com.alibaba.csp.sentinel.adapter.reactor;
 import java.time.Duration;
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
 
 import com.alibaba.csp.sentinel.Constants;
 import com.alibaba.csp.sentinel.EntryType;
 import com.alibaba.csp.sentinel.node.ClusterNode;
 import com.alibaba.csp.sentinel.node.EntranceNode;
 import com.alibaba.csp.sentinel.slots.block.BlockException;
+import com.alibaba.csp.sentinel.slots.block.RuleConstant;
 import com.alibaba.csp.sentinel.slots.block.flow.FlowRule;
 import com.alibaba.csp.sentinel.slots.block.flow.FlowRuleManager;
 import com.alibaba.csp.sentinel.slots.clusterbuilder.ClusterBuilderSlot;
@@ -184,6 +187,61 @@ public class MonoSentinelOperatorIntegrationTest {
         FlowRuleManager.loadRules(new ArrayList<>());
     }
 
+    @Test
+    public void testRateLimiterQueueingWithoutBlocking() throws Exception {
+        String resourceName = createResourceName("testRateLimiterQueueingWithoutBlocking");
+        loadRateLimiterRule(resourceName);
+        int requests = 4;
+        CountDownLatch latch = new CountDownLatch(requests);
+        long start = System.currentTimeMillis();
+        for (int i = 0; i < requests; i++) {
+            Mono.just(i)
+                .transform(new SentinelReactorTransformer<>(resourceName))
+                .subscribe(e -> latch.countDown());
+        }
+        // The subscribing thread should not wait for the queueing, so the queued requests are still pending.
+        assertTrue(latch.getCount() > 0);
+        assertTrue(latch.await(3, TimeUnit.SECONDS));
+        assertTrue(System.currentTimeMillis() - start >= 250);
+
+        ClusterNode cn = ClusterBuilderSlot.getClusterNode(resourceName);
+        assertNotNull(cn);
+        assertEquals(requests, cn.totalPass());
+        assertEquals(0, cn.blockRequest());
+
+        FlowRuleManager.loadRules(new ArrayList<>());
+    }
+
+    @Test
+    public void testRateLimiterQueueingWithErrorDuringWait() {
+        String resourceName = createResourceName("testRateLimiterQueueingWithErrorDuringWait");
+        loadRateLimiterRule(resourceName);
+        StepVerifier.create(Mono.just(1)
+            .transform(new SentinelReactorTransformer<>(resourceName)))
+            .expectNext(1)
+            .verifyComplete();
+        // The error is emitted before the queueing wait is over, and should be delivered after that.
+        StepVerifier.create(Mono.error(new IllegalStateException())
+            .transform(new SentinelReactorTransformer<>(resourceName)))
+            .expectSubscription()
+            .expectError(IllegalStateException.class)
+            .verify(Duration.ofSeconds(3));
+
+        ClusterNode cn = ClusterBuilderSlot.getClusterNode(resourceName);
+        assertNotNull(cn);
+        assertEquals(1, cn.totalException());
+
+        FlowRuleManager.loadRules(new ArrayList<>());
+    }
+
+    private void loadRateLimiterRule(String resourceName) {
+        FlowRule rule = new FlowRule(resourceName);
+        rule.setCount(10);
+        rule.setControlBehavior(RuleConstant.CONTROL_BEHAVIOR_RATE_LIMITER);
+        rule.setMaxQueueingTimeMs(2000);
+        FlowRuleManager.loadRules(Collections.singletonList(rule));
+    }
+
     private String createResourceName(String resourceName) {
         return "reactor_test_mono_" + resourceName;
     }
@@ -16,7 +16,13 @@
 package com.alibaba.csp.sentinel.adapter.gateway.sc.api;
 
 import com.alibaba.csp.sentinel.adapter.gateway.common.api.ApiDefinition;
+import com.alibaba.csp.sentinel.adapter.gateway.common.api.matcher.CompiledApiPathMatcher;
 import com.alibaba.csp.sentinel.adapter.gateway.sc.api.matcher.WebExchangeApiMatcher;
+import com.alibaba.csp.sentinel.util.function.Function;
+import com.alibaba.csp.sentinel.util.function.Predicate;
+
+import org.springframework.util.AntPathMatcher;
+import org.springframework.util.PathMatcher;
 
 import java.util.Collections;
 import java.util.HashMap;
@@ -31,12 +37,28 @@ import java.util.stream.Collectors;
  */
 public final class GatewayApiMatcherManager {
 
+    private static final PathMatcher ANT_PATH_MATCHER = new AntPathMatcher();
+    private static final Function<String, Predicate<String>> ANT_MATCHER_FACTORY = pattern ->
+        ANT_PATH_MATCHER.isPattern(pattern) ? path -> ANT_PATH_MATCHER.match(pattern, path) : null;
+
     private static volatile Map<String, WebExchangeApiMatcher> API_MATCHER_MAP = new HashMap<>();
+    private static volatile CompiledApiPathMatcher PATH_MATCHER = new CompiledApiPathMatcher(
+        Collections.emptySet(), ANT_MATCHER_FACTORY);
 
     public static Map<String, WebExchangeApiMatcher> getApiMatcherMap() {
         return Collections.unmodifiableMap(API_MATCHER_MAP);
     }
 
+    /**
+     * Get the path matcher compiled from current API definitions, which matches all APIs in one path walk.
+     *
+     * @return the compiled path matcher
+     * @since 1.8.7
+     */
+    public static CompiledApiPathMatcher getPathMatcher() {
+        return PATH_MATCHER;
+    }
+
     public static Optional<WebExchangeApiMatcher> getMatcher(final String apiName) {
         return Optional.ofNullable(apiName)
             .map(e -> API_MATCHER_MAP.get(apiName));
@@ -56,6 +78,7 @@ public final class GatewayApiMatcherManager {
         }
 
         API_MATCHER_MAP = apiMatcherMap;
+        PATH_MATCHER = new CompiledApiPathMatcher(definitions, ANT_MATCHER_FACTORY);
     }
 
     private GatewayApiMatcherManager() {}
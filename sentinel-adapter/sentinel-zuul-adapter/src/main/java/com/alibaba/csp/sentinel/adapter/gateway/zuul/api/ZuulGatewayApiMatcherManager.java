@@ -22,7 +22,13 @@ import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 
 import com.alibaba.csp.sentinel.adapter.gateway.common.api.ApiDefinition;
+import com.alibaba.csp.sentinel.adapter.gateway.common.api.matcher.CompiledApiPathMatcher;
 import com.alibaba.csp.sentinel.adapter.gateway.zuul.api.matcher.RequestContextApiMatcher;
+import com.alibaba.csp.sentinel.util.function.Function;
+import com.alibaba.csp.sentinel.util.function.Predicate;
+
+import org.springframework.util.AntPathMatcher;
+import org.springframework.util.PathMatcher;
 
 /**
  * @author Eric Zhao
@@ -30,12 +36,41 @@ import com.alibaba.csp.sentinel.adapter.gateway.zuul.api.matcher.RequestContextA
  */
 public final class ZuulGatewayApiMatcherManager {
 
+    private static final PathMatcher ANT_PATH_MATCHER = new AntPathMatcher();
+    private static final Function<String, Predicate<String>> ANT_MATCHER_FACTORY
+        = new Function<String, Predicate<String>>() {
+        @Override
+        public Predicate<String> apply(final String pattern) {
+            if (!ANT_PATH_MATCHER.isPattern(pattern)) {
+                return null;
+            }
+            return new Predicate<String>() {
+                @Override
+                public boolean test(String path) {
+                    return ANT_PATH_MATCHER.match(pattern, path);
+                }
+            };
+        }
+    };
+
     private static final Map<String, RequestContextApiMatcher> API_MATCHER_MAP = new ConcurrentHashMap<>();
+    private static volatile CompiledApiPathMatcher PATH_MATCHER = new CompiledApiPathMatcher(
+        Collections.<ApiDefinition>emptySet(), ANT_MATCHER_FACTORY);
 
     public static Map<String, RequestContextApiMatcher> getApiMatcherMap() {
         return Collections.unmodifiableMap(API_MATCHER_MAP);
     }
 
+    /**
+     * Get the path matcher compiled from current API definitions, which matches all APIs in one path walk.
+     *
+     * @return the compiled path matcher
+     * @since 1.8.7
+     */
+    public static CompiledApiPathMatcher getPathMatcher() {
+        return PATH_MATCHER;
+    }
+
     public static RequestContextApiMatcher getMatcher(final String apiName) {
         if (apiName == null) {
             return null;
@@ -54,15 +89,22 @@ public final class ZuulGatewayApiMatcherManager {
     static synchronized void loadApiDefinitions(/*@Valid*/ Set<ApiDefinition> definitions) {
         if (definitions == null || definitions.isEmpty()) {
             API_MATCHER_MAP.clear();
+            rebuildPathMatcher();
             return;
         }
         for (ApiDefinition definition : definitions) {
-            addApiDefinition(definition);
+            API_MATCHER_MAP.put(definition.getApiName(), new RequestContextApiMatcher(definition));
         }
+        rebuildPathMatcher();
     }
 
-    static void addApiDefinition(ApiDefinition definition) {
+    static synchronized void addApiDefinition(ApiDefinition definition) {
         API_MATCHER_MAP.put(definition.getApiName(), new RequestContextApiMatcher(definition));
+        rebuildPathMatcher();
+    }
+
+    private static void rebuildPathMatcher() {
+        PATH_MATCHER = new CompiledApiPathMatcher(getApiDefinitionSet(), ANT_MATCHER_FACTORY);
     }
 
     private ZuulGatewayApiMatcherManager() {}
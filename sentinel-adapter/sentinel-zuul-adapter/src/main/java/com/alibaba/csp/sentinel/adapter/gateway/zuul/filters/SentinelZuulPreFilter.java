@@ -30,7 +30,6 @@ import com.alibaba.csp.sentinel.adapter.gateway.common.param.RequestItemParser;
 import com.alibaba.csp.sentinel.adapter.gateway.common.rule.GatewayFlowRule;
 import com.alibaba.csp.sentinel.adapter.gateway.zuul.RequestContextItemParser;
 import com.alibaba.csp.sentinel.adapter.gateway.zuul.api.ZuulGatewayApiMatcherManager;
-import com.alibaba.csp.sentinel.adapter.gateway.zuul.api.matcher.RequestContextApiMatcher;
 import com.alibaba.csp.sentinel.adapter.gateway.zuul.callback.ZuulGatewayCallbackManager;
 import com.alibaba.csp.sentinel.adapter.gateway.zuul.constants.ZuulConstant;
 import com.alibaba.csp.sentinel.adapter.gateway.zuul.fallback.BlockResponse;
@@ -161,11 +160,9 @@ public class SentinelZuulPreFilter extends ZuulFilter {
 
     private Set<String> pickMatchingApiDefinitions(RequestContext requestContext) {
         Set<String> apis = new HashSet<>();
-        for (RequestContextApiMatcher matcher : ZuulGatewayApiMatcherManager.getApiMatcherMap().values()) {
-            if (matcher.test(requestContext)) {
-                apis.add(matcher.getApiName());
-            }
-        }
+        HttpServletRequest request = requestContext.getRequest();
+        // Exact paths are matched against the servlet path, while patterns are matched against the request URI.
+        ZuulGatewayApiMatcherManager.getPathMatcher().match(request.getServletPath(), request.getRequestURI(), apis);
         return apis;
     }
 }
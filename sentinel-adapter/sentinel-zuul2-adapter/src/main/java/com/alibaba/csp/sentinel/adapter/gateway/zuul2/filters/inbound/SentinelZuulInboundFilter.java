@@ -20,6 +20,7 @@ import java.util.Deque;
 import java.util.HashSet;
 import java.util.Set;
 import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
 import java.util.function.Function;
 
 import com.alibaba.csp.sentinel.AsyncEntry;
@@ -36,6 +37,7 @@ import com.alibaba.csp.sentinel.adapter.gateway.zuul2.filters.EntryHolder;
 import com.alibaba.csp.sentinel.adapter.gateway.zuul2.filters.endpoint.SentinelZuulEndpoint;
 import com.alibaba.csp.sentinel.context.ContextUtil;
 import com.alibaba.csp.sentinel.slots.block.BlockException;
+import com.alibaba.csp.sentinel.slots.block.flow.QueueingDelayHolder;
 import com.alibaba.csp.sentinel.util.AssertUtil;
 import com.alibaba.csp.sentinel.util.StringUtil;
 import com.netflix.zuul.context.SessionContext;
@@ -133,6 +135,9 @@ public class SentinelZuulInboundFilter extends HttpInboundFilter {
         Deque<EntryHolder> holders = new ArrayDeque<>();
         String routeId = routeExtractor.apply(request);
         String fallBackRoute = routeId;
+        long waitMs;
+        // Take over the queueing wait of rate limiting, so that the I/O thread is never blocked.
+        QueueingDelayHolder.begin();
         try {
             if (StringUtil.isNotBlank(routeId)) {
                 ContextUtil.enter(GATEWAY_CONTEXT_ROUTE_PREFIX + routeId);
@@ -146,7 +151,6 @@ public class SentinelZuulInboundFilter extends HttpInboundFilter {
                 fallBackRoute = apiName;
                 doSentinelEntry(apiName, RESOURCE_MODE_CUSTOM_API_NAME, request, holders);
             }
-            return Observable.just(request);
         } catch (BlockException t) {
             context.put(SentinelZuul2Constants.ZUUL_CTX_SENTINEL_BLOCKED_FLAG, Boolean.TRUE);
             context.put(SentinelZuul2Constants.ZUUL_CTX_SENTINEL_FALLBACK_ROUTE, fallBackRoute);
@@ -158,12 +162,17 @@ public class SentinelZuulInboundFilter extends HttpInboundFilter {
             }
             return Observable.error(t);
         } finally {
+            waitMs = QueueingDelayHolder.end();
             if (!holders.isEmpty()) {
                 context.put(SentinelZuul2Constants.ZUUL_CTX_SENTINEL_ENTRIES_KEY, holders);
             }
             // clear context to avoid another request use incorrect context
             ContextUtil.exit();
         }
+        if (waitMs > 0) {
+            return Observable.just(request).delay(waitMs, TimeUnit.MILLISECONDS);
+        }
+        return Observable.just(request);
     }
 
     private void doSentinelEntry(String resourceName, final int resType, HttpRequestMessage input, Deque<EntryHolder> holders) throws BlockException {
@@ -0,0 +1,85 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import com.alibaba.csp.sentinel.EntryType;
+import com.alibaba.csp.sentinel.ResourceHandle;
+import com.alibaba.csp.sentinel.SphU;
+import com.alibaba.csp.sentinel.config.SentinelConfig;
+import com.alibaba.csp.sentinel.context.ContextUtil;
+import com.alibaba.csp.sentinel.slots.block.BlockException;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmark for the allocation of entering resources, with and without recycling entries and contexts
+ * ({@code csp.sentinel.entry.recycle.enabled}).
+ *
+ * <p>Run with the GC profiler to compare the allocation per operation, for example:
+ * {@code java -jar sentinel-benchmark.jar EntryRecycleBenchmark -prof gc}.</p>
+ */
+@Warmup(iterations = 5)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Benchmark)
+public class EntryRecycleBenchmark {
+
+    private static final String CONTEXT_NAME = "benchmark-recycle-context";
+    private static final String RESOURCE = "benchmark-recycle";
+
+    @Param({"false", "true"})
+    private boolean recycle;
+
+    private ResourceHandle handle;
+
+    @Setup
+    public void prepare() {
+        // Must be set before the first entry, as the switch is resolved only once (every param runs in a new fork).
+        SentinelConfig.setConfig(SentinelConfig.ENTRY_RECYCLE, String.valueOf(recycle));
+        handle = SphU.resolve(RESOURCE, EntryType.OUT);
+    }
+
+    @Benchmark
+    @Threads(1)
+    public void testEntryByName() throws BlockException {
+        SphU.entry(RESOURCE).exit();
+    }
+
+    @Benchmark
+    @Threads(1)
+    public void testEntryByHandle() throws BlockException {
+        SphU.entry(handle).exit();
+    }
+
+    @Benchmark
+    @Threads(1)
+    public void testEntryByHandleInContext() throws BlockException {
+        ContextUtil.enter(CONTEXT_NAME);
+        SphU.entry(handle).exit();
+        ContextUtil.exit();
+    }
+}
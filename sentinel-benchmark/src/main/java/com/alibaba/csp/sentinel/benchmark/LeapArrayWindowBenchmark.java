@@ -0,0 +1,108 @@
+/*
+ * Copyright 1999-2022 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import com.alibaba.csp.sentinel.config.SentinelConfig;
+import com.alibaba.csp.sentinel.slots.statistic.base.WindowWrap;
+import com.alibaba.csp.sentinel.slots.statistic.data.MetricBucket;
+import com.alibaba.csp.sentinel.slots.statistic.metric.BucketLeapArray;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmark for {@code LeapArray#currentWindow()} latency at window edges, comparing the update-lock
+ * reset with the CAS reset ({@code csp.sentinel.statistic.window.cas.reset}).
+ *
+ * <p>The window length is 1 ms, so almost every sample crosses a bucket boundary. Run with the
+ * sample time mode to get percentiles (e.g. p99), for example:
+ * {@code java -jar sentinel-benchmark.jar LeapArrayWindowBenchmark -p casReset=false,true}.</p>
+ */
+@Warmup(iterations = 5)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Benchmark)
+public class LeapArrayWindowBenchmark {
+
+    @Param({"false", "true"})
+    private boolean casReset;
+
+    private BucketLeapArray leapArray;
+
+    @Setup
+    public void prepare() {
+        SentinelConfig.setConfig(SentinelConfig.STATISTIC_WINDOW_CAS_RESET, String.valueOf(casReset));
+        leapArray = new BucketLeapArray(2, 2);
+    }
+
+    @TearDown
+    public void tearDown() {
+        SentinelConfig.removeConfig(SentinelConfig.STATISTIC_WINDOW_CAS_RESET);
+    }
+
+    private MetricBucket passInCurrentWindow() {
+        WindowWrap<MetricBucket> wrap = leapArray.currentWindow();
+        wrap.value().addPass(1);
+        return wrap.value();
+    }
+
+    @Benchmark
+    @Threads(1)
+    public MetricBucket testCurrentWindow1Thread() {
+        return passInCurrentWindow();
+    }
+
+    @Benchmark
+    @Threads(4)
+    public MetricBucket testCurrentWindow4Threads() {
+        return passInCurrentWindow();
+    }
+
+    @Benchmark
+    @Threads(16)
+    public MetricBucket testCurrentWindow16Threads() {
+        return passInCurrentWindow();
+    }
+
+    @Benchmark
+    @Threads(32)
+    public MetricBucket testCurrentWindow32Threads() {
+        return passInCurrentWindow();
+    }
+
+    @Benchmark
+    @Threads(64)
+    public MetricBucket testCurrentWindow64Threads() {
+        return passInCurrentWindow();
+    }
+
+    @Benchmark
+    @Threads(128)
+    public MetricBucket testCurrentWindow128Threads() {
+        return passInCurrentWindow();
+    }
+}
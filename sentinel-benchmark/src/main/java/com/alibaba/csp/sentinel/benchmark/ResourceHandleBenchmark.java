@@ -0,0 +1,97 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.benchmark;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import com.alibaba.csp.sentinel.EntryType;
+import com.alibaba.csp.sentinel.ResourceHandle;
+import com.alibaba.csp.sentinel.SphU;
+import com.alibaba.csp.sentinel.slots.block.BlockException;
+import com.alibaba.csp.sentinel.slots.block.degrade.DegradeRule;
+import com.alibaba.csp.sentinel.slots.block.degrade.DegradeRuleManager;
+import com.alibaba.csp.sentinel.slots.block.flow.FlowRule;
+import com.alibaba.csp.sentinel.slots.block.flow.FlowRuleManager;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmark for entering a resource by name ({@link SphU#entry(String)}) compared with entering
+ * a pre-resolved {@link ResourceHandle}, with flow and degrade rules loaded for many resources.
+ *
+ * <p>For example: {@code java -jar sentinel-benchmark.jar ResourceHandleBenchmark -prof gc}.</p>
+ */
+@Warmup(iterations = 5)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Benchmark)
+public class ResourceHandleBenchmark {
+
+    private static final String RESOURCE = "benchmark-handle";
+    private static final int RULE_COUNT = 1000;
+
+    private ResourceHandle handle;
+
+    @Setup
+    public void prepare() {
+        List<FlowRule> flowRules = new ArrayList<>();
+        List<DegradeRule> degradeRules = new ArrayList<>();
+        for (int i = 0; i < RULE_COUNT; i++) {
+            flowRules.add(new FlowRule(RESOURCE + i).setCount(Integer.MAX_VALUE));
+            degradeRules.add(new DegradeRule(RESOURCE + i).setCount(1000).setTimeWindow(10));
+        }
+        flowRules.add(new FlowRule(RESOURCE).setCount(Integer.MAX_VALUE));
+        degradeRules.add(new DegradeRule(RESOURCE).setCount(1000).setTimeWindow(10));
+        FlowRuleManager.loadRules(flowRules);
+        DegradeRuleManager.loadRules(degradeRules);
+
+        handle = SphU.resolve(RESOURCE, EntryType.OUT);
+    }
+
+    @Benchmark
+    @Threads(1)
+    public void testEntryByName1Thread() throws BlockException {
+        SphU.entry(RESOURCE).exit();
+    }
+
+    @Benchmark
+    @Threads(1)
+    public void testEntryByHandle1Thread() throws BlockException {
+        SphU.entry(handle).exit();
+    }
+
+    @Benchmark
+    @Threads(8)
+    public void testEntryByName8Threads() throws BlockException {
+        SphU.entry(RESOURCE).exit();
+    }
+
+    @Benchmark
+    @Threads(8)
+    public void testEntryByHandle8Threads() throws BlockException {
+        SphU.entry(handle).exit();
+    }
+}
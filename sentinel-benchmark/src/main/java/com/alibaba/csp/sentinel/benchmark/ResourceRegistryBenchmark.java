@@ -0,0 +1,121 @@
+/*
+ * Copyright 1999-2022 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.benchmark;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import com.alibaba.csp.sentinel.EntryType;
+import com.alibaba.csp.sentinel.slotchain.ResourceWrapper;
+import com.alibaba.csp.sentinel.slotchain.StringResourceWrapper;
+import com.alibaba.csp.sentinel.util.ConcurrentRegistry;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmark for registering and looking up resources with the copy-on-write map previously used by
+ * {@code CtSph} and {@code ClusterBuilderSlot}, compared with {@link ConcurrentRegistry}.
+ */
+@Fork(1)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Benchmark)
+public class ResourceRegistryBenchmark {
+
+    @Param({"1000", "10000", "100000"})
+    private int resourceCount;
+
+    private ResourceWrapper[] resources;
+
+    private final Object lock = new Object();
+    private volatile Map<ResourceWrapper, Object> cowMap;
+    private ConcurrentRegistry<ResourceWrapper, Object> registry;
+
+    @Setup
+    public void prepare() {
+        resources = new ResourceWrapper[resourceCount];
+        for (int i = 0; i < resourceCount; i++) {
+            resources[i] = new StringResourceWrapper("/api/resource/" + i, EntryType.IN);
+        }
+        cowMap = buildCopyOnWrite();
+        registry = buildRegistry();
+    }
+
+    private Map<ResourceWrapper, Object> buildCopyOnWrite() {
+        Map<ResourceWrapper, Object> map = new HashMap<>();
+        cowMap = map;
+        for (ResourceWrapper resource : resources) {
+            if (cowMap.get(resource) == null) {
+                synchronized (lock) {
+                    if (cowMap.get(resource) == null) {
+                        Map<ResourceWrapper, Object> newMap = new HashMap<>(cowMap.size() + 1);
+                        newMap.putAll(cowMap);
+                        newMap.put(resource, new Object());
+                        cowMap = newMap;
+                    }
+                }
+            }
+        }
+        return cowMap;
+    }
+
+    private ConcurrentRegistry<ResourceWrapper, Object> buildRegistry() {
+        ConcurrentRegistry<ResourceWrapper, Object> r = new ConcurrentRegistry<>();
+        for (ResourceWrapper resource : resources) {
+            r.getOrCreate(resource, k -> new Object());
+        }
+        return r;
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    public Map<ResourceWrapper, Object> testRegisterCopyOnWrite() {
+        return buildCopyOnWrite();
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    public ConcurrentRegistry<ResourceWrapper, Object> testRegisterConcurrentRegistry() {
+        return buildRegistry();
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.AverageTime)
+    @OutputTimeUnit(TimeUnit.NANOSECONDS)
+    public Object testLookupCopyOnWrite() {
+        return cowMap.get(resources[ThreadLocalRandom.current().nextInt(resourceCount)]);
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.AverageTime)
+    @OutputTimeUnit(TimeUnit.NANOSECONDS)
+    public Object testLookupConcurrentRegistry() {
+        return registry.get(resources[ThreadLocalRandom.current().nextInt(resourceCount)]);
+    }
+}
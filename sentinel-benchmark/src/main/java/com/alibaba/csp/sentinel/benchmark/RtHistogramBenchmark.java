@@ -0,0 +1,102 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.benchmark;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import com.alibaba.csp.sentinel.config.SentinelConfig;
+import com.alibaba.csp.sentinel.node.StatisticNode;
+import com.alibaba.csp.sentinel.slots.statistic.data.RtHistogram;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmark for the cost of recording RT on the statistic hot path, with and without RT histograms
+ * ({@code csp.sentinel.statistic.rt.histogram.enabled}).
+ *
+ * <p>Run with the GC profiler to check that recording doesn't allocate, for example:
+ * {@code java -jar sentinel-benchmark.jar RtHistogramBenchmark -p histogram=false,true -prof gc}.</p>
+ */
+@Warmup(iterations = 5)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Benchmark)
+public class RtHistogramBenchmark {
+
+    @Param({"false", "true"})
+    private boolean histogram;
+
+    private StatisticNode node;
+    private RtHistogram rtHistogram;
+
+    @Setup
+    public void prepare() {
+        // Must be set before the first metric bucket is created, as the switch is resolved only once.
+        SentinelConfig.setConfig(SentinelConfig.STATISTIC_RT_HISTOGRAM, String.valueOf(histogram));
+        node = new StatisticNode();
+        rtHistogram = new RtHistogram(SentinelConfig.statisticMaxRt());
+    }
+
+    @TearDown
+    public void tearDown() {
+        SentinelConfig.removeConfig(SentinelConfig.STATISTIC_RT_HISTOGRAM);
+    }
+
+    private static long nextRt() {
+        return ThreadLocalRandom.current().nextInt(200);
+    }
+
+    @Benchmark
+    @Threads(1)
+    public void testAddRtAndSuccess1Thread() {
+        node.addRtAndSuccess(nextRt(), 1);
+    }
+
+    @Benchmark
+    @Threads(8)
+    public void testAddRtAndSuccess8Threads() {
+        node.addRtAndSuccess(nextRt(), 1);
+    }
+
+    @Benchmark
+    @Threads(1)
+    public void testHistogramRecord1Thread() {
+        rtHistogram.record(nextRt());
+    }
+
+    @Benchmark
+    @Threads(8)
+    public void testHistogramRecord8Threads() {
+        rtHistogram.record(nextRt());
+    }
+
+    @Benchmark
+    @Threads(1)
+    public double testRtPercentile() {
+        return node.rtPercentile(99);
+    }
+}
@@ -0,0 +1,115 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import com.alibaba.csp.sentinel.Entry;
+import com.alibaba.csp.sentinel.EntryType;
+import com.alibaba.csp.sentinel.SphU;
+import com.alibaba.csp.sentinel.config.SentinelConfig;
+import com.alibaba.csp.sentinel.context.Context;
+import com.alibaba.csp.sentinel.context.ContextUtil;
+import com.alibaba.csp.sentinel.node.Node;
+import com.alibaba.csp.sentinel.slotchain.DefaultProcessorSlotChain;
+import com.alibaba.csp.sentinel.slotchain.ProcessorSlotChain;
+import com.alibaba.csp.sentinel.slotchain.ResourceWrapper;
+import com.alibaba.csp.sentinel.slotchain.StringResourceWrapper;
+import com.alibaba.csp.sentinel.slots.block.BlockException;
+import com.alibaba.csp.sentinel.slots.block.authority.AuthoritySlot;
+import com.alibaba.csp.sentinel.slots.block.degrade.DegradeSlot;
+import com.alibaba.csp.sentinel.slots.block.flow.FlowSlot;
+import com.alibaba.csp.sentinel.slots.system.SystemSlot;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmark for entering resources without rules, with and without specialized slot chains
+ * ({@code csp.sentinel.slot.chain.specialize.enabled}).
+ *
+ * <p>{@link #testRuleCheckingSlots()} only goes through the default rule checking slots, which are the part
+ * of the slot chain skipped for resources without rules, while the other benchmarks also include the node
+ * lookup and statistics of the entries.</p>
+ *
+ * <p>For example: {@code java -jar sentinel-benchmark.jar SlotChainSpecializeBenchmark -prof gc}.</p>
+ */
+@Warmup(iterations = 5)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Benchmark)
+public class SlotChainSpecializeBenchmark {
+
+    private static final String RESOURCE = "benchmark-specialize";
+
+    @Param({"true", "false"})
+    private boolean specialize;
+
+    private ProcessorSlotChain ruleCheckingChain;
+    private Entry outerEntry;
+    private Context context;
+    private Node node;
+    private final ResourceWrapper resource = new StringResourceWrapper(RESOURCE, EntryType.OUT);
+
+    @Setup
+    public void prepare() throws BlockException {
+        // Must be set before the first entry, as the switch is resolved when the slot chain is created.
+        SentinelConfig.setConfig(SentinelConfig.SLOT_CHAIN_SPECIALIZE, String.valueOf(specialize));
+
+        ruleCheckingChain = new DefaultProcessorSlotChain();
+        ruleCheckingChain.addLast(new AuthoritySlot());
+        ruleCheckingChain.addLast(new SystemSlot());
+        ruleCheckingChain.addLast(new FlowSlot());
+        ruleCheckingChain.addLast(new DegradeSlot());
+        // The slots expect the current entry and node of the context.
+        outerEntry = SphU.entry(RESOURCE);
+        context = ContextUtil.getContext();
+        node = context.getCurNode();
+    }
+
+    @TearDown
+    public void tearDown() {
+        outerEntry.exit();
+    }
+
+    @Benchmark
+    @Threads(1)
+    public void testRuleCheckingSlots() throws Throwable {
+        ruleCheckingChain.entry(context, resource, node, 1, false);
+        ruleCheckingChain.exit(context, resource, 1);
+    }
+
+    @Benchmark
+    @Threads(1)
+    public void testEntryWithoutRules1Thread() throws BlockException {
+        SphU.entry(RESOURCE).exit();
+    }
+
+    @Benchmark
+    @Threads(8)
+    public void testEntryWithoutRules8Threads() throws BlockException {
+        SphU.entry(RESOURCE).exit();
+    }
+}
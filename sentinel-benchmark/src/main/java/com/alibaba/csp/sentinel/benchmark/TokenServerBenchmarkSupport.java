@@ -0,0 +1,104 @@
+/*
+ * Copyright 1999-2022 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.benchmark;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import com.alibaba.csp.sentinel.cluster.ClusterConstants;
+import com.alibaba.csp.sentinel.cluster.client.NettyTransportClient;
+import com.alibaba.csp.sentinel.cluster.client.config.ClusterClientConfig;
+import com.alibaba.csp.sentinel.cluster.client.config.ClusterClientConfigManager;
+import com.alibaba.csp.sentinel.cluster.flow.rule.ClusterFlowRuleManager;
+import com.alibaba.csp.sentinel.cluster.registry.ConfigSupplierRegistry;
+import com.alibaba.csp.sentinel.cluster.request.ClusterRequest;
+import com.alibaba.csp.sentinel.cluster.request.data.FlowRequestData;
+import com.alibaba.csp.sentinel.cluster.server.NettyTransportServer;
+import com.alibaba.csp.sentinel.cluster.server.ServerConstants;
+import com.alibaba.csp.sentinel.cluster.server.config.ClusterServerConfigManager;
+import com.alibaba.csp.sentinel.cluster.server.config.ServerFlowConfig;
+import com.alibaba.csp.sentinel.cluster.server.config.ServerTransportConfig;
+import com.alibaba.csp.sentinel.init.InitExecutor;
+import com.alibaba.csp.sentinel.slots.block.ClusterRuleConstant;
+import com.alibaba.csp.sentinel.slots.block.flow.ClusterFlowConfig;
+import com.alibaba.csp.sentinel.slots.block.flow.FlowRule;
+
+/**
+ * Shared setup of the token server benchmarks: a local token server with the given shard count,
+ * and cluster flow rules that never block, so that only the request path is measured.
+ */
+final class TokenServerBenchmarkSupport {
+
+    static final long FLOW_ID_BASE = 100000L;
+    /**
+     * Generous timeout, so that queueing under saturation is measured as throughput rather than failures.
+     */
+    static final int REQUEST_TIMEOUT_MS = 5000;
+
+    static NettyTransportServer startServer(int port, int shardCount, int flowCount) throws Exception {
+        InitExecutor.doInit();
+        String namespace = ConfigSupplierRegistry.getNamespaceSupplier().get();
+
+        ClusterServerConfigManager.loadGlobalFlowConfig(new ServerFlowConfig().setMaxAllowedQps(1e9));
+        ClusterServerConfigManager.loadGlobalTransportConfig(new ServerTransportConfig()
+            .setPort(port).setShardCount(shardCount));
+        ClusterServerConfigManager.loadServerNamespaceSet(Collections.singleton(namespace));
+
+        List<FlowRule> rules = new ArrayList<>(flowCount);
+        for (int i = 0; i < flowCount; i++) {
+            rules.add(new FlowRule("benchmark-resource-" + i)
+                .setCount(Integer.MAX_VALUE)
+                .setClusterMode(true)
+                .setClusterConfig(new ClusterFlowConfig()
+                    .setFlowId(FLOW_ID_BASE + i)
+                    .setThresholdType(ClusterRuleConstant.FLOW_THRESHOLD_GLOBAL)));
+        }
+        ClusterFlowRuleManager.loadRules(namespace, rules);
+
+        NettyTransportServer server = new NettyTransportServer(port);
+        server.start();
+        long deadline = System.currentTimeMillis() + 10000;
+        while (server.getCurrentState() != ServerConstants.SERVER_STATUS_STARTED) {
+            if (System.currentTimeMillis() > deadline) {
+                throw new IllegalStateException("Token server cannot start at port " + port);
+            }
+            Thread.sleep(10);
+        }
+        return server;
+    }
+
+    static NettyTransportClient startClient(int port) throws Exception {
+        ClusterClientConfigManager.applyNewConfig(new ClusterClientConfig().setRequestTimeout(REQUEST_TIMEOUT_MS));
+        NettyTransportClient client = new NettyTransportClient("127.0.0.1", port);
+        client.start();
+        long deadline = System.currentTimeMillis() + 10000;
+        while (!client.isReady()) {
+            if (System.currentTimeMillis() > deadline) {
+                throw new IllegalStateException("Token client cannot connect to port " + port);
+            }
+            Thread.sleep(10);
+        }
+        return client;
+    }
+
+    static ClusterRequest<FlowRequestData> flowRequest(long flowId) {
+        return new ClusterRequest<>(ClusterConstants.MSG_TYPE_FLOW, new FlowRequestData()
+            .setFlowId(flowId).setCount(1).setPriority(false));
+    }
+
+    private TokenServerBenchmarkSupport() {}
+}
@@ -0,0 +1,89 @@
+/*
+ * Copyright 1999-2022 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.benchmark;
+
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import com.alibaba.csp.sentinel.cluster.client.NettyTransportClient;
+import com.alibaba.csp.sentinel.cluster.server.NettyTransportServer;
+
+/**
+ * <p>Open-loop load generator for the token server. It starts a local token server with the given
+ * shard count, keeps up to {@code pipelineDepth} asynchronous flow requests in flight over one
+ * client connection, and prints the completed requests per second.</p>
+ *
+ * <p>Usage: {@code TokenServerLoadGenerator [shardCount] [flowCount] [pipelineDepth] [seconds] [port]}</p>
+ */
+public class TokenServerLoadGenerator {
+
+    public static void main(String[] args) throws Exception {
+        int shardCount = intArg(args, 0, 4);
+        int flowCount = intArg(args, 1, 1024);
+        int pipelineDepth = intArg(args, 2, 512);
+        int seconds = intArg(args, 3, 30);
+        int port = intArg(args, 4, 18732);
+
+        NettyTransportServer server = TokenServerBenchmarkSupport.startServer(port, shardCount, flowCount);
+        NettyTransportClient client = TokenServerBenchmarkSupport.startClient(port);
+
+        final Semaphore inFlight = new Semaphore(pipelineDepth);
+        final LongAdder completed = new LongAdder();
+        final LongAdder failed = new LongAdder();
+        System.out.printf("Load started: shardCount=%d, flowCount=%d, pipelineDepth=%d, seconds=%d%n",
+            shardCount, flowCount, pipelineDepth, seconds);
+
+        long start = System.nanoTime();
+        long end = start + TimeUnit.SECONDS.toNanos(seconds);
+        long nextReport = start + TimeUnit.SECONDS.toNanos(1);
+        long lastCompleted = 0;
+        while (System.nanoTime() < end) {
+            if (!inFlight.tryAcquire(10, TimeUnit.MILLISECONDS)) {
+                continue;
+            }
+            long flowId = TokenServerBenchmarkSupport.FLOW_ID_BASE + ThreadLocalRandom.current().nextInt(flowCount);
+            client.sendRequestAsync(TokenServerBenchmarkSupport.flowRequest(flowId)).whenComplete((r, ex) -> {
+                if (ex == null) {
+                    completed.increment();
+                } else {
+                    failed.increment();
+                }
+                inFlight.release();
+            });
+            long now = System.nanoTime();
+            if (now >= nextReport) {
+                long total = completed.sum();
+                System.out.printf("qps=%d, failed=%d%n", total - lastCompleted, failed.sum());
+                lastCompleted = total;
+                nextReport += TimeUnit.SECONDS.toNanos(1);
+            }
+        }
+        inFlight.acquire(pipelineDepth);
+        double elapsedSec = (System.nanoTime() - start) / 1e9;
+        System.out.printf("Load finished: avg qps=%.0f, completed=%d, failed=%d%n",
+            completed.sum() / elapsedSec, completed.sum(), failed.sum());
+
+        client.stop();
+        server.stop();
+        System.exit(0);
+    }
+
+    private static int intArg(String[] args, int index, int defaultValue) {
+        return args.length > index ? Integer.parseInt(args[index]) : defaultValue;
+    }
+}
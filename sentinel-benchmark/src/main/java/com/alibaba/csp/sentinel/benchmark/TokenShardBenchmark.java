@@ -0,0 +1,81 @@
+/*
+ * Copyright 1999-2022 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.benchmark;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import com.alibaba.csp.sentinel.cluster.client.NettyTransportClient;
+import com.alibaba.csp.sentinel.cluster.response.ClusterResponse;
+import com.alibaba.csp.sentinel.cluster.server.NettyTransportServer;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmark of the token server throughput with different shard counts (0 means no sharding).
+ * All benchmark threads share one client connection, which is the case where the requests are
+ * otherwise handled by a single I/O thread of the server.
+ */
+@Fork(1)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Threads(32)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@State(Scope.Benchmark)
+public class TokenShardBenchmark {
+
+    private static final int PORT = 18731;
+
+    @Param({"0", "1", "2", "4", "8"})
+    private int shardCount;
+
+    @Param({"1024"})
+    private int flowCount;
+
+    private NettyTransportServer server;
+    private NettyTransportClient client;
+
+    @Setup
+    public void setUp() throws Exception {
+        server = TokenServerBenchmarkSupport.startServer(PORT, shardCount, flowCount);
+        client = TokenServerBenchmarkSupport.startClient(PORT);
+    }
+
+    @TearDown
+    public void tearDown() throws Exception {
+        client.stop();
+        server.stop();
+    }
+
+    @Benchmark
+    public ClusterResponse requestToken() throws Exception {
+        long flowId = TokenServerBenchmarkSupport.FLOW_ID_BASE + ThreadLocalRandom.current().nextInt(flowCount);
+        return client.sendRequest(TokenServerBenchmarkSupport.flowRequest(flowId));
+    }
+}
@@ -15,7 +15,13 @@
  */
 package com.alibaba.csp.sentinel.cluster.client;
 
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
 import java.util.concurrent.atomic.AtomicBoolean;
 
 import com.alibaba.csp.sentinel.cluster.ClusterConstants;
@@ -28,11 +34,15 @@ import com.alibaba.csp.sentinel.cluster.client.config.ClusterClientAssignConfig;
 import com.alibaba.csp.sentinel.cluster.client.config.ClusterClientConfigManager;
 import com.alibaba.csp.sentinel.cluster.client.config.ServerChangeObserver;
 import com.alibaba.csp.sentinel.cluster.log.ClusterClientStatLogUtil;
+import com.alibaba.csp.sentinel.cluster.partition.ConsistentHashRing;
 import com.alibaba.csp.sentinel.cluster.request.ClusterRequest;
+import com.alibaba.csp.sentinel.cluster.request.data.FlowLeaseRequestData;
 import com.alibaba.csp.sentinel.cluster.request.data.FlowRequestData;
 import com.alibaba.csp.sentinel.cluster.request.data.ParamFlowRequestData;
 import com.alibaba.csp.sentinel.cluster.response.ClusterResponse;
+import com.alibaba.csp.sentinel.cluster.response.data.FlowLeaseResponseData;
 import com.alibaba.csp.sentinel.cluster.response.data.FlowTokenResponseData;
+import com.alibaba.csp.sentinel.concurrent.NamedThreadFactory;
 import com.alibaba.csp.sentinel.log.RecordLog;
 import com.alibaba.csp.sentinel.util.StringUtil;
 
@@ -44,11 +54,24 @@ import com.alibaba.csp.sentinel.util.StringUtil;
  */
 public class DefaultClusterTokenClient implements ClusterTokenClient {
 
+    static final String PARTITIONED_SERVER_TYPE = "partitioned";
+
     private ClusterTransportClient transportClient;
     private TokenServerDescriptor serverDescriptor;
+    private List<String> partitionServers = Collections.emptyList();
 
     private final AtomicBoolean shouldStart = new AtomicBoolean(false);
 
+    /**
+     * Scheduler of request batching, only created once the client is started with batching enabled
+     * (positive batch window), and shut down when the client is stopped.
+     */
+    private volatile ScheduledExecutorService batchScheduler;
+
+    private final FlowRequestBatcher batcher = new FlowRequestBatcher(() -> transportClient,
+        this::sendFlowRequestAsync, this::executeBatchTask);
+    private final TokenRequestCoalescer coalescer = new TokenRequestCoalescer(batcher, () -> batchScheduler);
+
     public DefaultClusterTokenClient() {
         ClusterClientConfigManager.addServerChangeObserver(new ServerChangeObserver() {
             @Override
@@ -63,6 +86,9 @@ public class DefaultClusterTokenClient implements ClusterTokenClient {
         if (descriptor == null || config == null) {
             return false;
         }
+        if (config.isPartitioned() || !partitionServers.isEmpty()) {
+            return config.isPartitioned() && partitionServers.equals(config.getPartitionServers());
+        }
         return descriptor.getHost().equals(config.getServerHost()) && descriptor.getPort() == config.getServerPort();
     }
 
@@ -72,13 +98,13 @@ public class DefaultClusterTokenClient implements ClusterTokenClient {
         }
         String host = ClusterClientConfigManager.getServerHost();
         int port = ClusterClientConfigManager.getServerPort();
-        if (StringUtil.isBlank(host) || port <= 0) {
+        List<String> partitions = ClusterClientConfigManager.getPartitionServers();
+        if (partitions.isEmpty() && (StringUtil.isBlank(host) || port <= 0)) {
             return;
         }
 
         try {
-            this.transportClient = new NettyTransportClient(host, port);
-            this.serverDescriptor = new TokenServerDescriptor(host, port);
+            createTransportClient(host, port, partitions);
             RecordLog.info("[DefaultClusterTokenClient] New client created: {}", serverDescriptor);
         } catch (Exception ex) {
             RecordLog.warn("[DefaultClusterTokenClient] Failed to initialize new token client", ex);
@@ -94,8 +120,9 @@ public class DefaultClusterTokenClient implements ClusterTokenClient {
                 transportClient.stop();
             }
             // Replace with new, even if the new client is not ready.
-            this.transportClient = new NettyTransportClient(config.getServerHost(), config.getServerPort());
-            this.serverDescriptor = new TokenServerDescriptor(config.getServerHost(), config.getServerPort());
+            Integer port = config.getServerPort();
+            createTransportClient(config.getServerHost(), port == null ? 0 : port,
+                config.isPartitioned() ? config.getPartitionServers() : Collections.<String>emptyList());
             startClientIfScheduled();
             RecordLog.info("[DefaultClusterTokenClient] New client created: {}", serverDescriptor);
         } catch (Exception ex) {
@@ -103,6 +130,22 @@ public class DefaultClusterTokenClient implements ClusterTokenClient {
         }
     }
 
+    private void createTransportClient(String host, int port, List<String> partitions) {
+        if (partitions.isEmpty()) {
+            this.transportClient = new NettyTransportClient(host, port);
+            this.serverDescriptor = new TokenServerDescriptor(host, port);
+        } else {
+            PartitionedTransportClient client = new PartitionedTransportClient(partitions,
+                d -> new NettyTransportClient(d.getHost(), d.getPort()));
+            // The descriptor of partitioned mode refers to the first server of the ring.
+            TokenServerDescriptor first = ConsistentHashRing.parseAddress(client.getRing().getServers().get(0));
+            this.transportClient = client;
+            this.serverDescriptor = new TokenServerDescriptor(first.getHost(), first.getPort())
+                .setType(PARTITIONED_SERVER_TYPE);
+        }
+        this.partitionServers = new ArrayList<>(partitions);
+    }
+
     private void startClientIfScheduled() throws Exception {
         if (shouldStart.get()) {
             if (transportClient != null) {
@@ -121,9 +164,38 @@ public class DefaultClusterTokenClient implements ClusterTokenClient {
         }
     }
 
+    private synchronized void startBatchSchedulerIfEnabled() {
+        if (batchScheduler == null && shouldStart.get() && ClusterClientConfigManager.getBatchWindowMicros() > 0) {
+            batchScheduler = new ScheduledThreadPoolExecutor(1,
+                new NamedThreadFactory("sentinel-cluster-token-batch-scheduler", true));
+        }
+    }
+
+    private synchronized void stopBatchScheduler() {
+        if (batchScheduler != null) {
+            // Delayed flushes already scheduled are still executed after shutdown.
+            batchScheduler.shutdown();
+            batchScheduler = null;
+        }
+    }
+
+    boolean isBatchSchedulerStarted() {
+        return batchScheduler != null;
+    }
+
+    private void executeBatchTask(Runnable task) {
+        ScheduledExecutorService scheduler = batchScheduler;
+        if (scheduler == null) {
+            task.run();
+        } else {
+            scheduler.execute(task);
+        }
+    }
+
     @Override
     public void start() throws Exception {
         if (shouldStart.compareAndSet(false, true)) {
+            startBatchSchedulerIfEnabled();
             startClientIfScheduled();
         }
     }
@@ -131,6 +203,7 @@ public class DefaultClusterTokenClient implements ClusterTokenClient {
     @Override
     public void stop() throws Exception {
         stopClientIfStarted();
+        stopBatchScheduler();
     }
 
     @Override
@@ -164,6 +237,46 @@ public class DefaultClusterTokenClient implements ClusterTokenClient {
         }
     }
 
+    /**
+     * Request tokens without blocking the caller. Concurrent requests of the same rule within
+     * {@link ClusterClientConfigManager#getBatchWindowMicros()} are coalesced into one request
+     * (if the merged request is blocked, each of them is requested again on its own, see
+     * {@link TokenRequestCoalescer}), and requests of different rules are multiplexed into batch frames if the server supports it.
+     * Note that the returned future may be completed in the I/O thread of the transport client.
+     */
+    @Override
+    public CompletableFuture<TokenResult> requestTokenAsync(Long flowId, int acquireCount, boolean prioritized) {
+        if (notValidRequest(flowId, acquireCount)) {
+            return CompletableFuture.completedFuture(badRequest());
+        }
+        if (batchScheduler == null) {
+            // Batching may be enabled by config after the client is started.
+            startBatchSchedulerIfEnabled();
+        }
+        return coalescer.request(flowId, acquireCount, prioritized, ClusterClientConfigManager.getBatchWindowMicros());
+    }
+
+    private CompletableFuture<TokenResult> sendFlowRequestAsync(Long flowId, int acquireCount, boolean prioritized) {
+        ClusterTransportClient client = transportClient;
+        if (client == null) {
+            RecordLog.warn(
+                "[DefaultClusterTokenClient] Client not created, please check your config for cluster client");
+            return CompletableFuture.completedFuture(clientFail());
+        }
+        FlowRequestData data = new FlowRequestData().setCount(acquireCount)
+            .setFlowId(flowId).setPriority(prioritized);
+        ClusterRequest<FlowRequestData> request = new ClusterRequest<>(ClusterConstants.MSG_TYPE_FLOW, data);
+        return client.sendRequestAsync(request).handle((response, ex) -> {
+            if (ex != null) {
+                ClusterClientStatLogUtil.log(ex.getMessage());
+                return clientFail();
+            }
+            TokenResult result = toTokenResult(response);
+            logForResult(result);
+            return result;
+        });
+    }
+
     @Override
     public TokenResult requestParamToken(Long flowId, int acquireCount, Collection<Object> params) {
         if (notValidRequest(flowId, acquireCount) || params == null || params.isEmpty()) {
@@ -182,6 +295,56 @@ public class DefaultClusterTokenClient implements ClusterTokenClient {
         }
     }
 
+    @Override
+    public TokenResult requestTokenLease(Long flowId, int leaseCount, int leaseTimeInMs) {
+        if (notValidRequest(flowId, leaseCount) || leaseTimeInMs <= 0) {
+            return badRequest();
+        }
+        if (transportClient == null) {
+            RecordLog.warn(
+                "[DefaultClusterTokenClient] Client not created, please check your config for cluster client");
+            return clientFail();
+        }
+        FlowLeaseRequestData data = new FlowLeaseRequestData().setFlowId(flowId)
+            .setCount(leaseCount).setLeaseTimeInMs(leaseTimeInMs);
+        ClusterRequest<FlowLeaseRequestData> request = new ClusterRequest<>(ClusterConstants.MSG_TYPE_FLOW_LEASE,
+            data);
+        try {
+            ClusterResponse response = transportClient.sendRequest(request);
+            TokenResult result = new TokenResult(response.getStatus());
+            if (response.getData() != null) {
+                FlowLeaseResponseData responseData = (FlowLeaseResponseData)response.getData();
+                result.setRemaining(responseData.getCount());
+                result.setTokenId(responseData.getLeaseId());
+            }
+            logForResult(result);
+            return result;
+        } catch (Exception ex) {
+            ClusterClientStatLogUtil.log(ex.getMessage());
+            return clientFail();
+        }
+    }
+
+    /**
+     * Return the unused tokens of the lease without waiting for the response.
+     */
+    @Override
+    public void releaseTokenLease(Long leaseId, int unusedCount) {
+        ClusterTransportClient client = transportClient;
+        if (client == null || leaseId == null || leaseId <= 0) {
+            return;
+        }
+        FlowLeaseRequestData data = new FlowLeaseRequestData().setReleaseLeaseId(leaseId)
+            .setReleaseCount(unusedCount);
+        ClusterRequest<FlowLeaseRequestData> request = new ClusterRequest<>(ClusterConstants.MSG_TYPE_FLOW_LEASE,
+            data);
+        client.sendRequestAsync(request).whenComplete((response, ex) -> {
+            if (ex != null) {
+                ClusterClientStatLogUtil.log(ex.getMessage());
+            }
+        });
+    }
+
     @Override
     public TokenResult requestConcurrentToken(String clientAddress, Long ruleId, int acquireCount) {
         return null;
@@ -199,6 +362,9 @@ public class DefaultClusterTokenClient implements ClusterTokenClient {
             case TokenResultStatus.TOO_MANY_REQUEST:
                 ClusterClientStatLogUtil.log(ClusterErrorMessages.TOO_MANY_REQUESTS);
                 break;
+            case TokenResultStatus.NOT_OWNER:
+                ClusterClientStatLogUtil.log(ClusterErrorMessages.NOT_OWNER_SERVER);
+                break;
             default:
         }
     }
@@ -209,7 +375,10 @@ public class DefaultClusterTokenClient implements ClusterTokenClient {
                 "[DefaultClusterTokenClient] Client not created, please check your config for cluster client");
             return clientFail();
         }
-        ClusterResponse response = transportClient.sendRequest(request);
+        return toTokenResult(transportClient.sendRequest(request));
+    }
+
+    private TokenResult toTokenResult(ClusterResponse response) {
         TokenResult result = new TokenResult(response.getStatus());
         if (response.getData() != null) {
             FlowTokenResponseData responseData = (FlowTokenResponseData)response.getData();
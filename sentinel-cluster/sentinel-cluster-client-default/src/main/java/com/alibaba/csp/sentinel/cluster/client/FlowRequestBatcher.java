@@ -0,0 +1,185 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.cluster.client;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Supplier;
+
+import com.alibaba.csp.sentinel.cluster.ClusterConstants;
+import com.alibaba.csp.sentinel.cluster.ClusterTransportClient;
+import com.alibaba.csp.sentinel.cluster.TokenResult;
+import com.alibaba.csp.sentinel.cluster.TokenResultStatus;
+import com.alibaba.csp.sentinel.cluster.client.TokenRequestCoalescer.TokenRequestSender;
+import com.alibaba.csp.sentinel.cluster.request.ClusterRequest;
+import com.alibaba.csp.sentinel.cluster.request.data.FlowBatchRequestData;
+import com.alibaba.csp.sentinel.cluster.response.ClusterResponse;
+import com.alibaba.csp.sentinel.cluster.response.data.FlowBatchResponseData;
+
+/**
+ * <p>Multiplexes flow token requests of different rules into batch frames
+ * ({@link ClusterConstants#MSG_TYPE_FLOW_BATCH}). Requests queued while a drain is pending are
+ * written in one frame (at most {@link ClusterConstants#MAX_FLOW_BATCH_SIZE} entries per frame).</p>
+ *
+ * <p>If the remote server does not support batch frames (negotiated on connection), requests are sent
+ * one by one through the fallback sender.</p>
+ *
+ * @since 1.8.7
+ */
+class FlowRequestBatcher implements TokenRequestSender {
+
+    private final Supplier<ClusterTransportClient> clientSupplier;
+    private final TokenRequestSender fallback;
+    private final Executor executor;
+
+    private final Queue<PendingRequest> queue = new ConcurrentLinkedQueue<>();
+    private final AtomicBoolean draining = new AtomicBoolean(false);
+
+    FlowRequestBatcher(Supplier<ClusterTransportClient> clientSupplier, TokenRequestSender fallback,
+                       Executor executor) {
+        this.clientSupplier = clientSupplier;
+        this.fallback = fallback;
+        this.executor = executor;
+    }
+
+    @Override
+    public CompletableFuture<TokenResult> send(Long flowId, int acquireCount, boolean prioritized) {
+        ClusterTransportClient client = clientSupplier.get();
+        if (client == null || !client.isBatchSupported()) {
+            return fallback.send(flowId, acquireCount, prioritized);
+        }
+        PendingRequest request = new PendingRequest(flowId, acquireCount, prioritized);
+        queue.offer(request);
+        scheduleDrain();
+        return request.future;
+    }
+
+    private void scheduleDrain() {
+        if (draining.compareAndSet(false, true)) {
+            try {
+                executor.execute(this::drain);
+            } catch (Throwable ex) {
+                draining.set(false);
+                failAll();
+            }
+        }
+    }
+
+    private void drain() {
+        try {
+            PendingRequest first;
+            while ((first = queue.poll()) != null) {
+                List<PendingRequest> requests = new ArrayList<>();
+                requests.add(first);
+                PendingRequest next;
+                while (requests.size() < ClusterConstants.MAX_FLOW_BATCH_SIZE && (next = queue.poll()) != null) {
+                    requests.add(next);
+                }
+                sendBatch(requests);
+            }
+        } finally {
+            draining.set(false);
+        }
+        // A request may have been queued after the last poll but before the flag was reset.
+        if (!queue.isEmpty()) {
+            scheduleDrain();
+        }
+    }
+
+    private void sendBatch(final List<PendingRequest> requests) {
+        if (requests.size() == 1) {
+            PendingRequest request = requests.get(0);
+            completeWith(request, sendQuietly(request));
+            return;
+        }
+        ClusterTransportClient client = clientSupplier.get();
+        if (client == null) {
+            for (PendingRequest request : requests) {
+                request.future.complete(new TokenResult(TokenResultStatus.FAIL));
+            }
+            return;
+        }
+        FlowBatchRequestData data = new FlowBatchRequestData(requests.size());
+        for (PendingRequest request : requests) {
+            data.add(request.flowId, request.acquireCount, request.prioritized);
+        }
+        ClusterRequest<FlowBatchRequestData> batchRequest = new ClusterRequest<>(
+            ClusterConstants.MSG_TYPE_FLOW_BATCH, data);
+        client.sendRequestAsync(batchRequest).whenComplete((response, ex) -> {
+            FlowBatchResponseData responseData = ex == null ? extractData(response, requests.size()) : null;
+            for (int i = 0; i < requests.size(); i++) {
+                TokenResult result;
+                if (responseData == null) {
+                    result = new TokenResult(TokenResultStatus.FAIL);
+                } else {
+                    result = new TokenResult(responseData.getStatus(i))
+                        .setRemaining(responseData.getRemainingCount(i))
+                        .setWaitInMs(responseData.getWaitInMs(i));
+                }
+                requests.get(i).future.complete(result);
+            }
+        });
+    }
+
+    private CompletableFuture<TokenResult> sendQuietly(PendingRequest request) {
+        try {
+            return fallback.send(request.flowId, request.acquireCount, request.prioritized);
+        } catch (Throwable ex) {
+            CompletableFuture<TokenResult> f = new CompletableFuture<>();
+            f.completeExceptionally(ex);
+            return f;
+        }
+    }
+
+    private static void completeWith(final PendingRequest request, CompletableFuture<TokenResult> f) {
+        f.whenComplete((result, ex) -> request.future.complete(
+            ex == null && result != null ? result : new TokenResult(TokenResultStatus.FAIL)));
+    }
+
+    private static FlowBatchResponseData extractData(ClusterResponse response, int expectedSize) {
+        if (response == null || response.getStatus() != ClusterConstants.RESPONSE_STATUS_OK
+            || !(response.getData() instanceof FlowBatchResponseData)) {
+            return null;
+        }
+        FlowBatchResponseData data = (FlowBatchResponseData) response.getData();
+        return data.size() == expectedSize ? data : null;
+    }
+
+    private void failAll() {
+        PendingRequest request;
+        while ((request = queue.poll()) != null) {
+            request.future.complete(new TokenResult(TokenResultStatus.FAIL));
+        }
+    }
+
+    private static final class PendingRequest {
+        private final Long flowId;
+        private final int acquireCount;
+        private final boolean prioritized;
+        private final CompletableFuture<TokenResult> future = new CompletableFuture<>();
+
+        PendingRequest(Long flowId, int acquireCount, boolean prioritized) {
+            this.flowId = flowId;
+            this.acquireCount = acquireCount;
+            this.prioritized = prioritized;
+        }
+    }
+}
@@ -16,8 +16,10 @@
 package com.alibaba.csp.sentinel.cluster.client;
 
 import java.util.AbstractMap.SimpleEntry;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.Executors;
 import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
@@ -66,6 +68,12 @@ public class NettyTransportClient implements ClusterTransportClient {
 
     public static final int RECONNECT_DELAY_MS = 2000;
 
+    /**
+     * Pending requests are kept in the global {@link TokenClientPromiseHolder} by ID, so the ID is shared
+     * by all clients (e.g. clients of partitioned token servers) to avoid conflicts.
+     */
+    private static final AtomicInteger ID_GENERATOR = new AtomicInteger(0);
+
     private final String host;
     private final int port;
 
@@ -73,7 +81,6 @@ public class NettyTransportClient implements ClusterTransportClient {
     private NioEventLoopGroup eventLoopGroup;
     private TokenClientHandler clientHandler;
 
-    private final AtomicInteger idGenerator = new AtomicInteger(0);
     private final AtomicInteger currentState = new AtomicInteger(ClientConstants.CLIENT_STATUS_OFF);
     private final AtomicInteger failConnectedTime = new AtomicInteger(0);
 
@@ -204,6 +211,12 @@ public class NettyTransportClient implements ClusterTransportClient {
         return channel != null && clientHandler != null && clientHandler.hasStarted();
     }
 
+    @Override
+    public boolean isBatchSupported() {
+        TokenClientHandler handler = clientHandler;
+        return isReady() && handler != null && handler.isBatchSupported();
+    }
+
     @Override
     public ClusterResponse sendRequest(ClusterRequest request) throws Exception {
         if (!isReady()) {
@@ -239,33 +252,53 @@ public class NettyTransportClient implements ClusterTransportClient {
     private int getCurrentId() {
         int pre, next;
         do {
-            pre = idGenerator.get();
+            pre = ID_GENERATOR.get();
             next = pre >= MAX_ID ? MIN_ID : pre + 1;
-        } while (!idGenerator.compareAndSet(pre, next));
+        } while (!ID_GENERATOR.compareAndSet(pre, next));
         return next;
     }
 
-    /*public CompletableFuture<ClusterResponse> sendRequestAsync(ClusterRequest request) {
-        // Uncomment this when min target JDK is 1.8.
+    @Override
+    public CompletableFuture<ClusterResponse> sendRequestAsync(ClusterRequest request) {
+        CompletableFuture<ClusterResponse> future = new CompletableFuture<>();
+        Channel ch = channel;
+        if (ch == null || !isReady()) {
+            future.completeExceptionally(new SentinelClusterException(ClusterErrorMessages.CLIENT_NOT_READY));
+            return future;
+        }
         if (!validRequest(request)) {
-            return CompletableFuture.failedFuture(new IllegalArgumentException("Bad request"));
+            future.completeExceptionally(new SentinelClusterException(ClusterErrorMessages.BAD_REQUEST));
+            return future;
         }
-        int xid = getCurrentId();
+        final int xid = getCurrentId();
         request.setId(xid);
-
-        CompletableFuture<ClusterResponse> future = new CompletableFuture<>();
-        channel.writeAndFlush(request)
-            .addListener(f -> {
-                if (f.isSuccess()) {
-                    future.complete(someResult);
-                } else if (f.cause() != null) {
-                    future.completeExceptionally(f.cause());
-                } else {
-                    future.cancel(false);
+        TokenClientPromiseHolder.putFuture(xid, future);
+
+        final ScheduledFuture<?> timeoutTask = SCHEDULER.schedule(new Runnable() {
+            @Override
+            public void run() {
+                CompletableFuture<ClusterResponse> f = TokenClientPromiseHolder.removeFuture(xid);
+                if (f != null) {
+                    f.completeExceptionally(new SentinelClusterException(ClusterErrorMessages.REQUEST_TIME_OUT));
                 }
-            });
+            }
+        }, ClusterClientConfigManager.getRequestTimeout(), TimeUnit.MILLISECONDS);
+        future.whenComplete((r, e) -> timeoutTask.cancel(false));
+
+        ch.writeAndFlush(request).addListener(new GenericFutureListener<ChannelFuture>() {
+            @Override
+            public void operationComplete(ChannelFuture f) {
+                if (!f.isSuccess()) {
+                    CompletableFuture<ClusterResponse> pending = TokenClientPromiseHolder.removeFuture(xid);
+                    if (pending != null) {
+                        pending.completeExceptionally(f.cause() != null ? f.cause()
+                            : new SentinelClusterException(ClusterErrorMessages.UNEXPECTED_STATUS));
+                    }
+                }
+            }
+        });
         return future;
-    }*/
+    }
 
     private static final int MIN_ID = 1;
     private static final int MAX_ID = 999_999_999;
@@ -0,0 +1,234 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.cluster.client;
+
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.function.Function;
+
+import com.alibaba.csp.sentinel.cluster.ClusterErrorMessages;
+import com.alibaba.csp.sentinel.cluster.ClusterTransportClient;
+import com.alibaba.csp.sentinel.cluster.TokenServerDescriptor;
+import com.alibaba.csp.sentinel.cluster.exception.SentinelClusterException;
+import com.alibaba.csp.sentinel.cluster.partition.ConsistentHashRing;
+import com.alibaba.csp.sentinel.cluster.request.ClusterRequest;
+import com.alibaba.csp.sentinel.cluster.request.data.FlowLeaseRequestData;
+import com.alibaba.csp.sentinel.cluster.request.data.FlowRequestData;
+import com.alibaba.csp.sentinel.cluster.request.data.ParamFlowRequestData;
+import com.alibaba.csp.sentinel.cluster.response.ClusterResponse;
+import com.alibaba.csp.sentinel.cluster.response.data.FlowLeaseResponseData;
+import com.alibaba.csp.sentinel.log.RecordLog;
+import com.alibaba.csp.sentinel.util.AssertUtil;
+import com.alibaba.csp.sentinel.util.TimeUtil;
+
+/**
+ * <p>Transport client for partitioned token servers. Flow rules are spread across the token servers
+ * by a {@link ConsistentHashRing} on the flow ID, and each request is routed to the server that owns
+ * its flow through a dedicated transport client.</p>
+ *
+ * <p>Batch frames are not used in partitioned mode as a batch may contain flows of different servers.</p>
+ *
+ * @since 1.8.7
+ */
+public class PartitionedTransportClient implements ClusterTransportClient {
+
+    private static final int MAX_TRACKED_LEASES = 8192;
+    private static final long PURGE_INTERVAL_MS = 1000;
+
+    private final ConsistentHashRing ring;
+    private final Map<String, ClusterTransportClient> clientMap;
+    /**
+     * Lease ID to the server that granted the lease, so that unused tokens are returned to the same server.
+     * A lease is only released before it expires, so expired entries are purged.
+     */
+    private final Map<Long, LeaseOwner> leaseOwnerMap = new ConcurrentHashMap<>();
+    private volatile long nextPurgeTime;
+
+    public PartitionedTransportClient(Collection<String> servers,
+                                      Function<TokenServerDescriptor, ClusterTransportClient> clientFactory) {
+        AssertUtil.notNull(clientFactory, "clientFactory cannot be null");
+        this.ring = new ConsistentHashRing(servers);
+        AssertUtil.isTrue(!ring.isEmpty(), "servers cannot be empty");
+        Map<String, ClusterTransportClient> clients = new LinkedHashMap<>();
+        for (String server : ring.getServers()) {
+            TokenServerDescriptor descriptor = ConsistentHashRing.parseAddress(server);
+            AssertUtil.notNull(descriptor, "invalid token server address: " + server);
+            clients.put(server, clientFactory.apply(descriptor));
+        }
+        this.clientMap = clients;
+    }
+
+    @Override
+    public void start() throws Exception {
+        for (ClusterTransportClient client : clientMap.values()) {
+            client.start();
+        }
+    }
+
+    @Override
+    public void stop() throws Exception {
+        for (ClusterTransportClient client : clientMap.values()) {
+            try {
+                client.stop();
+            } catch (Exception ex) {
+                RecordLog.warn("[PartitionedTransportClient] Failed to stop transport client", ex);
+            }
+        }
+        leaseOwnerMap.clear();
+    }
+
+    @Override
+    public ClusterResponse sendRequest(ClusterRequest request) throws Exception {
+        String server = routeServer(request);
+        if (server == null) {
+            try {
+                return broadcastRelease(request).get();
+            } catch (ExecutionException ex) {
+                throw ex.getCause() instanceof Exception ? (Exception)ex.getCause() : ex;
+            }
+        }
+        ClusterResponse response = clientMap.get(server).sendRequest(request);
+        recordLeaseOwner(server, request, response);
+        return response;
+    }
+
+    @Override
+    public CompletableFuture<ClusterResponse> sendRequestAsync(ClusterRequest request) {
+        final String server = routeServer(request);
+        if (server == null) {
+            return broadcastRelease(request);
+        }
+        return clientMap.get(server).sendRequestAsync(request).whenComplete((response, ex) -> {
+            if (ex == null) {
+                recordLeaseOwner(server, request, response);
+            }
+        });
+    }
+
+    /**
+     * The client is regarded as ready if any of the servers is connected. Requests of a partition
+     * whose server is not connected fail fast (and fall back to local checking).
+     */
+    @Override
+    public boolean isReady() {
+        for (ClusterTransportClient client : clientMap.values()) {
+            if (client.isReady()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public ConsistentHashRing getRing() {
+        return ring;
+    }
+
+    /**
+     * Get the server that a request should be sent to.
+     *
+     * @return address of the server, or null if the request is a lease release of unknown owner
+     */
+    String routeServer(ClusterRequest request) {
+        Object data = request.getData();
+        if (data instanceof FlowRequestData) {
+            return ring.route(((FlowRequestData)data).getFlowId());
+        }
+        if (data instanceof ParamFlowRequestData) {
+            return ring.route(((ParamFlowRequestData)data).getFlowId());
+        }
+        if (data instanceof FlowLeaseRequestData) {
+            FlowLeaseRequestData leaseData = (FlowLeaseRequestData)data;
+            LeaseOwner releaseOwner = leaseData.getReleaseLeaseId() > 0
+                ? leaseOwnerMap.remove(leaseData.getReleaseLeaseId()) : null;
+            if (leaseData.getCount() > 0) {
+                return ring.route(leaseData.getFlowId());
+            }
+            return releaseOwner == null ? null : releaseOwner.server;
+        }
+        // Requests without a flow (e.g. ping) go to the first server.
+        return ring.getServers().get(0);
+    }
+
+    private void recordLeaseOwner(String server, ClusterRequest request, ClusterResponse response) {
+        if (response == null || !(response.getData() instanceof FlowLeaseResponseData)
+            || !(request.getData() instanceof FlowLeaseRequestData)) {
+            return;
+        }
+        long leaseId = ((FlowLeaseResponseData)response.getData()).getLeaseId();
+        if (leaseId <= 0) {
+            return;
+        }
+        long now = TimeUtil.currentTimeMillis();
+        purgeExpiredLeases(now);
+        if (leaseOwnerMap.size() < MAX_TRACKED_LEASES) {
+            int leaseTimeInMs = ((FlowLeaseRequestData)request.getData()).getLeaseTimeInMs();
+            leaseOwnerMap.put(leaseId, new LeaseOwner(server, now + leaseTimeInMs));
+        }
+    }
+
+    /**
+     * Used up or expired leases are never released, so their owners are purged once they expire.
+     */
+    void purgeExpiredLeases(long now) {
+        if (now < nextPurgeTime) {
+            return;
+        }
+        nextPurgeTime = now + PURGE_INTERVAL_MS;
+        Iterator<LeaseOwner> it = leaseOwnerMap.values().iterator();
+        while (it.hasNext()) {
+            if (it.next().expireTime <= now) {
+                it.remove();
+            }
+        }
+    }
+
+    int getTrackedLeaseCount() {
+        return leaseOwnerMap.size();
+    }
+
+    /**
+     * Release of a lease whose owner is unknown is sent to all servers, as releasing a lease
+     * that does not exist takes no effect on the server.
+     */
+    private CompletableFuture<ClusterResponse> broadcastRelease(ClusterRequest request) {
+        CompletableFuture<ClusterResponse> future = null;
+        for (ClusterTransportClient client : clientMap.values()) {
+            if (client.isReady()) {
+                future = client.sendRequestAsync(request);
+            }
+        }
+        if (future == null) {
+            future = new CompletableFuture<>();
+            future.completeExceptionally(new SentinelClusterException(ClusterErrorMessages.CLIENT_NOT_READY));
+        }
+        return future;
+    }
+
+    private static class LeaseOwner {
+        final String server;
+        final long expireTime;
+
+        LeaseOwner(String server, long expireTime) {
+            this.server = server;
+            this.expireTime = expireTime;
+        }
+    }
+}
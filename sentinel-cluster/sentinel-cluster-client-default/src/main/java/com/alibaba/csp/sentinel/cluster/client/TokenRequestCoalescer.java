@@ -0,0 +1,202 @@
+/*
+ * Copyright 1999-2022 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.cluster.client;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+import com.alibaba.csp.sentinel.cluster.TokenResult;
+import com.alibaba.csp.sentinel.cluster.TokenResultStatus;
+
+/**
+ * <p>Coalesces concurrent asynchronous token requests of the same rule (and priority) that arrive
+ * within a micro-batch window into a single request carrying the summed acquire count.
+ * The result of the merged request is then fanned out to every original request.</p>
+ *
+ * <p>A merged request is granted as a whole. If it is blocked, the remaining quota of the server might still
+ * be enough for some of the original requests, so each of them is then requested again on its own
+ * (and granted or blocked independently), as if it had not been coalesced. Other results (e.g. failures
+ * or waiting for prioritized requests) are fanned out to every original request as they are.</p>
+ *
+ * @since 1.8.7
+ */
+class TokenRequestCoalescer {
+
+    interface TokenRequestSender {
+        CompletableFuture<TokenResult> send(Long flowId, int acquireCount, boolean prioritized);
+    }
+
+    private final ConcurrentMap<Long, Batch> pendingBatches = new ConcurrentHashMap<>();
+
+    private final TokenRequestSender sender;
+    /**
+     * Supplies the scheduler of batch flushes, which may be null if batching is not started.
+     */
+    private final Supplier<ScheduledExecutorService> schedulerSupplier;
+
+    TokenRequestCoalescer(TokenRequestSender sender, Supplier<ScheduledExecutorService> schedulerSupplier) {
+        this.sender = sender;
+        this.schedulerSupplier = schedulerSupplier;
+    }
+
+    CompletableFuture<TokenResult> request(Long flowId, int acquireCount, boolean prioritized, long windowMicros) {
+        ScheduledExecutorService scheduler = windowMicros <= 0 ? null : schedulerSupplier.get();
+        if (scheduler == null) {
+            return sender.send(flowId, acquireCount, prioritized);
+        }
+        // Flow IDs are positive, so the sign tells the priority apart.
+        Long key = prioritized ? -flowId : flowId;
+        CompletableFuture<TokenResult> future = new CompletableFuture<>();
+        while (true) {
+            Batch batch = pendingBatches.get(key);
+            if (batch == null) {
+                Batch newBatch = new Batch(flowId, prioritized);
+                batch = pendingBatches.putIfAbsent(key, newBatch);
+                if (batch == null) {
+                    batch = newBatch;
+                    if (!scheduleFlush(scheduler, key, newBatch, windowMicros)) {
+                        // The scheduler has been shut down (client stopped). Flush the batch for requests
+                        // that might have joined it, and send this one on its own.
+                        flush(key, newBatch);
+                        return sender.send(flowId, acquireCount, prioritized);
+                    }
+                }
+            }
+            int joined = batch.join(acquireCount, future);
+            if (joined > 0) {
+                return future;
+            }
+            if (joined < 0) {
+                // The summed count would overflow, send it on its own.
+                return sender.send(flowId, acquireCount, prioritized);
+            }
+            // The batch has just been sealed, try the next one.
+            pendingBatches.remove(key, batch);
+        }
+    }
+
+    int pendingBatchCount() {
+        return pendingBatches.size();
+    }
+
+    private boolean scheduleFlush(ScheduledExecutorService scheduler, final Long key, final Batch batch,
+                                  long windowMicros) {
+        try {
+            scheduler.schedule(new Runnable() {
+                @Override
+                public void run() {
+                    flush(key, batch);
+                }
+            }, windowMicros, TimeUnit.MICROSECONDS);
+            return true;
+        } catch (RejectedExecutionException ex) {
+            return false;
+        }
+    }
+
+    private void flush(Long key, final Batch batch) {
+        pendingBatches.remove(key, batch);
+        final List<CompletableFuture<TokenResult>> waiters;
+        final List<Integer> counts;
+        final int count;
+        synchronized (batch) {
+            batch.sealed = true;
+            waiters = batch.waiters;
+            counts = batch.counts;
+            count = batch.count;
+        }
+        if (waiters.isEmpty()) {
+            return;
+        }
+        CompletableFuture<TokenResult> f;
+        try {
+            f = sender.send(batch.flowId, count, batch.prioritized);
+        } catch (Throwable ex) {
+            f = new CompletableFuture<>();
+            f.completeExceptionally(ex);
+        }
+        f.whenComplete((result, ex) -> {
+            if (ex == null && result != null && waiters.size() > 1
+                && result.getStatus() != null && result.getStatus() == TokenResultStatus.BLOCKED) {
+                // Not enough quota for the merged request, fall back to per-request acquisition.
+                for (int i = 0; i < waiters.size(); i++) {
+                    sendAlone(batch, counts.get(i), waiters.get(i));
+                }
+                return;
+            }
+            for (CompletableFuture<TokenResult> waiter : waiters) {
+                waiter.complete(ex == null && result != null ? copyOf(result) : new TokenResult(TokenResultStatus.FAIL));
+            }
+        });
+    }
+
+    private void sendAlone(Batch batch, int acquireCount, final CompletableFuture<TokenResult> waiter) {
+        CompletableFuture<TokenResult> f;
+        try {
+            f = sender.send(batch.flowId, acquireCount, batch.prioritized);
+        } catch (Throwable ex) {
+            waiter.complete(new TokenResult(TokenResultStatus.FAIL));
+            return;
+        }
+        f.whenComplete((result, ex) ->
+            waiter.complete(ex == null && result != null ? result : new TokenResult(TokenResultStatus.FAIL)));
+    }
+
+    private static TokenResult copyOf(TokenResult result) {
+        return new TokenResult(result.getStatus())
+            .setRemaining(result.getRemaining())
+            .setWaitInMs(result.getWaitInMs())
+            .setAttachments(result.getAttachments());
+    }
+
+    private static final class Batch {
+        private final Long flowId;
+        private final boolean prioritized;
+
+        private final List<CompletableFuture<TokenResult>> waiters = new ArrayList<>(4);
+        private final List<Integer> counts = new ArrayList<>(4);
+        private int count = 0;
+        private boolean sealed = false;
+
+        Batch(Long flowId, boolean prioritized) {
+            this.flowId = flowId;
+            this.prioritized = prioritized;
+        }
+
+        /**
+         * @return 1 if joined, 0 if the batch has been sealed, -1 if the summed count would overflow
+         */
+        synchronized int join(int acquireCount, CompletableFuture<TokenResult> future) {
+            if (sealed) {
+                return 0;
+            }
+            if (count + acquireCount < 0) {
+                return -1;
+            }
+            count += acquireCount;
+            waiters.add(future);
+            counts.add(acquireCount);
+            return 1;
+        }
+    }
+}
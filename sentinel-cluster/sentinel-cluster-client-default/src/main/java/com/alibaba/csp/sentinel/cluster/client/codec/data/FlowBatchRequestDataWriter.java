@@ -0,0 +1,47 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.cluster.client.codec.data;
+
+import com.alibaba.csp.sentinel.cluster.codec.EntityWriter;
+import com.alibaba.csp.sentinel.cluster.request.data.FlowBatchRequestData;
+
+import io.netty.buffer.ByteBuf;
+
+/**
+ * <p>Writer for {@link FlowBatchRequestData}. The layout:</p>
+ * <pre>
+ * | size (2) | flow ID (8) | count (4) | priority (1) | ... |
+ * </pre>
+ * <p>An absent data writes nothing, which is used to probe whether the server supports batch frames.</p>
+ *
+ * @since 1.8.7
+ */
+public class FlowBatchRequestDataWriter implements EntityWriter<FlowBatchRequestData, ByteBuf> {
+
+    @Override
+    public void writeTo(FlowBatchRequestData entity, ByteBuf target) {
+        if (entity == null) {
+            return;
+        }
+        int size = entity.size();
+        target.writeShort(size);
+        for (int i = 0; i < size; i++) {
+            target.writeLong(entity.getFlowId(i));
+            target.writeInt(entity.getCount(i));
+            target.writeBoolean(entity.isPriority(i));
+        }
+    }
+}
@@ -0,0 +1,45 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.cluster.client.codec.data;
+
+import com.alibaba.csp.sentinel.cluster.codec.EntityDecoder;
+import com.alibaba.csp.sentinel.cluster.response.data.FlowBatchResponseData;
+
+import io.netty.buffer.ByteBuf;
+
+/**
+ * @since 1.8.7
+ */
+public class FlowBatchResponseDataDecoder implements EntityDecoder<ByteBuf, FlowBatchResponseData> {
+
+    private static final int ENTRY_LENGTH = 9;
+
+    @Override
+    public FlowBatchResponseData decode(ByteBuf source) {
+        if (source.readableBytes() < 2) {
+            return null;
+        }
+        int size = source.readUnsignedShort();
+        if (source.readableBytes() < size * ENTRY_LENGTH) {
+            return null;
+        }
+        FlowBatchResponseData data = new FlowBatchResponseData(size);
+        for (int i = 0; i < size; i++) {
+            data.set(i, source.readByte(), source.readInt(), source.readInt());
+        }
+        return data;
+    }
+}
@@ -15,6 +15,8 @@
  */
 package com.alibaba.csp.sentinel.cluster.client.config;
 
+import java.util.List;
+
 /**
  * @author Eric Zhao
  * @since 1.4.1
@@ -23,6 +25,13 @@ public class ClusterClientAssignConfig {
 
     private String serverHost;
     private Integer serverPort;
+    /**
+     * Token servers ({@code host:port}) that flow rules are partitioned to by consistent hashing on the flow ID.
+     * If present, requests are routed to the owner server of each flow instead of the single assigned server.
+     *
+     * @since 1.8.7
+     */
+    private List<String> partitionServers;
 
     public ClusterClientAssignConfig() {}
 
@@ -49,11 +58,25 @@ public class ClusterClientAssignConfig {
         return this;
     }
 
+    public List<String> getPartitionServers() {
+        return partitionServers;
+    }
+
+    public ClusterClientAssignConfig setPartitionServers(List<String> partitionServers) {
+        this.partitionServers = partitionServers;
+        return this;
+    }
+
+    public boolean isPartitioned() {
+        return partitionServers != null && !partitionServers.isEmpty();
+    }
+
     @Override
     public String toString() {
         return "ClusterClientAssignConfig{" +
             "serverHost='" + serverHost + '\'' +
             ", serverPort=" + serverPort +
+            ", partitionServers=" + partitionServers +
             '}';
     }
 }
@@ -22,6 +22,13 @@ package com.alibaba.csp.sentinel.cluster.client.config;
 public class ClusterClientConfig {
 
     private Integer requestTimeout;
+    /**
+     * Window (in microseconds) in which concurrent asynchronous token requests of the same rule
+     * are coalesced into one request. Non-positive value disables coalescing.
+     *
+     * @since 1.8.7
+     */
+    private Integer batchWindowMicros;
 
     public Integer getRequestTimeout() {
         return requestTimeout;
@@ -32,10 +39,20 @@ public class ClusterClientConfig {
         return this;
     }
 
+    public Integer getBatchWindowMicros() {
+        return batchWindowMicros;
+    }
+
+    public ClusterClientConfig setBatchWindowMicros(Integer batchWindowMicros) {
+        this.batchWindowMicros = batchWindowMicros;
+        return this;
+    }
+
     @Override
     public String toString() {
         return "ClusterClientConfig{" +
             "requestTimeout=" + requestTimeout +
+            ", batchWindowMicros=" + batchWindowMicros +
             '}';
     }
 }
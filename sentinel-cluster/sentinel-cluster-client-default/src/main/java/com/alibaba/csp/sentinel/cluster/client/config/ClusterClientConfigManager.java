@@ -16,9 +16,11 @@
 package com.alibaba.csp.sentinel.cluster.client.config;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 
 import com.alibaba.csp.sentinel.cluster.ClusterConstants;
+import com.alibaba.csp.sentinel.cluster.partition.ConsistentHashRing;
 import com.alibaba.csp.sentinel.log.RecordLog;
 import com.alibaba.csp.sentinel.property.DynamicSentinelProperty;
 import com.alibaba.csp.sentinel.property.PropertyListener;
@@ -37,9 +39,11 @@ public final class ClusterClientConfigManager {
      */
     private static volatile String serverHost = null;
     private static volatile int serverPort = ClusterConstants.DEFAULT_CLUSTER_SERVER_PORT;
+    private static volatile List<String> partitionServers = Collections.emptyList();
 
     private static volatile int requestTimeout = ClusterConstants.DEFAULT_REQUEST_TIMEOUT;
     private static volatile int connectTimeout = ClusterConstants.DEFAULT_CONNECT_TIMEOUT_MILLIS;
+    private static volatile int batchWindowMicros = ClusterConstants.DEFAULT_CLIENT_BATCH_WINDOW_MICROS;
 
     private static final PropertyListener<ClusterClientConfig> CONFIG_PROPERTY_LISTENER
         = new ClientConfigPropertyListener();
@@ -127,7 +131,7 @@ public final class ClusterClientConfigManager {
                     "[ClusterClientConfigManager] Invalid cluster client assign config, ignoring: " + config);
                 return;
             }
-            if (serverPort == config.getServerPort() && config.getServerHost().equals(serverHost)) {
+            if (sameAssignment(config)) {
                 return;
             }
 
@@ -170,22 +174,49 @@ public final class ClusterClientConfigManager {
         if (config.getRequestTimeout() != requestTimeout) {
             requestTimeout = config.getRequestTimeout();
         }
+        if (config.getBatchWindowMicros() != null) {
+            batchWindowMicros = config.getBatchWindowMicros();
+        }
+    }
+
+    private static boolean sameAssignment(ClusterClientAssignConfig config) {
+        List<String> newPartitions = config.isPartitioned() ? config.getPartitionServers()
+            : Collections.<String>emptyList();
+        return config.getServerPort() != null && serverPort == config.getServerPort()
+            && StringUtil.equals(config.getServerHost(), serverHost)
+            && newPartitions.equals(partitionServers);
     }
 
     private static void updateServerAssignment(/*@Valid*/ ClusterClientAssignConfig config) {
         String host = config.getServerHost();
-        int port = config.getServerPort();
+        Integer port = config.getServerPort();
 
         for (ServerChangeObserver observer : SERVER_CHANGE_OBSERVERS) {
             observer.onRemoteServerChange(config);
         }
 
         serverHost = host;
-        serverPort = port;
+        serverPort = port == null ? 0 : port;
+        partitionServers = config.isPartitioned()
+            ? Collections.unmodifiableList(new ArrayList<>(config.getPartitionServers()))
+            : Collections.<String>emptyList();
     }
 
     public static boolean isValidAssignConfig(ClusterClientAssignConfig config) {
-        return config != null && StringUtil.isNotBlank(config.getServerHost())
+        if (config == null) {
+            return false;
+        }
+        if (config.isPartitioned()) {
+            // The single server could be absent in partitioned mode.
+            for (String server : config.getPartitionServers()) {
+                if (ConsistentHashRing.parseAddress(server) == null) {
+                    return false;
+                }
+            }
+            return true;
+        }
+        return StringUtil.isNotBlank(config.getServerHost())
+            && config.getServerPort() != null
             && config.getServerPort() > 0
             && config.getServerPort() <= 65535;
     }
@@ -202,6 +233,16 @@ public final class ClusterClientConfigManager {
         return serverPort;
     }
 
+    /**
+     * Get the partitioned token servers, which is empty if the client is not in partitioned mode.
+     *
+     * @return list of token servers in {@code host:port} form
+     * @since 1.8.7
+     */
+    public static List<String> getPartitionServers() {
+        return partitionServers;
+    }
+
     public static int getRequestTimeout() {
         return requestTimeout;
     }
@@ -210,5 +251,9 @@ public final class ClusterClientConfigManager {
         return connectTimeout;
     }
 
+    public static int getBatchWindowMicros() {
+        return batchWindowMicros;
+    }
+
     private ClusterClientConfigManager() {}
 }
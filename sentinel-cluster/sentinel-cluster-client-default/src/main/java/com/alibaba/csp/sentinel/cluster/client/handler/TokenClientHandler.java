@@ -39,6 +39,8 @@ public class TokenClientHandler extends ChannelInboundHandlerAdapter {
     private final AtomicInteger currentState;
     private final Runnable disconnectCallback;
 
+    private volatile boolean batchSupported = false;
+
     public TokenClientHandler(AtomicInteger currentState, Runnable disconnectCallback) {
         this.currentState = currentState;
         this.disconnectCallback = disconnectCallback;
@@ -48,6 +50,7 @@ public class TokenClientHandler extends ChannelInboundHandlerAdapter {
     public void channelActive(ChannelHandlerContext ctx) throws Exception {
         currentState.set(ClientConstants.CLIENT_STATUS_STARTED);
         fireClientPing(ctx);
+        fireBatchProbe(ctx);
         RecordLog.info("[TokenClientHandler] Client handler active, remote address: {}", getRemoteAddress(ctx));
     }
 
@@ -60,6 +63,10 @@ public class TokenClientHandler extends ChannelInboundHandlerAdapter {
                 handlePingResponse(ctx, response);
                 return;
             }
+            if (response.getType() == ClusterConstants.MSG_TYPE_FLOW_BATCH && response.getId() == 0) {
+                handleBatchProbeResponse(ctx, response);
+                return;
+            }
 
             TokenClientPromiseHolder.completePromise(response.getId(), response);
         }
@@ -73,6 +80,22 @@ public class TokenClientHandler extends ChannelInboundHandlerAdapter {
         ctx.writeAndFlush(ping);
     }
 
+    /**
+     * Probe whether the server supports batch frames. The probe carries no data, so that servers of
+     * old versions simply ignore it (no response) and batch frames are never sent to them.
+     */
+    private void fireBatchProbe(ChannelHandlerContext ctx) {
+        ClusterRequest<Object> probe = new ClusterRequest<>().setId(0)
+            .setType(ClusterConstants.MSG_TYPE_FLOW_BATCH);
+        ctx.writeAndFlush(probe);
+    }
+
+    private void handleBatchProbeResponse(ChannelHandlerContext ctx, ClusterResponse response) {
+        this.batchSupported = response.getStatus() == ClusterConstants.RESPONSE_STATUS_OK;
+        RecordLog.info("[TokenClientHandler] Batch frame supported by target server <{}>: {}",
+            getRemoteAddress(ctx), batchSupported);
+    }
+
     private void handlePingResponse(ChannelHandlerContext ctx, ClusterResponse response) {
         if (response.getStatus() == ClusterConstants.RESPONSE_STATUS_OK) {
             int count = (int) response.getData();
@@ -113,6 +136,10 @@ public class TokenClientHandler extends ChannelInboundHandlerAdapter {
         return currentState.get();
     }
 
+    public boolean isBatchSupported() {
+        return batchSupported;
+    }
+
     public boolean hasStarted() {
         return getCurrentState() == ClientConstants.CLIENT_STATUS_STARTED;
     }
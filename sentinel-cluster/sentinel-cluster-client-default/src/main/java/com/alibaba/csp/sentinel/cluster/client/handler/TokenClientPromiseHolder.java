@@ -17,6 +17,7 @@ package com.alibaba.csp.sentinel.cluster.client.handler;
 
 import java.util.AbstractMap.SimpleEntry;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
 
 import com.alibaba.csp.sentinel.cluster.response.ClusterResponse;
@@ -31,6 +32,8 @@ public final class TokenClientPromiseHolder {
 
     private static final Map<Integer, SimpleEntry<ChannelPromise, ClusterResponse>> PROMISE_MAP = new ConcurrentHashMap<>();
 
+    private static final Map<Integer, CompletableFuture<ClusterResponse>> FUTURE_MAP = new ConcurrentHashMap<>();
+
     public static void putPromise(int xid, ChannelPromise promise) {
         PROMISE_MAP.put(xid, new SimpleEntry<ChannelPromise, ClusterResponse>(promise, null));
     }
@@ -43,7 +46,19 @@ public final class TokenClientPromiseHolder {
         PROMISE_MAP.remove(xid);
     }
 
+    public static void putFuture(int xid, CompletableFuture<ClusterResponse> future) {
+        FUTURE_MAP.put(xid, future);
+    }
+
+    public static CompletableFuture<ClusterResponse> removeFuture(int xid) {
+        return FUTURE_MAP.remove(xid);
+    }
+
     public static <T> boolean completePromise(int xid, ClusterResponse<T> response) {
+        CompletableFuture<ClusterResponse> future = FUTURE_MAP.remove(xid);
+        if (future != null) {
+            return future.complete(response);
+        }
         if (!PROMISE_MAP.containsKey(xid)) {
             return false;
         }
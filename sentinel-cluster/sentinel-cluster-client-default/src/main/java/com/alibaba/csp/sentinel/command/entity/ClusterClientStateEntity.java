@@ -15,6 +15,8 @@
  */
 package com.alibaba.csp.sentinel.command.entity;
 
+import java.util.List;
+
 import com.alibaba.csp.sentinel.cluster.client.config.ClusterClientAssignConfig;
 import com.alibaba.csp.sentinel.cluster.client.config.ClusterClientConfig;
 
@@ -26,6 +28,7 @@ public class ClusterClientStateEntity {
 
     private String serverHost;
     private Integer serverPort;
+    private List<String> partitionServers;
 
     private Integer clientState;
 
@@ -49,6 +52,15 @@ public class ClusterClientStateEntity {
         return this;
     }
 
+    public List<String> getPartitionServers() {
+        return partitionServers;
+    }
+
+    public ClusterClientStateEntity setPartitionServers(List<String> partitionServers) {
+        this.partitionServers = partitionServers;
+        return this;
+    }
+
     public Integer getRequestTimeout() {
         return requestTimeout;
     }
@@ -74,7 +86,8 @@ public class ClusterClientStateEntity {
     public ClusterClientAssignConfig toAssignConfig() {
         return new ClusterClientAssignConfig()
             .setServerHost(serverHost)
-            .setServerPort(serverPort);
+            .setServerPort(serverPort)
+            .setPartitionServers(partitionServers);
     }
 
     @Override
@@ -82,6 +95,7 @@ public class ClusterClientStateEntity {
         return "ClusterClientStateEntity{" +
             "serverHost='" + serverHost + '\'' +
             ", serverPort=" + serverPort +
+            ", partitionServers=" + partitionServers +
             ", clientState=" + clientState +
             ", requestTimeout=" + requestTimeout +
             '}';
@@ -0,0 +1,60 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.cluster.client;
+
+import com.alibaba.csp.sentinel.cluster.ClusterConstants;
+import com.alibaba.csp.sentinel.cluster.client.config.ClusterClientConfig;
+import com.alibaba.csp.sentinel.cluster.client.config.ClusterClientConfigManager;
+
+import org.junit.After;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Test cases for {@link DefaultClusterTokenClient}.
+ */
+public class DefaultClusterTokenClientTest {
+
+    @After
+    public void tearDown() {
+        ClusterClientConfigManager.applyNewConfig(new ClusterClientConfig()
+            .setRequestTimeout(ClusterConstants.DEFAULT_REQUEST_TIMEOUT)
+            .setBatchWindowMicros(ClusterConstants.DEFAULT_CLIENT_BATCH_WINDOW_MICROS));
+    }
+
+    @Test
+    public void testBatchSchedulerLifecycle() throws Exception {
+        DefaultClusterTokenClient client = new DefaultClusterTokenClient();
+        assertFalse(client.isBatchSchedulerStarted());
+
+        client.start();
+        assertTrue(client.isBatchSchedulerStarted());
+        client.stop();
+        assertFalse(client.isBatchSchedulerStarted());
+    }
+
+    @Test
+    public void testNoBatchSchedulerWhenBatchingDisabled() throws Exception {
+        ClusterClientConfigManager.applyNewConfig(new ClusterClientConfig()
+            .setRequestTimeout(ClusterConstants.DEFAULT_REQUEST_TIMEOUT)
+            .setBatchWindowMicros(0));
+        DefaultClusterTokenClient client = new DefaultClusterTokenClient();
+        client.start();
+        assertFalse(client.isBatchSchedulerStarted());
+        client.stop();
+    }
+}
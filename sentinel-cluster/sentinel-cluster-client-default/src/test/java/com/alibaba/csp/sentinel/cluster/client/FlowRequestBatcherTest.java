@@ -0,0 +1,150 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.cluster.client;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.alibaba.csp.sentinel.cluster.ClusterConstants;
+import com.alibaba.csp.sentinel.cluster.ClusterTransportClient;
+import com.alibaba.csp.sentinel.cluster.TokenResult;
+import com.alibaba.csp.sentinel.cluster.TokenResultStatus;
+import com.alibaba.csp.sentinel.cluster.request.ClusterRequest;
+import com.alibaba.csp.sentinel.cluster.request.data.FlowBatchRequestData;
+import com.alibaba.csp.sentinel.cluster.response.ClusterResponse;
+import com.alibaba.csp.sentinel.cluster.response.data.FlowBatchResponseData;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Test cases for {@link FlowRequestBatcher}.
+ */
+public class FlowRequestBatcherTest {
+
+    @Test
+    public void testMultiplexRequestsIntoOneFrame() throws Exception {
+        MockTransportClient client = new MockTransportClient(true);
+        AtomicInteger fallbackCount = new AtomicInteger();
+        List<Runnable> tasks = new ArrayList<>();
+        FlowRequestBatcher batcher = new FlowRequestBatcher(() -> client, (flowId, count, prioritized) -> {
+            fallbackCount.incrementAndGet();
+            return CompletableFuture.completedFuture(new TokenResult(TokenResultStatus.OK));
+        }, tasks::add);
+
+        List<CompletableFuture<TokenResult>> futures = new ArrayList<>();
+        for (int i = 1; i <= 3; i++) {
+            futures.add(batcher.send((long) i, i, false));
+        }
+        // Only one drain task should be scheduled.
+        assertEquals(1, tasks.size());
+        tasks.get(0).run();
+
+        assertEquals(1, client.batchFrames.get());
+        assertEquals(0, fallbackCount.get());
+        for (int i = 0; i < 3; i++) {
+            TokenResult result = futures.get(i).get();
+            // Mock server blocks the even flow IDs and returns the flow ID as remaining count.
+            assertEquals((i + 1) % 2 == 0 ? TokenResultStatus.BLOCKED : TokenResultStatus.OK,
+                (int) result.getStatus());
+            assertEquals(i + 1, result.getRemaining());
+        }
+    }
+
+    @Test
+    public void testSplitLargeBatch() {
+        MockTransportClient client = new MockTransportClient(true);
+        List<Runnable> tasks = new ArrayList<>();
+        FlowRequestBatcher batcher = new FlowRequestBatcher(() -> client, (flowId, count, prioritized) ->
+            CompletableFuture.completedFuture(new TokenResult(TokenResultStatus.OK)), tasks::add);
+
+        List<CompletableFuture<TokenResult>> futures = new ArrayList<>();
+        for (int i = 1; i <= ClusterConstants.MAX_FLOW_BATCH_SIZE + 2; i++) {
+            futures.add(batcher.send((long) i, 1, false));
+        }
+        tasks.get(0).run();
+        assertEquals(2, client.batchFrames.get());
+        for (CompletableFuture<TokenResult> future : futures) {
+            assertTrue(future.isDone());
+        }
+    }
+
+    @Test
+    public void testFallbackWhenBatchNotSupported() throws Exception {
+        MockTransportClient client = new MockTransportClient(false);
+        AtomicInteger fallbackCount = new AtomicInteger();
+        FlowRequestBatcher batcher = new FlowRequestBatcher(() -> client, (flowId, count, prioritized) -> {
+            fallbackCount.incrementAndGet();
+            return CompletableFuture.completedFuture(new TokenResult(TokenResultStatus.OK));
+        }, Runnable::run);
+
+        assertEquals(TokenResultStatus.OK, (int) batcher.send(1L, 1, false).get().getStatus());
+        assertEquals(TokenResultStatus.OK, (int) batcher.send(2L, 1, false).get().getStatus());
+        assertEquals(2, fallbackCount.get());
+        assertEquals(0, client.batchFrames.get());
+    }
+
+    private static class MockTransportClient implements ClusterTransportClient {
+
+        private final boolean batchSupported;
+        private final AtomicInteger batchFrames = new AtomicInteger();
+
+        MockTransportClient(boolean batchSupported) {
+            this.batchSupported = batchSupported;
+        }
+
+        @Override
+        public CompletableFuture<ClusterResponse> sendRequestAsync(ClusterRequest request) {
+            assertEquals(ClusterConstants.MSG_TYPE_FLOW_BATCH, request.getType());
+            batchFrames.incrementAndGet();
+            FlowBatchRequestData data = (FlowBatchRequestData) request.getData();
+            FlowBatchResponseData responseData = new FlowBatchResponseData(data.size());
+            for (int i = 0; i < data.size(); i++) {
+                long flowId = data.getFlowId(i);
+                responseData.set(i, flowId % 2 == 0 ? TokenResultStatus.BLOCKED : TokenResultStatus.OK,
+                    (int) flowId, 0);
+            }
+            return CompletableFuture.completedFuture(new ClusterResponse<>(request.getId(), request.getType(),
+                ClusterConstants.RESPONSE_STATUS_OK, responseData));
+        }
+
+        @Override
+        public boolean isBatchSupported() {
+            return batchSupported;
+        }
+
+        @Override
+        public void start() {
+        }
+
+        @Override
+        public void stop() {
+        }
+
+        @Override
+        public ClusterResponse sendRequest(ClusterRequest request) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public boolean isReady() {
+            return true;
+        }
+    }
+}
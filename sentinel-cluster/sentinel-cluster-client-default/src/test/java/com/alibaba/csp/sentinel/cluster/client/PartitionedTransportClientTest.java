@@ -0,0 +1,204 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.cluster.client;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.alibaba.csp.sentinel.cluster.ClusterConstants;
+import com.alibaba.csp.sentinel.cluster.ClusterTransportClient;
+import com.alibaba.csp.sentinel.cluster.TokenResultStatus;
+import com.alibaba.csp.sentinel.cluster.partition.ConsistentHashRing;
+import com.alibaba.csp.sentinel.cluster.request.ClusterRequest;
+import com.alibaba.csp.sentinel.cluster.request.data.FlowLeaseRequestData;
+import com.alibaba.csp.sentinel.cluster.request.data.FlowRequestData;
+import com.alibaba.csp.sentinel.cluster.response.ClusterResponse;
+import com.alibaba.csp.sentinel.cluster.response.data.FlowLeaseResponseData;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Test cases for {@link PartitionedTransportClient} and {@link ConsistentHashRing}.
+ */
+public class PartitionedTransportClientTest {
+
+    private static final List<String> SERVERS = Arrays.asList("127.0.0.1:18731", "127.0.0.1:18732",
+        "127.0.0.1:18733");
+
+    @Test
+    public void testRingIsBalancedAndIndependentOfOrder() {
+        ConsistentHashRing ring = new ConsistentHashRing(SERVERS);
+        ConsistentHashRing reversed = new ConsistentHashRing(Arrays.asList(SERVERS.get(2), SERVERS.get(1),
+            SERVERS.get(0)));
+        assertEquals(ring, reversed);
+
+        Map<String, Integer> hits = new HashMap<>();
+        int flowCount = 30000;
+        for (long flowId = 1; flowId <= flowCount; flowId++) {
+            String owner = ring.route(flowId);
+            assertEquals(owner, reversed.route(flowId));
+            Integer hit = hits.get(owner);
+            hits.put(owner, hit == null ? 1 : hit + 1);
+        }
+        assertEquals(3, hits.size());
+        for (int hit : hits.values()) {
+            // Each server should own roughly a third of the flows.
+            assertTrue(hit > flowCount / 3 * 0.7 && hit < flowCount / 3 * 1.3);
+        }
+    }
+
+    @Test
+    public void testRingMovesOnlyFlowsOfChangedServer() {
+        ConsistentHashRing ring = new ConsistentHashRing(SERVERS);
+        String newServer = "127.0.0.1:18734";
+        ConsistentHashRing expanded = new ConsistentHashRing(Arrays.asList(SERVERS.get(0), SERVERS.get(1),
+            SERVERS.get(2), newServer));
+        int moved = 0;
+        int flowCount = 20000;
+        for (long flowId = 1; flowId <= flowCount; flowId++) {
+            String before = ring.route(flowId);
+            String after = expanded.route(flowId);
+            if (!before.equals(after)) {
+                // Flows could only be moved to the new server.
+                assertEquals(newServer, after);
+                moved++;
+            }
+        }
+        assertTrue(moved > flowCount / 4 * 0.7 && moved < flowCount / 4 * 1.3);
+    }
+
+    @Test
+    public void testParseAddress() {
+        assertEquals(18731, ConsistentHashRing.parseAddress("127.0.0.1:18731").getPort());
+        assertEquals("127.0.0.1", ConsistentHashRing.parseAddress("127.0.0.1:18731").getHost());
+        assertNull(ConsistentHashRing.parseAddress("127.0.0.1"));
+        assertNull(ConsistentHashRing.parseAddress("127.0.0.1:abc"));
+        assertNull(ConsistentHashRing.parseAddress("127.0.0.1:0"));
+        assertNull(ConsistentHashRing.parseAddress(":18731"));
+    }
+
+    @Test
+    public void testRouteRequestsToOwnerServer() throws Exception {
+        final Map<String, MockTransportClient> clients = new HashMap<>();
+        PartitionedTransportClient client = new PartitionedTransportClient(SERVERS, d -> {
+            MockTransportClient c = new MockTransportClient();
+            clients.put(d.getHost() + ":" + d.getPort(), c);
+            return c;
+        });
+        assertEquals(3, clients.size());
+        assertFalse(client.isBatchSupported());
+
+        for (long flowId = 1; flowId <= 100; flowId++) {
+            client.sendRequest(new ClusterRequest<>(ClusterConstants.MSG_TYPE_FLOW,
+                new FlowRequestData().setFlowId(flowId).setCount(1)));
+            String owner = client.getRing().route(flowId);
+            assertEquals(flowId, clients.get(owner).lastFlowId);
+        }
+        int total = 0;
+        for (MockTransportClient c : clients.values()) {
+            assertTrue(c.requestCount.get() > 0);
+            total += c.requestCount.get();
+        }
+        assertEquals(100, total);
+    }
+
+    @Test
+    public void testReleaseLeaseToGrantingServer() throws Exception {
+        final Map<String, MockTransportClient> clients = new HashMap<>();
+        PartitionedTransportClient client = new PartitionedTransportClient(SERVERS, d -> {
+            MockTransportClient c = new MockTransportClient();
+            clients.put(d.getHost() + ":" + d.getPort(), c);
+            return c;
+        });
+        long flowId = 42;
+        String owner = client.getRing().route(flowId);
+        ClusterResponse response = client.sendRequest(new ClusterRequest<>(ClusterConstants.MSG_TYPE_FLOW_LEASE,
+            new FlowLeaseRequestData().setFlowId(flowId).setCount(10).setLeaseTimeInMs(100)));
+        long leaseId = ((FlowLeaseResponseData)response.getData()).getLeaseId();
+        assertEquals(1, clients.get(owner).requestCount.get());
+
+        client.sendRequestAsync(new ClusterRequest<>(ClusterConstants.MSG_TYPE_FLOW_LEASE,
+            new FlowLeaseRequestData().setReleaseLeaseId(leaseId).setReleaseCount(3))).get();
+        assertEquals(2, clients.get(owner).requestCount.get());
+        assertEquals(2, sumRequests(clients));
+
+        // Release of a lease with unknown owner is sent to all servers.
+        client.sendRequestAsync(new ClusterRequest<>(ClusterConstants.MSG_TYPE_FLOW_LEASE,
+            new FlowLeaseRequestData().setReleaseLeaseId(leaseId).setReleaseCount(3))).get();
+        assertEquals(2 + 3, sumRequests(clients));
+    }
+
+    @Test
+    public void testPurgeExpiredLeaseOwners() throws Exception {
+        PartitionedTransportClient client = new PartitionedTransportClient(SERVERS, d -> new MockTransportClient());
+        for (long flowId = 1; flowId <= 10; flowId++) {
+            client.sendRequest(new ClusterRequest<>(ClusterConstants.MSG_TYPE_FLOW_LEASE,
+                new FlowLeaseRequestData().setFlowId(flowId).setCount(10).setLeaseTimeInMs(100)));
+        }
+        assertEquals(10, client.getTrackedLeaseCount());
+
+        // Used up leases are never released, so their owners should be purged once expired.
+        client.purgeExpiredLeases(System.currentTimeMillis() + 60000);
+        assertEquals(0, client.getTrackedLeaseCount());
+    }
+
+    private static int sumRequests(Map<String, MockTransportClient> clients) {
+        int total = 0;
+        for (MockTransportClient c : clients.values()) {
+            total += c.requestCount.get();
+        }
+        return total;
+    }
+
+    private static class MockTransportClient implements ClusterTransportClient {
+
+        private static final AtomicInteger LEASE_ID = new AtomicInteger(100);
+
+        final AtomicInteger requestCount = new AtomicInteger();
+        volatile long lastFlowId;
+
+        @Override
+        public void start() {}
+
+        @Override
+        public void stop() {}
+
+        @Override
+        public ClusterResponse sendRequest(ClusterRequest request) {
+            requestCount.incrementAndGet();
+            Object data = request.getData();
+            if (data instanceof FlowRequestData) {
+                lastFlowId = ((FlowRequestData)data).getFlowId();
+            }
+            if (data instanceof FlowLeaseRequestData && ((FlowLeaseRequestData)data).getCount() > 0) {
+                return new ClusterResponse<>(request.getId(), request.getType(), TokenResultStatus.OK,
+                    new FlowLeaseResponseData().setLeaseId(LEASE_ID.incrementAndGet()).setCount(10));
+            }
+            return new ClusterResponse<>(request.getId(), request.getType(), TokenResultStatus.OK, null);
+        }
+
+        @Override
+        public boolean isReady() {
+            return true;
+        }
+    }
+}
@@ -0,0 +1,166 @@
+/*
+ * Copyright 1999-2022 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.cluster.client;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.alibaba.csp.sentinel.cluster.TokenResult;
+import com.alibaba.csp.sentinel.cluster.TokenResultStatus;
+
+import org.junit.After;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Test cases for {@link TokenRequestCoalescer}.
+ */
+public class TokenRequestCoalescerTest {
+
+    private final ScheduledThreadPoolExecutor scheduler = new ScheduledThreadPoolExecutor(1);
+
+    @After
+    public void tearDown() {
+        scheduler.shutdownNow();
+    }
+
+    @Test
+    public void testCoalesceRequestsOfSameFlow() throws Exception {
+        final AtomicInteger sent = new AtomicInteger();
+        final List<Integer> counts = new ArrayList<>();
+        TokenRequestCoalescer coalescer = new TokenRequestCoalescer((flowId, count, prioritized) -> {
+            sent.incrementAndGet();
+            synchronized (counts) {
+                counts.add(count);
+            }
+            return CompletableFuture.completedFuture(new TokenResult(TokenResultStatus.OK).setRemaining(7));
+        }, () -> scheduler);
+
+        List<CompletableFuture<TokenResult>> futures = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            futures.add(coalescer.request(1L, 2, false, TimeUnit.MILLISECONDS.toMicros(200)));
+        }
+        for (CompletableFuture<TokenResult> f : futures) {
+            TokenResult result = f.get(2, TimeUnit.SECONDS);
+            assertEquals(TokenResultStatus.OK, (int) result.getStatus());
+            assertEquals(7, result.getRemaining());
+        }
+        assertEquals(1, sent.get());
+        assertEquals(20, (int) counts.get(0));
+        assertEquals(0, coalescer.pendingBatchCount());
+    }
+
+    @Test
+    public void testSeparateBatchesForPriority() throws Exception {
+        final AtomicInteger sent = new AtomicInteger();
+        TokenRequestCoalescer coalescer = new TokenRequestCoalescer((flowId, count, prioritized) -> {
+            sent.incrementAndGet();
+            return CompletableFuture.completedFuture(new TokenResult(TokenResultStatus.BLOCKED));
+        }, () -> scheduler);
+
+        CompletableFuture<TokenResult> f1 = coalescer.request(1L, 1, false, 100_000);
+        CompletableFuture<TokenResult> f2 = coalescer.request(1L, 1, true, 100_000);
+        CompletableFuture<TokenResult> f3 = coalescer.request(2L, 1, false, 100_000);
+
+        assertEquals(TokenResultStatus.BLOCKED, (int) f1.get(2, TimeUnit.SECONDS).getStatus());
+        assertEquals(TokenResultStatus.BLOCKED, (int) f2.get(2, TimeUnit.SECONDS).getStatus());
+        assertEquals(TokenResultStatus.BLOCKED, (int) f3.get(2, TimeUnit.SECONDS).getStatus());
+        assertEquals(3, sent.get());
+    }
+
+    @Test
+    public void testFallbackToSingleRequestsWhenBlocked() throws Exception {
+        final List<Integer> counts = new ArrayList<>();
+        // Only 3 tokens left on the server.
+        TokenRequestCoalescer coalescer = new TokenRequestCoalescer((flowId, count, prioritized) -> {
+            synchronized (counts) {
+                counts.add(count);
+            }
+            return CompletableFuture.completedFuture(
+                new TokenResult(count <= 3 ? TokenResultStatus.OK : TokenResultStatus.BLOCKED));
+        }, () -> scheduler);
+
+        CompletableFuture<TokenResult> f1 = coalescer.request(1L, 2, false, 100_000);
+        CompletableFuture<TokenResult> f2 = coalescer.request(1L, 5, false, 100_000);
+        assertEquals(TokenResultStatus.OK, (int) f1.get(2, TimeUnit.SECONDS).getStatus());
+        assertEquals(TokenResultStatus.BLOCKED, (int) f2.get(2, TimeUnit.SECONDS).getStatus());
+        synchronized (counts) {
+            assertEquals(3, counts.size());
+            assertEquals(7, (int) counts.get(0));
+        }
+    }
+
+    @Test
+    public void testFailedRequestFansOutFail() throws Exception {
+        TokenRequestCoalescer coalescer = new TokenRequestCoalescer((flowId, count, prioritized) -> {
+            CompletableFuture<TokenResult> f = new CompletableFuture<>();
+            f.completeExceptionally(new IllegalStateException("mock"));
+            return f;
+        }, () -> scheduler);
+
+        CompletableFuture<TokenResult> f1 = coalescer.request(1L, 1, false, 100_000);
+        CompletableFuture<TokenResult> f2 = coalescer.request(1L, 1, false, 100_000);
+        assertEquals(TokenResultStatus.FAIL, (int) f1.get(2, TimeUnit.SECONDS).getStatus());
+        assertEquals(TokenResultStatus.FAIL, (int) f2.get(2, TimeUnit.SECONDS).getStatus());
+    }
+
+    @Test
+    public void testNoCoalescingWhenWindowDisabled() throws Exception {
+        final AtomicInteger sent = new AtomicInteger();
+        TokenRequestCoalescer coalescer = new TokenRequestCoalescer((flowId, count, prioritized) -> {
+            sent.incrementAndGet();
+            return CompletableFuture.completedFuture(new TokenResult(TokenResultStatus.OK));
+        }, () -> scheduler);
+
+        coalescer.request(1L, 1, false, 0).get(1, TimeUnit.SECONDS);
+        coalescer.request(1L, 1, false, 0).get(1, TimeUnit.SECONDS);
+        assertEquals(2, sent.get());
+    }
+
+    @Test
+    public void testNoCoalescingWithoutScheduler() throws Exception {
+        final AtomicInteger sent = new AtomicInteger();
+        TokenRequestCoalescer coalescer = new TokenRequestCoalescer((flowId, count, prioritized) -> {
+            sent.incrementAndGet();
+            return CompletableFuture.completedFuture(new TokenResult(TokenResultStatus.OK));
+        }, () -> null);
+
+        coalescer.request(1L, 1, false, 100_000).get(1, TimeUnit.SECONDS);
+        coalescer.request(1L, 1, false, 100_000).get(1, TimeUnit.SECONDS);
+        assertEquals(2, sent.get());
+        assertEquals(0, coalescer.pendingBatchCount());
+    }
+
+    @Test
+    public void testSendDirectlyWhenSchedulerShutdown() throws Exception {
+        final AtomicInteger sent = new AtomicInteger();
+        TokenRequestCoalescer coalescer = new TokenRequestCoalescer((flowId, count, prioritized) -> {
+            sent.incrementAndGet();
+            return CompletableFuture.completedFuture(new TokenResult(TokenResultStatus.OK));
+        }, () -> scheduler);
+        scheduler.shutdown();
+
+        assertEquals(TokenResultStatus.OK,
+            (int) coalescer.request(1L, 1, false, 100_000).get(1, TimeUnit.SECONDS).getStatus());
+        assertEquals(1, sent.get());
+        assertEquals(0, coalescer.pendingBatchCount());
+    }
+}
@@ -26,6 +26,9 @@ public final class ClusterConstants {
     public static final int MSG_TYPE_PARAM_FLOW = 2;
     public static final int MSG_TYPE_CONCURRENT_FLOW_ACQUIRE = 3;
     public static final int MSG_TYPE_CONCURRENT_FLOW_RELEASE = 4;
+    public static final int MSG_TYPE_FLOW_LEASE = 5;
+    public static final int MSG_TYPE_FLOW_BATCH = 6;
+    public static final int MSG_TYPE_FLOW_WINDOW_MIGRATE = 7;
 
 
     public static final int RESPONSE_STATUS_BAD = -1;
@@ -43,6 +46,19 @@ public final class ClusterConstants {
     public static final int DEFAULT_CLUSTER_SERVER_PORT = 18730;
     public static final int DEFAULT_REQUEST_TIMEOUT = 20;
     public static final int DEFAULT_CONNECT_TIMEOUT_MILLIS = 10 * 1000;
+    public static final int DEFAULT_CLIENT_BATCH_WINDOW_MICROS = 500;
+    /**
+     * Max count of entries in a batch frame, so that the frame always fits in the max frame length (1024).
+     */
+    public static final int MAX_FLOW_BATCH_SIZE = 64;
+    /**
+     * Max count of buckets in a window migration frame, so that the frame always fits in the max frame length.
+     */
+    public static final int MAX_MIGRATE_WINDOW_SIZE = 24;
+    /**
+     * Max count of events per bucket in a window migration frame.
+     */
+    public static final int MAX_MIGRATE_EVENT_SIZE = 7;
 
     private ClusterConstants() {}
 }
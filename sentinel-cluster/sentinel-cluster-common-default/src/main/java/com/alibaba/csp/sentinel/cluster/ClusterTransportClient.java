@@ -15,6 +15,8 @@
  */
 package com.alibaba.csp.sentinel.cluster;
 
+import java.util.concurrent.CompletableFuture;
+
 import com.alibaba.csp.sentinel.cluster.request.ClusterRequest;
 import com.alibaba.csp.sentinel.cluster.response.ClusterResponse;
 
@@ -49,10 +51,39 @@ public interface ClusterTransportClient {
      */
     ClusterResponse sendRequest(ClusterRequest request) throws Exception;
 
+    /**
+     * Send request to remote server without blocking the caller. The default implementation
+     * falls back to {@link #sendRequest(ClusterRequest)}.
+     *
+     * @param request Sentinel cluster request
+     * @return future of the response from remote server
+     * @since 1.8.7
+     */
+    default CompletableFuture<ClusterResponse> sendRequestAsync(ClusterRequest request) {
+        CompletableFuture<ClusterResponse> future = new CompletableFuture<>();
+        try {
+            future.complete(sendRequest(request));
+        } catch (Throwable ex) {
+            future.completeExceptionally(ex);
+        }
+        return future;
+    }
+
     /**
      * Check whether the client has been started and ready for sending requests.
      *
      * @return true if the client is ready to send requests, otherwise false
      */
     boolean isReady();
+
+    /**
+     * Check whether the remote server accepts batch frames ({@link ClusterConstants#MSG_TYPE_FLOW_BATCH}),
+     * which is negotiated when the connection is established.
+     *
+     * @return true if batch frames could be sent to the remote server, otherwise false
+     * @since 1.8.7
+     */
+    default boolean isBatchSupported() {
+        return false;
+    }
 }
@@ -0,0 +1,157 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.cluster.partition;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+import com.alibaba.csp.sentinel.cluster.TokenServerDescriptor;
+import com.alibaba.csp.sentinel.util.AssertUtil;
+import com.alibaba.csp.sentinel.util.StringUtil;
+
+/**
+ * <p>Immutable consistent hash ring of token servers (in {@code host:port} form), which decides
+ * the token server that owns a flow in partitioned mode. Each server is placed on the ring with
+ * a number of virtual nodes, so that adding or removing a server only moves about {@code 1/n}
+ * of the flows.</p>
+ *
+ * <p>The hash is computed from the server address only, so clients and servers that are given
+ * the same server list always agree on the owner of a flow.</p>
+ *
+ * @since 1.8.7
+ */
+public final class ConsistentHashRing {
+
+    public static final int DEFAULT_VIRTUAL_NODES = 160;
+
+    private final NavigableMap<Long, String> ring = new TreeMap<>();
+    private final List<String> servers;
+
+    public ConsistentHashRing(Collection<String> servers) {
+        this(servers, DEFAULT_VIRTUAL_NODES);
+    }
+
+    public ConsistentHashRing(Collection<String> servers, int virtualNodes) {
+        AssertUtil.notNull(servers, "servers cannot be null");
+        AssertUtil.isTrue(virtualNodes > 0, "virtualNodes should be positive");
+        // Sort and de-duplicate, so that the ring does not depend on the order of the server list.
+        TreeSet<String> sorted = new TreeSet<>();
+        for (String server : servers) {
+            AssertUtil.assertNotBlank(server, "server address cannot be blank");
+            sorted.add(server.trim());
+        }
+        this.servers = Collections.unmodifiableList(new ArrayList<>(sorted));
+        for (String server : this.servers) {
+            for (int i = 0; i < virtualNodes; i++) {
+                ring.put(hash(server + "#" + i), server);
+            }
+        }
+    }
+
+    /**
+     * Get the server that owns the flow.
+     *
+     * @param flowId flow ID
+     * @return address of the owner server, or null if the ring is empty
+     */
+    public String route(long flowId) {
+        if (ring.isEmpty()) {
+            return null;
+        }
+        Map.Entry<Long, String> entry = ring.ceilingEntry(mix(flowId));
+        return entry == null ? ring.firstEntry().getValue() : entry.getValue();
+    }
+
+    public List<String> getServers() {
+        return servers;
+    }
+
+    public boolean isEmpty() {
+        return servers.isEmpty();
+    }
+
+    /**
+     * Parse the {@code host:port} server address.
+     *
+     * @param server server address
+     * @return descriptor of the server, or null if the address is invalid
+     */
+    public static TokenServerDescriptor parseAddress(String server) {
+        if (StringUtil.isBlank(server)) {
+            return null;
+        }
+        int idx = server.lastIndexOf(':');
+        if (idx <= 0 || idx == server.length() - 1) {
+            return null;
+        }
+        try {
+            int port = Integer.parseInt(server.substring(idx + 1).trim());
+            if (port <= 0 || port > 65535) {
+                return null;
+            }
+            return new TokenServerDescriptor(server.substring(0, idx).trim(), port);
+        } catch (NumberFormatException ex) {
+            return null;
+        }
+    }
+
+    private static long hash(String key) {
+        // FNV-1a, then mixed to spread the virtual nodes.
+        long h = 0xcbf29ce484222325L;
+        for (byte b : key.getBytes(StandardCharsets.UTF_8)) {
+            h ^= b;
+            h *= 0x100000001b3L;
+        }
+        return mix(h);
+    }
+
+    private static long mix(long h) {
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+        return ring.equals(((ConsistentHashRing)o).ring);
+    }
+
+    @Override
+    public int hashCode() {
+        return ring.hashCode();
+    }
+
+    @Override
+    public String toString() {
+        return "ConsistentHashRing{servers=" + servers + '}';
+    }
+}
@@ -0,0 +1,91 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.cluster.request.data;
+
+import java.util.Arrays;
+
+import com.alibaba.csp.sentinel.cluster.ClusterConstants;
+import com.alibaba.csp.sentinel.util.AssertUtil;
+
+/**
+ * Request data carrying multiple flow token requests in one frame. Entries are kept in
+ * primitive arrays to avoid allocating an object per token request.
+ *
+ * @since 1.8.7
+ */
+public class FlowBatchRequestData {
+
+    private final long[] flowIds;
+    private final int[] counts;
+    private final boolean[] priorities;
+    private int size = 0;
+
+    public FlowBatchRequestData() {
+        this(ClusterConstants.MAX_FLOW_BATCH_SIZE);
+    }
+
+    public FlowBatchRequestData(int capacity) {
+        AssertUtil.isTrue(capacity > 0 && capacity <= ClusterConstants.MAX_FLOW_BATCH_SIZE,
+            "capacity should be in (0, " + ClusterConstants.MAX_FLOW_BATCH_SIZE + "]");
+        this.flowIds = new long[capacity];
+        this.counts = new int[capacity];
+        this.priorities = new boolean[capacity];
+    }
+
+    /**
+     * Add a token request to the batch.
+     *
+     * @return index of the entry, or -1 if the batch is full
+     */
+    public int add(long flowId, int count, boolean priority) {
+        if (size >= flowIds.length) {
+            return -1;
+        }
+        flowIds[size] = flowId;
+        counts[size] = count;
+        priorities[size] = priority;
+        return size++;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isFull() {
+        return size >= flowIds.length;
+    }
+
+    public long getFlowId(int index) {
+        return flowIds[index];
+    }
+
+    public int getCount(int index) {
+        return counts[index];
+    }
+
+    public boolean isPriority(int index) {
+        return priorities[index];
+    }
+
+    @Override
+    public String toString() {
+        return "FlowBatchRequestData{" +
+            "flowIds=" + Arrays.toString(Arrays.copyOf(flowIds, size)) +
+            ", counts=" + Arrays.toString(Arrays.copyOf(counts, size)) +
+            ", priorities=" + Arrays.toString(Arrays.copyOf(priorities, size)) +
+            '}';
+    }
+}
@@ -0,0 +1,94 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.cluster.request.data;
+
+import java.util.Arrays;
+
+import com.alibaba.csp.sentinel.cluster.ClusterConstants;
+import com.alibaba.csp.sentinel.util.AssertUtil;
+
+/**
+ * Request data carrying the sliding window state of a flow, which is handed over from a token server
+ * to the new owner of the flow when the partition of flows changes. Each bucket holds the counts
+ * of all events (in the order of the event ordinals) at its window start.
+ *
+ * @since 1.8.7
+ */
+public class FlowWindowMigrateRequestData {
+
+    private final long flowId;
+    private final int eventCount;
+
+    private final long[] windowStarts;
+    private final int[][] counts;
+    private int size = 0;
+
+    public FlowWindowMigrateRequestData(long flowId, int capacity, int eventCount) {
+        AssertUtil.isTrue(capacity > 0 && capacity <= ClusterConstants.MAX_MIGRATE_WINDOW_SIZE,
+            "capacity should be in (0, " + ClusterConstants.MAX_MIGRATE_WINDOW_SIZE + "]");
+        AssertUtil.isTrue(eventCount > 0 && eventCount <= ClusterConstants.MAX_MIGRATE_EVENT_SIZE,
+            "eventCount should be in (0, " + ClusterConstants.MAX_MIGRATE_EVENT_SIZE + "]");
+        this.flowId = flowId;
+        this.eventCount = eventCount;
+        this.windowStarts = new long[capacity];
+        this.counts = new int[capacity][];
+    }
+
+    /**
+     * Add a bucket of the window.
+     *
+     * @param windowStart start time of the bucket
+     * @param bucketCounts counts of events in the bucket, of which the length should be the event count
+     * @return index of the bucket, or -1 if the data is full
+     */
+    public int add(long windowStart, int[] bucketCounts) {
+        AssertUtil.isTrue(bucketCounts != null && bucketCounts.length == eventCount, "bad bucket counts");
+        if (size >= windowStarts.length) {
+            return -1;
+        }
+        windowStarts[size] = windowStart;
+        counts[size] = bucketCounts;
+        return size++;
+    }
+
+    public long getFlowId() {
+        return flowId;
+    }
+
+    public int getEventCount() {
+        return eventCount;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public long getWindowStart(int index) {
+        return windowStarts[index];
+    }
+
+    public int getCount(int index, int event) {
+        return counts[index][event];
+    }
+
+    @Override
+    public String toString() {
+        return "FlowWindowMigrateRequestData{" +
+            "flowId=" + flowId +
+            ", windowStarts=" + Arrays.toString(Arrays.copyOf(windowStarts, size)) +
+            '}';
+    }
+}
@@ -0,0 +1,90 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.cluster.response.data;
+
+import java.util.Arrays;
+
+/**
+ * Response data of {@link com.alibaba.csp.sentinel.cluster.request.data.FlowBatchRequestData}.
+ * Results are in the same order as the entries of the request.
+ *
+ * @since 1.8.7
+ */
+public class FlowBatchResponseData {
+
+    private final int[] statuses;
+    private final int[] remainingCounts;
+    private final int[] waitInMs;
+
+    public FlowBatchResponseData(int size) {
+        this.statuses = new int[size];
+        this.remainingCounts = new int[size];
+        this.waitInMs = new int[size];
+    }
+
+    public FlowBatchResponseData set(int index, int status, int remainingCount, int waitInMs) {
+        this.statuses[index] = status;
+        this.remainingCounts[index] = remainingCount;
+        this.waitInMs[index] = waitInMs;
+        return this;
+    }
+
+    public int size() {
+        return statuses.length;
+    }
+
+    public int getStatus(int index) {
+        return statuses[index];
+    }
+
+    public int getRemainingCount(int index) {
+        return remainingCounts[index];
+    }
+
+    public int getWaitInMs(int index) {
+        return waitInMs[index];
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof FlowBatchResponseData)) {
+            return false;
+        }
+        FlowBatchResponseData that = (FlowBatchResponseData) o;
+        return Arrays.equals(statuses, that.statuses) && Arrays.equals(remainingCounts, that.remainingCounts)
+            && Arrays.equals(waitInMs, that.waitInMs);
+    }
+
+    @Override
+    public int hashCode() {
+        int result = Arrays.hashCode(statuses);
+        result = 31 * result + Arrays.hashCode(remainingCounts);
+        result = 31 * result + Arrays.hashCode(waitInMs);
+        return result;
+    }
+
+    @Override
+    public String toString() {
+        return "FlowBatchResponseData{" +
+            "statuses=" + Arrays.toString(statuses) +
+            ", remainingCounts=" + Arrays.toString(remainingCounts) +
+            ", waitInMs=" + Arrays.toString(waitInMs) +
+            '}';
+    }
+}
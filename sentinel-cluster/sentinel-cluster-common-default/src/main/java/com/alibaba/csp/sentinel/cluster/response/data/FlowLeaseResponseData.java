@@ -0,0 +1,72 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.cluster.response.data;
+
+/**
+ * Response data of token lease.
+ *
+ * @since 1.8.7
+ */
+public class FlowLeaseResponseData {
+
+    private long leaseId;
+    private int count;
+
+    public long getLeaseId() {
+        return leaseId;
+    }
+
+    public FlowLeaseResponseData setLeaseId(long leaseId) {
+        this.leaseId = leaseId;
+        return this;
+    }
+
+    public int getCount() {
+        return count;
+    }
+
+    public FlowLeaseResponseData setCount(int count) {
+        this.count = count;
+        return this;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof FlowLeaseResponseData)) {
+            return false;
+        }
+        FlowLeaseResponseData that = (FlowLeaseResponseData) o;
+        return this.leaseId == that.leaseId && this.count == that.count;
+    }
+
+    @Override
+    public int hashCode() {
+        int result = (int) (leaseId ^ (leaseId >>> 32));
+        result = 31 * result + count;
+        return result;
+    }
+
+    @Override
+    public String toString() {
+        return "FlowLeaseResponseData{" +
+            "leaseId=" + leaseId +
+            ", count=" + count +
+            '}';
+    }
+}
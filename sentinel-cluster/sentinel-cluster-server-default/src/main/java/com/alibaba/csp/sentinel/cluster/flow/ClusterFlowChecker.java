@@ -22,10 +22,13 @@ import com.alibaba.csp.sentinel.cluster.flow.statistic.ClusterMetricStatistics;
 import com.alibaba.csp.sentinel.cluster.flow.statistic.limit.GlobalRequestLimiter;
 import com.alibaba.csp.sentinel.cluster.server.config.ClusterServerConfigManager;
 import com.alibaba.csp.sentinel.cluster.flow.statistic.data.ClusterFlowEvent;
+import com.alibaba.csp.sentinel.cluster.flow.statistic.lease.TokenLease;
+import com.alibaba.csp.sentinel.cluster.flow.statistic.lease.TokenLeaseManager;
 import com.alibaba.csp.sentinel.cluster.flow.statistic.metric.ClusterMetric;
 import com.alibaba.csp.sentinel.cluster.server.log.ClusterServerStatLogUtil;
 import com.alibaba.csp.sentinel.slots.block.ClusterRuleConstant;
 import com.alibaba.csp.sentinel.slots.block.flow.FlowRule;
+import com.alibaba.csp.sentinel.util.TimeUtil;
 
 /**
  * Flow checker for cluster flow rules.
@@ -64,7 +67,7 @@ final class ClusterFlowChecker {
             return new TokenResult(TokenResultStatus.FAIL);
         }
 
-        double latestQps = metric.getAvg(ClusterFlowEvent.PASS);
+        double latestQps = metric.getAvg(ClusterFlowEvent.PASS) + leasedQpsOutOfWindow(id, metric);
         double globalThreshold = calcGlobalThreshold(rule) * ClusterServerConfigManager.getExceedCount();
         double nextRemaining = globalThreshold - latestQps - acquireCount;
 
@@ -111,6 +114,74 @@ final class ClusterFlowChecker {
         }
     }
 
+    /**
+     * Outstanding leased tokens that are no longer in the pass count of the window, but may still be spent,
+     * see {@link TokenLeaseManager#getOutstandingCountOutOfWindow(long, long, int, int)}.
+     */
+    private static double leasedQpsOutOfWindow(long flowId, ClusterMetric metric) {
+        long count = TokenLeaseManager.getOutstandingCountOutOfWindow(flowId, TimeUtil.currentTimeMillis(),
+            metric.getIntervalInMs(), metric.getSampleCount());
+        return count == 0 ? 0 : count * 1000.0 / metric.getIntervalInMs();
+    }
+
+    /**
+     * Lease a block of tokens to the client. The leased tokens are accounted as passed at once so that the
+     * global threshold still holds. To avoid one client draining the whole quota, a lease is no more than
+     * the fair share of the remaining quota among all connected clients. The lease time is clamped to the
+     * window interval of the flow, so that leased tokens can't be spent long after they slid out of the window.
+     */
+    static TokenResult acquireTokenLease(/*@Valid*/ FlowRule rule, int leaseCount, int leaseTimeInMs) {
+        Long id = rule.getClusterConfig().getFlowId();
+
+        if (!allowProceed(id)) {
+            return new TokenResult(TokenResultStatus.TOO_MANY_REQUEST);
+        }
+
+        ClusterMetric metric = ClusterMetricStatistics.getMetric(id);
+        if (metric == null) {
+            return new TokenResult(TokenResultStatus.FAIL);
+        }
+
+        double latestQps = metric.getAvg(ClusterFlowEvent.PASS) + leasedQpsOutOfWindow(id, metric);
+        double globalThreshold = calcGlobalThreshold(rule) * ClusterServerConfigManager.getExceedCount();
+        double available = globalThreshold - latestQps;
+        int connectedCount = Math.max(1, ClusterFlowRuleManager.getConnectedCount(id));
+        double share = available / connectedCount;
+        // Grant at least one token as long as there is any quota left.
+        int grantCount = (int) Math.min(leaseCount, share >= 1 ? share : (available >= 1 ? 1 : 0));
+
+        if (grantCount <= 0) {
+            metric.add(ClusterFlowEvent.BLOCK, leaseCount);
+            metric.add(ClusterFlowEvent.BLOCK_REQUEST, 1);
+            ClusterServerStatLogUtil.log("flow|lease_block|" + id, leaseCount);
+            return blockedResult();
+        }
+
+        metric.add(ClusterFlowEvent.PASS, grantCount);
+        metric.add(ClusterFlowEvent.PASS_REQUEST, 1);
+        TokenLease lease = TokenLeaseManager.grant(id, grantCount, Math.min(leaseTimeInMs, metric.getIntervalInMs()),
+            TimeUtil.currentTimeMillis());
+        TokenResult result = new TokenResult(TokenResultStatus.OK)
+            .setRemaining(grantCount)
+            .setWaitInMs(0);
+        result.setTokenId(lease.getLeaseId());
+        return result;
+    }
+
+    /**
+     * Finish the lease and credit the unused tokens back to the metric of the flow.
+     */
+    static void releaseTokenLease(long leaseId, int unusedCount) {
+        TokenLease lease = TokenLeaseManager.release(leaseId);
+        if (lease == null || unusedCount <= 0) {
+            return;
+        }
+        ClusterMetric metric = ClusterMetricStatistics.getMetric(lease.getFlowId());
+        if (metric != null) {
+            metric.giveBack(ClusterFlowEvent.PASS, Math.min(unusedCount, lease.getCount()), lease.getGrantTime());
+        }
+    }
+
     private static TokenResult blockedResult() {
         return new TokenResult(TokenResultStatus.BLOCKED)
             .setRemaining(0)
@@ -84,6 +84,27 @@ public class DefaultTokenService implements TokenService {
         ConcurrentClusterFlowChecker.releaseConcurrentToken(tokenId);
     }
 
+    @Override
+    public TokenResult requestTokenLease(Long ruleId, int leaseCount, int leaseTimeInMs) {
+        if (notValidRequest(ruleId, leaseCount) || leaseTimeInMs <= 0) {
+            return badRequest();
+        }
+        // The rule should be valid.
+        FlowRule rule = ClusterFlowRuleManager.getFlowRuleById(ruleId);
+        if (rule == null) {
+            return new TokenResult(TokenResultStatus.NO_RULE_EXISTS);
+        }
+        return ClusterFlowChecker.acquireTokenLease(rule, leaseCount, leaseTimeInMs);
+    }
+
+    @Override
+    public void releaseTokenLease(Long leaseId, int unusedCount) {
+        if (leaseId == null || leaseId <= 0) {
+            return;
+        }
+        ClusterFlowChecker.releaseTokenLease(leaseId, unusedCount);
+    }
+
     private boolean notValidRequest(Long id, int count) {
         return id == null || id <= 0 || count <= 0;
     }
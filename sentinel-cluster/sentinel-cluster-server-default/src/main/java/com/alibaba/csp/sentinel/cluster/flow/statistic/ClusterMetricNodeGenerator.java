@@ -72,7 +72,7 @@ public class ClusterMetricNodeGenerator {
         if (rule == null) {
             return null;
         }
-        ClusterMetric metric = ClusterMetricStatistics.getMetric(flowId);
+        ClusterMetric metric = ClusterMetricStatistics.getMetricForRead(flowId);
         if (metric == null) {
             return new ClusterMetricNode().setFlowId(flowId)
                 .setResourceName(rule.getResource());
@@ -15,15 +15,27 @@
  */
 package com.alibaba.csp.sentinel.cluster.flow.statistic;
 
+import java.util.HashMap;
+import java.util.Iterator;
 import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 
+import com.alibaba.csp.sentinel.cluster.flow.statistic.data.ClusterFlowEvent;
+import com.alibaba.csp.sentinel.cluster.flow.statistic.data.ClusterMetricBucket;
 import com.alibaba.csp.sentinel.cluster.flow.statistic.metric.ClusterMetric;
 import com.alibaba.csp.sentinel.cluster.server.config.ClusterServerConfigManager;
+import com.alibaba.csp.sentinel.slots.statistic.base.WindowWrap;
 import com.alibaba.csp.sentinel.util.AssertUtil;
 
 /**
+ * <p>Metrics of cluster flow rules (flow ID -> metric).</p>
+ *
+ * <p>A token server shard owns a single-writer copy of the metric for each flow it serves. The copy is
+ * created and updated only on the shard thread, so {@link #getMetric(long)} on a shard thread returns the
+ * copy of the shard, while other threads get the shared metric of the flow. The copy is seeded with the window
+ * of the shared metric when created, so that the counts of the flow are not lost when a shard takes it over.</p>
+ *
  * @author Eric Zhao
  * @since 1.4.0
  */
@@ -31,8 +43,18 @@ public final class ClusterMetricStatistics {
 
     private static final Map<Long, ClusterMetric> METRIC_MAP = new ConcurrentHashMap<>();
 
+    /**
+     * Metrics owned by the shard of current thread (flow ID -> metric), or null if current thread is not a shard.
+     */
+    private static final ThreadLocal<Map<Long, ShardMetric>> SHARD_METRICS = new ThreadLocal<>();
+    /**
+     * Metrics owned by shards, published for the readers on other threads.
+     */
+    private static final Map<Long, ClusterMetric> SHARD_METRIC_VIEW_MAP = new ConcurrentHashMap<>();
+
     public static void clear() {
         METRIC_MAP.clear();
+        SHARD_METRIC_VIEW_MAP.clear();
     }
 
     public static void putMetric(long id, ClusterMetric metric) {
@@ -51,10 +73,91 @@ public final class ClusterMetricStatistics {
 
     public static void removeMetric(long id) {
         METRIC_MAP.remove(id);
+        SHARD_METRIC_VIEW_MAP.remove(id);
     }
 
+    /**
+     * Get the metric of the flow to check and update. On a shard thread, this is the metric owned by the shard.
+     *
+     * @param id flow ID
+     * @return the metric of the flow, or null if the flow does not exist
+     */
     public static ClusterMetric getMetric(long id) {
-        return METRIC_MAP.get(id);
+        ClusterMetric metric = METRIC_MAP.get(id);
+        Map<Long, ShardMetric> shardMetrics = SHARD_METRICS.get();
+        if (metric == null || shardMetrics == null) {
+            return metric;
+        }
+        ShardMetric shardMetric = shardMetrics.get(id);
+        if (shardMetric == null || shardMetric.source != metric) {
+            // The flow is new to the shard or its metric has been reset.
+            if (shardMetrics.size() >= METRIC_MAP.size()) {
+                purgeShardMetrics(shardMetrics);
+            }
+            shardMetric = new ShardMetric(metric, newShardCopy(metric));
+            shardMetrics.put(id, shardMetric);
+            SHARD_METRIC_VIEW_MAP.put(id, shardMetric.metric);
+        }
+        return shardMetric.metric;
+    }
+
+    private static ClusterMetric newShardCopy(ClusterMetric source) {
+        ClusterMetric copy = new ClusterMetric(source.getSampleCount(), source.getIntervalInMs(), true);
+        for (WindowWrap<ClusterMetricBucket> window : source.listValidWindows()) {
+            for (ClusterFlowEvent event : ClusterFlowEvent.values()) {
+                long count = window.value().get(event);
+                if (count != 0) {
+                    copy.mergeWindow(window.windowStart(), event, count);
+                }
+            }
+        }
+        return copy;
+    }
+
+    /**
+     * Get the metric of the flow for reading only, e.g. to display or hand over the metric. If the flow is served
+     * by a shard, this is the metric owned by the shard, which must not be updated by current thread.
+     *
+     * @param id flow ID
+     * @return the metric of the flow, or null if the flow does not exist
+     */
+    public static ClusterMetric getMetricForRead(long id) {
+        ClusterMetric metric = SHARD_METRIC_VIEW_MAP.get(id);
+        return metric != null ? metric : METRIC_MAP.get(id);
+    }
+
+    /**
+     * Mark current thread as a token server shard, which will own the metrics of the flows it serves.
+     */
+    public static void bindShardThread() {
+        if (SHARD_METRICS.get() == null) {
+            SHARD_METRICS.set(new HashMap<Long, ShardMetric>());
+        }
+    }
+
+    /**
+     * Drop the metrics owned by the shard of current thread, e.g. when the shard is shut down.
+     */
+    public static void unbindShardThread() {
+        Map<Long, ShardMetric> shardMetrics = SHARD_METRICS.get();
+        if (shardMetrics == null) {
+            return;
+        }
+        for (Map.Entry<Long, ShardMetric> entry : shardMetrics.entrySet()) {
+            SHARD_METRIC_VIEW_MAP.remove(entry.getKey(), entry.getValue().metric);
+        }
+        SHARD_METRICS.remove();
+    }
+
+    private static void purgeShardMetrics(Map<Long, ShardMetric> shardMetrics) {
+        Iterator<Map.Entry<Long, ShardMetric>> it = shardMetrics.entrySet().iterator();
+        while (it.hasNext()) {
+            Map.Entry<Long, ShardMetric> entry = it.next();
+            if (METRIC_MAP.get(entry.getKey()) != entry.getValue().source) {
+                SHARD_METRIC_VIEW_MAP.remove(entry.getKey(), entry.getValue().metric);
+                it.remove();
+            }
+        }
     }
 
     public static void resetFlowMetrics() {
@@ -62,6 +165,20 @@ public final class ClusterMetricStatistics {
         for (Long id : keySet) {
             METRIC_MAP.put(id, new ClusterMetric(ClusterServerConfigManager.getSampleCount(),
                 ClusterServerConfigManager.getIntervalMs()));
+            SHARD_METRIC_VIEW_MAP.remove(id);
+        }
+    }
+
+    private static class ShardMetric {
+        /**
+         * The shared metric of the flow when the shard metric was created.
+         */
+        private final ClusterMetric source;
+        private final ClusterMetric metric;
+
+        private ShardMetric(ClusterMetric source, ClusterMetric metric) {
+            this.source = source;
+            this.metric = metric;
         }
     }
 
@@ -15,36 +15,86 @@
  */
 package com.alibaba.csp.sentinel.cluster.flow.statistic.data;
 
+import java.util.concurrent.atomic.AtomicLongArray;
 import java.util.concurrent.atomic.LongAdder;
 
 /**
+ * <p>Counters of cluster flow events in a bucket.</p>
+ *
+ * <p>A single-writer bucket (e.g. owned by a token server shard) keeps plain counters that must only be
+ * updated by the owner thread, while other threads can still read them.</p>
+ *
  * @author Eric Zhao
  * @since 1.4.0
  */
 public class ClusterMetricBucket {
 
+    /**
+     * Counters for concurrent writers, or null if the bucket has a single writer.
+     */
     private final LongAdder[] counters;
+    /**
+     * Counters written only by the owner thread, or null if the bucket has concurrent writers.
+     */
+    private final AtomicLongArray values;
 
     public ClusterMetricBucket() {
+        this(false);
+    }
+
+    public ClusterMetricBucket(boolean singleWriter) {
         ClusterFlowEvent[] events = ClusterFlowEvent.values();
-        this.counters = new LongAdder[events.length];
-        for (ClusterFlowEvent event : events) {
-            counters[event.ordinal()] = new LongAdder();
+        if (singleWriter) {
+            this.counters = null;
+            this.values = new AtomicLongArray(events.length);
+        } else {
+            this.values = null;
+            this.counters = new LongAdder[events.length];
+            for (ClusterFlowEvent event : events) {
+                counters[event.ordinal()] = new LongAdder();
+            }
         }
     }
 
     public void reset() {
         for (ClusterFlowEvent event : ClusterFlowEvent.values()) {
-            counters[event.ordinal()].reset();
+            if (counters != null) {
+                counters[event.ordinal()].reset();
+            } else {
+                values.lazySet(event.ordinal(), 0);
+            }
         }
     }
 
     public long get(ClusterFlowEvent event) {
-        return counters[event.ordinal()].sum();
+        if (counters != null) {
+            return counters[event.ordinal()].sum();
+        }
+        return values.get(event.ordinal());
+    }
+
+    /**
+     * Get the count of the event and reset it to zero.
+     *
+     * @param event event to get
+     * @return count of the event before reset
+     */
+    public long getThenReset(ClusterFlowEvent event) {
+        if (counters != null) {
+            return counters[event.ordinal()].sumThenReset();
+        }
+        long value = values.get(event.ordinal());
+        values.lazySet(event.ordinal(), 0);
+        return value;
     }
 
     public ClusterMetricBucket add(ClusterFlowEvent event, long count) {
-        counters[event.ordinal()].add(count);
+        if (counters != null) {
+            counters[event.ordinal()].add(count);
+        } else {
+            // Only the owner thread writes, so an ordered store is enough to publish the new value.
+            values.lazySet(event.ordinal(), values.get(event.ordinal()) + count);
+        }
         return this;
     }
 }
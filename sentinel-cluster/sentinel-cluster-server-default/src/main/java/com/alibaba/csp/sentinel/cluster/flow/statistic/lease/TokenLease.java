@@ -0,0 +1,73 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.cluster.flow.statistic.lease;
+
+/**
+ * A block of tokens leased to a token client, which is valid until {@link #getExpireTime()}.
+ *
+ * @since 1.8.7
+ */
+public class TokenLease {
+
+    private final long leaseId;
+    private final long flowId;
+    private final int count;
+    private final long grantTime;
+    private final long expireTime;
+
+    public TokenLease(long leaseId, long flowId, int count, long grantTime, long expireTime) {
+        this.leaseId = leaseId;
+        this.flowId = flowId;
+        this.count = count;
+        this.grantTime = grantTime;
+        this.expireTime = expireTime;
+    }
+
+    public long getLeaseId() {
+        return leaseId;
+    }
+
+    public long getFlowId() {
+        return flowId;
+    }
+
+    public int getCount() {
+        return count;
+    }
+
+    public long getGrantTime() {
+        return grantTime;
+    }
+
+    public long getExpireTime() {
+        return expireTime;
+    }
+
+    public boolean isExpired(long now) {
+        return now >= expireTime;
+    }
+
+    @Override
+    public String toString() {
+        return "TokenLease{" +
+            "leaseId=" + leaseId +
+            ", flowId=" + flowId +
+            ", count=" + count +
+            ", grantTime=" + grantTime +
+            ", expireTime=" + expireTime +
+            '}';
+    }
+}
@@ -0,0 +1,185 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.cluster.flow.statistic.lease;
+
+import java.util.Iterator;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * <p>Keeps track of the token leases granted by the token server.</p>
+ *
+ * <p>Leased tokens are accounted as passed when the lease is granted. The manager records the outstanding leases,
+ * so that the unused tokens returned by clients can be credited back, the tokens still outstanding after their
+ * grant has slid out of the window can be counted against the threshold, and leases that are never returned are
+ * dropped once expired.</p>
+ *
+ * @since 1.8.7
+ */
+public final class TokenLeaseManager {
+
+    private static final long PURGE_INTERVAL_MS = 1000;
+
+    private static final Map<Long, TokenLease> LEASE_MAP = new ConcurrentHashMap<>();
+    /**
+     * Format: (flowId, (leaseId, lease))
+     */
+    private static final Map<Long, Map<Long, TokenLease>> FLOW_LEASE_MAP = new ConcurrentHashMap<>();
+
+    private static final AtomicLong LAST_PURGE_TIME = new AtomicLong(0);
+
+    public static TokenLease grant(long flowId, int count, int leaseTimeInMs, long now) {
+        purgeExpiredIfNecessary(now);
+
+        TokenLease lease = new TokenLease(nextLeaseId(), flowId, count, now, now + leaseTimeInMs);
+        LEASE_MAP.put(lease.getLeaseId(), lease);
+        getOrCreateFlowLeases(flowId).put(lease.getLeaseId(), lease);
+        return lease;
+    }
+
+    /**
+     * Finish the lease of given ID.
+     *
+     * @param leaseId ID of the lease
+     * @return the finished lease, or null if the lease does not exist or has been purged
+     */
+    public static TokenLease release(long leaseId) {
+        TokenLease lease = LEASE_MAP.remove(leaseId);
+        if (lease != null) {
+            removeFromFlow(lease);
+        }
+        return lease;
+    }
+
+    /**
+     * Get the outstanding lease of given ID.
+     *
+     * @param leaseId ID of the lease
+     * @return the lease, or null if the lease does not exist or has been finished
+     */
+    public static TokenLease getLease(long leaseId) {
+        return LEASE_MAP.get(leaseId);
+    }
+
+    /**
+     * Get count of tokens in leases of the flow that have been neither returned nor expired.
+     *
+     * @param flowId flow rule ID
+     * @return count of outstanding leased tokens
+     */
+    public static long getOutstandingCount(long flowId) {
+        Map<Long, TokenLease> leases = FLOW_LEASE_MAP.get(flowId);
+        if (leases == null) {
+            return 0;
+        }
+        long count = 0;
+        for (TokenLease lease : leases.values()) {
+            count += lease.getCount();
+        }
+        return count;
+    }
+
+    /**
+     * <p>Get count of tokens in unexpired leases of the flow, whose grant bucket has already slid out of
+     * the sliding window of the flow metric.</p>
+     *
+     * <p>Leased tokens are accounted as passed in the bucket when the lease is granted. Once that bucket slides
+     * out of the window, the tokens are no longer in the pass count, but the client may still spend them until
+     * the lease expires, so they should be counted against the threshold separately.</p>
+     *
+     * @param flowId       flow rule ID
+     * @param now          current time in milliseconds
+     * @param intervalInMs interval of the sliding window of the flow metric
+     * @param sampleCount  bucket count of the sliding window of the flow metric
+     * @return count of outstanding leased tokens that are not in the window
+     */
+    public static long getOutstandingCountOutOfWindow(long flowId, long now, int intervalInMs, int sampleCount) {
+        Map<Long, TokenLease> leases = FLOW_LEASE_MAP.get(flowId);
+        if (leases == null || leases.isEmpty()) {
+            return 0;
+        }
+        int windowLengthInMs = intervalInMs / sampleCount;
+        long count = 0;
+        for (TokenLease lease : leases.values()) {
+            long grantTime = lease.getGrantTime();
+            long grantWindowStart = grantTime - grantTime % windowLengthInMs;
+            if (!lease.isExpired(now) && now - grantWindowStart > intervalInMs) {
+                count += lease.getCount();
+            }
+        }
+        return count;
+    }
+
+    public static int getLeaseSize() {
+        return LEASE_MAP.size();
+    }
+
+    public static void purgeExpired(long now) {
+        Iterator<TokenLease> iterator = LEASE_MAP.values().iterator();
+        while (iterator.hasNext()) {
+            TokenLease lease = iterator.next();
+            if (lease.isExpired(now)) {
+                iterator.remove();
+                removeFromFlow(lease);
+            }
+        }
+    }
+
+    public static void clear() {
+        LEASE_MAP.clear();
+        FLOW_LEASE_MAP.clear();
+        LAST_PURGE_TIME.set(0);
+    }
+
+    private static void purgeExpiredIfNecessary(long now) {
+        long last = LAST_PURGE_TIME.get();
+        if (now - last >= PURGE_INTERVAL_MS && LAST_PURGE_TIME.compareAndSet(last, now)) {
+            purgeExpired(now);
+        }
+    }
+
+    private static void removeFromFlow(TokenLease lease) {
+        Map<Long, TokenLease> leases = FLOW_LEASE_MAP.get(lease.getFlowId());
+        if (leases != null) {
+            leases.remove(lease.getLeaseId());
+        }
+    }
+
+    private static Map<Long, TokenLease> getOrCreateFlowLeases(long flowId) {
+        Map<Long, TokenLease> leases = FLOW_LEASE_MAP.get(flowId);
+        if (leases == null) {
+            Map<Long, TokenLease> newValue = new ConcurrentHashMap<>();
+            leases = FLOW_LEASE_MAP.putIfAbsent(flowId, newValue);
+            if (leases == null) {
+                leases = newValue;
+            }
+        }
+        return leases;
+    }
+
+    private static long nextLeaseId() {
+        // Random IDs so that leases granted before a server restart cannot be mistaken for new ones.
+        long id;
+        do {
+            id = UUID.randomUUID().getMostSignificantBits() & Long.MAX_VALUE;
+        } while (id == 0 || LEASE_MAP.containsKey(id));
+        return id;
+    }
+
+    private TokenLeaseManager() {}
+}
@@ -19,7 +19,9 @@ import java.util.List;
 
 import com.alibaba.csp.sentinel.cluster.flow.statistic.data.ClusterFlowEvent;
 import com.alibaba.csp.sentinel.cluster.flow.statistic.data.ClusterMetricBucket;
+import com.alibaba.csp.sentinel.slots.statistic.base.WindowWrap;
 import com.alibaba.csp.sentinel.util.AssertUtil;
+import com.alibaba.csp.sentinel.util.TimeUtil;
 
 /**
  * @author Eric Zhao
@@ -30,18 +32,86 @@ public class ClusterMetric {
     private final ClusterMetricLeapArray metric;
 
     public ClusterMetric(int sampleCount, int intervalInMs) {
+        this(sampleCount, intervalInMs, false);
+    }
+
+    /**
+     * @param sampleCount  bucket count of the sliding window
+     * @param intervalInMs total time length of the sliding window
+     * @param singleWriter whether the metric is only updated by one thread (e.g. a token server shard);
+     *                     other threads may still read it
+     */
+    public ClusterMetric(int sampleCount, int intervalInMs, boolean singleWriter) {
         AssertUtil.isTrue(sampleCount > 0, "sampleCount should be positive");
         AssertUtil.isTrue(intervalInMs > 0, "interval should be positive");
         AssertUtil.isTrue(intervalInMs % sampleCount == 0, "time span needs to be evenly divided");
-        this.metric = new ClusterMetricLeapArray(sampleCount, intervalInMs);
+        this.metric = new ClusterMetricLeapArray(sampleCount, intervalInMs, singleWriter);
     }
 
     public void add(ClusterFlowEvent event, long count) {
         metric.currentWindow().value().add(event, count);
     }
 
+    /**
+     * Give back part of the count of an event that was added at {@code eventTime} (e.g. unused leased tokens).
+     * Nothing is given back if the bucket of the event has already slid out of the window.
+     *
+     * @param event     event to give back
+     * @param count     count to give back
+     * @param eventTime time when the event was added
+     * @return true if the count has been given back, otherwise false
+     */
+    public boolean giveBack(ClusterFlowEvent event, long count, long eventTime) {
+        long now = TimeUtil.currentTimeMillis();
+        int windowLengthInMs = metric.getIntervalInMs() / metric.getSampleCount();
+        long eventWindowStart = eventTime - eventTime % windowLengthInMs;
+        if (now - eventWindowStart >= metric.getIntervalInMs()) {
+            return false;
+        }
+        add(event, -count);
+        return true;
+    }
+
+    /**
+     * List the buckets that are still in the sliding window, e.g. to hand over the window state to
+     * another token server.
+     *
+     * @return valid buckets of the window
+     */
+    public List<WindowWrap<ClusterMetricBucket>> listValidWindows() {
+        return metric.listInWindow(TimeUtil.currentTimeMillis());
+    }
+
+    /**
+     * Merge the count of an event into the bucket starting at {@code windowStart}, e.g. the window state
+     * handed over from another token server. Nothing is merged if the bucket is not in the window anymore.
+     *
+     * @param windowStart start time of the bucket
+     * @param event       event to merge
+     * @param count       count to merge
+     * @return true if the count has been merged, otherwise false
+     */
+    public boolean mergeWindow(long windowStart, ClusterFlowEvent event, long count) {
+        // Buckets are looked up by time without rotating the window, so live buckets are never reset.
+        ClusterMetricBucket bucket = metric.getBucketToMerge(windowStart, TimeUtil.currentTimeMillis());
+        if (bucket == null) {
+            return false;
+        }
+        bucket.add(event, count);
+        return true;
+    }
+
+    public int getIntervalInMs() {
+        return metric.getIntervalInMs();
+    }
+
+    public int getSampleCount() {
+        return metric.getSampleCount();
+    }
+
     public long getCurrentCount(ClusterFlowEvent event) {
-        return metric.currentWindow().value().get(event);
+        ClusterMetricBucket bucket = metric.getWindowValue(TimeUtil.currentTimeMillis());
+        return bucket == null ? 0 : bucket.get(event);
     }
 
     /**
@@ -51,14 +121,8 @@ public class ClusterMetric {
      * @return total sum for event
      */
     public long getSum(ClusterFlowEvent event) {
-        metric.currentWindow();
-        long sum = 0;
-
-        List<ClusterMetricBucket> buckets = metric.values();
-        for (ClusterMetricBucket bucket : buckets) {
-            sum += bucket.get(event);
-        }
-        return sum;
+        // Reading does not rotate the window, so it's also safe for readers of a single-writer metric.
+        return metric.sumInWindow(event, TimeUtil.currentTimeMillis());
     }
 
     /**
@@ -15,7 +15,8 @@
  */
 package com.alibaba.csp.sentinel.cluster.flow.statistic.metric;
 
-import java.util.concurrent.atomic.LongAdder;
+import java.util.ArrayList;
+import java.util.List;
 
 import com.alibaba.csp.sentinel.cluster.flow.statistic.data.ClusterFlowEvent;
 import com.alibaba.csp.sentinel.cluster.flow.statistic.data.ClusterMetricBucket;
@@ -28,21 +29,29 @@ import com.alibaba.csp.sentinel.slots.statistic.base.WindowWrap;
  */
 public class ClusterMetricLeapArray extends LeapArray<ClusterMetricBucket> {
 
-    private final LongAdder[] occupyCounter;
+    private final boolean singleWriter;
+    private final ClusterMetricBucket occupyCounter;
     private boolean hasOccupied = false;
 
     public ClusterMetricLeapArray(int sampleCount, int intervalInMs) {
-        super(sampleCount, intervalInMs);
-        ClusterFlowEvent[] events = ClusterFlowEvent.values();
-        this.occupyCounter = new LongAdder[events.length];
-        for (ClusterFlowEvent event : events) {
-            occupyCounter[event.ordinal()] = new LongAdder();
-        }
+        this(sampleCount, intervalInMs, false);
+    }
+
+    /**
+     * @param sampleCount  bucket count of the sliding window
+     * @param intervalInMs total time length of the sliding window
+     * @param singleWriter whether the window is only updated by one thread (e.g. a token server shard)
+     */
+    public ClusterMetricLeapArray(int sampleCount, int intervalInMs, boolean singleWriter) {
+        // Occupied counters are transferred on reset, so the window must be reset in place.
+        super(sampleCount, intervalInMs, false);
+        this.singleWriter = singleWriter;
+        this.occupyCounter = new ClusterMetricBucket(singleWriter);
     }
 
     @Override
     public ClusterMetricBucket newEmptyBucket(long timeMillis) {
-        return new ClusterMetricBucket();
+        return new ClusterMetricBucket(singleWriter);
     }
 
     @Override
@@ -63,21 +72,21 @@ public class ClusterMetricLeapArray extends LeapArray<ClusterMetricBucket> {
     }
 
     private void transferOccupiedCount(ClusterMetricBucket bucket, ClusterFlowEvent source, ClusterFlowEvent target) {
-        bucket.add(target, occupyCounter[source.ordinal()].sum());
+        bucket.add(target, occupyCounter.get(source));
     }
 
     private void transferOccupiedThenReset(ClusterMetricBucket bucket, ClusterFlowEvent event) {
-        bucket.add(event, occupyCounter[event.ordinal()].sumThenReset());
+        bucket.add(event, occupyCounter.getThenReset(event));
     }
 
     public void addOccupyPass(int count) {
-        occupyCounter[ClusterFlowEvent.PASS.ordinal()].add(count);
-        occupyCounter[ClusterFlowEvent.PASS_REQUEST.ordinal()].add(1);
+        occupyCounter.add(ClusterFlowEvent.PASS, count);
+        occupyCounter.add(ClusterFlowEvent.PASS_REQUEST, 1);
         this.hasOccupied = true;
     }
 
     public long getOccupiedCount(ClusterFlowEvent event) {
-        return occupyCounter[event.ordinal()].sum();
+        return occupyCounter.get(event);
     }
 
     public long getFirstCountOfWindow(ClusterFlowEvent event) {
@@ -90,4 +99,77 @@ public class ClusterMetricLeapArray extends LeapArray<ClusterMetricBucket> {
         }
         return windowWrap.value().get(event);
     }
+
+    /**
+     * Get the sum of the event over the buckets in the window at provided time. The window is not rotated,
+     * so this can also be called by readers of a single-writer window.
+     *
+     * @param event      event to sum
+     * @param timeMillis a valid timestamp in milliseconds
+     * @return sum of the event in the window
+     */
+    public long sumInWindow(ClusterFlowEvent event, long timeMillis) {
+        long sum = 0;
+        for (int i = 0; i < array.length(); i++) {
+            WindowWrap<ClusterMetricBucket> windowWrap = array.get(i);
+            if (windowWrap != null && isInWindow(timeMillis, windowWrap)) {
+                sum += windowWrap.value().get(event);
+            }
+        }
+        return sum;
+    }
+
+    /**
+     * List the buckets in the window at provided time without rotating the window.
+     *
+     * @param timeMillis a valid timestamp in milliseconds
+     * @return buckets in the window
+     */
+    public List<WindowWrap<ClusterMetricBucket>> listInWindow(long timeMillis) {
+        List<WindowWrap<ClusterMetricBucket>> result = new ArrayList<>(array.length());
+        for (int i = 0; i < array.length(); i++) {
+            WindowWrap<ClusterMetricBucket> windowWrap = array.get(i);
+            if (windowWrap != null && isInWindow(timeMillis, windowWrap)) {
+                result.add(windowWrap);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * <p>Get the bucket of provided time to merge counts into (e.g. the window state handed over from another
+     * token server). Unlike {@link #currentWindow(long)}, this never rotates a live bucket or moves the occupied
+     * counters: an absent or deprecated bucket in the slot is replaced by a new empty bucket.</p>
+     *
+     * @param timeMillis a timestamp within the window
+     * @param now        current timestamp in milliseconds
+     * @return the bucket of provided time, or null if the time is not within the window
+     */
+    public ClusterMetricBucket getBucketToMerge(long timeMillis, long now) {
+        long windowStart = calculateWindowStart(timeMillis);
+        if (timeMillis > now || now - windowStart >= intervalInMs) {
+            return null;
+        }
+        int idx = (int)((timeMillis / windowLengthInMs) % array.length());
+        while (true) {
+            WindowWrap<ClusterMetricBucket> old = array.get(idx);
+            if (old != null && old.windowStart() == windowStart) {
+                return old.value();
+            }
+            if (old != null && isInWindow(now, old)) {
+                // The slot has been taken by a live bucket, which should not happen as the time is in the window.
+                return null;
+            }
+            WindowWrap<ClusterMetricBucket> window = new WindowWrap<>(windowLengthInMs, windowStart,
+                newEmptyBucket(timeMillis));
+            if (array.compareAndSet(idx, old, window)) {
+                return window.value();
+            }
+        }
+    }
+
+    private boolean isInWindow(long timeMillis, WindowWrap<ClusterMetricBucket> windowWrap) {
+        long elapsed = timeMillis - windowWrap.windowStart();
+        return elapsed >= 0 && elapsed < intervalInMs;
+    }
 }
@@ -59,6 +59,21 @@ public class DefaultEmbeddedTokenServer implements EmbeddedClusterTokenServer {
         return new TokenResult(TokenResultStatus.FAIL);
     }
 
+    @Override
+    public TokenResult requestTokenLease(Long ruleId, int leaseCount, int leaseTimeInMs) {
+        if (tokenService != null) {
+            return tokenService.requestTokenLease(ruleId, leaseCount, leaseTimeInMs);
+        }
+        return new TokenResult(TokenResultStatus.FAIL);
+    }
+
+    @Override
+    public void releaseTokenLease(Long leaseId, int unusedCount) {
+        if (tokenService != null) {
+            tokenService.releaseTokenLease(leaseId, unusedCount);
+        }
+    }
+
     @Override
     public TokenResult requestConcurrentToken(String clientAddress, Long ruleId, int acquireCount) {
         return null;
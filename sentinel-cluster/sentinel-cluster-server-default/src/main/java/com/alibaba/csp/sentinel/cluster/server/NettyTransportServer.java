@@ -21,9 +21,11 @@ import java.util.concurrent.atomic.AtomicInteger;
 
 import com.alibaba.csp.sentinel.cluster.server.codec.netty.NettyRequestDecoder;
 import com.alibaba.csp.sentinel.cluster.server.codec.netty.NettyResponseEncoder;
+import com.alibaba.csp.sentinel.cluster.server.config.ClusterServerConfigManager;
 import com.alibaba.csp.sentinel.cluster.server.connection.Connection;
 import com.alibaba.csp.sentinel.cluster.server.connection.ConnectionPool;
 import com.alibaba.csp.sentinel.cluster.server.handler.TokenServerHandler;
+import com.alibaba.csp.sentinel.cluster.server.shard.TokenShardGroup;
 import com.alibaba.csp.sentinel.log.RecordLog;
 
 import io.netty.bootstrap.ServerBootstrap;
@@ -56,9 +58,11 @@ public class NettyTransportServer implements ClusterTokenServer {
     private static final int RETRY_SLEEP_MS = 2000;
 
     private final int port;
+    private final boolean shardingEnabled;
 
     private NioEventLoopGroup bossGroup;
     private NioEventLoopGroup workerGroup;
+    private volatile TokenShardGroup shardGroup;
 
     private final ConnectionPool connectionPool = new ConnectionPool();
 
@@ -66,7 +70,17 @@ public class NettyTransportServer implements ClusterTokenServer {
     private final AtomicInteger failedTimes = new AtomicInteger(0);
 
     public NettyTransportServer(int port) {
+        this(port, true);
+    }
+
+    /**
+     * @param port            port of the server
+     * @param shardingEnabled whether token requests may be dispatched to shards
+     *                        (see {@link ClusterServerConfigManager#getShardCount()})
+     */
+    public NettyTransportServer(int port, boolean shardingEnabled) {
         this.port = port;
+        this.shardingEnabled = shardingEnabled;
     }
 
     @Override
@@ -78,6 +92,9 @@ public class NettyTransportServer implements ClusterTokenServer {
         ServerBootstrap b = new ServerBootstrap();
         this.bossGroup = new NioEventLoopGroup(1);
         this.workerGroup = new NioEventLoopGroup(DEFAULT_EVENT_LOOP_THREADS);
+        int shardCount = shardingEnabled ? ClusterServerConfigManager.getShardCount() : 0;
+        final TokenShardGroup shards = shardCount > 0 ? new TokenShardGroup(shardCount) : null;
+        this.shardGroup = shards;
         b.group(bossGroup, workerGroup)
             .channel(NioServerSocketChannel.class)
             .option(ChannelOption.SO_BACKLOG, 128)
@@ -90,7 +107,7 @@ public class NettyTransportServer implements ClusterTokenServer {
                     p.addLast(new NettyRequestDecoder());
                     p.addLast(new LengthFieldPrepender(2));
                     p.addLast(new NettyResponseEncoder());
-                    p.addLast(new TokenServerHandler(connectionPool));
+                    p.addLast(new TokenServerHandler(connectionPool, shards));
                 }
             })
             .childOption(ChannelOption.ALLOCATOR, PooledByteBufAllocator.DEFAULT)
@@ -106,6 +123,9 @@ public class NettyTransportServer implements ClusterTokenServer {
                     RecordLog.info("[NettyTransportServer] Token server start failed (port=" + port + "), failedTimes: " + failedTimes.get(),
                         future.cause());
                     currentState.compareAndSet(SERVER_STATUS_STARTING, SERVER_STATUS_OFF);
+                    if (shards != null) {
+                        shards.shutdown();
+                    }
                     int failCount = failedTimes.incrementAndGet();
                     if (failCount > MAX_RETRY_TIMES) {
                         return;
@@ -118,7 +138,8 @@ public class NettyTransportServer implements ClusterTokenServer {
                         RecordLog.info("[NettyTransportServer] Failed to start token server when retrying", e);
                     }
                 } else {
-                    RecordLog.info("[NettyTransportServer] Token server started success at port {}", port);
+                    RecordLog.info("[NettyTransportServer] Token server started success at port {}, shardCount: {}",
+                        port, shards == null ? 0 : shards.getShardCount());
                     currentState.compareAndSet(SERVER_STATUS_STARTING, SERVER_STATUS_STARTED);
                 }
             }
@@ -141,6 +162,10 @@ public class NettyTransportServer implements ClusterTokenServer {
                 bossGroup.shutdownGracefully();
                 workerGroup.shutdownGracefully();
                 connectionPool.shutdownAll();
+                if (shardGroup != null) {
+                    shardGroup.shutdown();
+                    shardGroup = null;
+                }
 
                 failedTimes.set(0);
 
@@ -40,6 +40,7 @@ public class SentinelDefaultTokenServer implements ClusterTokenServer {
 
     private ClusterTokenServer server;
     private int port;
+    private int shardCount;
     private final AtomicBoolean shouldStart = new AtomicBoolean(false);
 
     static {
@@ -67,25 +68,33 @@ public class SentinelDefaultTokenServer implements ClusterTokenServer {
         }
         int port = ClusterServerConfigManager.getPort();
         if (port > 0) {
-            this.server = new NettyTransportServer(port);
+            this.server = newTransportServer(port);
             this.port = port;
+            this.shardCount = ClusterServerConfigManager.getShardCount();
         }
     }
 
+    private ClusterTokenServer newTransportServer(int port) {
+        // The local requests of an embedded server are checked on the caller threads rather than
+        // on the shards, so sharding is only available for the standalone server.
+        return new NettyTransportServer(port, !embedded);
+    }
+
     private synchronized void changeServerConfig(ServerTransportConfig config) {
         if (config == null || config.getPort() <= 0) {
             return;
         }
         int newPort = config.getPort();
-        if (newPort == port) {
+        if (newPort == port && config.getShardCount() == shardCount) {
             return;
         }
         try {
             if (server != null) {
                 stopServer();
             }
-            this.server = new NettyTransportServer(newPort);
+            this.server = newTransportServer(newPort);
             this.port = newPort;
+            this.shardCount = config.getShardCount();
             startServerIfScheduled();
         } catch (Exception ex) {
             RecordLog.warn("[SentinelDefaultTokenServer] Failed to apply modification to token server", ex);
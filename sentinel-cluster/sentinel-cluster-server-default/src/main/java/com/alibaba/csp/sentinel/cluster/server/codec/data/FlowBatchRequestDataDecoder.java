@@ -0,0 +1,52 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.cluster.server.codec.data;
+
+import com.alibaba.csp.sentinel.cluster.ClusterConstants;
+import com.alibaba.csp.sentinel.cluster.codec.EntityDecoder;
+import com.alibaba.csp.sentinel.cluster.request.data.FlowBatchRequestData;
+
+import io.netty.buffer.ByteBuf;
+
+/**
+ * <p>Decoder for {@link FlowBatchRequestData} from {@code ByteBuf} stream. The layout:</p>
+ * <pre>
+ * | size (2) | flow ID (8) | count (4) | priority (1) | ... |
+ * </pre>
+ *
+ * @since 1.8.7
+ */
+public class FlowBatchRequestDataDecoder implements EntityDecoder<ByteBuf, FlowBatchRequestData> {
+
+    private static final int ENTRY_LENGTH = 13;
+
+    @Override
+    public FlowBatchRequestData decode(ByteBuf source) {
+        if (source.readableBytes() < 2) {
+            return null;
+        }
+        int size = source.readUnsignedShort();
+        if (size <= 0 || size > ClusterConstants.MAX_FLOW_BATCH_SIZE
+            || source.readableBytes() < size * ENTRY_LENGTH) {
+            return null;
+        }
+        FlowBatchRequestData data = new FlowBatchRequestData(size);
+        for (int i = 0; i < size; i++) {
+            data.add(source.readLong(), source.readInt(), source.readBoolean());
+        }
+        return data;
+    }
+}
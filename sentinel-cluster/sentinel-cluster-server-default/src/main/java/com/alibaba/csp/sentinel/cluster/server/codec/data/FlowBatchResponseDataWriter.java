@@ -0,0 +1,47 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.cluster.server.codec.data;
+
+import com.alibaba.csp.sentinel.cluster.codec.EntityWriter;
+import com.alibaba.csp.sentinel.cluster.response.data.FlowBatchResponseData;
+
+import io.netty.buffer.ByteBuf;
+
+/**
+ * <p>Writer for {@link FlowBatchResponseData}. The layout:</p>
+ * <pre>
+ * | size (2) | status (1) | remaining (4) | wait in ms (4) | ... |
+ * </pre>
+ * <p>An absent data (response of batch probe) writes nothing.</p>
+ *
+ * @since 1.8.7
+ */
+public class FlowBatchResponseDataWriter implements EntityWriter<FlowBatchResponseData, ByteBuf> {
+
+    @Override
+    public void writeTo(FlowBatchResponseData entity, ByteBuf out) {
+        if (entity == null) {
+            return;
+        }
+        int size = entity.size();
+        out.writeShort(size);
+        for (int i = 0; i < size; i++) {
+            out.writeByte(entity.getStatus(i));
+            out.writeInt(entity.getRemainingCount(i));
+            out.writeInt(entity.getWaitInMs(i));
+        }
+    }
+}
@@ -0,0 +1,56 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.cluster.server.codec.data;
+
+import com.alibaba.csp.sentinel.cluster.ClusterConstants;
+import com.alibaba.csp.sentinel.cluster.codec.EntityDecoder;
+import com.alibaba.csp.sentinel.cluster.request.data.FlowWindowMigrateRequestData;
+
+import io.netty.buffer.ByteBuf;
+
+/**
+ * Decoder for {@link FlowWindowMigrateRequestData} from {@code ByteBuf} stream.
+ * See {@link FlowWindowMigrateRequestDataWriter} for the layout.
+ *
+ * @since 1.8.7
+ */
+public class FlowWindowMigrateRequestDataDecoder implements EntityDecoder<ByteBuf, FlowWindowMigrateRequestData> {
+
+    @Override
+    public FlowWindowMigrateRequestData decode(ByteBuf source) {
+        if (source.readableBytes() < 10) {
+            return null;
+        }
+        long flowId = source.readLong();
+        int eventCount = source.readUnsignedByte();
+        int size = source.readUnsignedByte();
+        if (eventCount <= 0 || eventCount > ClusterConstants.MAX_MIGRATE_EVENT_SIZE
+            || size <= 0 || size > ClusterConstants.MAX_MIGRATE_WINDOW_SIZE
+            || source.readableBytes() < size * (8 + 4 * eventCount)) {
+            return null;
+        }
+        FlowWindowMigrateRequestData data = new FlowWindowMigrateRequestData(flowId, size, eventCount);
+        for (int i = 0; i < size; i++) {
+            long windowStart = source.readLong();
+            int[] counts = new int[eventCount];
+            for (int e = 0; e < eventCount; e++) {
+                counts[e] = source.readInt();
+            }
+            data.add(windowStart, counts);
+        }
+        return data;
+    }
+}
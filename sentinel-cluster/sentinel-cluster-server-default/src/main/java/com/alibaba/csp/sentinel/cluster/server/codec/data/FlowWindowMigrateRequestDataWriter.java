@@ -0,0 +1,48 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.cluster.server.codec.data;
+
+import com.alibaba.csp.sentinel.cluster.codec.EntityWriter;
+import com.alibaba.csp.sentinel.cluster.request.data.FlowWindowMigrateRequestData;
+
+import io.netty.buffer.ByteBuf;
+
+/**
+ * <p>Writer for {@link FlowWindowMigrateRequestData}, which is sent from a token server to another.
+ * The layout:</p>
+ * <pre>
+ * | flow ID (8) | event count (1) | size (1) | window start (8) | count (4) * event count | ... |
+ * </pre>
+ *
+ * @since 1.8.7
+ */
+public class FlowWindowMigrateRequestDataWriter implements EntityWriter<FlowWindowMigrateRequestData, ByteBuf> {
+
+    @Override
+    public void writeTo(FlowWindowMigrateRequestData entity, ByteBuf out) {
+        int eventCount = entity.getEventCount();
+        int size = entity.size();
+        out.writeLong(entity.getFlowId());
+        out.writeByte(eventCount);
+        out.writeByte(size);
+        for (int i = 0; i < size; i++) {
+            out.writeLong(entity.getWindowStart(i));
+            for (int e = 0; e < eventCount; e++) {
+                out.writeInt(entity.getCount(i, e));
+            }
+        }
+    }
+}
@@ -18,6 +18,8 @@ package com.alibaba.csp.sentinel.cluster.server.command.handler;
 import com.alibaba.csp.sentinel.cluster.server.config.ClusterServerConfigManager;
 import com.alibaba.csp.sentinel.cluster.server.config.ServerFlowConfig;
 import com.alibaba.csp.sentinel.cluster.server.config.ServerTransportConfig;
+import com.alibaba.csp.sentinel.cluster.server.partition.ClusterServerPartitionManager;
+import com.alibaba.csp.sentinel.cluster.server.partition.ServerPartitionConfig;
 import com.alibaba.csp.sentinel.command.CommandHandler;
 import com.alibaba.csp.sentinel.command.CommandRequest;
 import com.alibaba.csp.sentinel.command.CommandResponse;
@@ -55,7 +57,8 @@ public class FetchClusterServerConfigHandler implements CommandHandler<String> {
     private CommandResponse<String> globalConfigResult() {
         ServerTransportConfig transportConfig = new ServerTransportConfig()
             .setPort(ClusterServerConfigManager.getPort())
-            .setIdleSeconds(ClusterServerConfigManager.getIdleSeconds());
+            .setIdleSeconds(ClusterServerConfigManager.getIdleSeconds())
+            .setShardCount(ClusterServerConfigManager.getShardCount());
         ServerFlowConfig flowConfig = new ServerFlowConfig()
             .setExceedCount(ClusterServerConfigManager.getExceedCount())
             .setMaxOccupyRatio(ClusterServerConfigManager.getMaxOccupyRatio())
@@ -65,6 +68,11 @@ public class FetchClusterServerConfigHandler implements CommandHandler<String> {
             .fluentPut("transport", transportConfig)
             .fluentPut("flow", flowConfig)
             .fluentPut("namespaceSet", ClusterServerConfigManager.getNamespaceSet());
+        if (ClusterServerPartitionManager.isPartitioned()) {
+            config.fluentPut("partition", new ServerPartitionConfig()
+                .setLocalServer(ClusterServerPartitionManager.getLocalServer())
+                .setServers(ClusterServerPartitionManager.getPartitionServers()));
+        }
         return CommandResponse.ofSuccess(config.toJSONString());
     }
 }
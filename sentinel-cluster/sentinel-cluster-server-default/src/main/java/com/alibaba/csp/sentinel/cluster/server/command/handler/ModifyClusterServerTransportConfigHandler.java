@@ -43,9 +43,13 @@ public class ModifyClusterServerTransportConfigHandler implements CommandHandler
         try {
             int port = Integer.valueOf(portValue);
             int idleSeconds = Integer.valueOf(idleSecondsValue);
+            // Shard count is optional, keep the current one if absent.
+            String shardCountValue = request.getParam("shardCount");
+            int shardCount = StringUtil.isBlank(shardCountValue) ? ClusterServerConfigManager.getShardCount()
+                : Integer.valueOf(shardCountValue);
 
             ClusterServerConfigManager.loadGlobalTransportConfig(new ServerTransportConfig()
-                .setPort(port).setIdleSeconds(idleSeconds));
+                .setPort(port).setIdleSeconds(idleSeconds).setShardCount(shardCount));
             return CommandResponse.ofSuccess("success");
         } catch (NumberFormatException e) {
             return CommandResponse.ofFailure(new IllegalArgumentException("invalid parameter"));
@@ -0,0 +1,56 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.cluster.server.command.handler;
+
+import java.net.URLDecoder;
+
+import com.alibaba.csp.sentinel.cluster.server.partition.ClusterServerPartitionManager;
+import com.alibaba.csp.sentinel.cluster.server.partition.ServerPartitionConfig;
+import com.alibaba.csp.sentinel.command.CommandHandler;
+import com.alibaba.csp.sentinel.command.CommandRequest;
+import com.alibaba.csp.sentinel.command.CommandResponse;
+import com.alibaba.csp.sentinel.command.annotation.CommandMapping;
+import com.alibaba.csp.sentinel.log.RecordLog;
+import com.alibaba.csp.sentinel.util.StringUtil;
+import com.alibaba.fastjson.JSON;
+
+/**
+ * @since 1.8.7
+ */
+@CommandMapping(name = "cluster/server/modifyPartitionConfig", desc = "modify cluster server partition config")
+public class ModifyServerPartitionConfigHandler implements CommandHandler<String> {
+
+    @Override
+    public CommandResponse<String> handle(CommandRequest request) {
+        String data = request.getParam("data");
+        if (StringUtil.isBlank(data)) {
+            return CommandResponse.ofFailure(new IllegalArgumentException("empty data"));
+        }
+        try {
+            data = URLDecoder.decode(data, "utf-8");
+            RecordLog.info("[ModifyServerPartitionConfigHandler] Receiving cluster server partition config: {}", data);
+            ServerPartitionConfig config = JSON.parseObject(data, ServerPartitionConfig.class);
+            if (!ClusterServerPartitionManager.isValidConfig(config)) {
+                return CommandResponse.ofFailure(new IllegalArgumentException("invalid partition config"));
+            }
+            ClusterServerPartitionManager.loadPartitionConfig(config);
+            return CommandResponse.ofSuccess("success");
+        } catch (Exception e) {
+            RecordLog.warn("[ModifyServerPartitionConfigHandler] Decode cluster server partition config error", e);
+            return CommandResponse.ofFailure(e, "decode cluster server partition config error");
+        }
+    }
+}
@@ -44,6 +44,8 @@ import com.alibaba.csp.sentinel.util.AssertUtil;
  */
 public final class ClusterServerConfigManager {
 
+    public static final int MAX_SHARD_COUNT = 256;
+
     private static boolean embedded = false;
 
     /**
@@ -51,6 +53,7 @@ public final class ClusterServerConfigManager {
      */
     private static volatile int port = ClusterConstants.DEFAULT_CLUSTER_SERVER_PORT;
     private static volatile int idleSeconds = ServerTransportConfig.DEFAULT_IDLE_SECONDS;
+    private static volatile int shardCount = 0;
     private static volatile Set<String> namespaceSet = Collections.singleton(ServerConstants.DEFAULT_NAMESPACE);
 
     /**
@@ -283,14 +286,17 @@ public final class ClusterServerConfigManager {
             if (config.getIdleSeconds() != idleSeconds) {
                 idleSeconds = config.getIdleSeconds();
             }
-            updateTokenServer(config);
+            // Changing the shard count restarts the token server, like changing the port does.
+            boolean shardChanged = config.getShardCount() != shardCount;
+            shardCount = config.getShardCount();
+            updateTokenServer(config, shardChanged);
         }
     }
 
-    private static void updateTokenServer(ServerTransportConfig config) {
+    private static void updateTokenServer(ServerTransportConfig config, boolean shardChanged) {
         int newPort = config.getPort();
         AssertUtil.isTrue(newPort > 0, "token server port should be valid (positive)");
-        if (newPort == port) {
+        if (newPort == port && !shardChanged) {
             return;
         }
         ClusterServerConfigManager.port = newPort;
@@ -346,7 +352,8 @@ public final class ClusterServerConfigManager {
     }
 
     public static boolean isValidTransportConfig(ServerTransportConfig config) {
-        return config != null && config.getPort() > 0 && config.getPort() <= 65535;
+        return config != null && config.getPort() > 0 && config.getPort() <= 65535
+            && config.getShardCount() >= 0 && config.getShardCount() <= MAX_SHARD_COUNT;
     }
 
     public static boolean isValidFlowConfig(ServerFlowConfig config) {
@@ -430,6 +437,10 @@ public final class ClusterServerConfigManager {
         return idleSeconds;
     }
 
+    public static int getShardCount() {
+        return shardCount;
+    }
+
     public static int getIntervalMs() {
         return intervalMs;
     }
@@ -27,6 +27,11 @@ public class ServerTransportConfig {
 
     private int port;
     private int idleSeconds;
+    /**
+     * Count of shards that token requests are routed to by flow ID (0 means no sharding,
+     * requests are processed in the I/O threads directly).
+     */
+    private int shardCount = 0;
 
     public ServerTransportConfig() {
         this(ClusterConstants.DEFAULT_CLUSTER_SERVER_PORT, DEFAULT_IDLE_SECONDS);
@@ -55,11 +60,21 @@ public class ServerTransportConfig {
         return this;
     }
 
+    public int getShardCount() {
+        return shardCount;
+    }
+
+    public ServerTransportConfig setShardCount(int shardCount) {
+        this.shardCount = shardCount;
+        return this;
+    }
+
     @Override
     public String toString() {
         return "ServerTransportConfig{" +
             "port=" + port +
             ", idleSeconds=" + idleSeconds +
+            ", shardCount=" + shardCount +
             '}';
     }
 }
@@ -16,14 +16,28 @@
 package com.alibaba.csp.sentinel.cluster.server.handler;
 
 import java.net.InetSocketAddress;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import com.alibaba.csp.sentinel.cluster.ClusterConstants;
+import com.alibaba.csp.sentinel.cluster.TokenResultStatus;
+import com.alibaba.csp.sentinel.cluster.TokenService;
+import com.alibaba.csp.sentinel.cluster.flow.statistic.lease.TokenLease;
+import com.alibaba.csp.sentinel.cluster.flow.statistic.lease.TokenLeaseManager;
 import com.alibaba.csp.sentinel.cluster.request.ClusterRequest;
+import com.alibaba.csp.sentinel.cluster.request.data.FlowBatchRequestData;
+import com.alibaba.csp.sentinel.cluster.request.data.FlowLeaseRequestData;
+import com.alibaba.csp.sentinel.cluster.request.data.FlowRequestData;
+import com.alibaba.csp.sentinel.cluster.request.data.FlowWindowMigrateRequestData;
+import com.alibaba.csp.sentinel.cluster.request.data.ParamFlowRequestData;
 import com.alibaba.csp.sentinel.cluster.response.ClusterResponse;
+import com.alibaba.csp.sentinel.cluster.response.data.FlowBatchResponseData;
+import com.alibaba.csp.sentinel.cluster.server.TokenServiceProvider;
 import com.alibaba.csp.sentinel.cluster.server.connection.ConnectionManager;
 import com.alibaba.csp.sentinel.cluster.server.connection.ConnectionPool;
+import com.alibaba.csp.sentinel.cluster.server.processor.FlowBatchRequestProcessor;
 import com.alibaba.csp.sentinel.cluster.server.processor.RequestProcessor;
 import com.alibaba.csp.sentinel.cluster.server.processor.RequestProcessorProvider;
+import com.alibaba.csp.sentinel.cluster.server.shard.TokenShardGroup;
 import com.alibaba.csp.sentinel.log.RecordLog;
 import com.alibaba.csp.sentinel.util.StringUtil;
 
@@ -31,7 +45,12 @@ import io.netty.channel.ChannelHandlerContext;
 import io.netty.channel.ChannelInboundHandlerAdapter;
 
 /**
- * Netty server handler for Sentinel token server.
+ * <p>Netty server handler for Sentinel token server.</p>
+ *
+ * <p>If a {@link TokenShardGroup} is present, flow requests are handed over to the shard that owns the flow,
+ * and the entries of a batch request are split across the shards of their flows. A request (or batch entry)
+ * whose shard is saturated is answered with {@link TokenResultStatus#TOO_MANY_REQUEST} instead of being
+ * processed on the I/O thread.</p>
  *
  * @author Eric Zhao
  * @since 1.4.0
@@ -39,9 +58,15 @@ import io.netty.channel.ChannelInboundHandlerAdapter;
 public class TokenServerHandler extends ChannelInboundHandlerAdapter {
 
     private final ConnectionPool globalConnectionPool;
+    private final TokenShardGroup shardGroup;
 
     public TokenServerHandler(ConnectionPool globalConnectionPool) {
+        this(globalConnectionPool, null);
+    }
+
+    public TokenServerHandler(ConnectionPool globalConnectionPool, TokenShardGroup shardGroup) {
         this.globalConnectionPool = globalConnectionPool;
+        this.shardGroup = shardGroup;
     }
 
     @Override
@@ -74,13 +99,132 @@ public class TokenServerHandler extends ChannelInboundHandlerAdapter {
             if (processor == null) {
                 RecordLog.warn("[TokenServerHandler] No processor for request type: " + request.getType());
                 writeBadResponse(ctx, request);
-            } else {
+            } else if (shardGroup == null || !dispatchToShard(ctx, request, processor)) {
                 ClusterResponse<?> response = processor.processRequest(request);
                 writeResponse(ctx, response);
             }
         }
     }
 
+    /**
+     * Dispatch the request to the shard of its flow.
+     *
+     * @return true if the request has been taken over (or rejected) by shards; false if it is not bound to
+     * a flow and should be processed in place
+     */
+    private boolean dispatchToShard(final ChannelHandlerContext ctx, final ClusterRequest request,
+                                    final RequestProcessor processor) {
+        Object data = request.getData();
+        if (data instanceof FlowBatchRequestData) {
+            return dispatchBatchToShards(ctx, request, (FlowBatchRequestData)data);
+        }
+        Long flowId = resolveFlowId(data);
+        if (flowId == null) {
+            return false;
+        }
+        boolean dispatched = shardGroup.dispatch(shardGroup.shardOf(flowId), new Runnable() {
+            @Override
+            @SuppressWarnings("unchecked")
+            public void run() {
+                try {
+                    writeResponse(ctx, processor.processRequest(request));
+                } catch (Throwable ex) {
+                    RecordLog.warn("[TokenServerHandler] Failed to process request in shard: " + request, ex);
+                }
+            }
+        });
+        if (!dispatched) {
+            writeResponse(ctx, new ClusterResponse<>(request.getId(), request.getType(),
+                TokenResultStatus.TOO_MANY_REQUEST, null));
+        }
+        return true;
+    }
+
+    private boolean dispatchBatchToShards(final ChannelHandlerContext ctx, final ClusterRequest request,
+                                          final FlowBatchRequestData data) {
+        int size = data.size();
+        int shardCount = shardGroup.getShardCount();
+        final int[] shardOfEntry = new int[size];
+        int[] entryCount = new int[shardCount];
+        int involved = 0;
+        for (int i = 0; i < size; i++) {
+            int shard = shardGroup.shardOf(data.getFlowId(i));
+            shardOfEntry[i] = shard;
+            if (entryCount[shard]++ == 0) {
+                involved++;
+            }
+        }
+
+        final TokenService tokenService = TokenServiceProvider.getService();
+        final FlowBatchResponseData responseData = new FlowBatchResponseData(size);
+        // The last shard that finishes its part writes the response.
+        final AtomicInteger pendingShards = new AtomicInteger(involved);
+        for (int s = 0; s < shardCount; s++) {
+            if (entryCount[s] == 0) {
+                continue;
+            }
+            final int shard = s;
+            Runnable task = new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        for (int i = 0; i < shardOfEntry.length; i++) {
+                            if (shardOfEntry[i] == shard) {
+                                FlowBatchRequestProcessor.processEntry(tokenService, data, i, responseData);
+                            }
+                        }
+                    } catch (Throwable ex) {
+                        RecordLog.warn("[TokenServerHandler] Failed to process batch entries in shard " + shard, ex);
+                    } finally {
+                        if (pendingShards.decrementAndGet() == 0) {
+                            writeResponse(ctx, new ClusterResponse<>(request.getId(), request.getType(),
+                                ClusterConstants.RESPONSE_STATUS_OK, responseData));
+                        }
+                    }
+                }
+            };
+            if (!shardGroup.dispatch(shard, task)) {
+                rejectBatchEntries(shardOfEntry, shard, responseData);
+                if (pendingShards.decrementAndGet() == 0) {
+                    writeResponse(ctx, new ClusterResponse<>(request.getId(), request.getType(),
+                        ClusterConstants.RESPONSE_STATUS_OK, responseData));
+                }
+            }
+        }
+        return true;
+    }
+
+    private void rejectBatchEntries(int[] shardOfEntry, int shard, FlowBatchResponseData responseData) {
+        for (int i = 0; i < shardOfEntry.length; i++) {
+            if (shardOfEntry[i] == shard) {
+                responseData.set(i, TokenResultStatus.TOO_MANY_REQUEST, 0, 0);
+            }
+        }
+    }
+
+    private Long resolveFlowId(Object data) {
+        if (data instanceof FlowRequestData) {
+            return ((FlowRequestData)data).getFlowId();
+        }
+        if (data instanceof ParamFlowRequestData) {
+            return ((ParamFlowRequestData)data).getFlowId();
+        }
+        if (data instanceof FlowWindowMigrateRequestData) {
+            // Merging the window updates the metric owned by the shard.
+            return ((FlowWindowMigrateRequestData)data).getFlowId();
+        }
+        if (data instanceof FlowLeaseRequestData) {
+            FlowLeaseRequestData leaseData = (FlowLeaseRequestData)data;
+            if (leaseData.getCount() > 0) {
+                return leaseData.getFlowId();
+            }
+            // A pure release carries only the lease ID, so find the flow from the lease.
+            TokenLease lease = TokenLeaseManager.getLease(leaseData.getReleaseLeaseId());
+            return lease == null ? null : lease.getFlowId();
+        }
+        return null;
+    }
+
     private void writeBadResponse(ChannelHandlerContext ctx, ClusterRequest request) {
         ClusterResponse<?> response = new ClusterResponse<>(request.getId(), request.getType(),
             ClusterConstants.RESPONSE_STATUS_BAD, null);
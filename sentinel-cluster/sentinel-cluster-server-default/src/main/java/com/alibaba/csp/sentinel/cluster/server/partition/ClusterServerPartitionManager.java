@@ -0,0 +1,214 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.cluster.server.partition;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.alibaba.csp.sentinel.cluster.flow.rule.ClusterFlowRuleManager;
+import com.alibaba.csp.sentinel.cluster.flow.statistic.ClusterMetricStatistics;
+import com.alibaba.csp.sentinel.cluster.partition.ConsistentHashRing;
+import com.alibaba.csp.sentinel.cluster.request.data.FlowWindowMigrateRequestData;
+import com.alibaba.csp.sentinel.log.RecordLog;
+import com.alibaba.csp.sentinel.property.DynamicSentinelProperty;
+import com.alibaba.csp.sentinel.property.PropertyListener;
+import com.alibaba.csp.sentinel.property.SentinelProperty;
+import com.alibaba.csp.sentinel.slots.block.flow.FlowRule;
+import com.alibaba.csp.sentinel.util.AssertUtil;
+import com.alibaba.csp.sentinel.util.StringUtil;
+
+/**
+ * <p>Manager of the partition of flows across token servers (see {@link ServerPartitionConfig}).</p>
+ *
+ * <p>When the server list changes, the flows owned by the current server that are moved to another server
+ * are handed over to their new owner, together with the state of their sliding windows, so that the new owner
+ * does not start from an empty window (which could admit up to twice the threshold within the window).</p>
+ *
+ * @since 1.8.7
+ */
+public final class ClusterServerPartitionManager {
+
+    private static volatile ConsistentHashRing ring = null;
+    private static volatile String localServer = null;
+
+    private static volatile WindowMigrationSender migrationSender = new NettyWindowMigrationSender();
+
+    private static final PropertyListener<ServerPartitionConfig> PROPERTY_LISTENER = new PartitionPropertyListener();
+    private static SentinelProperty<ServerPartitionConfig> partitionProperty = new DynamicSentinelProperty<>();
+
+    static {
+        partitionProperty.addListener(PROPERTY_LISTENER);
+    }
+
+    /**
+     * Register the partition config property. The property listener will be bound to the property.
+     *
+     * @param property the partition config property
+     */
+    public static void registerProperty(SentinelProperty<ServerPartitionConfig> property) {
+        AssertUtil.notNull(property, "property cannot be null");
+        synchronized (PROPERTY_LISTENER) {
+            RecordLog.info("[ClusterServerPartitionManager] Registering new property to cluster server partition"
+                + " manager");
+            partitionProperty.removeListener(PROPERTY_LISTENER);
+            property.addListener(PROPERTY_LISTENER);
+            partitionProperty = property;
+        }
+    }
+
+    public static void loadPartitionConfig(ServerPartitionConfig config) {
+        partitionProperty.updateValue(config);
+    }
+
+    public static boolean isPartitioned() {
+        return ring != null;
+    }
+
+    /**
+     * Check whether the flow is owned by the current server. All flows are owned by the current server
+     * if not in partitioned mode.
+     *
+     * @param flowId flow ID
+     * @return true if the flow is owned by the current server
+     */
+    public static boolean isOwner(long flowId) {
+        ConsistentHashRing curRing = ring;
+        return curRing == null || StringUtil.equals(localServer, curRing.route(flowId));
+    }
+
+    public static String getLocalServer() {
+        return localServer;
+    }
+
+    public static List<String> getPartitionServers() {
+        ConsistentHashRing curRing = ring;
+        return curRing == null ? Collections.<String>emptyList() : curRing.getServers();
+    }
+
+    public static boolean isValidConfig(ServerPartitionConfig config) {
+        if (config == null || StringUtil.isBlank(config.getLocalServer()) || config.getServers() == null
+            || config.getServers().isEmpty()) {
+            return false;
+        }
+        boolean containsLocal = false;
+        for (String server : config.getServers()) {
+            if (ConsistentHashRing.parseAddress(server) == null) {
+                return false;
+            }
+            containsLocal |= server.trim().equals(config.getLocalServer().trim());
+        }
+        return containsLocal;
+    }
+
+    static void setMigrationSender(WindowMigrationSender sender) {
+        migrationSender = sender;
+    }
+
+    static void clear() {
+        ring = null;
+        localServer = null;
+    }
+
+    private static synchronized void applyConfig(ServerPartitionConfig config) {
+        if (config == null || config.getServers() == null || config.getServers().isEmpty()) {
+            // Empty partition config means leaving partitioned mode, so the server owns all flows again.
+            if (ring != null) {
+                RecordLog.info("[ClusterServerPartitionManager] Partition config is empty, leaving partitioned mode");
+            }
+            clear();
+            return;
+        }
+        if (!isValidConfig(config)) {
+            RecordLog.warn("[ClusterServerPartitionManager] Invalid partition config, ignoring: {}", config);
+            return;
+        }
+        ConsistentHashRing newRing = new ConsistentHashRing(config.getServers());
+        String newLocal = config.getLocalServer().trim();
+        ConsistentHashRing oldRing = ring;
+        String oldLocal = localServer;
+        if (newRing.equals(oldRing) && newLocal.equals(oldLocal)) {
+            return;
+        }
+        RecordLog.info("[ClusterServerPartitionManager] Applying new partition config: {}", config);
+        ring = newRing;
+        localServer = newLocal;
+
+        if (oldRing != null && newLocal.equals(oldLocal)) {
+            handOver(collectHandOver(oldRing, newRing, newLocal));
+        }
+    }
+
+    /**
+     * Collect the window state of flows that are moved from the local server to other servers.
+     *
+     * @return window snapshots grouped by the new owner
+     */
+    static Map<String, List<FlowWindowMigrateRequestData>> collectHandOver(ConsistentHashRing oldRing,
+                                                                           ConsistentHashRing newRing,
+                                                                           String local) {
+        Map<String, List<FlowWindowMigrateRequestData>> moved = new HashMap<>();
+        for (FlowRule rule : ClusterFlowRuleManager.getAllFlowRules()) {
+            Long flowId = rule.getClusterConfig() == null ? null : rule.getClusterConfig().getFlowId();
+            if (flowId == null || !local.equals(oldRing.route(flowId))) {
+                continue;
+            }
+            String newOwner = newRing.route(flowId);
+            if (newOwner == null || local.equals(newOwner)) {
+                continue;
+            }
+            FlowWindowMigrateRequestData snapshot = FlowWindowSnapshots.snapshot(flowId,
+                ClusterMetricStatistics.getMetricForRead(flowId));
+            if (snapshot != null) {
+                List<FlowWindowMigrateRequestData> list = moved.get(newOwner);
+                if (list == null) {
+                    list = new ArrayList<>();
+                    moved.put(newOwner, list);
+                }
+                list.add(snapshot);
+            }
+        }
+        return moved;
+    }
+
+    private static void handOver(Map<String, List<FlowWindowMigrateRequestData>> moved) {
+        for (Map.Entry<String, List<FlowWindowMigrateRequestData>> entry : moved.entrySet()) {
+            try {
+                migrationSender.send(entry.getKey(), entry.getValue());
+            } catch (Exception ex) {
+                RecordLog.warn("[ClusterServerPartitionManager] Failed to hand over window state to "
+                    + entry.getKey(), ex);
+            }
+        }
+    }
+
+    private static class PartitionPropertyListener implements PropertyListener<ServerPartitionConfig> {
+
+        @Override
+        public void configLoad(ServerPartitionConfig config) {
+            applyConfig(config);
+        }
+
+        @Override
+        public void configUpdate(ServerPartitionConfig config) {
+            applyConfig(config);
+        }
+    }
+
+    private ClusterServerPartitionManager() {}
+}
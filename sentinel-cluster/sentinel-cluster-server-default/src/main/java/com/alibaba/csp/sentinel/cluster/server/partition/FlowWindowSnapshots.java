@@ -0,0 +1,101 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.cluster.server.partition;
+
+import java.util.List;
+
+import com.alibaba.csp.sentinel.cluster.ClusterConstants;
+import com.alibaba.csp.sentinel.cluster.flow.statistic.data.ClusterFlowEvent;
+import com.alibaba.csp.sentinel.cluster.flow.statistic.data.ClusterMetricBucket;
+import com.alibaba.csp.sentinel.cluster.flow.statistic.metric.ClusterMetric;
+import com.alibaba.csp.sentinel.cluster.request.data.FlowWindowMigrateRequestData;
+import com.alibaba.csp.sentinel.slots.statistic.base.WindowWrap;
+
+/**
+ * Conversion between the sliding window of a {@link ClusterMetric} and {@link FlowWindowMigrateRequestData},
+ * which is used to hand over the window state of a flow between token servers.
+ *
+ * @since 1.8.7
+ */
+public final class FlowWindowSnapshots {
+
+    private static final ClusterFlowEvent[] EVENTS = ClusterFlowEvent.values();
+
+    /**
+     * Take a snapshot of the valid buckets of the metric. Only the latest buckets are kept if the
+     * window has more buckets than a migration frame could carry.
+     *
+     * @param flowId flow ID
+     * @param metric metric of the flow
+     * @return the snapshot, or null if there is nothing in the window
+     */
+    public static FlowWindowMigrateRequestData snapshot(long flowId, ClusterMetric metric) {
+        if (metric == null) {
+            return null;
+        }
+        List<WindowWrap<ClusterMetricBucket>> windows = metric.listValidWindows();
+        if (windows.isEmpty()) {
+            return null;
+        }
+        windows.sort((a, b) -> Long.compare(b.windowStart(), a.windowStart()));
+        int size = Math.min(windows.size(), ClusterConstants.MAX_MIGRATE_WINDOW_SIZE);
+        FlowWindowMigrateRequestData data = new FlowWindowMigrateRequestData(flowId, size, EVENTS.length);
+        for (int i = 0; i < size; i++) {
+            WindowWrap<ClusterMetricBucket> window = windows.get(i);
+            int[] counts = new int[EVENTS.length];
+            boolean empty = true;
+            for (ClusterFlowEvent event : EVENTS) {
+                long count = window.value().get(event);
+                counts[event.ordinal()] = (int)Math.max(Integer.MIN_VALUE, Math.min(Integer.MAX_VALUE, count));
+                empty &= count == 0;
+            }
+            if (!empty) {
+                data.add(window.windowStart(), counts);
+            }
+        }
+        return data.size() == 0 ? null : data;
+    }
+
+    /**
+     * Merge the window snapshot into the metric. Buckets that have slid out of the window are ignored.
+     *
+     * @param data   window snapshot
+     * @param metric metric of the flow
+     * @return count of buckets merged
+     */
+    public static int merge(FlowWindowMigrateRequestData data, ClusterMetric metric) {
+        if (data == null || metric == null) {
+            return 0;
+        }
+        int eventCount = Math.min(data.getEventCount(), EVENTS.length);
+        int merged = 0;
+        for (int i = 0; i < data.size(); i++) {
+            boolean bucketMerged = false;
+            for (int e = 0; e < eventCount; e++) {
+                int count = data.getCount(i, e);
+                if (count != 0) {
+                    bucketMerged |= metric.mergeWindow(data.getWindowStart(i), EVENTS[e], count);
+                }
+            }
+            if (bucketMerged) {
+                merged++;
+            }
+        }
+        return merged;
+    }
+
+    private FlowWindowSnapshots() {}
+}
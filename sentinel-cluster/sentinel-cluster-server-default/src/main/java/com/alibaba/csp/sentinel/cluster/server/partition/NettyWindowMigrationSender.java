@@ -0,0 +1,157 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.cluster.server.partition;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.alibaba.csp.sentinel.cluster.ClusterConstants;
+import com.alibaba.csp.sentinel.cluster.TokenServerDescriptor;
+import com.alibaba.csp.sentinel.cluster.partition.ConsistentHashRing;
+import com.alibaba.csp.sentinel.cluster.request.ClusterRequest;
+import com.alibaba.csp.sentinel.cluster.request.data.FlowWindowMigrateRequestData;
+import com.alibaba.csp.sentinel.cluster.server.codec.data.FlowWindowMigrateRequestDataWriter;
+import com.alibaba.csp.sentinel.log.RecordLog;
+
+import io.netty.bootstrap.Bootstrap;
+import io.netty.buffer.ByteBuf;
+import io.netty.channel.Channel;
+import io.netty.channel.ChannelFuture;
+import io.netty.channel.ChannelFutureListener;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelInboundHandlerAdapter;
+import io.netty.channel.ChannelInitializer;
+import io.netty.channel.ChannelOption;
+import io.netty.channel.nio.NioEventLoopGroup;
+import io.netty.channel.socket.SocketChannel;
+import io.netty.channel.socket.nio.NioSocketChannel;
+import io.netty.handler.codec.LengthFieldBasedFrameDecoder;
+import io.netty.handler.codec.LengthFieldPrepender;
+import io.netty.handler.codec.MessageToByteEncoder;
+import io.netty.util.ReferenceCountUtil;
+
+/**
+ * Default {@link WindowMigrationSender}, which opens a short-lived connection to the target token server,
+ * writes one migration frame per flow, and closes the connection once all frames are answered (or timed out).
+ * The content of responses is ignored, as the migrated window only narrows the error of the first window
+ * after rebalancing.
+ *
+ * @since 1.8.7
+ */
+public class NettyWindowMigrationSender implements WindowMigrationSender {
+
+    private static final int CONNECT_TIMEOUT_MS = 3000;
+    private static final int RESPONSE_TIMEOUT_MS = 5000;
+
+    private final AtomicInteger idGenerator = new AtomicInteger(0);
+
+    @Override
+    public void send(String server, final List<FlowWindowMigrateRequestData> windows) {
+        final TokenServerDescriptor descriptor = ConsistentHashRing.parseAddress(server);
+        if (descriptor == null || windows == null || windows.isEmpty()) {
+            return;
+        }
+        final NioEventLoopGroup group = new NioEventLoopGroup(1);
+        Bootstrap b = new Bootstrap();
+        b.group(group)
+            .channel(NioSocketChannel.class)
+            .option(ChannelOption.TCP_NODELAY, true)
+            .option(ChannelOption.CONNECT_TIMEOUT_MILLIS, CONNECT_TIMEOUT_MS)
+            .handler(new ChannelInitializer<SocketChannel>() {
+                @Override
+                public void initChannel(SocketChannel ch) throws Exception {
+                    ch.pipeline().addLast(new LengthFieldBasedFrameDecoder(1024, 0, 2, 0, 2));
+                    ch.pipeline().addLast(new LengthFieldPrepender(2));
+                    ch.pipeline().addLast(new MigrateRequestEncoder());
+                    ch.pipeline().addLast(new ResponseCountHandler(windows.size()));
+                }
+            });
+        b.connect(descriptor.getHost(), descriptor.getPort()).addListener(new ChannelFutureListener() {
+            @Override
+            public void operationComplete(ChannelFuture future) {
+                if (!future.isSuccess()) {
+                    RecordLog.warn("[NettyWindowMigrationSender] Failed to connect to token server: " + descriptor,
+                        future.cause());
+                    group.shutdownGracefully();
+                    return;
+                }
+                final Channel channel = future.channel();
+                ChannelFuture lastWrite = null;
+                for (FlowWindowMigrateRequestData data : windows) {
+                    ClusterRequest<FlowWindowMigrateRequestData> request = new ClusterRequest<>(
+                        ClusterConstants.MSG_TYPE_FLOW_WINDOW_MIGRATE, data);
+                    lastWrite = channel.write(request.setId(idGenerator.incrementAndGet()));
+                }
+                channel.flush();
+                lastWrite.addListener(new ChannelFutureListener() {
+                    @Override
+                    public void operationComplete(ChannelFuture f) {
+                        if (!f.isSuccess()) {
+                            RecordLog.warn("[NettyWindowMigrationSender] Failed to hand over window state to "
+                                + descriptor, f.cause());
+                            channel.close();
+                        }
+                    }
+                });
+                channel.eventLoop().schedule(new Runnable() {
+                    @Override
+                    public void run() {
+                        channel.close();
+                    }
+                }, RESPONSE_TIMEOUT_MS, TimeUnit.MILLISECONDS);
+                channel.closeFuture().addListener(new ChannelFutureListener() {
+                    @Override
+                    public void operationComplete(ChannelFuture f) {
+                        group.shutdownGracefully();
+                    }
+                });
+            }
+        });
+    }
+
+    private static class ResponseCountHandler extends ChannelInboundHandlerAdapter {
+
+        private final int expected;
+        private int received = 0;
+
+        ResponseCountHandler(int expected) {
+            this.expected = expected;
+        }
+
+        @Override
+        public void channelRead(ChannelHandlerContext ctx, Object msg) {
+            ReferenceCountUtil.release(msg);
+            if (++received >= expected) {
+                RecordLog.info("[NettyWindowMigrationSender] Handed over window state of {} flows to {}",
+                    expected, ctx.channel().remoteAddress());
+                ctx.close();
+            }
+        }
+    }
+
+    private static class MigrateRequestEncoder extends MessageToByteEncoder<ClusterRequest> {
+
+        private final FlowWindowMigrateRequestDataWriter dataWriter = new FlowWindowMigrateRequestDataWriter();
+
+        @Override
+        protected void encode(ChannelHandlerContext ctx, ClusterRequest request, ByteBuf out) {
+            out.writeInt(request.getId());
+            out.writeByte(request.getType());
+            dataWriter.writeTo((FlowWindowMigrateRequestData)request.getData(), out);
+        }
+    }
+}
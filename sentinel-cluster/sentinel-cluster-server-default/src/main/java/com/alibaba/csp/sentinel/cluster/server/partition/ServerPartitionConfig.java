@@ -0,0 +1,62 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.cluster.server.partition;
+
+import java.util.List;
+
+/**
+ * Config of the partitioned token servers. Flow rules are spread across the servers by consistent hashing
+ * on the flow ID, and all servers (and clients) should be given the same server list.
+ *
+ * @since 1.8.7
+ */
+public class ServerPartitionConfig {
+
+    /**
+     * Address ({@code host:port}) of the current token server, which should be one of the servers.
+     */
+    private String localServer;
+    /**
+     * Addresses ({@code host:port}) of all token servers in the partition.
+     */
+    private List<String> servers;
+
+    public String getLocalServer() {
+        return localServer;
+    }
+
+    public ServerPartitionConfig setLocalServer(String localServer) {
+        this.localServer = localServer;
+        return this;
+    }
+
+    public List<String> getServers() {
+        return servers;
+    }
+
+    public ServerPartitionConfig setServers(List<String> servers) {
+        this.servers = servers;
+        return this;
+    }
+
+    @Override
+    public String toString() {
+        return "ServerPartitionConfig{" +
+            "localServer='" + localServer + '\'' +
+            ", servers=" + servers +
+            '}';
+    }
+}
@@ -0,0 +1,36 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.cluster.server.partition;
+
+import java.util.List;
+
+import com.alibaba.csp.sentinel.cluster.request.data.FlowWindowMigrateRequestData;
+
+/**
+ * Sender that hands over the window state of flows to another token server.
+ *
+ * @since 1.8.7
+ */
+public interface WindowMigrationSender {
+
+    /**
+     * Send the window snapshots to the target server asynchronously.
+     *
+     * @param server  address ({@code host:port}) of the target server
+     * @param windows window snapshots of the flows that are now owned by the target server
+     */
+    void send(String server, List<FlowWindowMigrateRequestData> windows);
+}
@@ -0,0 +1,75 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.cluster.server.processor;
+
+import com.alibaba.csp.sentinel.cluster.ClusterConstants;
+import com.alibaba.csp.sentinel.cluster.TokenResult;
+import com.alibaba.csp.sentinel.cluster.TokenResultStatus;
+import com.alibaba.csp.sentinel.cluster.TokenService;
+import com.alibaba.csp.sentinel.cluster.annotation.RequestType;
+import com.alibaba.csp.sentinel.cluster.request.ClusterRequest;
+import com.alibaba.csp.sentinel.cluster.request.data.FlowBatchRequestData;
+import com.alibaba.csp.sentinel.cluster.response.ClusterResponse;
+import com.alibaba.csp.sentinel.cluster.response.data.FlowBatchResponseData;
+import com.alibaba.csp.sentinel.cluster.server.TokenServiceProvider;
+import com.alibaba.csp.sentinel.cluster.server.partition.ClusterServerPartitionManager;
+
+/**
+ * Processor of batch flow requests, which evaluates all entries of the frame in one pass.
+ * A request without data is a probe from the client to negotiate the batch support.
+ *
+ * @since 1.8.7
+ */
+@RequestType(ClusterConstants.MSG_TYPE_FLOW_BATCH)
+public class FlowBatchRequestProcessor implements RequestProcessor<FlowBatchRequestData, FlowBatchResponseData> {
+
+    @Override
+    public ClusterResponse<FlowBatchResponseData> processRequest(ClusterRequest<FlowBatchRequestData> request) {
+        FlowBatchRequestData data = request.getData();
+        if (data == null) {
+            return new ClusterResponse<>(request.getId(), request.getType(), ClusterConstants.RESPONSE_STATUS_OK,
+                null);
+        }
+        TokenService tokenService = TokenServiceProvider.getService();
+
+        int size = data.size();
+        FlowBatchResponseData responseData = new FlowBatchResponseData(size);
+        for (int i = 0; i < size; i++) {
+            processEntry(tokenService, data, i, responseData);
+        }
+        return new ClusterResponse<>(request.getId(), request.getType(), ClusterConstants.RESPONSE_STATUS_OK,
+            responseData);
+    }
+
+    /**
+     * Evaluate one entry of the batch and fill the result into the same index of the response.
+     *
+     * @param tokenService token service
+     * @param data         batch request data
+     * @param index        index of the entry
+     * @param responseData batch response data
+     */
+    public static void processEntry(TokenService tokenService, FlowBatchRequestData data, int index,
+                                    FlowBatchResponseData responseData) {
+        long flowId = data.getFlowId(index);
+        if (!ClusterServerPartitionManager.isOwner(flowId)) {
+            responseData.set(index, TokenResultStatus.NOT_OWNER, 0, 0);
+            return;
+        }
+        TokenResult result = tokenService.requestToken(flowId, data.getCount(index), data.isPriority(index));
+        responseData.set(index, result.getStatus(), result.getRemaining(), result.getWaitInMs());
+    }
+}
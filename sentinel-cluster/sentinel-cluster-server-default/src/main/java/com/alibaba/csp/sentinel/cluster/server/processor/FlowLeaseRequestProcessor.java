@@ -0,0 +1,65 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.cluster.server.processor;
+
+import com.alibaba.csp.sentinel.cluster.ClusterConstants;
+import com.alibaba.csp.sentinel.cluster.TokenResult;
+import com.alibaba.csp.sentinel.cluster.TokenResultStatus;
+import com.alibaba.csp.sentinel.cluster.TokenService;
+import com.alibaba.csp.sentinel.cluster.annotation.RequestType;
+import com.alibaba.csp.sentinel.cluster.request.ClusterRequest;
+import com.alibaba.csp.sentinel.cluster.request.data.FlowLeaseRequestData;
+import com.alibaba.csp.sentinel.cluster.response.ClusterResponse;
+import com.alibaba.csp.sentinel.cluster.response.data.FlowLeaseResponseData;
+import com.alibaba.csp.sentinel.cluster.server.TokenServiceProvider;
+import com.alibaba.csp.sentinel.cluster.server.partition.ClusterServerPartitionManager;
+
+/**
+ * Processor of token lease requests. The unused tokens of the previous lease (if any) are returned
+ * before the new lease is requested. New leases are only granted for the flows owned by this server.
+ *
+ * @since 1.8.7
+ */
+@RequestType(ClusterConstants.MSG_TYPE_FLOW_LEASE)
+public class FlowLeaseRequestProcessor implements RequestProcessor<FlowLeaseRequestData, FlowLeaseResponseData> {
+
+    @Override
+    public ClusterResponse<FlowLeaseResponseData> processRequest(ClusterRequest<FlowLeaseRequestData> request) {
+        TokenService tokenService = TokenServiceProvider.getService();
+        FlowLeaseRequestData data = request.getData();
+
+        if (data.getReleaseLeaseId() > 0) {
+            tokenService.releaseTokenLease(data.getReleaseLeaseId(), data.getReleaseCount());
+        }
+        if (data.getCount() <= 0) {
+            return new ClusterResponse<>(request.getId(), request.getType(), TokenResultStatus.RELEASE_OK,
+                new FlowLeaseResponseData());
+        }
+        if (!ClusterServerPartitionManager.isOwner(data.getFlowId())) {
+            // The lease to release (if any) was granted by this server, but the new one should be from the owner.
+            return new ClusterResponse<>(request.getId(), request.getType(), TokenResultStatus.NOT_OWNER,
+                new FlowLeaseResponseData());
+        }
+
+        TokenResult result = tokenService.requestTokenLease(data.getFlowId(), data.getCount(),
+            data.getLeaseTimeInMs());
+        return new ClusterResponse<>(request.getId(), request.getType(), result.getStatus(),
+            new FlowLeaseResponseData()
+                .setLeaseId(result.getTokenId())
+                .setCount(result.getRemaining())
+        );
+    }
+}
@@ -17,6 +17,7 @@ package com.alibaba.csp.sentinel.cluster.server.processor;
 
 import com.alibaba.csp.sentinel.cluster.ClusterConstants;
 import com.alibaba.csp.sentinel.cluster.TokenResult;
+import com.alibaba.csp.sentinel.cluster.TokenResultStatus;
 import com.alibaba.csp.sentinel.cluster.TokenService;
 import com.alibaba.csp.sentinel.cluster.annotation.RequestType;
 import com.alibaba.csp.sentinel.cluster.request.ClusterRequest;
@@ -24,6 +25,7 @@ import com.alibaba.csp.sentinel.cluster.request.data.FlowRequestData;
 import com.alibaba.csp.sentinel.cluster.response.ClusterResponse;
 import com.alibaba.csp.sentinel.cluster.response.data.FlowTokenResponseData;
 import com.alibaba.csp.sentinel.cluster.server.TokenServiceProvider;
+import com.alibaba.csp.sentinel.cluster.server.partition.ClusterServerPartitionManager;
 
 /**
  * @author Eric Zhao
@@ -39,6 +41,9 @@ public class FlowRequestProcessor implements RequestProcessor<FlowRequestData, F
         long flowId = request.getData().getFlowId();
         int count = request.getData().getCount();
         boolean prioritized = request.getData().isPriority();
+        if (!ClusterServerPartitionManager.isOwner(flowId)) {
+            return toResponse(new TokenResult(TokenResultStatus.NOT_OWNER), request);
+        }
 
         TokenResult result = tokenService.requestToken(flowId, count, prioritized);
         return toResponse(result, request);
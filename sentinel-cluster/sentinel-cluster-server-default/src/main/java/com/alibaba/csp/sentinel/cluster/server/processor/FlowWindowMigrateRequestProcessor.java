@@ -0,0 +1,48 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.cluster.server.processor;
+
+import com.alibaba.csp.sentinel.cluster.ClusterConstants;
+import com.alibaba.csp.sentinel.cluster.TokenResultStatus;
+import com.alibaba.csp.sentinel.cluster.annotation.RequestType;
+import com.alibaba.csp.sentinel.cluster.flow.statistic.ClusterMetricStatistics;
+import com.alibaba.csp.sentinel.cluster.flow.statistic.metric.ClusterMetric;
+import com.alibaba.csp.sentinel.cluster.request.ClusterRequest;
+import com.alibaba.csp.sentinel.cluster.request.data.FlowWindowMigrateRequestData;
+import com.alibaba.csp.sentinel.cluster.response.ClusterResponse;
+import com.alibaba.csp.sentinel.cluster.server.partition.FlowWindowSnapshots;
+
+/**
+ * Processor of the window state handed over by another token server, which is merged into the
+ * local metric of the flow. The response carries the count of buckets merged.
+ *
+ * @since 1.8.7
+ */
+@RequestType(ClusterConstants.MSG_TYPE_FLOW_WINDOW_MIGRATE)
+public class FlowWindowMigrateRequestProcessor implements RequestProcessor<FlowWindowMigrateRequestData, Integer> {
+
+    @Override
+    public ClusterResponse<Integer> processRequest(ClusterRequest<FlowWindowMigrateRequestData> request) {
+        FlowWindowMigrateRequestData data = request.getData();
+        ClusterMetric metric = ClusterMetricStatistics.getMetric(data.getFlowId());
+        if (metric == null) {
+            return new ClusterResponse<>(request.getId(), request.getType(), TokenResultStatus.NO_RULE_EXISTS, 0);
+        }
+        int merged = FlowWindowSnapshots.merge(data, metric);
+        return new ClusterResponse<>(request.getId(), request.getType(), ClusterConstants.RESPONSE_STATUS_OK,
+            merged);
+    }
+}
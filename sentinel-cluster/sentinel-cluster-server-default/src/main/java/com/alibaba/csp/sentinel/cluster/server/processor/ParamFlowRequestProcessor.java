@@ -19,6 +19,7 @@ import java.util.Collection;
 
 import com.alibaba.csp.sentinel.cluster.ClusterConstants;
 import com.alibaba.csp.sentinel.cluster.TokenResult;
+import com.alibaba.csp.sentinel.cluster.TokenResultStatus;
 import com.alibaba.csp.sentinel.cluster.TokenService;
 import com.alibaba.csp.sentinel.cluster.annotation.RequestType;
 import com.alibaba.csp.sentinel.cluster.request.ClusterRequest;
@@ -26,6 +27,7 @@ import com.alibaba.csp.sentinel.cluster.request.data.ParamFlowRequestData;
 import com.alibaba.csp.sentinel.cluster.response.ClusterResponse;
 import com.alibaba.csp.sentinel.cluster.response.data.FlowTokenResponseData;
 import com.alibaba.csp.sentinel.cluster.server.TokenServiceProvider;
+import com.alibaba.csp.sentinel.cluster.server.partition.ClusterServerPartitionManager;
 
 /**
  * @author Eric Zhao
@@ -41,6 +43,9 @@ public class ParamFlowRequestProcessor implements RequestProcessor<ParamFlowRequ
         long flowId = request.getData().getFlowId();
         int count = request.getData().getCount();
         Collection<Object> args = request.getData().getParams();
+        if (!ClusterServerPartitionManager.isOwner(flowId)) {
+            return toResponse(new TokenResult(TokenResultStatus.NOT_OWNER), request);
+        }
 
         TokenResult result = tokenService.requestParamToken(flowId, count, args);
         return toResponse(result, request);
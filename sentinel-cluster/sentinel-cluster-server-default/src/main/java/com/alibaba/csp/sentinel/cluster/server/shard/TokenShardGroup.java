@@ -0,0 +1,143 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.cluster.server.shard;
+
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import com.alibaba.csp.sentinel.cluster.flow.statistic.ClusterMetricStatistics;
+import com.alibaba.csp.sentinel.concurrent.NamedThreadFactory;
+import com.alibaba.csp.sentinel.util.AssertUtil;
+
+/**
+ * <p>A group of single-threaded executors for the token server. Requests of the same flow are always
+ * dispatched to the same shard, so that all token checks of a flow are serialized on one thread and
+ * flows on different shards are checked in parallel without contending on each other.</p>
+ *
+ * <p>Each shard owns the metrics of its flows (see {@link ClusterMetricStatistics#getMetric(long)}), which are
+ * created and updated only on the shard thread. Requests are never processed on other threads: if the queue
+ * of a shard is full, the request is rejected.</p>
+ *
+ * @since 1.8.7
+ */
+public class TokenShardGroup {
+
+    private static final int DEFAULT_QUEUE_CAPACITY = 8192;
+
+    private static final Runnable BIND_SHARD_TASK = new Runnable() {
+        @Override
+        public void run() {
+            ClusterMetricStatistics.bindShardThread();
+        }
+    };
+    private static final Runnable UNBIND_SHARD_TASK = new Runnable() {
+        @Override
+        public void run() {
+            ClusterMetricStatistics.unbindShardThread();
+        }
+    };
+
+    private final ThreadPoolExecutor[] shards;
+
+    public TokenShardGroup(int shardCount) {
+        this(shardCount, DEFAULT_QUEUE_CAPACITY);
+    }
+
+    public TokenShardGroup(int shardCount, int queueCapacity) {
+        AssertUtil.isTrue(shardCount > 0, "shardCount should be positive");
+        AssertUtil.isTrue(queueCapacity > 0, "queueCapacity should be positive");
+        this.shards = new ThreadPoolExecutor[shardCount];
+        for (int i = 0; i < shardCount; i++) {
+            shards[i] = new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS,
+                new LinkedBlockingQueue<Runnable>(queueCapacity),
+                new NamedThreadFactory("sentinel-token-server-shard-" + i, true));
+            shards[i].execute(BIND_SHARD_TASK);
+        }
+    }
+
+    public int getShardCount() {
+        return shards.length;
+    }
+
+    public int shardOf(long flowId) {
+        return shardOf(flowId, shards.length);
+    }
+
+    /**
+     * Dispatch the task to the given shard.
+     *
+     * @param shard index of the shard
+     * @param task  the task
+     * @return true if the task has been queued; false if the shard is saturated or has been shut down,
+     * in which case the caller should reject the request rather than run the task by itself
+     */
+    public boolean dispatch(int shard, Runnable task) {
+        try {
+            shards[shard].execute(task);
+            return true;
+        } catch (RejectedExecutionException ex) {
+            return false;
+        }
+    }
+
+    public void shutdown() {
+        for (ThreadPoolExecutor shard : shards) {
+            try {
+                // Runs after the pending requests of the shard.
+                shard.execute(UNBIND_SHARD_TASK);
+            } catch (RejectedExecutionException ex) {
+                // The shard is saturated or already shut down.
+            }
+            shard.shutdown();
+        }
+    }
+
+    /**
+     * Wait for the shards to terminate after {@link #shutdown()}.
+     *
+     * @param timeout max time to wait
+     * @param unit    time unit of the timeout
+     * @return true if all shards have terminated, false if the timeout elapsed
+     * @throws InterruptedException if interrupted while waiting
+     */
+    public boolean awaitTermination(long timeout, TimeUnit unit) throws InterruptedException {
+        long deadline = System.nanoTime() + unit.toNanos(timeout);
+        for (ThreadPoolExecutor shard : shards) {
+            if (!shard.awaitTermination(deadline - System.nanoTime(), TimeUnit.NANOSECONDS)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Get the shard index of the flow. The flow ID is spread before the modulo so that
+     * sequential IDs are also distributed evenly.
+     *
+     * @param flowId     flow ID
+     * @param shardCount count of shards
+     * @return index of the shard in {@code [0, shardCount)}
+     */
+    public static int shardOf(long flowId, int shardCount) {
+        int h = (int)(flowId ^ (flowId >>> 32));
+        h ^= (h >>> 16);
+        h *= 0x85ebca6b;
+        h ^= (h >>> 13);
+        return (h & 0x7fffffff) % shardCount;
+    }
+}
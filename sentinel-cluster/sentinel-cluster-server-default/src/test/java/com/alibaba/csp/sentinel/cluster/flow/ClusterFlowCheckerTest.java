@@ -15,8 +15,15 @@
  */
 package com.alibaba.csp.sentinel.cluster.flow;
 
+import java.util.ArrayList;
+import java.util.Collections;
+
 import com.alibaba.csp.sentinel.cluster.TokenResult;
+import com.alibaba.csp.sentinel.cluster.flow.rule.ClusterFlowRuleManager;
 import com.alibaba.csp.sentinel.cluster.flow.statistic.ClusterMetricStatistics;
+import com.alibaba.csp.sentinel.cluster.flow.statistic.data.ClusterFlowEvent;
+import com.alibaba.csp.sentinel.cluster.flow.statistic.lease.TokenLease;
+import com.alibaba.csp.sentinel.cluster.flow.statistic.lease.TokenLeaseManager;
 import com.alibaba.csp.sentinel.cluster.flow.statistic.metric.ClusterMetric;
 import com.alibaba.csp.sentinel.slots.block.ClusterRuleConstant;
 import com.alibaba.csp.sentinel.slots.block.flow.ClusterFlowConfig;
@@ -72,6 +79,95 @@ public class ClusterFlowCheckerTest {
         ClusterMetricStatistics.removeMetric(flowId);
     }
 
+    @Test
+    public void testAcquireAndReleaseTokenLease() {
+        long flowId = 98766L;
+        String namespace = "lease-test";
+        FlowRule clusterRule = new FlowRule("abc")
+            .setCount(100)
+            .setClusterMode(true)
+            .setClusterConfig(new ClusterFlowConfig()
+                .setFlowId(flowId)
+                .setThresholdType(ClusterRuleConstant.FLOW_THRESHOLD_GLOBAL));
+        ClusterFlowRuleManager.registerPropertyIfAbsent(namespace);
+        ClusterFlowRuleManager.loadRules(namespace, Collections.singletonList(clusterRule));
+        try {
+            ClusterMetric metric = ClusterMetricStatistics.getMetric(flowId);
+            assertNotNull(metric);
+
+            TokenResult first = ClusterFlowChecker.acquireTokenLease(clusterRule, 60, 200);
+            assertResultPass(first);
+            assertEquals(60, first.getRemaining());
+            assertTrue(first.getTokenId() > 0);
+
+            // Only 40 tokens are left in the window.
+            TokenResult second = ClusterFlowChecker.acquireTokenLease(clusterRule, 60, 200);
+            assertResultPass(second);
+            assertEquals(40, second.getRemaining());
+            assertEquals(100, metric.getSum(ClusterFlowEvent.PASS));
+            assertEquals(100, TokenLeaseManager.getOutstandingCount(flowId));
+
+            assertResultBlock(ClusterFlowChecker.acquireTokenLease(clusterRule, 60, 200));
+
+            // Return the unused tokens of the first lease, which could be leased again.
+            ClusterFlowChecker.releaseTokenLease(first.getTokenId(), 30);
+            assertEquals(70, metric.getSum(ClusterFlowEvent.PASS));
+            assertEquals(40, TokenLeaseManager.getOutstandingCount(flowId));
+            // Releasing twice takes no effect.
+            ClusterFlowChecker.releaseTokenLease(first.getTokenId(), 30);
+            assertEquals(70, metric.getSum(ClusterFlowEvent.PASS));
+
+            TokenResult third = ClusterFlowChecker.acquireTokenLease(clusterRule, 60, 200);
+            assertResultPass(third);
+            assertEquals(30, third.getRemaining());
+        } finally {
+            ClusterFlowRuleManager.loadRules(namespace, new ArrayList<FlowRule>());
+            TokenLeaseManager.clear();
+        }
+    }
+
+    @Test
+    public void testLeaseTimeClampedToWindow() {
+        long flowId = 98767L;
+        String namespace = "lease-clamp-test";
+        FlowRule clusterRule = new FlowRule("abc")
+            .setCount(100)
+            .setClusterMode(true)
+            .setClusterConfig(new ClusterFlowConfig()
+                .setFlowId(flowId)
+                .setThresholdType(ClusterRuleConstant.FLOW_THRESHOLD_GLOBAL));
+        ClusterFlowRuleManager.registerPropertyIfAbsent(namespace);
+        ClusterFlowRuleManager.loadRules(namespace, Collections.singletonList(clusterRule));
+        try {
+            ClusterMetric metric = ClusterMetricStatistics.getMetric(flowId);
+            TokenResult result = ClusterFlowChecker.acquireTokenLease(clusterRule, 10, 60000);
+            assertResultPass(result);
+            TokenLease lease = TokenLeaseManager.getLease(result.getTokenId());
+            assertEquals(metric.getIntervalInMs(), lease.getExpireTime() - lease.getGrantTime());
+        } finally {
+            ClusterFlowRuleManager.loadRules(namespace, new ArrayList<FlowRule>());
+            TokenLeaseManager.clear();
+        }
+    }
+
+    @Test
+    public void testOutstandingLeaseOutOfWindow() {
+        long flowId = 98768L;
+        try {
+            // Window of 1000 ms with 5 buckets, the lease is granted in the bucket starting at 10000.
+            TokenLeaseManager.grant(flowId, 10, 1000, 10050);
+            assertEquals(10, TokenLeaseManager.getOutstandingCount(flowId));
+            // The grant bucket is still in the window, so the tokens are in the pass count.
+            assertEquals(0, TokenLeaseManager.getOutstandingCountOutOfWindow(flowId, 11000, 1000, 5));
+            // The grant bucket has slid out, but the lease can still be spent.
+            assertEquals(10, TokenLeaseManager.getOutstandingCountOutOfWindow(flowId, 11001, 1000, 5));
+            // The lease has expired.
+            assertEquals(0, TokenLeaseManager.getOutstandingCountOutOfWindow(flowId, 11050, 1000, 5));
+        } finally {
+            TokenLeaseManager.clear();
+        }
+    }
+
     private TokenResult tryAcquire(FlowRule clusterRule, boolean occupy) {
         return ClusterFlowChecker.acquireClusterToken(clusterRule, 1, occupy);
     }
@@ -0,0 +1,55 @@
+/*
+ * Copyright 1999-2022 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.cluster.flow.statistic;
+
+import com.alibaba.csp.sentinel.cluster.flow.statistic.data.ClusterFlowEvent;
+import com.alibaba.csp.sentinel.cluster.flow.statistic.metric.ClusterMetric;
+
+import org.junit.After;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Test cases for {@link ClusterMetricStatistics}.
+ */
+public class ClusterMetricStatisticsTest {
+
+    @After
+    public void tearDown() {
+        ClusterMetricStatistics.unbindShardThread();
+        ClusterMetricStatistics.clear();
+    }
+
+    @Test
+    public void testShardMetricSeededFromSharedMetric() {
+        ClusterMetric shared = new ClusterMetric(10, 60000);
+        shared.add(ClusterFlowEvent.PASS, 5);
+        shared.add(ClusterFlowEvent.BLOCK, 2);
+        ClusterMetricStatistics.putMetric(1L, shared);
+
+        ClusterMetricStatistics.bindShardThread();
+        ClusterMetric shardMetric = ClusterMetricStatistics.getMetric(1L);
+        assertNotSame(shared, shardMetric);
+        // The counts of the flow should be kept when the shard takes it over.
+        assertEquals(5, shardMetric.getSum(ClusterFlowEvent.PASS));
+        assertEquals(2, shardMetric.getSum(ClusterFlowEvent.BLOCK));
+
+        shardMetric.add(ClusterFlowEvent.PASS, 1);
+        assertSame(shardMetric, ClusterMetricStatistics.getMetric(1L));
+        assertEquals(6, ClusterMetricStatistics.getMetricForRead(1L).getSum(ClusterFlowEvent.PASS));
+    }
+}
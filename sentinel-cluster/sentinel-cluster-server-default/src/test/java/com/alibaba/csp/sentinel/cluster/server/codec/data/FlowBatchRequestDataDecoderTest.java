@@ -0,0 +1,85 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.cluster.server.codec.data;
+
+import com.alibaba.csp.sentinel.cluster.ClusterConstants;
+import com.alibaba.csp.sentinel.cluster.request.data.FlowBatchRequestData;
+import com.alibaba.csp.sentinel.cluster.response.data.FlowBatchResponseData;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Test cases for {@link FlowBatchRequestDataDecoder} and {@link FlowBatchResponseDataWriter}.
+ */
+public class FlowBatchRequestDataDecoderTest {
+
+    @Test
+    public void testDecodeBatchRequest() {
+        ByteBuf buf = Unpooled.buffer();
+        buf.writeShort(2);
+        buf.writeLong(11L).writeInt(1).writeBoolean(false);
+        buf.writeLong(12L).writeInt(3).writeBoolean(true);
+
+        FlowBatchRequestData data = new FlowBatchRequestDataDecoder().decode(buf);
+        assertNotNull(data);
+        assertEquals(2, data.size());
+        assertEquals(11L, data.getFlowId(0));
+        assertEquals(1, data.getCount(0));
+        assertFalse(data.isPriority(0));
+        assertEquals(12L, data.getFlowId(1));
+        assertEquals(3, data.getCount(1));
+        assertTrue(data.isPriority(1));
+        buf.release();
+    }
+
+    @Test
+    public void testDecodeMalformedBatchRequest() {
+        FlowBatchRequestDataDecoder decoder = new FlowBatchRequestDataDecoder();
+        ByteBuf truncated = Unpooled.buffer();
+        truncated.writeShort(2);
+        truncated.writeLong(11L).writeInt(1).writeBoolean(false);
+        assertNull(decoder.decode(truncated));
+        truncated.release();
+
+        ByteBuf tooLarge = Unpooled.buffer();
+        tooLarge.writeShort(ClusterConstants.MAX_FLOW_BATCH_SIZE + 1);
+        assertNull(decoder.decode(tooLarge));
+        tooLarge.release();
+    }
+
+    @Test
+    public void testWriteBatchResponse() {
+        ByteBuf buf = Unpooled.buffer();
+        FlowBatchResponseDataWriter writer = new FlowBatchResponseDataWriter();
+        writer.writeTo(null, buf);
+        assertEquals(0, buf.readableBytes());
+
+        writer.writeTo(new FlowBatchResponseData(2).set(0, 0, 5, 0).set(1, -1, 0, 100), buf);
+        assertEquals(2 + 2 * 9, buf.readableBytes());
+        assertEquals(2, buf.readUnsignedShort());
+        assertEquals(0, buf.readByte());
+        assertEquals(5, buf.readInt());
+        assertEquals(0, buf.readInt());
+        assertEquals(-1, buf.readByte());
+        assertEquals(0, buf.readInt());
+        assertEquals(100, buf.readInt());
+        buf.release();
+    }
+}
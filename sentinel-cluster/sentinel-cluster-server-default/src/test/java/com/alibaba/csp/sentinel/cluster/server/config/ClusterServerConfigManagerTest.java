@@ -17,6 +17,14 @@ public class ClusterServerConfigManagerTest {
         assertFalse(ClusterServerConfigManager.isValidTransportConfig(badConfig1));
         assertFalse(ClusterServerConfigManager.isValidTransportConfig(badConfig2));
         assertTrue(ClusterServerConfigManager.isValidTransportConfig(goodConfig1));
+
+        ServerTransportConfig badConfig3 = new ServerTransportConfig().setPort(23456).setShardCount(-1);
+        ServerTransportConfig badConfig4 = new ServerTransportConfig().setPort(23456)
+            .setShardCount(ClusterServerConfigManager.MAX_SHARD_COUNT + 1);
+        ServerTransportConfig goodConfig2 = new ServerTransportConfig().setPort(23456).setShardCount(4);
+        assertFalse(ClusterServerConfigManager.isValidTransportConfig(badConfig3));
+        assertFalse(ClusterServerConfigManager.isValidTransportConfig(badConfig4));
+        assertTrue(ClusterServerConfigManager.isValidTransportConfig(goodConfig2));
     }
 
     @Test
@@ -0,0 +1,257 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.cluster.server.partition;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import com.alibaba.csp.sentinel.cluster.ClusterConstants;
+import com.alibaba.csp.sentinel.cluster.TokenResultStatus;
+import com.alibaba.csp.sentinel.cluster.flow.rule.ClusterFlowRuleManager;
+import com.alibaba.csp.sentinel.cluster.flow.statistic.ClusterMetricStatistics;
+import com.alibaba.csp.sentinel.cluster.flow.statistic.data.ClusterFlowEvent;
+import com.alibaba.csp.sentinel.cluster.flow.statistic.metric.ClusterMetric;
+import com.alibaba.csp.sentinel.cluster.partition.ConsistentHashRing;
+import com.alibaba.csp.sentinel.cluster.request.ClusterRequest;
+import com.alibaba.csp.sentinel.cluster.request.data.FlowRequestData;
+import com.alibaba.csp.sentinel.cluster.request.data.FlowWindowMigrateRequestData;
+import com.alibaba.csp.sentinel.cluster.response.ClusterResponse;
+import com.alibaba.csp.sentinel.cluster.response.data.FlowTokenResponseData;
+import com.alibaba.csp.sentinel.cluster.server.NettyTransportServer;
+import com.alibaba.csp.sentinel.cluster.server.ServerConstants;
+import com.alibaba.csp.sentinel.cluster.server.codec.data.FlowWindowMigrateRequestDataDecoder;
+import com.alibaba.csp.sentinel.cluster.server.codec.data.FlowWindowMigrateRequestDataWriter;
+import com.alibaba.csp.sentinel.cluster.server.init.DefaultClusterServerInitFunc;
+import com.alibaba.csp.sentinel.cluster.server.processor.FlowRequestProcessor;
+import com.alibaba.csp.sentinel.slots.block.ClusterRuleConstant;
+import com.alibaba.csp.sentinel.slots.block.flow.ClusterFlowConfig;
+import com.alibaba.csp.sentinel.slots.block.flow.FlowRule;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import org.junit.After;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Test cases for {@link ClusterServerPartitionManager} and the window hand-over between token servers.
+ */
+public class ClusterServerPartitionManagerTest {
+
+    private static final String NAMESPACE = "partition-test";
+    private static final String SERVER_A = "127.0.0.1:18741";
+    private static final String SERVER_B = "127.0.0.1:18742";
+
+    @After
+    public void tearDown() {
+        ClusterServerPartitionManager.clear();
+        ClusterServerPartitionManager.setMigrationSender(new NettyWindowMigrationSender());
+        ClusterFlowRuleManager.loadRules(NAMESPACE, Collections.<FlowRule>emptyList());
+    }
+
+    @Test
+    public void testSnapshotCodecAndMerge() {
+        ClusterMetric source = new ClusterMetric(10, 1000);
+        source.add(ClusterFlowEvent.PASS, 7);
+        source.add(ClusterFlowEvent.BLOCK, 2);
+
+        FlowWindowMigrateRequestData snapshot = FlowWindowSnapshots.snapshot(1L, source);
+        assertNotNull(snapshot);
+        ByteBuf buf = Unpooled.buffer();
+        new FlowWindowMigrateRequestDataWriter().writeTo(snapshot, buf);
+        FlowWindowMigrateRequestData decoded = new FlowWindowMigrateRequestDataDecoder().decode(buf);
+        assertNotNull(decoded);
+        assertEquals(1L, decoded.getFlowId());
+        assertEquals(snapshot.size(), decoded.size());
+
+        ClusterMetric target = new ClusterMetric(10, 1000);
+        target.add(ClusterFlowEvent.PASS, 1);
+        assertTrue(FlowWindowSnapshots.merge(decoded, target) > 0);
+        assertEquals(8, target.getSum(ClusterFlowEvent.PASS));
+        assertEquals(2, target.getSum(ClusterFlowEvent.BLOCK));
+
+        assertNull(FlowWindowSnapshots.snapshot(2L, new ClusterMetric(10, 1000)));
+    }
+
+    @Test
+    public void testMergeIgnoresSlidOutBuckets() {
+        FlowWindowMigrateRequestData data = new FlowWindowMigrateRequestData(1L, 1,
+            ClusterFlowEvent.values().length);
+        int[] counts = new int[ClusterFlowEvent.values().length];
+        counts[ClusterFlowEvent.PASS.ordinal()] = 5;
+        data.add(System.currentTimeMillis() - 5000, counts);
+
+        ClusterMetric target = new ClusterMetric(10, 1000);
+        assertEquals(0, FlowWindowSnapshots.merge(data, target));
+        assertEquals(0, target.getSum(ClusterFlowEvent.PASS));
+    }
+
+    @Test
+    public void testMergeDoesNotResetLiveBuckets() {
+        ClusterMetric target = new ClusterMetric(10, 1000);
+        target.add(ClusterFlowEvent.PASS, 4);
+        long now = System.currentTimeMillis();
+
+        FlowWindowMigrateRequestData data = new FlowWindowMigrateRequestData(1L, 2,
+            ClusterFlowEvent.values().length);
+        int[] counts = new int[ClusterFlowEvent.values().length];
+        counts[ClusterFlowEvent.PASS.ordinal()] = 2;
+        // A bucket in the past of the window, and a bucket from the future of a skewed clock.
+        data.add(now - 500, counts);
+        data.add(now + 5000, counts);
+
+        assertEquals(1, FlowWindowSnapshots.merge(data, target));
+        assertEquals(6, target.getSum(ClusterFlowEvent.PASS));
+        // The live bucket keeps its own count.
+        assertEquals(4, target.getCurrentCount(ClusterFlowEvent.PASS));
+    }
+
+    @Test
+    public void testRejectRequestsOfFlowsNotOwned() {
+        List<FlowRule> rules = loadRules(50);
+        ClusterServerPartitionManager.loadPartitionConfig(new ServerPartitionConfig()
+            .setLocalServer(SERVER_A).setServers(Arrays.asList(SERVER_A, SERVER_B)));
+        int notOwned = 0;
+        for (FlowRule rule : rules) {
+            long flowId = rule.getClusterConfig().getFlowId();
+            ClusterResponse<FlowTokenResponseData> response = new FlowRequestProcessor().processRequest(
+                new ClusterRequest<>(1, ClusterConstants.MSG_TYPE_FLOW, new FlowRequestData()
+                    .setFlowId(flowId).setCount(1)));
+            if (ClusterServerPartitionManager.isOwner(flowId)) {
+                assertEquals(TokenResultStatus.OK, response.getStatus());
+            } else {
+                assertEquals(TokenResultStatus.NOT_OWNER, response.getStatus());
+                notOwned++;
+            }
+        }
+        assertTrue(notOwned > 0);
+    }
+
+    @Test
+    public void testHandOverMovedFlowsOnMembershipChange() {
+        List<FlowRule> rules = loadRules(200);
+        final List<String> targets = new ArrayList<>();
+        final List<FlowWindowMigrateRequestData> sent = new ArrayList<>();
+        ClusterServerPartitionManager.setMigrationSender((server, windows) -> {
+            targets.add(server);
+            sent.addAll(windows);
+        });
+
+        ClusterServerPartitionManager.loadPartitionConfig(new ServerPartitionConfig()
+            .setLocalServer(SERVER_A).setServers(Collections.singletonList(SERVER_A)));
+        assertTrue(ClusterServerPartitionManager.isPartitioned());
+        for (FlowRule rule : rules) {
+            assertTrue(ClusterServerPartitionManager.isOwner(rule.getClusterConfig().getFlowId()));
+            ClusterMetricStatistics.getMetric(rule.getClusterConfig().getFlowId()).add(ClusterFlowEvent.PASS, 3);
+        }
+        assertTrue(sent.isEmpty());
+
+        ClusterServerPartitionManager.loadPartitionConfig(new ServerPartitionConfig()
+            .setLocalServer(SERVER_A).setServers(Arrays.asList(SERVER_A, SERVER_B)));
+        ConsistentHashRing ring = new ConsistentHashRing(Arrays.asList(SERVER_A, SERVER_B));
+        int movedCount = 0;
+        for (FlowRule rule : rules) {
+            long flowId = rule.getClusterConfig().getFlowId();
+            boolean moved = SERVER_B.equals(ring.route(flowId));
+            assertEquals(!moved, ClusterServerPartitionManager.isOwner(flowId));
+            if (moved) {
+                movedCount++;
+            }
+        }
+        assertTrue(movedCount > 0);
+        assertEquals(Collections.singletonList(SERVER_B), targets);
+        assertEquals(movedCount, sent.size());
+        for (FlowWindowMigrateRequestData data : sent) {
+            assertEquals(SERVER_B, ring.route(data.getFlowId()));
+        }
+    }
+
+    @Test
+    public void testLeavePartitionedModeOnEmptyConfig() {
+        ClusterServerPartitionManager.loadPartitionConfig(new ServerPartitionConfig()
+            .setLocalServer(SERVER_A).setServers(Arrays.asList(SERVER_A, SERVER_B)));
+        assertTrue(ClusterServerPartitionManager.isPartitioned());
+
+        ClusterServerPartitionManager.loadPartitionConfig(null);
+        assertFalse(ClusterServerPartitionManager.isPartitioned());
+        assertNull(ClusterServerPartitionManager.getLocalServer());
+        assertTrue(ClusterServerPartitionManager.isOwner(1L));
+    }
+
+    @Test
+    public void testInvalidConfig() {
+        assertFalse(ClusterServerPartitionManager.isValidConfig(null));
+        assertFalse(ClusterServerPartitionManager.isValidConfig(new ServerPartitionConfig()
+            .setLocalServer(SERVER_A).setServers(Collections.singletonList(SERVER_B))));
+        assertFalse(ClusterServerPartitionManager.isValidConfig(new ServerPartitionConfig()
+            .setLocalServer(SERVER_A).setServers(Arrays.asList(SERVER_A, "bad-address"))));
+        assertTrue(ClusterServerPartitionManager.isValidConfig(new ServerPartitionConfig()
+            .setLocalServer(SERVER_A).setServers(Arrays.asList(SERVER_A, SERVER_B))));
+    }
+
+    @Test
+    public void testHandOverToServerOnLocalhost() throws Exception {
+        new DefaultClusterServerInitFunc().init();
+        long flowId = loadRules(1).get(0).getClusterConfig().getFlowId();
+
+        NettyTransportServer server = new NettyTransportServer(18742);
+        server.start();
+        try {
+            waitFor(() -> server.getCurrentState() == ServerConstants.SERVER_STATUS_STARTED);
+            // Take the snapshot only once the server is up, so that its buckets are still within the window.
+            ClusterMetric metric = ClusterMetricStatistics.getMetric(flowId);
+            metric.add(ClusterFlowEvent.PASS, 9);
+            FlowWindowMigrateRequestData snapshot = FlowWindowSnapshots.snapshot(flowId, metric);
+            // Start from an empty window, as if the receiving server is another process.
+            ClusterMetricStatistics.putMetric(flowId, new ClusterMetric(10, 1000));
+            new NettyWindowMigrationSender().send(SERVER_B, Collections.singletonList(snapshot));
+            waitFor(() -> ClusterMetricStatistics.getMetric(flowId).getSum(ClusterFlowEvent.PASS) == 9);
+            assertEquals(9, ClusterMetricStatistics.getMetric(flowId).getSum(ClusterFlowEvent.PASS));
+        } finally {
+            server.stop();
+        }
+    }
+
+    private List<FlowRule> loadRules(int count) {
+        List<FlowRule> rules = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            rules.add(new FlowRule("partition-resource-" + i)
+                .setCount(1000)
+                .setClusterMode(true)
+                .setClusterConfig(new ClusterFlowConfig()
+                    .setFlowId(7000L + i)
+                    .setThresholdType(ClusterRuleConstant.FLOW_THRESHOLD_GLOBAL)));
+        }
+        ClusterFlowRuleManager.registerPropertyIfAbsent(NAMESPACE);
+        ClusterFlowRuleManager.loadRules(NAMESPACE, rules);
+        return rules;
+    }
+
+    private static void waitFor(Condition condition) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (!condition.met() && System.currentTimeMillis() < deadline) {
+            Thread.sleep(20);
+        }
+    }
+
+    private interface Condition {
+        boolean met();
+    }
+}
@@ -0,0 +1,165 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.cluster.server.shard;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import com.alibaba.csp.sentinel.cluster.flow.statistic.ClusterMetricStatistics;
+import com.alibaba.csp.sentinel.cluster.flow.statistic.data.ClusterFlowEvent;
+import com.alibaba.csp.sentinel.cluster.flow.statistic.metric.ClusterMetric;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Test cases for {@link TokenShardGroup}.
+ *
+ * @since 1.8.7
+ */
+public class TokenShardGroupTest {
+
+    @Test
+    public void testShardOfIsStableAndInRange() {
+        int shardCount = 8;
+        int[] hits = new int[shardCount];
+        for (long flowId = 1; flowId <= 8000; flowId++) {
+            int shard = TokenShardGroup.shardOf(flowId, shardCount);
+            assertTrue(shard >= 0 && shard < shardCount);
+            assertEquals(shard, TokenShardGroup.shardOf(flowId, shardCount));
+            hits[shard]++;
+        }
+        // Sequential flow IDs should be spread over all shards.
+        for (int hit : hits) {
+            assertTrue(hit > 500);
+        }
+        assertTrue(TokenShardGroup.shardOf(Long.MIN_VALUE, shardCount) >= 0);
+        assertTrue(TokenShardGroup.shardOf(-1L, shardCount) >= 0);
+    }
+
+    @Test
+    public void testDispatchWithFlowAffinity() throws Exception {
+        final TokenShardGroup group = new TokenShardGroup(4);
+        try {
+            final Map<Long, Thread> ownerMap = new ConcurrentHashMap<>();
+            final Map<Long, Boolean> violationMap = new ConcurrentHashMap<>();
+            int taskCount = 1000;
+            final CountDownLatch latch = new CountDownLatch(taskCount);
+            for (int i = 0; i < taskCount; i++) {
+                final long flowId = i % 37;
+                assertTrue(group.dispatch(group.shardOf(flowId), new Runnable() {
+                    @Override
+                    public void run() {
+                        Thread owner = ownerMap.putIfAbsent(flowId, Thread.currentThread());
+                        if (owner != null && owner != Thread.currentThread()) {
+                            violationMap.put(flowId, true);
+                        }
+                        latch.countDown();
+                    }
+                }));
+            }
+            assertTrue(latch.await(5, TimeUnit.SECONDS));
+            assertEquals(37, ownerMap.size());
+            assertTrue(violationMap.isEmpty());
+        } finally {
+            group.shutdown();
+        }
+    }
+
+    @Test
+    public void testDispatchAfterShutdown() {
+        TokenShardGroup group = new TokenShardGroup(2);
+        group.shutdown();
+        assertFalse(group.dispatch(0, new Runnable() {
+            @Override
+            public void run() {
+            }
+        }));
+    }
+
+    @Test
+    public void testRejectWhenShardSaturated() throws Exception {
+        TokenShardGroup group = new TokenShardGroup(1, 1);
+        final CountDownLatch blocked = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+        try {
+            assertTrue(group.dispatch(0, new Runnable() {
+                @Override
+                public void run() {
+                    blocked.countDown();
+                    try {
+                        release.await();
+                    } catch (InterruptedException ex) {
+                        Thread.currentThread().interrupt();
+                    }
+                }
+            }));
+            assertTrue(blocked.await(5, TimeUnit.SECONDS));
+            Runnable noop = new Runnable() {
+                @Override
+                public void run() {
+                }
+            };
+            // One task fills the queue, then the shard is saturated.
+            assertTrue(group.dispatch(0, noop));
+            assertFalse(group.dispatch(0, noop));
+        } finally {
+            release.countDown();
+            group.shutdown();
+        }
+    }
+
+    @Test
+    public void testShardOwnsFlowMetric() throws Exception {
+        final long flowId = 9527L;
+        final ClusterMetric shared = new ClusterMetric(10, 1000);
+        ClusterMetricStatistics.putMetric(flowId, shared);
+        TokenShardGroup group = new TokenShardGroup(2);
+        try {
+            final AtomicReference<ClusterMetric> owned = new AtomicReference<>();
+            final CountDownLatch latch = new CountDownLatch(1);
+            assertTrue(group.dispatch(group.shardOf(flowId), new Runnable() {
+                @Override
+                public void run() {
+                    ClusterMetric metric = ClusterMetricStatistics.getMetric(flowId);
+                    if (metric == ClusterMetricStatistics.getMetric(flowId)) {
+                        metric.add(ClusterFlowEvent.PASS, 3);
+                        owned.set(metric);
+                    }
+                    latch.countDown();
+                }
+            }));
+            assertTrue(latch.await(5, TimeUnit.SECONDS));
+            assertNotNull(owned.get());
+            assertNotSame(shared, owned.get());
+            // Other threads keep the shared metric for updates, and read the metric of the shard.
+            assertSame(shared, ClusterMetricStatistics.getMetric(flowId));
+            assertSame(owned.get(), ClusterMetricStatistics.getMetricForRead(flowId));
+            assertEquals(3, ClusterMetricStatistics.getMetricForRead(flowId).getSum(ClusterFlowEvent.PASS));
+            assertEquals(0, shared.getSum(ClusterFlowEvent.PASS));
+        } finally {
+            group.shutdown();
+            group.awaitTermination(5, TimeUnit.SECONDS);
+            // The metrics owned by the shards are dropped with the shards.
+            assertSame(shared, ClusterMetricStatistics.getMetricForRead(flowId));
+            ClusterMetricStatistics.removeMetric(flowId);
+        }
+    }
+}
@@ -33,6 +33,10 @@ public class AsyncEntry extends CtEntry {
 
     AsyncEntry(ResourceWrapper resourceWrapper, ProcessorSlot<Object> chain, Context context) {
         super(resourceWrapper, chain, context);
+        // The async entry keeps referring to its parent after it exits, so the parent must not be recycled.
+        if (parent instanceof CtEntry) {
+            ((CtEntry)parent).recyclable = false;
+        }
     }
 
     /**
@@ -53,7 +57,7 @@ public class AsyncEntry extends CtEntry {
                 }
             } else {
                 String curEntryName = curEntry == null ? "none"
-                    : curEntry.resourceWrapper.getName() + "@" + curEntry.hashCode();
+                    : curEntry.getResourceWrapper().getName() + "@" + curEntry.hashCode();
                 String msg = String.format("Bad async context state, expected entry: %s, but actual: %s",
                     getResourceWrapper().getName() + "@" + hashCode(), curEntryName);
                 throw new IllegalStateException(msg);
@@ -79,7 +83,7 @@ public class AsyncEntry extends CtEntry {
                 .setCurEntry(this);
         } else {
             RecordLog.warn(
-                "[AsyncEntry] Duplicate initialize of async context for entry: " + resourceWrapper.getName());
+                "[AsyncEntry] Duplicate initialize of async context for entry: " + getResourceWrapper().getName());
         }
     }
 
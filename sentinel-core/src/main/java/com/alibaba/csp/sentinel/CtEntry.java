@@ -41,6 +41,15 @@ class CtEntry extends Entry {
     protected Context context;
     protected LinkedList<BiConsumer<Context, Entry>> exitHandlers;
 
+    /**
+     * Whether the entry is recycled by the {@link EntryRecycler} once exited, only set for {@link RecyclableEntry}.
+     */
+    boolean recyclable;
+    /**
+     * Only set in the debug mode of {@link EntryRecycler}, once the entry has been recycled.
+     */
+    boolean recycled;
+
     CtEntry(ResourceWrapper resourceWrapper, ProcessorSlot<Object> chain, Context context) {
         super(resourceWrapper);
         this.chain = chain;
@@ -49,6 +58,35 @@ class CtEntry extends Entry {
         setUpEntryFor(context);
     }
 
+    /**
+     * Set up the recycled entry for a new invocation, see {@link RecyclableEntry}.
+     */
+    void reset(ProcessorSlot<Object> chain, Context context) {
+        resetState();
+        this.chain = chain;
+        this.context = context;
+
+        setUpEntryFor(context);
+    }
+
+    /**
+     * Clear all references of the exited entry, before it is recycled.
+     */
+    void clear() {
+        resetState();
+        this.parent = null;
+        this.child = null;
+        this.chain = null;
+        this.context = null;
+    }
+
+    private void checkNotRecycled() {
+        if (recycled) {
+            throw new IllegalStateException("Entry@" + Integer.toHexString(hashCode())
+                + " has been exited and recycled, it should not be used any more");
+        }
+    }
+
     private void setUpEntryFor(Context context) {
         // The entry should not be associated to NullContext.
         if (context instanceof NullContext) {
@@ -63,6 +101,7 @@ class CtEntry extends Entry {
 
     @Override
     public void exit(int count, Object... args) throws ErrorEntryFreeException {
+        checkNotRecycled();
         trueExit(count, args);
     }
 
@@ -76,10 +115,11 @@ class CtEntry extends Entry {
                     handler.accept(ctx, this);
                 } catch (Exception e) {
                     RecordLog.warn("Error occurred when invoking entry exit handler, current entry: "
-                        + resourceWrapper.getName(), e);
+                        + getResourceWrapper().getName(), e);
                 }
             }
-            exitHandlers = null;
+            // Keep the list for recycled entries.
+            exitHandlers.clear();
         }
     }
 
@@ -93,20 +133,22 @@ class CtEntry extends Entry {
             if (context.getCurEntry() != this) {
                 String curEntryNameInContext = context.getCurEntry() == null ? null
                     : context.getCurEntry().getResourceWrapper().getName();
-                // Clean previous call stack.
+                String expectedEntryName = getResourceWrapper().getName();
+                // Clean previous call stack. The parent must be read before exiting, as the entry may be recycled.
                 CtEntry e = (CtEntry) context.getCurEntry();
                 while (e != null) {
+                    CtEntry parentEntry = (CtEntry) e.parent;
                     e.exit(count, args);
-                    e = (CtEntry) e.parent;
+                    e = parentEntry;
                 }
                 String errorMessage = String.format("The order of entry exit can't be paired with the order of entry"
                         + ", current entry in context: <%s>, but expected: <%s>", curEntryNameInContext,
-                    resourceWrapper.getName());
+                    expectedEntryName);
                 throw new ErrorEntryFreeException(errorMessage);
             } else {
                 // Go through the onExit hook of all slots.
                 if (chain != null) {
-                    chain.exit(context, resourceWrapper, count, args);
+                    chain.exit(context, getResourceWrapper(), count, args);
                 }
                 // Go through the existing terminate handlers (associated to this invocation).
                 callExitHandlersAndCleanUp(context);
@@ -124,6 +166,9 @@ class CtEntry extends Entry {
                 }
                 // Clean the reference of context in current entry to avoid duplicate exit.
                 clearEntryContext();
+                if (recyclable) {
+                    EntryRecycler.recycle((RecyclableEntry) this);
+                }
             }
         }
     }
@@ -134,6 +179,7 @@ class CtEntry extends Entry {
 
     @Override
     public void whenTerminate(BiConsumer<Context, Entry> handler) {
+        checkNotRecycled();
         if (this.exitHandlers == null) {
             this.exitHandlers = new LinkedList<>();
         }
@@ -142,13 +188,22 @@ class CtEntry extends Entry {
 
     @Override
     protected Entry trueExit(int count, Object... args) throws ErrorEntryFreeException {
+        // Read before exiting, as the entry may be recycled on exit.
+        Entry parent = this.parent;
         exitForContext(context, count, args);
 
         return parent;
     }
 
+    @Override
+    public void setError(Throwable error) {
+        checkNotRecycled();
+        super.setError(error);
+    }
+
     @Override
     public Node getLastNode() {
+        checkNotRecycled();
         return parent == null ? null : parent.getCurNode();
     }
 }
\ No newline at end of file
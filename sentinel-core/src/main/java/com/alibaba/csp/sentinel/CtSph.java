@@ -16,7 +16,6 @@
 package com.alibaba.csp.sentinel;
 
 import java.lang.reflect.Method;
-import java.util.HashMap;
 import java.util.Map;
 
 import com.alibaba.csp.sentinel.log.RecordLog;
@@ -31,6 +30,9 @@ import com.alibaba.csp.sentinel.slotchain.SlotChainProvider;
 import com.alibaba.csp.sentinel.slotchain.StringResourceWrapper;
 import com.alibaba.csp.sentinel.slots.block.BlockException;
 import com.alibaba.csp.sentinel.slots.block.Rule;
+import com.alibaba.csp.sentinel.util.AssertUtil;
+import com.alibaba.csp.sentinel.util.ConcurrentRegistry;
+import com.alibaba.csp.sentinel.util.TimeUtil;
 
 /**
  * {@inheritDoc}
@@ -49,10 +51,8 @@ public class CtSph implements Sph {
      * {@link ProcessorSlotChain}, no matter in which {@link Context}.
      * 每个资源都有一个对应的 处理器链条
      */
-    private static volatile Map<ResourceWrapper, ProcessorSlotChain> chainMap
-        = new HashMap<ResourceWrapper, ProcessorSlotChain>();
-
-    private static final Object LOCK = new Object();
+    private static final ConcurrentRegistry<ResourceWrapper, ProcessorSlotChain> chainMap
+        = new ConcurrentRegistry<ResourceWrapper, ProcessorSlotChain>();
 
     private AsyncEntry asyncEntryWithNoChain(ResourceWrapper resourceWrapper, Context context) {
         AsyncEntry entry = new AsyncEntry(resourceWrapper, null, context);
@@ -117,11 +117,16 @@ public class CtSph implements Sph {
 
     private Entry entryWithPriority(ResourceWrapper resourceWrapper, int count, boolean prioritized, Object... args)
         throws BlockException {
+        return entryWithPriority(resourceWrapper, null, count, prioritized, args);
+    }
+
+    private Entry entryWithPriority(ResourceWrapper resourceWrapper, ResourceHandle handle, int count,
+                                    boolean prioritized, Object... args) throws BlockException {
         Context context = ContextUtil.getContext();
         if (context instanceof NullContext) {
             // The {@link NullContext} indicates that the amount of context has exceeded the threshold,
             // so here init the entry only. No rule checking will be done.
-            return new CtEntry(resourceWrapper, null, context);
+            return EntryRecycler.newEntry(resourceWrapper, null, context);
         }
 
         if (context == null) {
@@ -131,20 +136,20 @@ public class CtSph implements Sph {
 
         // Global switch is close, no rule checking will do.
         if (!Constants.ON) {
-            return new CtEntry(resourceWrapper, null, context);
+            return EntryRecycler.newEntry(resourceWrapper, null, context);
         }
 
-        ProcessorSlot<Object> chain = lookProcessChain(resourceWrapper);
+        ProcessorSlot<Object> chain = handle == null ? lookProcessChain(resourceWrapper) : lookProcessChain(handle);
 
         /*
          * Means amount of resources (slot chain) exceeds {@link Constants.MAX_SLOT_CHAIN_SIZE},
          * so no rule checking will be done.
          */
         if (chain == null) {
-            return new CtEntry(resourceWrapper, null, context);
+            return EntryRecycler.newEntry(resourceWrapper, null, context);
         }
 
-        Entry e = new CtEntry(resourceWrapper, chain, context);
+        Entry e = EntryRecycler.newEntry(resourceWrapper, chain, context);
         try {
             chain.entry(context, resourceWrapper, null, count, prioritized, args);
         } catch (BlockException e1) {
@@ -193,28 +198,52 @@ public class CtSph implements Sph {
      * @return {@link ProcessorSlotChain} of the resource
      */
     ProcessorSlot<Object> lookProcessChain(ResourceWrapper resourceWrapper) {
+        return lookChain(resourceWrapper);
+    }
+
+    /**
+     * Get {@link ProcessorSlotChain} of the resource handle, which is cached in the handle
+     * unless it has been evicted.
+     *
+     * @param handle target resource handle
+     * @return {@link ProcessorSlotChain} of the resource
+     * @since 1.8.7
+     */
+    ProcessorSlot<Object> lookProcessChain(ResourceHandle handle) {
+        ProcessorSlotChain chain = handle.getChain();
+        if (chain == null || chain.isEvicted()) {
+            chain = lookChain(handle.getResource());
+            handle.setChain(chain);
+            return chain;
+        }
+        touch(chain);
+        return chain;
+    }
+
+    private ProcessorSlotChain lookChain(ResourceWrapper resourceWrapper) {
         ProcessorSlotChain chain = chainMap.get(resourceWrapper);
         if (chain == null) {
-            synchronized (LOCK) {
-                chain = chainMap.get(resourceWrapper);
-                if (chain == null) {
-                    // Entry size limit.
-                    if (chainMap.size() >= Constants.MAX_SLOT_CHAIN_SIZE) {
-                        return null;
-                    }
-
-                    chain = SlotChainProvider.newSlotChain();
-                    Map<ResourceWrapper, ProcessorSlotChain> newMap = new HashMap<ResourceWrapper, ProcessorSlotChain>(
-                        chainMap.size() + 1);
-                    newMap.putAll(chainMap);
-                    newMap.put(resourceWrapper, chain);
-                    chainMap = newMap;
-                }
+            // Entry size limit. Idle resources (if enabled) are reclaimed to make room for new ones.
+            if (chainMap.size() >= Constants.MAX_SLOT_CHAIN_SIZE) {
+                IdleResourceEvictor.tryEvictOnCapacity();
+            }
+            chain = chainMap.getOrCreate(resourceWrapper, Constants.MAX_SLOT_CHAIN_SIZE,
+                k -> SlotChainProvider.newSlotChain());
+            if (chain == null) {
+                return null;
             }
         }
+        touch(chain);
         return chain;
     }
 
+    private static void touch(ProcessorSlotChain chain) {
+        // The access time is only needed by idle resource eviction, which is disabled by default.
+        if (IdleResourceEvictor.isAccessTracked()) {
+            chain.touch(TimeUtil.currentTimeMillis());
+        }
+    }
+
     /**
      * Get current size of created slot chains.
      *
@@ -231,6 +260,9 @@ public class CtSph implements Sph {
      * @since 0.2.0
      */
     static void resetChainMap() {
+        for (ProcessorSlotChain chain : chainMap.values()) {
+            chain.markEvicted();
+        }
         chainMap.clear();
     }
 
@@ -238,9 +270,28 @@ public class CtSph implements Sph {
      * Only for internal test.
      *
      * @since 0.2.0
+     * @deprecated modifying the returned map is still supported but deprecated, use {@link #resetChainMap()}
+     * or {@link #removeChain(ResourceWrapper, ProcessorSlotChain)} instead
      */
+    @Deprecated
     static Map<ResourceWrapper, ProcessorSlotChain> getChainMap() {
-        return chainMap;
+        return chainMap.asMutableMap();
+    }
+
+    /**
+     * Get the unmodifiable view of the slot chain map.
+     */
+    static Map<ResourceWrapper, ProcessorSlotChain> chainMapView() {
+        return chainMap.asMap();
+    }
+
+    /**
+     * Remove the slot chain of the resource if it is still the given one.
+     *
+     * @return true if the slot chain has been removed
+     */
+    static boolean removeChain(ResourceWrapper resourceWrapper, ProcessorSlotChain chain) {
+        return chainMap.remove(resourceWrapper, chain);
     }
 
     /**
@@ -256,6 +307,25 @@ public class CtSph implements Sph {
         }
     }
 
+    @Override
+    public ResourceHandle resolve(String name, int resourceType, EntryType entryType) {
+        AssertUtil.notEmpty(name, "resource name cannot be empty");
+        AssertUtil.notNull(entryType, "entryType cannot be null");
+        ResourceHandle handle = new ResourceHandle(name, resourceType, entryType);
+        // Resolve the slot chain eagerly, so that the first entry won't pay for it.
+        if (Constants.ON) {
+            handle.setChain(lookChain(handle.getResource()));
+        }
+        return handle;
+    }
+
+    @Override
+    public Entry entry(ResourceHandle handle, int count, boolean prioritized, Object... args)
+        throws BlockException {
+        AssertUtil.notNull(handle, "resource handle cannot be null");
+        return entryWithPriority(handle.getResource(), handle, count, prioritized, args);
+    }
+
     @Override
     public Entry entry(String name) throws BlockException {
         StringResourceWrapper resource = new StringResourceWrapper(name, EntryType.OUT);
@@ -81,6 +81,17 @@ public abstract class Entry implements AutoCloseable {
         this.createTimestamp = TimeUtil.currentTimeMillis();
     }
 
+    /**
+     * Clear the state of the invocation, only for entries reused by the {@link EntryRecycler}.
+     */
+    void resetState() {
+        this.completeTimestamp = 0;
+        this.curNode = null;
+        this.originNode = null;
+        this.error = null;
+        this.blockError = null;
+    }
+
     public ResourceWrapper getResourceWrapper() {
         return resourceWrapper;
     }
@@ -0,0 +1,112 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel;
+
+import com.alibaba.csp.sentinel.config.SentinelConfig;
+import com.alibaba.csp.sentinel.context.Context;
+import com.alibaba.csp.sentinel.slotchain.ProcessorSlot;
+import com.alibaba.csp.sentinel.slotchain.ResourceWrapper;
+
+/**
+ * <p>Per-thread recycler of entries ({@link RecyclableEntry}), enabled by {@link SentinelConfig#ENTRY_RECYCLE}.
+ * Entries are recycled once exited, and reused by the following entries of the same thread, so that entering
+ * a resource doesn't allocate an entry in steady state.</p>
+ *
+ * <p>Use after exit is only detected in debug mode ({@link SentinelConfig#ENTRY_RECYCLE_DEBUG}), where exited
+ * entries are poisoned instead of reused, so that any use after exit fails fast. Otherwise recycled entries are
+ * not checked at all: an entry used after its exit silently acts on the invocation that reused it.</p>
+ *
+ * @since 1.8.7
+ */
+final class EntryRecycler {
+
+    /**
+     * Enough for the nested entries of a thread.
+     */
+    private static final int MAX_ENTRIES_PER_THREAD = 16;
+
+    private static volatile boolean enabled = SentinelConfig.entryRecycleEnabled();
+    private static volatile boolean debug = SentinelConfig.entryRecycleDebug();
+
+    private static final ThreadLocal<Pool> POOL = ThreadLocal.withInitial(Pool::new);
+
+    /**
+     * Create a new entry, or reuse a recycled one if enabled.
+     *
+     * @param resourceWrapper the resource
+     * @param chain           slot chain of the resource, could be null
+     * @param context         current context
+     * @return the entry, which has been set as the current entry of the context
+     */
+    static CtEntry newEntry(ResourceWrapper resourceWrapper, ProcessorSlot<Object> chain, Context context) {
+        if (!enabled) {
+            return new CtEntry(resourceWrapper, chain, context);
+        }
+        RecyclableEntry entry = POOL.get().poll();
+        if (entry == null) {
+            return new RecyclableEntry(resourceWrapper, chain, context);
+        }
+        entry.reuse(resourceWrapper, chain, context);
+        return entry;
+    }
+
+    /**
+     * Recycle the exited entry. Only called once per exit, as the entry is not recyclable afterwards
+     * until it is reused.
+     *
+     * @param entry the exited entry
+     */
+    static void recycle(RecyclableEntry entry) {
+        entry.recyclable = false;
+        entry.clear();
+        if (debug) {
+            entry.recycled = true;
+            return;
+        }
+        POOL.get().offer(entry);
+    }
+
+    /**
+     * Only for test.
+     */
+    static void setEnabled(boolean enabled, boolean debug) {
+        EntryRecycler.enabled = enabled;
+        EntryRecycler.debug = debug;
+        POOL.remove();
+    }
+
+    private static final class Pool {
+        private final RecyclableEntry[] entries = new RecyclableEntry[MAX_ENTRIES_PER_THREAD];
+        private int size;
+
+        RecyclableEntry poll() {
+            if (size == 0) {
+                return null;
+            }
+            RecyclableEntry entry = entries[--size];
+            entries[size] = null;
+            return entry;
+        }
+
+        void offer(RecyclableEntry entry) {
+            if (size < entries.length) {
+                entries[size++] = entry;
+            }
+        }
+    }
+
+    private EntryRecycler() {}
+}
@@ -0,0 +1,310 @@
+/*
+ * Copyright 1999-2022 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+import com.alibaba.csp.sentinel.concurrent.NamedThreadFactory;
+import com.alibaba.csp.sentinel.config.SentinelConfig;
+import com.alibaba.csp.sentinel.log.RecordLog;
+import com.alibaba.csp.sentinel.node.ClusterNode;
+import com.alibaba.csp.sentinel.node.DefaultNode;
+import com.alibaba.csp.sentinel.node.EntranceNode;
+import com.alibaba.csp.sentinel.node.Node;
+import com.alibaba.csp.sentinel.slotchain.ProcessorSlotChain;
+import com.alibaba.csp.sentinel.slotchain.ResourceWrapper;
+import com.alibaba.csp.sentinel.slots.block.authority.AuthorityRuleManager;
+import com.alibaba.csp.sentinel.slots.block.degrade.DegradeRuleManager;
+import com.alibaba.csp.sentinel.slots.block.flow.FlowRuleManager;
+import com.alibaba.csp.sentinel.slots.clusterbuilder.ClusterBuilderSlot;
+import com.alibaba.csp.sentinel.util.TimeUtil;
+import com.alibaba.csp.sentinel.util.function.Predicate;
+
+/**
+ * <p>Reclaims the slot chain, the {@link com.alibaba.csp.sentinel.node.ClusterNode} and the
+ * {@link DefaultNode}s (with their sliding windows) of resources that have not been accessed
+ * for {@link SentinelConfig#STATISTIC_IDLE_TTL} milliseconds.</p>
+ *
+ * <p>Resources that have rules are pinned and never reclaimed. Rule managers outside the core
+ * can pin their resources via {@link #addPinnedResourceChecker(String, Predicate)}. A resource
+ * whose nodes still have children in the invocation tree is kept until the children are reclaimed.</p>
+ *
+ * <p>When enabled, idle resources are swept periodically, and also on demand when the amount of
+ * slot chains reaches {@link Constants#MAX_SLOT_CHAIN_SIZE}. The access time of slot chains is only
+ * tracked once eviction is enabled, so the entries pay nothing for it by default.</p>
+ *
+ * <p>A resource with entries still in flight (i.e. thread count of its cluster node is not zero) is not
+ * reclaimed. An entry that looks up the slot chain right before it is reclaimed may still record its
+ * statistics into the reclaimed nodes, which are lost. This only happens to resources that have been
+ * idle for the whole TTL, so at most the statistics of that single entry are lost.</p>
+ *
+ * @since 1.8.7
+ */
+public final class IdleResourceEvictor {
+
+    private static final long MIN_SWEEP_INTERVAL_MS = 1000;
+    private static final long MAX_SWEEP_INTERVAL_MS = 60 * 1000;
+
+    private static final Map<String, Predicate<String>> PINNED_CHECKERS = new ConcurrentHashMap<>();
+
+    private static final ReentrantLock EVICT_LOCK = new ReentrantLock();
+
+    private static volatile long lastSweepTime = 0;
+    private static volatile boolean accessTracked = false;
+
+    private static ScheduledExecutorService scheduler = null;
+
+    static {
+        addPinnedResourceChecker(FlowRuleManager.class.getName(), FlowRuleManager::hasConfig);
+        addPinnedResourceChecker(DegradeRuleManager.class.getName(), DegradeRuleManager::hasConfig);
+        addPinnedResourceChecker(AuthorityRuleManager.class.getName(), AuthorityRuleManager::hasConfig);
+    }
+
+    /**
+     * Register a checker telling whether a resource (by name) has active rules and must not be reclaimed.
+     *
+     * @param key     unique key of the checker
+     * @param checker the checker
+     */
+    public static void addPinnedResourceChecker(String key, Predicate<String> checker) {
+        PINNED_CHECKERS.put(key, checker);
+    }
+
+    public static void removePinnedResourceChecker(String key) {
+        PINNED_CHECKERS.remove(key);
+    }
+
+    public static boolean isPinned(String resourceName) {
+        for (Predicate<String> checker : PINNED_CHECKERS.values()) {
+            if (checker.test(resourceName)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public static boolean isEnabled() {
+        return SentinelConfig.statisticIdleTtlMs() > 0;
+    }
+
+    /**
+     * @return whether the access time of slot chains should be recorded on entry
+     */
+    public static boolean isAccessTracked() {
+        return accessTracked;
+    }
+
+    /**
+     * Start tracking the access time of slot chains. The existing slot chains are regarded as accessed
+     * now, as their access time has not been recorded so far.
+     */
+    static void startAccessTracking() {
+        if (accessTracked) {
+            return;
+        }
+        long now = TimeUtil.currentTimeMillis();
+        for (ProcessorSlotChain chain : CtSph.chainMapView().values()) {
+            chain.touch(now);
+        }
+        accessTracked = true;
+    }
+
+    /**
+     * Only for internal test.
+     */
+    static void stopAccessTracking() {
+        accessTracked = false;
+    }
+
+    /**
+     * Start the periodic sweep if idle eviction is enabled.
+     */
+    static synchronized void startIfEnabled() {
+        long ttl = SentinelConfig.statisticIdleTtlMs();
+        if (ttl <= 0 || scheduler != null) {
+            return;
+        }
+        startAccessTracking();
+        long interval = Math.min(Math.max(ttl / 2, MIN_SWEEP_INTERVAL_MS), MAX_SWEEP_INTERVAL_MS);
+        scheduler = new ScheduledThreadPoolExecutor(1,
+            new NamedThreadFactory("sentinel-idle-resource-evict-task", true));
+        scheduler.scheduleAtFixedRate(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    evictIdleResources();
+                } catch (Throwable ex) {
+                    RecordLog.warn("[IdleResourceEvictor] Failed to evict idle resources", ex);
+                }
+            }
+        }, interval, interval, TimeUnit.MILLISECONDS);
+        RecordLog.info("[IdleResourceEvictor] Idle resource eviction started, ttl={}ms, interval={}ms",
+            ttl, interval);
+    }
+
+    /**
+     * Reclaim the resources that have been idle for longer than the configured TTL.
+     *
+     * @return amount of reclaimed resources
+     */
+    public static int evictIdleResources() {
+        long ttl = SentinelConfig.statisticIdleTtlMs();
+        if (ttl <= 0) {
+            return 0;
+        }
+        EVICT_LOCK.lock();
+        try {
+            return doEvict(TimeUtil.currentTimeMillis(), ttl);
+        } finally {
+            EVICT_LOCK.unlock();
+        }
+    }
+
+    /**
+     * Sweep idle resources when the slot chain registry is full. The sweep runs at most once per second,
+     * and never blocks the caller if another sweep is in progress.
+     *
+     * @return true if any resource has been reclaimed
+     */
+    static boolean tryEvictOnCapacity() {
+        long ttl = SentinelConfig.statisticIdleTtlMs();
+        if (ttl <= 0) {
+            return false;
+        }
+        long now = TimeUtil.currentTimeMillis();
+        if (now - lastSweepTime < MIN_SWEEP_INTERVAL_MS || !EVICT_LOCK.tryLock()) {
+            return false;
+        }
+        try {
+            return doEvict(now, ttl) > 0;
+        } finally {
+            EVICT_LOCK.unlock();
+        }
+    }
+
+    private static int doEvict(long now, long ttl) {
+        lastSweepTime = now;
+        if (!accessTracked) {
+            // Enabled at runtime, the access time is not reliable until tracked for a whole TTL.
+            startAccessTracking();
+            return 0;
+        }
+        Map<ResourceWrapper, ProcessorSlotChain> chainMap = CtSph.chainMapView();
+        List<ResourceWrapper> candidates = new ArrayList<>();
+        for (Map.Entry<ResourceWrapper, ProcessorSlotChain> e : chainMap.entrySet()) {
+            if (now - e.getValue().getLastAccessTime() > ttl && !isPinned(e.getKey().getName())) {
+                candidates.add(e.getKey());
+            }
+        }
+        if (candidates.isEmpty()) {
+            return 0;
+        }
+
+        Map<String, List<DefaultNode[]>> links = collectTreeLinks(candidates);
+        int evicted = 0;
+        for (ResourceWrapper resource : candidates) {
+            List<DefaultNode[]> resourceLinks = links.get(resource.getName());
+            if (resourceLinks != null && hasChildren(resourceLinks)) {
+                // Callees are still in the invocation tree, wait for them to be reclaimed first.
+                continue;
+            }
+            if (hasEntriesInFlight(resource)) {
+                // Long-running entries would record their exit into the reclaimed nodes.
+                continue;
+            }
+            ProcessorSlotChain chain = chainMap.get(resource);
+            if (chain == null || now - chain.getLastAccessTime() <= ttl || !CtSph.removeChain(resource, chain)) {
+                continue;
+            }
+            chain.markEvicted();
+            if (resourceLinks != null) {
+                for (DefaultNode[] link : resourceLinks) {
+                    link[0].removeChild(link[1]);
+                }
+            }
+            ClusterBuilderSlot.removeClusterNode(resource);
+            evicted++;
+        }
+        if (evicted > 0) {
+            RecordLog.info("[IdleResourceEvictor] {} idle resources reclaimed, {} slot chains left",
+                evicted, chainMap.size());
+        }
+        return evicted;
+    }
+
+    /**
+     * Collect (parent, child) links of the given resources in the invocation tree.
+     */
+    private static Map<String, List<DefaultNode[]>> collectTreeLinks(List<ResourceWrapper> resources) {
+        Map<String, List<DefaultNode[]>> links = new HashMap<>(resources.size());
+        for (ResourceWrapper resource : resources) {
+            links.put(resource.getName(), new ArrayList<DefaultNode[]>(1));
+        }
+        Set<Node> visited = Collections.newSetFromMap(new IdentityHashMap<Node, Boolean>());
+        List<DefaultNode> stack = new ArrayList<>();
+        stack.add(Constants.ROOT);
+        visited.add(Constants.ROOT);
+        while (!stack.isEmpty()) {
+            DefaultNode parent = stack.remove(stack.size() - 1);
+            for (Node n : parent.getChildList()) {
+                if (!(n instanceof DefaultNode)) {
+                    continue;
+                }
+                DefaultNode child = (DefaultNode) n;
+                if (!(child instanceof EntranceNode)) {
+                    List<DefaultNode[]> l = links.get(child.getId().getName());
+                    if (l != null) {
+                        l.add(new DefaultNode[] {parent, child});
+                    }
+                }
+                if (visited.add(child)) {
+                    stack.add(child);
+                }
+            }
+        }
+        return links;
+    }
+
+    private static boolean hasEntriesInFlight(ResourceWrapper resource) {
+        ClusterNode clusterNode = ClusterBuilderSlot.getClusterNode(resource.getName(), resource.getEntryType());
+        return clusterNode != null && clusterNode.curThreadNum() > 0;
+    }
+
+    private static boolean hasChildren(List<DefaultNode[]> links) {
+        for (DefaultNode[] link : links) {
+            DefaultNode node = link[1];
+            for (Node child : node.getChildList()) {
+                if (child != node) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    private IdleResourceEvictor() {}
+}
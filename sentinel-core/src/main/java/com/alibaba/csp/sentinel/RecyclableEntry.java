@@ -0,0 +1,70 @@
+/*
+ * Copyright 1999-2022 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel;
+
+import com.alibaba.csp.sentinel.context.Context;
+import com.alibaba.csp.sentinel.slotchain.ProcessorSlot;
+import com.alibaba.csp.sentinel.slotchain.ResourceWrapper;
+import com.alibaba.csp.sentinel.util.TimeUtil;
+
+/**
+ * <p>An entry created by the {@link EntryRecycler}, which may be reused by later invocations of the thread.</p>
+ *
+ * <p>The resource and the creation time change whenever the entry is reused, so they are kept here and read
+ * through {@link #getResourceWrapper()} and {@link #getCreateTimestamp()}. The final fields of {@link Entry}
+ * keep the values of the first invocation.</p>
+ *
+ * @since 1.8.7
+ */
+final class RecyclableEntry extends CtEntry {
+
+    private ResourceWrapper resource;
+    private long createTime;
+
+    RecyclableEntry(ResourceWrapper resourceWrapper, ProcessorSlot<Object> chain, Context context) {
+        super(resourceWrapper, chain, context);
+        this.resource = resourceWrapper;
+        this.createTime = super.getCreateTimestamp();
+        this.recyclable = true;
+    }
+
+    /**
+     * Reuse the recycled entry for a new invocation.
+     */
+    void reuse(ResourceWrapper resourceWrapper, ProcessorSlot<Object> chain, Context context) {
+        this.resource = resourceWrapper;
+        this.createTime = TimeUtil.currentTimeMillis();
+        this.recyclable = true;
+        reset(chain, context);
+    }
+
+    @Override
+    void clear() {
+        super.clear();
+        this.resource = null;
+        this.createTime = 0;
+    }
+
+    @Override
+    public ResourceWrapper getResourceWrapper() {
+        return resource;
+    }
+
+    @Override
+    public long getCreateTimestamp() {
+        return createTime;
+    }
+}
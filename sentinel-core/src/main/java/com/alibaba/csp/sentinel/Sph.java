@@ -193,4 +193,36 @@ public interface Sph extends SphResourceTypeSupport {
      */
     Entry entryWithPriority(String name, EntryType trafficType, int batchCount, boolean prioritized, Object... args)
         throws BlockException;
+
+    /**
+     * Resolve a resource handle, which could be kept and used to enter the resource repeatedly
+     * without looking up the resource by name. The default implementation only keeps the name,
+     * resource type and entry type in the handle.
+     *
+     * @param name         the unique name for the protected resource
+     * @param resourceType classification of the resource (e.g. Web or RPC)
+     * @param entryType    the traffic type (inbound, outbound or internal)
+     * @return the resource handle
+     * @since 1.8.7
+     */
+    default ResourceHandle resolve(String name, int resourceType, EntryType entryType) {
+        return new ResourceHandle(name, resourceType, entryType);
+    }
+
+    /**
+     * Create a protected resource by a resource handle. The default implementation falls back to
+     * {@link #entryWithPriority(String, EntryType, int, boolean, Object...)} by the name of the handle.
+     *
+     * @param handle      the resolved resource handle
+     * @param batchCount  the amount of calls within the invocation (e.g. batchCount=2 means request for 2 tokens)
+     * @param prioritized whether the entry is prioritized
+     * @param args        args for parameter flow control or customized slots
+     * @return the {@link Entry} of this invocation (used for mark the invocation complete and get context data)
+     * @throws BlockException if the block criteria is met
+     * @since 1.8.7
+     */
+    default Entry entry(ResourceHandle handle, int batchCount, boolean prioritized, Object... args)
+        throws BlockException {
+        return entryWithPriority(handle.getName(), handle.getEntryType(), batchCount, prioritized, args);
+    }
 }
@@ -365,4 +365,58 @@ public class SphU {
                                         Object[] args) throws BlockException {
         return Env.sph.asyncEntryWithType(name, resourceType, trafficType, batchCount, false, args);
     }
+
+    /**
+     * Resolve a handle of the given resource, which should be kept and used to enter the resource
+     * by {@link #entry(ResourceHandle)} without looking up the resource by name on every invocation.
+     *
+     * @param name         the unique name for the protected resource
+     * @param resourceType classification of the resource (e.g. Web or RPC)
+     * @param trafficType  the traffic type (inbound, outbound or internal). This is used
+     *                     to mark whether it can be blocked when the system is unstable,
+     *                     only inbound traffic could be blocked by {@link SystemRule}
+     * @return the resource handle
+     * @since 1.8.7
+     */
+    public static ResourceHandle resolve(String name, int resourceType, EntryType trafficType) {
+        return Env.sph.resolve(name, resourceType, trafficType);
+    }
+
+    /**
+     * Resolve a handle of the given common resource, see {@link #resolve(String, int, EntryType)}.
+     *
+     * @param name        the unique name for the protected resource
+     * @param trafficType the traffic type (inbound, outbound or internal)
+     * @return the resource handle
+     * @since 1.8.7
+     */
+    public static ResourceHandle resolve(String name, EntryType trafficType) {
+        return Env.sph.resolve(name, ResourceTypeConstants.COMMON, trafficType);
+    }
+
+    /**
+     * Record statistics and perform rule checking for the resource of the given handle.
+     *
+     * @param handle the resource handle resolved by {@link #resolve(String, int, EntryType)}
+     * @return the {@link Entry} of this invocation (used for mark the invocation complete and get context data)
+     * @throws BlockException if the block criteria is met (e.g. metric exceeded the threshold of any rules)
+     * @since 1.8.7
+     */
+    public static Entry entry(ResourceHandle handle) throws BlockException {
+        return Env.sph.entry(handle, 1, false, OBJECTS0);
+    }
+
+    /**
+     * Record statistics and perform rule checking for the resource of the given handle.
+     *
+     * @param handle     the resource handle resolved by {@link #resolve(String, int, EntryType)}
+     * @param batchCount the amount of calls within the invocation (e.g. batchCount=2 means request for 2 tokens)
+     * @param args       args for parameter flow control or customized slots
+     * @return the {@link Entry} of this invocation (used for mark the invocation complete and get context data)
+     * @throws BlockException if the block criteria is met (e.g. metric exceeded the threshold of any rules)
+     * @since 1.8.7
+     */
+    public static Entry entry(ResourceHandle handle, int batchCount, Object... args) throws BlockException {
+        return Env.sph.entry(handle, batchCount, false, args);
+    }
 }
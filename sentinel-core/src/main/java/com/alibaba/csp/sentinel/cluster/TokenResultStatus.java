@@ -67,6 +67,12 @@ public final class TokenResultStatus {
      * Token already is released before the request arrives.
      */
     public static final int ALREADY_RELEASE=7;
+    /**
+     * The token server does not own the flow in partitioned mode, so the request should go to the owner.
+     *
+     * @since 1.8.7
+     */
+    public static final int NOT_OWNER = 8;
 
     private TokenResultStatus() {
     }
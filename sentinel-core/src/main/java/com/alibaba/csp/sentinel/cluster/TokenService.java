@@ -60,4 +60,29 @@ public interface TokenService {
      * @param tokenId the unique token ID
      */
     void releaseConcurrentToken(Long tokenId);
+
+    /**
+     * Lease a block of tokens from remote token server, which could be consumed locally until the lease expires.
+     * If the lease is granted, {@link TokenResult#getTokenId()} is the lease ID and {@link TokenResult#getRemaining()}
+     * is the count of granted tokens, which might be less than {@code leaseCount}.
+     *
+     * @param ruleId the unique rule ID
+     * @param leaseCount count of tokens to lease
+     * @param leaseTimeInMs valid time of the lease (in milliseconds)
+     * @return result of the lease request
+     * @since 1.8.7
+     */
+    default TokenResult requestTokenLease(Long ruleId, int leaseCount, int leaseTimeInMs) {
+        return new TokenResult(TokenResultStatus.NOT_AVAILABLE);
+    }
+
+    /**
+     * Return the unused tokens of a lease to remote token server. The lease is finished after that.
+     *
+     * @param leaseId the unique lease ID
+     * @param unusedCount count of tokens that were not consumed
+     * @since 1.8.7
+     */
+    default void releaseTokenLease(Long leaseId, int unusedCount) {
+    }
 }
@@ -15,6 +15,9 @@
  */
 package com.alibaba.csp.sentinel.cluster.client;
 
+import java.util.concurrent.CompletableFuture;
+
+import com.alibaba.csp.sentinel.cluster.TokenResult;
 import com.alibaba.csp.sentinel.cluster.TokenServerDescriptor;
 import com.alibaba.csp.sentinel.cluster.TokenService;
 
@@ -53,4 +56,18 @@ public interface ClusterTokenClient extends TokenService {
      * @return state of the cluster token client
      */
     int getState();
+
+    /**
+     * Request tokens from remote token server without blocking the caller.
+     * The default implementation falls back to {@link #requestToken(Long, int, boolean)}.
+     *
+     * @param ruleId       the unique rule ID
+     * @param acquireCount token count to acquire
+     * @param prioritized  whether the request is prioritized
+     * @return future of the token result, which never completes exceptionally
+     * @since 1.8.7
+     */
+    default CompletableFuture<TokenResult> requestTokenAsync(Long ruleId, int acquireCount, boolean prioritized) {
+        return CompletableFuture.completedFuture(requestToken(ruleId, acquireCount, prioritized));
+    }
 }
\ No newline at end of file
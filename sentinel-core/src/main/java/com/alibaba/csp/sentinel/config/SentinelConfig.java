@@ -61,6 +61,14 @@ public final class SentinelConfig {
     public static final String STATISTIC_MAX_RT = "csp.sentinel.statistic.max.rt";
     public static final String SPI_CLASSLOADER = "csp.sentinel.spi.classloader";
     public static final String METRIC_FLUSH_INTERVAL = "csp.sentinel.metric.flush.interval";
+    public static final String STATISTIC_BUCKET_TYPE = "csp.sentinel.statistic.bucket.type";
+    public static final String STATISTIC_WINDOW_CAS_RESET = "csp.sentinel.statistic.window.cas.reset";
+    public static final String STATISTIC_IDLE_TTL = "csp.sentinel.statistic.idle.ttl";
+    public static final String STATISTIC_RT_HISTOGRAM = "csp.sentinel.statistic.rt.histogram.enabled";
+    public static final String METRIC_FILE_FORMAT = "csp.sentinel.metric.file.format";
+    public static final String ENTRY_RECYCLE = "csp.sentinel.entry.recycle.enabled";
+    public static final String ENTRY_RECYCLE_DEBUG = "csp.sentinel.entry.recycle.debug";
+    public static final String SLOT_CHAIN_SPECIALIZE = "csp.sentinel.slot.chain.specialize.enabled";
 
     public static final String DEFAULT_CHARSET = "UTF-8";
     public static final long DEFAULT_SINGLE_METRIC_FILE_SIZE = 1024 * 1024 * 50;
@@ -69,6 +77,31 @@ public final class SentinelConfig {
     public static final int DEFAULT_STATISTIC_MAX_RT = 5000;
     public static final long DEFAULT_METRIC_FLUSH_INTERVAL = 1L;
 
+    /**
+     * Metric bucket that keeps one {@code LongAdder} per metric event.
+     *
+     * @since 1.8.7
+     */
+    public static final String STATISTIC_BUCKET_TYPE_ADDER = "adder";
+    /**
+     * Metric bucket that keeps all event counters in a single striped block.
+     *
+     * @since 1.8.7
+     */
+    public static final String STATISTIC_BUCKET_TYPE_STRIPED = "striped";
+    /**
+     * Metric log in text lines, accompanied with a separate index file.
+     *
+     * @since 1.8.7
+     */
+    public static final String METRIC_FILE_FORMAT_TEXT = "text";
+    /**
+     * Metric log in fixed-width binary records, with the index and resource dictionary embedded.
+     *
+     * @since 1.8.7
+     */
+    public static final String METRIC_FILE_FORMAT_BINARY = "binary";
+
     static {
         try {
             initialize();
@@ -259,6 +292,125 @@ public final class SentinelConfig {
         }
     }
 
+    /**
+     * <p>Get the type of the metric bucket used by sliding window statistics,
+     * {@code adder} (default) or {@code striped}.</p>
+     *
+     * @return the metric bucket type
+     * @since 1.8.7
+     */
+    public static String statisticBucketType() {
+        String v = props.get(STATISTIC_BUCKET_TYPE);
+        if (STATISTIC_BUCKET_TYPE_STRIPED.equalsIgnoreCase(v)) {
+            return STATISTIC_BUCKET_TYPE_STRIPED;
+        }
+        if (StringUtil.isNotBlank(v) && !STATISTIC_BUCKET_TYPE_ADDER.equalsIgnoreCase(v)) {
+            RecordLog.warn("[SentinelConfig] Invalid statistic bucket type: {}, using the default type instead: "
+                + STATISTIC_BUCKET_TYPE_ADDER, v);
+        }
+        return STATISTIC_BUCKET_TYPE_ADDER;
+    }
+
+    /**
+     * <p>Whether deprecated sliding window buckets of the node metrics ({@code BucketLeapArray}) should be
+     * replaced via CAS instead of being reset in place under an update lock. Disabled by default.</p>
+     *
+     * @return true if CAS window reset is enabled
+     * @since 1.8.7
+     */
+    public static boolean statisticWindowCasReset() {
+        return Boolean.parseBoolean(props.get(STATISTIC_WINDOW_CAS_RESET));
+    }
+
+    /**
+     * <p>Whether the RT of every sliding window bucket should also be recorded into a histogram,
+     * so that RT percentiles are available. Disabled by default.</p>
+     *
+     * @return true if RT histograms are enabled
+     * @since 1.8.7
+     */
+    public static boolean statisticRtHistogramEnabled() {
+        return Boolean.parseBoolean(props.get(STATISTIC_RT_HISTOGRAM));
+    }
+
+    /**
+     * <p>Whether entries and contexts should be recycled per thread once exited, rather than allocated for
+     * every invocation. Disabled by default.</p>
+     *
+     * <p>When enabled, an {@link com.alibaba.csp.sentinel.Entry} or a {@link com.alibaba.csp.sentinel.context.Context}
+     * must not be used after it has exited (e.g. exiting an entry twice), as it may have been reused by another
+     * invocation. Such use is not detected unless {@link #ENTRY_RECYCLE_DEBUG} is enabled: the recycled object
+     * silently acts on the invocation that reused it. Async entries and contexts are never recycled.</p>
+     *
+     * @return true if entries and contexts are recycled
+     * @since 1.8.7
+     */
+    public static boolean entryRecycleEnabled() {
+        return Boolean.parseBoolean(props.get(ENTRY_RECYCLE));
+    }
+
+    /**
+     * <p>Whether recycled entries and contexts should be checked against use after exit. Recycled objects
+     * are then discarded instead of reused, and any later use throws an {@link IllegalStateException}.
+     * Only for debugging, disabled by default.</p>
+     *
+     * @return true if use of recycled entries and contexts should be checked
+     * @since 1.8.7
+     */
+    public static boolean entryRecycleDebug() {
+        return Boolean.parseBoolean(props.get(ENTRY_RECYCLE_DEBUG));
+    }
+
+    /**
+     * <p>Whether slot chains should skip the rule checking slots that have no rules for the resource
+     * (see {@link com.alibaba.csp.sentinel.slotchain.RuleCheckingSlot}). Enabled by default.</p>
+     *
+     * @return true if slot chains are specialized per resource
+     * @since 1.8.7
+     */
+    public static boolean slotChainSpecializeEnabled() {
+        String v = props.get(SLOT_CHAIN_SPECIALIZE);
+        return StringUtil.isBlank(v) || Boolean.parseBoolean(v.trim());
+    }
+
+    /**
+     * <p>Get the idle time (in milliseconds) after which the slot chain and statistic nodes of a resource
+     * without rules are reclaimed. A non-positive value (the default) disables the idle eviction.</p>
+     *
+     * @return the idle TTL in milliseconds, or 0 if disabled
+     * @since 1.8.7
+     */
+    public static long statisticIdleTtlMs() {
+        String v = props.get(STATISTIC_IDLE_TTL);
+        if (StringUtil.isBlank(v)) {
+            return 0;
+        }
+        try {
+            return Math.max(Long.parseLong(v.trim()), 0);
+        } catch (Throwable throwable) {
+            RecordLog.warn("[SentinelConfig] Invalid statistic idle TTL value: {}, idle eviction disabled", v);
+            return 0;
+        }
+    }
+
+    /**
+     * <p>Get the format of the metric log files, which could be {@code text} (default) or {@code binary}.</p>
+     *
+     * @return the metric file format
+     * @since 1.8.7
+     */
+    public static String metricFileFormat() {
+        String v = props.get(METRIC_FILE_FORMAT);
+        if (METRIC_FILE_FORMAT_BINARY.equalsIgnoreCase(v)) {
+            return METRIC_FILE_FORMAT_BINARY;
+        }
+        if (StringUtil.isNotBlank(v) && !METRIC_FILE_FORMAT_TEXT.equalsIgnoreCase(v)) {
+            RecordLog.warn("[SentinelConfig] Invalid metric file format: {}, using the default format instead: "
+                + METRIC_FILE_FORMAT_TEXT, v);
+        }
+        return METRIC_FILE_FORMAT_TEXT;
+    }
+
     /**
      * Function for resolving project name. The order is elaborated below:
      *
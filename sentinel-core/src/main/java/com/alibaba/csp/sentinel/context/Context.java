@@ -21,6 +21,7 @@ import com.alibaba.csp.sentinel.SphU;
 import com.alibaba.csp.sentinel.node.DefaultNode;
 import com.alibaba.csp.sentinel.node.EntranceNode;
 import com.alibaba.csp.sentinel.node.Node;
+import com.alibaba.csp.sentinel.slotchain.SlotLink;
 import com.alibaba.csp.sentinel.slots.nodeselector.NodeSelectorSlot;
 
 /**
@@ -82,6 +83,16 @@ public class Context {
 
     private final boolean async;
 
+    /**
+     * The link of the slot chain being traversed, see {@link SlotLinkHolder}.
+     */
+    SlotLink curSlotLink;
+
+    /**
+     * Only set in the debug mode of recycling, once the context has been recycled.
+     */
+    boolean recycled;
+
     /**
      * Create a new async context.
      *
@@ -122,14 +133,33 @@ public class Context {
     }
 
     public Entry getCurEntry() {
+        checkNotRecycled();
         return curEntry;
     }
 
     public Context setCurEntry(Entry curEntry) {
+        checkNotRecycled();
         this.curEntry = curEntry;
         return this;
     }
 
+    /**
+     * Reset the context for a new invocation (or clear it with nulls), only for {@link RecyclableContext}.
+     */
+    void reset(DefaultNode entranceNode, String origin) {
+        this.entranceNode = entranceNode;
+        this.origin = origin;
+        this.curEntry = null;
+        this.curSlotLink = null;
+    }
+
+    private void checkNotRecycled() {
+        if (recycled) {
+            throw new IllegalStateException("Context@" + Integer.toHexString(hashCode())
+                + " has been exited and recycled, it should not be used any more");
+        }
+    }
+
     public String getOrigin() {
         return origin;
     }
@@ -195,7 +225,7 @@ public class Context {
     @Override
     public String toString() {
         return "Context{" +
-            "name='" + name + '\'' +
+            "name='" + getName() + '\'' +
             ", entranceNode=" + entranceNode +
             ", curEntry=" + curEntry +
             ", origin='" + origin + '\'' +
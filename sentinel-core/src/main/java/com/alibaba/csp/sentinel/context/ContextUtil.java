@@ -23,6 +23,7 @@ import com.alibaba.csp.sentinel.Constants;
 import com.alibaba.csp.sentinel.EntryType;
 import com.alibaba.csp.sentinel.SphO;
 import com.alibaba.csp.sentinel.SphU;
+import com.alibaba.csp.sentinel.config.SentinelConfig;
 import com.alibaba.csp.sentinel.log.RecordLog;
 import com.alibaba.csp.sentinel.node.DefaultNode;
 import com.alibaba.csp.sentinel.node.EntranceNode;
@@ -49,6 +50,15 @@ public class ContextUtil {
      */
     private static ThreadLocal<Context> contextHolder = new ThreadLocal<>();
 
+    /**
+     * The exited context kept for reuse by the next context of the thread, if recycling is enabled
+     * (see {@link SentinelConfig#ENTRY_RECYCLE}).
+     */
+    private static final ThreadLocal<RecyclableContext> spareContextHolder = new ThreadLocal<>();
+
+    private static volatile boolean recycleEnabled = SentinelConfig.entryRecycleEnabled();
+    private static volatile boolean recycleDebug = SentinelConfig.entryRecycleDebug();
+
     /**
      * Holds all {@link EntranceNode}. Each {@link EntranceNode} is associated with a distinct context name.
      * 每个context都有一个入口节点 context name map 统计信息
@@ -152,14 +162,62 @@ public class ContextUtil {
                     }
                 }
             }
-            context = new Context(node, name);
-            context.setOrigin(origin);
+            context = newContext(node, name, origin);
             contextHolder.set(context);
         }
 
         return context;
     }
 
+    private static Context newContext(DefaultNode node, String name, String origin) {
+        if (recycleEnabled) {
+            RecyclableContext context = spareContextHolder.get();
+            if (context != null) {
+                spareContextHolder.set(null);
+                context.reset(node, name, origin);
+            } else {
+                context = new RecyclableContext(node, name);
+                context.setOrigin(origin);
+            }
+            context.recycleOwner = Thread.currentThread();
+            return context;
+        }
+        Context context = new Context(node, name);
+        context.setOrigin(origin);
+        return context;
+    }
+
+    /**
+     * Recycle the exited context. Only contexts exited in the thread that entered them are recycled,
+     * as a context passed to another thread (e.g. via {@link #runOnContext(Context, Runnable)}) may still be
+     * the current context of the original thread.
+     */
+    private static void recycle(Context context) {
+        if (!(context instanceof RecyclableContext)) {
+            return;
+        }
+        RecyclableContext recyclable = (RecyclableContext) context;
+        if (recyclable.recycleOwner != Thread.currentThread()) {
+            return;
+        }
+        recyclable.recycleOwner = null;
+        recyclable.reset(null, null, null);
+        if (recycleDebug) {
+            recyclable.recycled = true;
+            return;
+        }
+        spareContextHolder.set(recyclable);
+    }
+
+    /**
+     * Only for test.
+     */
+    static void setRecycleEnabled(boolean enabled, boolean debug) {
+        recycleEnabled = enabled;
+        recycleDebug = debug;
+        spareContextHolder.remove();
+    }
+
     private static boolean shouldWarn = true;
 
     private static void setNullContext() {
@@ -203,6 +261,7 @@ public class ContextUtil {
         Context context = contextHolder.get();
         if (context != null && context.getCurEntry() == null) {
             contextHolder.set(null);
+            recycle(context);
         }
     }
 
@@ -0,0 +1,55 @@
+/*
+ * Copyright 1999-2022 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.context;
+
+import com.alibaba.csp.sentinel.node.DefaultNode;
+
+/**
+ * <p>A context created by {@link ContextUtil} when recycling is enabled, which may be reused by later
+ * invocations of the thread.</p>
+ *
+ * <p>The name changes whenever the context is reused, so it is kept here and read through {@link #getName()}.
+ * The final field of {@link Context} keeps the name of the first invocation.</p>
+ *
+ * @since 1.8.7
+ */
+final class RecyclableContext extends Context {
+
+    private String name;
+
+    /**
+     * The thread that may recycle the context once exited, null once recycled.
+     */
+    Thread recycleOwner;
+
+    RecyclableContext(DefaultNode entranceNode, String name) {
+        super(entranceNode, name);
+        this.name = name;
+    }
+
+    /**
+     * Reset the recycled context for a new invocation (or clear it with nulls).
+     */
+    void reset(DefaultNode entranceNode, String name, String origin) {
+        this.name = name;
+        reset(entranceNode, origin);
+    }
+
+    @Override
+    public String getName() {
+        return name;
+    }
+}
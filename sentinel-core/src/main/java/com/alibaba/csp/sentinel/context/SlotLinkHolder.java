@@ -0,0 +1,38 @@
+/*
+ * Copyright 1999-2022 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.context;
+
+import com.alibaba.csp.sentinel.slotchain.SlotLink;
+
+/**
+ * Holds the link of the slot chain being traversed in a {@link Context}, so that slots shared by several
+ * slot chains fire the next slot of the chain being traversed. Only for internal use of
+ * {@link com.alibaba.csp.sentinel.slotchain.DefaultProcessorSlotChain}, not an API.
+ *
+ * @since 1.8.7
+ */
+public final class SlotLinkHolder {
+
+    public static SlotLink get(Context context) {
+        return context.curSlotLink;
+    }
+
+    public static void set(Context context, SlotLink link) {
+        context.curSlotLink = link;
+    }
+
+    private SlotLinkHolder() {}
+}
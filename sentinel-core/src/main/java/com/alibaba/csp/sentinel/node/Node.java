@@ -126,6 +126,19 @@ public interface Node extends OccupySupport, DebugSupport {
      */
     double minRt();
 
+    /**
+     * Get the response time at given percentile in the last second. Only available when RT histograms are
+     * enabled (see {@link com.alibaba.csp.sentinel.config.SentinelConfig#STATISTIC_RT_HISTOGRAM}).
+     *
+     * @param percentile percentile in (0, 100], e.g. 99.9
+     * @return response time at the percentile, 0 if no response time is recorded in histograms,
+     * or -1 if the node doesn't support percentiles
+     * @since 1.8.7
+     */
+    default double rtPercentile(double percentile) {
+        return -1;
+    }
+
     /**
      * Get current active thread count.
      *
@@ -237,6 +237,11 @@ public class StatisticNode implements Node {
         return rollingCounterInSecond.minRt();
     }
 
+    @Override
+    public double rtPercentile(double percentile) {
+        return rollingCounterInSecond.rtPercentile(percentile);
+    }
+
     @Override
     public int curThreadNum() {
         return (int)curThreadNum.sum();
@@ -0,0 +1,372 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.node.metric;
+
+import java.io.File;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.List;
+
+import static com.alibaba.csp.sentinel.node.metric.BinaryMetricWriter.*;
+
+/**
+ * <p>Searches metrics in the segment files written by {@link BinaryMetricWriter}.</p>
+ *
+ * <p>The start position is found by binary search on the second index of the segment, and records are decoded
+ * in place. Resources are matched by their dictionary ID, so resource names are only decoded once per segment
+ * for the returned nodes.</p>
+ *
+ * @since 1.8.7
+ */
+public class BinaryMetricSearcher extends MetricSearcher {
+
+    /**
+     * Avoid OOM in any cases.
+     */
+    private static final int MAX_LINES_RETURN = 100000;
+
+    private final String baseDir;
+    private final String baseFileName;
+
+    /**
+     * @param baseDir      directory of the metric files
+     * @param baseFileName base name of the metric files, see
+     *                     {@link BinaryMetricWriter#formBinaryMetricFileName(String, int)}
+     */
+    public BinaryMetricSearcher(String baseDir, String baseFileName) {
+        super(baseDir, baseFileName);
+        this.baseDir = baseDir.endsWith(File.separator) ? baseDir : baseDir + File.separator;
+        this.baseFileName = baseFileName;
+    }
+
+    @Override
+    public synchronized List<MetricNode> find(long beginTimeMs, int recommendLines) throws Exception {
+        List<String> fileNames = MetricWriter.listMetricFiles(baseDir, baseFileName);
+        List<MetricNode> list = null;
+        for (String fileName : fileNames) {
+            Segment segment = Segment.open(fileName);
+            if (segment == null) {
+                continue;
+            }
+            try {
+                int from = 0;
+                if (list == null) {
+                    from = segment.firstRecordOf(beginTimeMs / 1000);
+                    if (from < 0) {
+                        continue;
+                    }
+                    list = new ArrayList<MetricNode>(recommendLines);
+                }
+                // Metrics of the same second are never split.
+                long lastSecond = list.isEmpty() ? -1 : list.get(list.size() - 1).getTimestamp() / 1000;
+                for (int i = from; i < segment.recordCount && segment.isComplete(i); i++) {
+                    long second = segment.timestamp(i) / 1000;
+                    if (list.size() >= recommendLines && second != lastSecond) {
+                        break;
+                    }
+                    list.add(segment.toNode(i));
+                    lastSecond = second;
+                }
+                if (list.size() >= recommendLines) {
+                    break;
+                }
+            } finally {
+                segment.close();
+            }
+        }
+        return list;
+    }
+
+    /**
+     * Binary segments are searched by the mapped time index, which is cheap enough to be done on every read,
+     * so no cursor is returned and the next read searches by time again.
+     */
+    @Override
+    public synchronized MetricCursorResult findByCursor(MetricCursor cursor, long beginTimeMs, long endTimeMs)
+        throws Exception {
+        List<MetricNode> list = findByTimeAndResource(beginTimeMs, endTimeMs, null);
+        return new MetricCursorResult(list == null ? new ArrayList<MetricNode>() : list, null);
+    }
+
+    @Override
+    public synchronized List<MetricNode> findByTimeAndResource(long beginTimeMs, long endTimeMs, String identity)
+        throws Exception {
+        List<String> fileNames = MetricWriter.listMetricFiles(baseDir, baseFileName);
+        long beginSecond = beginTimeMs / 1000;
+        long endSecond = endTimeMs / 1000;
+        byte[] identityBytes = identity == null ? null : identity.getBytes(NAME_CHARSET);
+        List<MetricNode> list = null;
+        for (String fileName : fileNames) {
+            Segment segment = Segment.open(fileName);
+            if (segment == null) {
+                continue;
+            }
+            try {
+                int from = 0;
+                if (list == null) {
+                    from = segment.firstRecordOf(beginSecond);
+                    if (from < 0) {
+                        continue;
+                    }
+                    list = new ArrayList<MetricNode>(1024);
+                }
+                int resourceId = -1;
+                if (identityBytes != null) {
+                    resourceId = segment.resourceIdOf(identityBytes);
+                    if (resourceId < 0) {
+                        // The resource does not occur in this segment.
+                        if (segment.lastSecond() > endSecond) {
+                            break;
+                        }
+                        continue;
+                    }
+                }
+                if (!readByTime(segment, from, beginSecond, endSecond, resourceId, list)) {
+                    break;
+                }
+            } finally {
+                segment.close();
+            }
+        }
+        return list;
+    }
+
+    /**
+     * @return if should continue to read the next segment, return true, else false
+     */
+    private boolean readByTime(Segment segment, int from, long beginSecond, long endSecond, int resourceId,
+                               List<MetricNode> list) {
+        for (int i = from; i < segment.recordCount; i++) {
+            if (!segment.isComplete(i)) {
+                // Torn tail of the segment being written.
+                return false;
+            }
+            long second = segment.timestamp(i) / 1000;
+            if (second < beginSecond || second > endSecond) {
+                return false;
+            }
+            if (resourceId < 0 || segment.resourceId(i) == resourceId) {
+                list.add(segment.toNode(i));
+                if (list.size() >= MAX_LINES_RETURN) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    /**
+     * <p>A read-only view of a segment file, limited to the data published when it is opened.</p>
+     *
+     * <p>The header of the segment being written may be published before the data it covers is visible
+     * (see {@link BinaryMetricWriter}), so the tail is validated: index entries pointing beyond the published
+     * records and dictionary entries out of the dictionary region are dropped, and a record is only read
+     * if {@link #isComplete(int)}.</p>
+     */
+    private static final class Segment {
+
+        private final ByteBuffer buffer;
+        private final int indexStart;
+        private final int indexCount;
+        private final int dictStart;
+        private final int dictCount;
+        private final int recordStart;
+        private final int recordCount;
+
+        private int[] nameOffsets;
+        private String[] names;
+
+        private Segment(ByteBuffer buffer) {
+            this.buffer = buffer;
+            this.indexStart = buffer.getInt(HEADER_INDEX_START);
+            this.dictStart = buffer.getInt(HEADER_DICT_START);
+            this.recordStart = buffer.getInt(HEADER_RECORD_START);
+            this.recordCount = Math.max(0, Math.min(buffer.getInt(HEADER_RECORD_COUNT),
+                (buffer.capacity() - recordStart) / RECORD_SIZE));
+            this.indexCount = validIndexCount(buffer.getInt(HEADER_INDEX_COUNT));
+            this.dictCount = validDictCount(buffer.getInt(HEADER_DICT_COUNT));
+        }
+
+        private int validIndexCount(int count) {
+            count = Math.max(0, Math.min(count, (dictStart - indexStart) / INDEX_ENTRY_SIZE));
+            while (count > 0) {
+                int pos = indexStart + (count - 1) * INDEX_ENTRY_SIZE;
+                int recordNo = buffer.getInt(pos + 8);
+                if (buffer.getLong(pos) > 0 && recordNo >= 0 && recordNo < recordCount) {
+                    break;
+                }
+                count--;
+            }
+            return count;
+        }
+
+        private int validDictCount(int count) {
+            int pos = dictStart;
+            for (int id = 0; id < count; id++) {
+                int length = pos + 4 <= recordStart ? buffer.getInt(pos) : -1;
+                if (length < 0 || length > recordStart - pos - 4) {
+                    return id;
+                }
+                pos += 4 + length;
+            }
+            return count;
+        }
+
+        /**
+         * @return true if the record has been completely written, i.e. its timestamp (which is written last)
+         * is set and it refers to a published resource
+         */
+        boolean isComplete(int i) {
+            int resourceId = resourceId(i);
+            return timestamp(i) > 0 && resourceId >= 0 && resourceId < dictCount;
+        }
+
+        void close() {
+            MappedBuffers.unmap(buffer);
+        }
+
+        static Segment open(String fileName) throws Exception {
+            RandomAccessFile file = new RandomAccessFile(fileName, "r");
+            try {
+                FileChannel channel = file.getChannel();
+                long size = channel.size();
+                if (size < HEADER_SIZE) {
+                    return null;
+                }
+                ByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+                if (buffer.getInt(HEADER_MAGIC) != MAGIC || buffer.getInt(HEADER_VERSION) != VERSION) {
+                    MappedBuffers.unmap(buffer);
+                    return null;
+                }
+                return new Segment(buffer);
+            } finally {
+                // The mapping stays valid after the channel is closed, until the segment is closed.
+                file.close();
+            }
+        }
+
+        /**
+         * @return number of the first record not earlier than the given second, or -1 if there is none
+         */
+        int firstRecordOf(long second) {
+            int low = 0;
+            int high = indexCount - 1;
+            while (low <= high) {
+                int mid = (low + high) >>> 1;
+                if (buffer.getLong(indexStart + mid * INDEX_ENTRY_SIZE) < second) {
+                    low = mid + 1;
+                } else {
+                    high = mid - 1;
+                }
+            }
+            if (low >= indexCount) {
+                return -1;
+            }
+            int recordNo = buffer.getInt(indexStart + low * INDEX_ENTRY_SIZE + 8);
+            return recordNo < recordCount ? recordNo : -1;
+        }
+
+        long lastSecond() {
+            return indexCount == 0 ? -1 : buffer.getLong(indexStart + (indexCount - 1) * INDEX_ENTRY_SIZE);
+        }
+
+        long timestamp(int i) {
+            return buffer.getLong(recordStart + i * RECORD_SIZE + RECORD_TIMESTAMP);
+        }
+
+        int resourceId(int i) {
+            return buffer.getInt(recordStart + i * RECORD_SIZE + RECORD_RESOURCE_ID);
+        }
+
+        MetricNode toNode(int i) {
+            int pos = recordStart + i * RECORD_SIZE;
+            MetricNode node = new MetricNode();
+            node.setTimestamp(buffer.getLong(pos + RECORD_TIMESTAMP));
+            node.setPassQps(buffer.getLong(pos + RECORD_PASS_QPS));
+            node.setBlockQps(buffer.getLong(pos + RECORD_BLOCK_QPS));
+            node.setSuccessQps(buffer.getLong(pos + RECORD_SUCCESS_QPS));
+            node.setExceptionQps(buffer.getLong(pos + RECORD_EXCEPTION_QPS));
+            node.setRt(buffer.getLong(pos + RECORD_RT));
+            node.setOccupiedPassQps(buffer.getLong(pos + RECORD_OCCUPIED_PASS_QPS));
+            node.setResource(resourceName(buffer.getInt(pos + RECORD_RESOURCE_ID)));
+            node.setClassification(buffer.getInt(pos + RECORD_CLASSIFICATION));
+            node.setConcurrency(buffer.getInt(pos + RECORD_CONCURRENCY));
+            node.setP50Rt(buffer.getLong(pos + RECORD_P50_RT));
+            node.setP90Rt(buffer.getLong(pos + RECORD_P90_RT));
+            node.setP99Rt(buffer.getLong(pos + RECORD_P99_RT));
+            node.setP999Rt(buffer.getLong(pos + RECORD_P999_RT));
+            return node;
+        }
+
+        /**
+         * Find the dictionary ID of the resource by comparing the encoded name in place.
+         *
+         * @return the dictionary ID, or -1 if the resource does not occur in the segment
+         */
+        int resourceIdOf(byte[] name) {
+            int[] offsets = nameOffsets();
+            for (int id = 0; id < dictCount; id++) {
+                int pos = offsets[id];
+                if (buffer.getInt(pos) != name.length) {
+                    continue;
+                }
+                int j = 0;
+                while (j < name.length && buffer.get(pos + 4 + j) == name[j]) {
+                    j++;
+                }
+                if (j == name.length) {
+                    return id;
+                }
+            }
+            return -1;
+        }
+
+        private String resourceName(int id) {
+            if (names == null) {
+                names = new String[dictCount];
+            }
+            if (id < 0 || id >= dictCount) {
+                return "";
+            }
+            String name = names[id];
+            if (name == null) {
+                int pos = nameOffsets()[id];
+                byte[] bytes = new byte[buffer.getInt(pos)];
+                for (int j = 0; j < bytes.length; j++) {
+                    bytes[j] = buffer.get(pos + 4 + j);
+                }
+                name = new String(bytes, NAME_CHARSET);
+                names[id] = name;
+            }
+            return name;
+        }
+
+        private int[] nameOffsets() {
+            if (nameOffsets == null) {
+                int[] offsets = new int[dictCount];
+                int pos = dictStart;
+                for (int id = 0; id < dictCount; id++) {
+                    offsets[id] = pos;
+                    pos += 4 + buffer.getInt(pos);
+                }
+                nameOffsets = offsets;
+            }
+            return nameOffsets;
+        }
+    }
+}
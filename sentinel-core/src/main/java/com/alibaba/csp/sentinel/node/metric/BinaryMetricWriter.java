@@ -0,0 +1,380 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.node.metric;
+
+import java.io.File;
+import java.io.RandomAccessFile;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.text.DateFormat;
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.alibaba.csp.sentinel.config.SentinelConfig;
+import com.alibaba.csp.sentinel.log.RecordLog;
+import com.alibaba.csp.sentinel.util.PidUtil;
+
+/**
+ * <p>A {@link MetricWriter} that writes {@link MetricNode} as fixed-width binary records into memory-mapped
+ * segment files, rather than text lines with a separate index file.</p>
+ *
+ * <p>Every segment file has a fixed size ({@code singleFileSize}) and is laid out as:</p>
+ * <pre>
+ * | header (64 bytes) | second index | resource dictionary | records |
+ * </pre>
+ * <ul>
+ * <li>the second index holds one {@code (second, record number)} entry for each second written to the segment,
+ * so the start of any second can be found by binary search;</li>
+ * <li>the resource dictionary holds the length-prefixed UTF-8 resource names of the segment, and records
+ * refer to the resource by its position in the dictionary;</li>
+ * <li>every record is {@value #RECORD_SIZE} bytes wide, including the RT percentiles which the text metric
+ * log does not carry.</li>
+ * </ul>
+ *
+ * <p>The counters in the header are updated after the data they cover, and the timestamp of a record is written
+ * after its other fields. The stores to the mapped file are not ordered for readers in other threads or
+ * processes though, so the tail of the published data may be torn. Readers must tolerate that: a record is
+ * complete only if its timestamp is set and it refers to a published resource, and reading stops at the first
+ * incomplete record (see {@link BinaryMetricSearcher}). The next read sees the completed data.</p>
+ *
+ * <p>A new segment is started for every day, or when any region of the current segment is full. A closed segment
+ * is unmapped at once rather than left to GC, so that it can be removed later. The segment file name is like:
+ * {@code ${appName}-metrics.bin.pid${pid}.yyyy-MM-dd.[number]}.</p>
+ *
+ * @see BinaryMetricSearcher
+ * @since 1.8.7
+ */
+public class BinaryMetricWriter extends MetricWriter {
+
+    public static final String METRIC_BINARY_FILE = "metrics.bin";
+
+    static final Charset NAME_CHARSET = Charset.forName("UTF-8");
+
+    static final int MAGIC = 0x534D4231;
+    static final int VERSION = 2;
+
+    static final int HEADER_SIZE = 64;
+    static final int HEADER_MAGIC = 0;
+    static final int HEADER_VERSION = 4;
+    static final int HEADER_INDEX_START = 8;
+    static final int HEADER_INDEX_CAPACITY = 12;
+    static final int HEADER_DICT_START = 16;
+    static final int HEADER_DICT_CAPACITY = 20;
+    static final int HEADER_RECORD_START = 24;
+    static final int HEADER_RECORD_CAPACITY = 28;
+    static final int HEADER_INDEX_COUNT = 32;
+    static final int HEADER_DICT_COUNT = 36;
+    static final int HEADER_DICT_SIZE = 40;
+    static final int HEADER_RECORD_COUNT = 44;
+
+    /**
+     * Index entry: second (8 bytes) and number of the first record of that second (4 bytes).
+     */
+    static final int INDEX_ENTRY_SIZE = 12;
+
+    static final int RECORD_SIZE = 104;
+    static final int RECORD_TIMESTAMP = 0;
+    static final int RECORD_PASS_QPS = 8;
+    static final int RECORD_BLOCK_QPS = 16;
+    static final int RECORD_SUCCESS_QPS = 24;
+    static final int RECORD_EXCEPTION_QPS = 32;
+    static final int RECORD_RT = 40;
+    static final int RECORD_OCCUPIED_PASS_QPS = 48;
+    static final int RECORD_RESOURCE_ID = 56;
+    static final int RECORD_CLASSIFICATION = 60;
+    static final int RECORD_CONCURRENCY = 64;
+    static final int RECORD_P50_RT = 72;
+    static final int RECORD_P90_RT = 80;
+    static final int RECORD_P99_RT = 88;
+    static final int RECORD_P999_RT = 96;
+
+    static final int MIN_SEGMENT_SIZE = 64 * 1024;
+
+    private final String baseDir;
+    private final int segmentSize;
+    private final int totalFileCount;
+    private final int pid = PidUtil.getPid();
+    private long timeSecondBase;
+
+    private String baseFileName;
+    private File curFile;
+    private FileChannel channel;
+    private MappedByteBuffer buffer;
+
+    private int indexStart;
+    private int indexCapacity;
+    private int dictStart;
+    private int dictCapacity;
+    private int recordStart;
+    private int recordCapacity;
+
+    private int indexCount;
+    private int dictCount;
+    private int dictSize;
+    private int recordCount;
+
+    private final Map<String, Integer> dictionary = new HashMap<>();
+
+    private long lastSecond = -1;
+    private long lastIndexedSecond = -1;
+
+    public BinaryMetricWriter(long singleFileSize) {
+        this(singleFileSize, 6);
+    }
+
+    public BinaryMetricWriter(long singleFileSize, int totalFileCount) {
+        this(METRIC_BASE_DIR, singleFileSize, totalFileCount);
+    }
+
+    BinaryMetricWriter(String baseDir, long singleFileSize, int totalFileCount) {
+        super(singleFileSize, totalFileCount);
+        this.baseDir = baseDir.endsWith(File.separator) ? baseDir : baseDir + File.separator;
+        File dir = new File(this.baseDir);
+        if (!dir.exists()) {
+            dir.mkdirs();
+        }
+        this.segmentSize = (int)Math.min(Math.max(singleFileSize, MIN_SEGMENT_SIZE), Integer.MAX_VALUE);
+        this.totalFileCount = totalFileCount;
+        try {
+            this.timeSecondBase = new SimpleDateFormat("yyyy-MM-dd HH:mm:ss")
+                .parse("1970-01-01 00:00:00").getTime() / 1000;
+        } catch (Exception e) {
+            RecordLog.warn("[BinaryMetricWriter] Create new BinaryMetricWriter error", e);
+        }
+    }
+
+    /**
+     * All nodes are regarded to be of the given time. Seconds earlier than the last written one are ignored,
+     * as the second index must be in order.
+     *
+     * @param time  timestamp of the nodes
+     * @param nodes metric nodes to write
+     */
+    @Override
+    public synchronized void write(long time, List<MetricNode> nodes) throws Exception {
+        if (nodes == null) {
+            return;
+        }
+        long second = time / 1000;
+        if (second < lastSecond) {
+            return;
+        }
+        if (baseFileName == null) {
+            baseFileName = formBinaryMetricFileName(SentinelConfig.getAppName(), pid);
+        }
+        if (buffer == null || !curFile.exists() || (lastSecond >= 0 && isNewDay(lastSecond, second))) {
+            closeAndNewFile(time);
+        }
+        for (MetricNode node : nodes) {
+            node.setTimestamp(time);
+            append(time, second, node);
+        }
+        publish();
+        lastSecond = second;
+    }
+
+    @Override
+    public synchronized void close() throws Exception {
+        closeFile();
+    }
+
+    private void append(long time, long second, MetricNode node) throws Exception {
+        String resource = node.getResource() == null ? "" : node.getResource();
+        Integer id = dictionary.get(resource);
+        byte[] name = id == null ? resource.getBytes(NAME_CHARSET) : null;
+        if (!hasRoom(second, name)) {
+            closeAndNewFile(time);
+            if (name == null) {
+                name = resource.getBytes(NAME_CHARSET);
+            }
+            id = null;
+            if (!hasRoom(second, name)) {
+                RecordLog.warn("[BinaryMetricWriter] Resource name is too long for the metric file, ignored: {}",
+                    resource);
+                return;
+            }
+        }
+        if (id == null) {
+            id = addToDictionary(resource, name);
+        }
+        if (second != lastIndexedSecond) {
+            int pos = indexStart + indexCount * INDEX_ENTRY_SIZE;
+            buffer.putLong(pos, second);
+            buffer.putInt(pos + 8, recordCount);
+            indexCount++;
+            lastIndexedSecond = second;
+        }
+        int pos = recordStart + recordCount * RECORD_SIZE;
+        buffer.putLong(pos + RECORD_PASS_QPS, node.getPassQps());
+        buffer.putLong(pos + RECORD_BLOCK_QPS, node.getBlockQps());
+        buffer.putLong(pos + RECORD_SUCCESS_QPS, node.getSuccessQps());
+        buffer.putLong(pos + RECORD_EXCEPTION_QPS, node.getExceptionQps());
+        buffer.putLong(pos + RECORD_RT, node.getRt());
+        buffer.putLong(pos + RECORD_OCCUPIED_PASS_QPS, node.getOccupiedPassQps());
+        buffer.putInt(pos + RECORD_RESOURCE_ID, id);
+        buffer.putInt(pos + RECORD_CLASSIFICATION, node.getClassification());
+        buffer.putInt(pos + RECORD_CONCURRENCY, node.getConcurrency());
+        buffer.putLong(pos + RECORD_P50_RT, node.getP50Rt());
+        buffer.putLong(pos + RECORD_P90_RT, node.getP90Rt());
+        buffer.putLong(pos + RECORD_P99_RT, node.getP99Rt());
+        buffer.putLong(pos + RECORD_P999_RT, node.getP999Rt());
+        // Readers regard a record without timestamp as not written yet.
+        buffer.putLong(pos + RECORD_TIMESTAMP, node.getTimestamp());
+        recordCount++;
+    }
+
+    private boolean hasRoom(long second, byte[] newName) {
+        return recordCount < recordCapacity
+            && (second == lastIndexedSecond || indexCount < indexCapacity)
+            && (newName == null || dictSize + 4 + newName.length <= dictCapacity);
+    }
+
+    private int addToDictionary(String resource, byte[] name) {
+        int pos = dictStart + dictSize;
+        // Absolute puts only, as the position of the mapped buffer is never used.
+        for (int i = 0; i < name.length; i++) {
+            buffer.put(pos + 4 + i, name[i]);
+        }
+        buffer.putInt(pos, name.length);
+        dictSize += 4 + name.length;
+        int id = dictCount++;
+        dictionary.put(resource, id);
+        return id;
+    }
+
+    /**
+     * Make the written data visible to readers. The counters are written last.
+     */
+    private void publish() {
+        if (buffer == null) {
+            return;
+        }
+        buffer.putInt(HEADER_INDEX_COUNT, indexCount);
+        buffer.putInt(HEADER_DICT_COUNT, dictCount);
+        buffer.putInt(HEADER_DICT_SIZE, dictSize);
+        buffer.putInt(HEADER_RECORD_COUNT, recordCount);
+    }
+
+    private void closeAndNewFile(long time) throws Exception {
+        closeFile();
+        removeMoreFiles();
+        String fileName = nextFileNameOfDay(time);
+        RandomAccessFile file = new RandomAccessFile(fileName, "rw");
+        try {
+            channel = file.getChannel();
+            buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, segmentSize);
+        } catch (Exception e) {
+            file.close();
+            channel = null;
+            throw e;
+        }
+        curFile = new File(fileName);
+
+        int indexBytes = segmentSize / 16 / INDEX_ENTRY_SIZE * INDEX_ENTRY_SIZE;
+        indexStart = HEADER_SIZE;
+        indexCapacity = indexBytes / INDEX_ENTRY_SIZE;
+        dictStart = indexStart + indexBytes;
+        dictCapacity = segmentSize / 16;
+        recordStart = dictStart + dictCapacity;
+        recordCapacity = (segmentSize - recordStart) / RECORD_SIZE;
+        indexCount = 0;
+        dictCount = 0;
+        dictSize = 0;
+        recordCount = 0;
+        dictionary.clear();
+        lastIndexedSecond = -1;
+
+        buffer.putInt(HEADER_VERSION, VERSION);
+        buffer.putInt(HEADER_INDEX_START, indexStart);
+        buffer.putInt(HEADER_INDEX_CAPACITY, indexCapacity);
+        buffer.putInt(HEADER_DICT_START, dictStart);
+        buffer.putInt(HEADER_DICT_CAPACITY, dictCapacity);
+        buffer.putInt(HEADER_RECORD_START, recordStart);
+        buffer.putInt(HEADER_RECORD_CAPACITY, recordCapacity);
+        publish();
+        // Readers check the magic number first, so it goes last.
+        buffer.putInt(HEADER_MAGIC, MAGIC);
+        RecordLog.info("[BinaryMetricWriter] New metric file created: {}", fileName);
+    }
+
+    private void closeFile() throws Exception {
+        if (buffer == null) {
+            return;
+        }
+        publish();
+        buffer.force();
+        MappedBuffers.unmap(buffer);
+        buffer = null;
+        channel.close();
+        channel = null;
+    }
+
+    private String nextFileNameOfDay(long time) throws Exception {
+        DateFormat fileNameDf = new SimpleDateFormat("yyyy-MM-dd");
+        String fileNameModel = baseFileName + "." + fileNameDf.format(new Date(time));
+        List<String> list = new ArrayList<String>();
+        for (String fileName : listMetricFiles(baseDir, baseFileName)) {
+            if (new File(fileName).getName().startsWith(fileNameModel)) {
+                list.add(fileName);
+            }
+        }
+        if (list.isEmpty()) {
+            return baseDir + fileNameModel;
+        }
+        String last = list.get(list.size() - 1);
+        int n = 0;
+        String[] strs = last.split("\\.");
+        if (strs.length > 0 && strs[strs.length - 1].matches("[0-9]{1,10}")) {
+            n = Integer.parseInt(strs[strs.length - 1]);
+        }
+        return baseDir + fileNameModel + "." + (n + 1);
+    }
+
+    private void removeMoreFiles() throws Exception {
+        List<String> list = listMetricFiles(baseDir, baseFileName);
+        for (int i = 0; i < list.size() - totalFileCount + 1; i++) {
+            String fileName = list.get(i);
+            // Fails if the file is still mapped by a reader on some platforms, then retried on next roll-over.
+            if (new File(fileName).delete()) {
+                RecordLog.info("[BinaryMetricWriter] Removing metric file: {}", fileName);
+            } else {
+                RecordLog.warn("[BinaryMetricWriter] Failed to remove metric file: {}", fileName);
+            }
+        }
+    }
+
+    private boolean isNewDay(long lastSecond, long second) {
+        long lastDay = (lastSecond - timeSecondBase) / 86400;
+        long newDay = (second - timeSecondBase) / 86400;
+        return newDay > lastDay;
+    }
+
+    /**
+     * Form the binary metric file name of the specific appName and pid, not including the path.
+     *
+     * @param appName application name
+     * @param pid     process ID
+     * @return binary metric file name
+     */
+    public static String formBinaryMetricFileName(String appName, int pid) {
+        return formMetricFileName(appName, pid, METRIC_BINARY_FILE);
+    }
+}
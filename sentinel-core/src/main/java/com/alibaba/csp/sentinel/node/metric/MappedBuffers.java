@@ -0,0 +1,84 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.node.metric;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.nio.ByteBuffer;
+
+import com.alibaba.csp.sentinel.log.RecordLog;
+
+/**
+ * Unmaps memory-mapped buffers explicitly. A mapped buffer is otherwise only unmapped when it is collected by GC,
+ * which keeps the file mapped (and undeletable on some platforms) for an unbounded time.
+ *
+ * @since 1.8.7
+ */
+final class MappedBuffers {
+
+    private static final Object UNSAFE;
+    /**
+     * {@code sun.misc.Unsafe#invokeCleaner(ByteBuffer)} since JDK 9, or null.
+     */
+    private static final Method INVOKE_CLEANER;
+
+    static {
+        Object unsafe = null;
+        Method invokeCleaner = null;
+        try {
+            Class<?> unsafeClass = Class.forName("sun.misc.Unsafe");
+            invokeCleaner = unsafeClass.getMethod("invokeCleaner", ByteBuffer.class);
+            Field field = unsafeClass.getDeclaredField("theUnsafe");
+            field.setAccessible(true);
+            unsafe = field.get(null);
+        } catch (Throwable ex) {
+            // Before JDK 9, the cleaner of the buffer is used instead.
+            invokeCleaner = null;
+        }
+        UNSAFE = unsafe;
+        INVOKE_CLEANER = invokeCleaner;
+    }
+
+    /**
+     * Unmap the buffer. The buffer (and any view of it) must not be accessed afterwards.
+     * If the buffer cannot be unmapped explicitly, it is left to GC.
+     *
+     * @param buffer a mapped buffer
+     */
+    static void unmap(ByteBuffer buffer) {
+        if (buffer == null || !buffer.isDirect()) {
+            return;
+        }
+        try {
+            if (INVOKE_CLEANER != null) {
+                INVOKE_CLEANER.invoke(UNSAFE, buffer);
+                return;
+            }
+            Method cleanerMethod = buffer.getClass().getMethod("cleaner");
+            cleanerMethod.setAccessible(true);
+            Object cleaner = cleanerMethod.invoke(buffer);
+            if (cleaner != null) {
+                Method clean = cleaner.getClass().getMethod("clean");
+                clean.setAccessible(true);
+                clean.invoke(cleaner);
+            }
+        } catch (Throwable ex) {
+            RecordLog.debug("[MappedBuffers] Failed to unmap buffer, leaving it to GC: {}", ex.toString());
+        }
+    }
+
+    private MappedBuffers() {}
+}
@@ -0,0 +1,94 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.node.metric;
+
+import java.nio.charset.Charset;
+import java.util.Base64;
+
+import com.alibaba.csp.sentinel.util.StringUtil;
+
+/**
+ * <p>Position of the next unread metric line in the metric files, which lets a client continue reading
+ * metrics from where the last read stopped, without searching the index files again.</p>
+ *
+ * <p>A cursor is passed around as an opaque URL-safe token, see {@link #encode()}.</p>
+ *
+ * @since 1.8.7
+ */
+public final class MetricCursor {
+
+    private static final Charset UTF_8 = Charset.forName("UTF-8");
+    private static final char SEPARATOR = ':';
+
+    private final String fileName;
+    private final long offset;
+
+    /**
+     * @param fileName name of the metric file (without directory)
+     * @param offset   byte offset of the next unread line in the file
+     */
+    public MetricCursor(String fileName, long offset) {
+        this.fileName = fileName;
+        this.offset = offset;
+    }
+
+    public String getFileName() {
+        return fileName;
+    }
+
+    public long getOffset() {
+        return offset;
+    }
+
+    /**
+     * @return the opaque token of the cursor
+     */
+    public String encode() {
+        String raw = fileName + SEPARATOR + offset;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(UTF_8));
+    }
+
+    /**
+     * Decode a cursor from its token.
+     *
+     * @param token the token from {@link #encode()}
+     * @return the cursor, or null if the token is blank or invalid
+     */
+    public static MetricCursor decode(String token) {
+        if (StringUtil.isBlank(token)) {
+            return null;
+        }
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token.trim()), UTF_8);
+            int index = raw.lastIndexOf(SEPARATOR);
+            if (index <= 0) {
+                return null;
+            }
+            long offset = Long.parseLong(raw.substring(index + 1));
+            return offset < 0 ? null : new MetricCursor(raw.substring(0, index), offset);
+        } catch (IllegalArgumentException ex) {
+            return null;
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "MetricCursor{" +
+            "fileName='" + fileName + '\'' +
+            ", offset=" + offset +
+            '}';
+    }
+}
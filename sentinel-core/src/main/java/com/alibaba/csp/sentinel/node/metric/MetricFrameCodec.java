@@ -0,0 +1,199 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.node.metric;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * <p>Compact binary frame of metric nodes, which is much smaller than the thin string lines of
+ * {@link MetricNode#toThinString()} as resource names are sent once and numbers are variable-length encoded.</p>
+ *
+ * <p>Frame layout: {@code magic(4) version(1) cursor(UTF) resourceCount(varint) resources(UTF...)
+ * nodeCount(varint) nodes...}, where each node is
+ * {@code timestampDelta resourceIndex passQps blockQps successQps exceptionQps rt occupiedPassQps
+ * concurrency classification}, all as zigzag varints. Version 2 frames append
+ * {@code p50Rt p90Rt p99Rt p999Rt} to every node, and are only written when RT percentiles are present
+ * so that former decoders can still read the frames without percentiles.</p>
+ *
+ * @since 1.8.7
+ */
+public final class MetricFrameCodec {
+
+    /**
+     * Magic number of the frame, {@code "SMF1"}.
+     */
+    public static final int MAGIC = 0x534D4631;
+    public static final byte VERSION = 1;
+    /**
+     * Version of frames carrying RT percentiles.
+     */
+    public static final byte VERSION_RT_PERCENTILES = 2;
+    /**
+     * Media type to request binary metric frames.
+     */
+    public static final String CONTENT_TYPE = "application/x-sentinel-metric";
+
+    /**
+     * Encode metric nodes into a frame.
+     *
+     * @param nodes  metric nodes
+     * @param cursor token of the cursor to continue reading from, could be null
+     * @return the encoded frame
+     */
+    public static byte[] encode(List<MetricNode> nodes, String cursor) throws IOException {
+        Map<String, Integer> dictionary = new HashMap<String, Integer>();
+        List<String> resources = new ArrayList<String>();
+        for (MetricNode node : nodes) {
+            if (!dictionary.containsKey(node.getResource())) {
+                dictionary.put(node.getResource(), resources.size());
+                resources.add(node.getResource());
+            }
+        }
+        boolean withPercentiles = false;
+        for (MetricNode node : nodes) {
+            if (node.hasRtPercentiles()) {
+                withPercentiles = true;
+                break;
+            }
+        }
+        ByteArrayOutputStream bos = new ByteArrayOutputStream(64 + nodes.size() * 16);
+        DataOutputStream out = new DataOutputStream(bos);
+        out.writeInt(MAGIC);
+        out.writeByte(withPercentiles ? VERSION_RT_PERCENTILES : VERSION);
+        out.writeUTF(cursor == null ? "" : cursor);
+        writeVarLong(out, resources.size());
+        for (String resource : resources) {
+            out.writeUTF(resource);
+        }
+        writeVarLong(out, nodes.size());
+        long lastTimestamp = 0;
+        for (MetricNode node : nodes) {
+            writeZigZag(out, node.getTimestamp() - lastTimestamp);
+            lastTimestamp = node.getTimestamp();
+            writeVarLong(out, dictionary.get(node.getResource()));
+            writeZigZag(out, node.getPassQps());
+            writeZigZag(out, node.getBlockQps());
+            writeZigZag(out, node.getSuccessQps());
+            writeZigZag(out, node.getExceptionQps());
+            writeZigZag(out, node.getRt());
+            writeZigZag(out, node.getOccupiedPassQps());
+            writeZigZag(out, node.getConcurrency());
+            writeZigZag(out, node.getClassification());
+            if (withPercentiles) {
+                writeZigZag(out, node.getP50Rt());
+                writeZigZag(out, node.getP90Rt());
+                writeZigZag(out, node.getP99Rt());
+                writeZigZag(out, node.getP999Rt());
+            }
+        }
+        out.flush();
+        return bos.toByteArray();
+    }
+
+    /**
+     * @return whether the data starts with the frame magic number
+     */
+    public static boolean isFrame(byte[] data) {
+        return data != null && data.length >= 4
+            && ((data[0] & 0xFF) << 24 | (data[1] & 0xFF) << 16 | (data[2] & 0xFF) << 8 | (data[3] & 0xFF)) == MAGIC;
+    }
+
+    /**
+     * Decode metric nodes from a frame.
+     *
+     * @param data the frame
+     * @return metric nodes and the cursor carried in the frame
+     */
+    public static MetricCursorResult decode(byte[] data) throws IOException {
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(data));
+        if (in.readInt() != MAGIC) {
+            throw new IOException("Not a metric frame");
+        }
+        byte version = in.readByte();
+        if (version != VERSION && version != VERSION_RT_PERCENTILES) {
+            throw new IOException("Unsupported metric frame version: " + version);
+        }
+        MetricCursor cursor = MetricCursor.decode(in.readUTF());
+        String[] resources = new String[(int)readVarLong(in)];
+        for (int i = 0; i < resources.length; i++) {
+            resources[i] = in.readUTF();
+        }
+        int count = (int)readVarLong(in);
+        List<MetricNode> nodes = new ArrayList<MetricNode>(count);
+        long timestamp = 0;
+        for (int i = 0; i < count; i++) {
+            MetricNode node = new MetricNode();
+            timestamp += readZigZag(in);
+            node.setTimestamp(timestamp);
+            node.setResource(resources[(int)readVarLong(in)]);
+            node.setPassQps(readZigZag(in));
+            node.setBlockQps(readZigZag(in));
+            node.setSuccessQps(readZigZag(in));
+            node.setExceptionQps(readZigZag(in));
+            node.setRt(readZigZag(in));
+            node.setOccupiedPassQps(readZigZag(in));
+            node.setConcurrency((int)readZigZag(in));
+            node.setClassification((int)readZigZag(in));
+            if (version == VERSION_RT_PERCENTILES) {
+                node.setP50Rt(readZigZag(in));
+                node.setP90Rt(readZigZag(in));
+                node.setP99Rt(readZigZag(in));
+                node.setP999Rt(readZigZag(in));
+            }
+            nodes.add(node);
+        }
+        return new MetricCursorResult(nodes, cursor);
+    }
+
+    private static void writeZigZag(DataOutputStream out, long value) throws IOException {
+        writeVarLong(out, (value << 1) ^ (value >> 63));
+    }
+
+    private static long readZigZag(DataInputStream in) throws IOException {
+        long value = readVarLong(in);
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    private static void writeVarLong(DataOutputStream out, long value) throws IOException {
+        while ((value & ~0x7FL) != 0) {
+            out.writeByte((int)((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        out.writeByte((int)value);
+    }
+
+    private static long readVarLong(DataInputStream in) throws IOException {
+        long value = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            byte b = in.readByte();
+            value |= (long)(b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new IOException("Malformed variable-length number");
+    }
+
+    private MetricFrameCodec() {}
+}
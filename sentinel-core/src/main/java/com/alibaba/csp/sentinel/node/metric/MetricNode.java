@@ -50,6 +50,18 @@ public class MetricNode {
      */
     private int concurrency;
 
+    /**
+     * RT percentiles, only available when RT histograms are enabled. They are appended to the text lines
+     * (see {@link #toThinString()} and {@link #toFatString()}) as optional trailing fields only when available,
+     * and carried by {@link MetricFrameCodec} and {@link BinaryMetricWriter}.
+     *
+     * @since 1.8.7
+     */
+    private long p50Rt;
+    private long p90Rt;
+    private long p99Rt;
+    private long p999Rt;
+
     public long getTimestamp() {
         return timestamp;
     }
@@ -132,6 +144,65 @@ public class MetricNode {
         return this;
     }
 
+    public long getP50Rt() {
+        return p50Rt;
+    }
+
+    public void setP50Rt(long p50Rt) {
+        this.p50Rt = p50Rt;
+    }
+
+    public long getP90Rt() {
+        return p90Rt;
+    }
+
+    public void setP90Rt(long p90Rt) {
+        this.p90Rt = p90Rt;
+    }
+
+    public long getP99Rt() {
+        return p99Rt;
+    }
+
+    public void setP99Rt(long p99Rt) {
+        this.p99Rt = p99Rt;
+    }
+
+    public long getP999Rt() {
+        return p999Rt;
+    }
+
+    public void setP999Rt(long p999Rt) {
+        this.p999Rt = p999Rt;
+    }
+
+    /**
+     * @return whether the node carries RT percentiles
+     * @since 1.8.7
+     */
+    public boolean hasRtPercentiles() {
+        return p50Rt > 0 || p90Rt > 0 || p99Rt > 0 || p999Rt > 0;
+    }
+
+    private void appendRtPercentiles(StringBuilder sb) {
+        // Only appended when available, so that the lines keep the former format otherwise.
+        if (hasRtPercentiles()) {
+            sb.append("|").append(p50Rt);
+            sb.append("|").append(p90Rt);
+            sb.append("|").append(p99Rt);
+            sb.append("|").append(p999Rt);
+        }
+    }
+
+    private void parseRtPercentiles(String[] strs, int start) {
+        if (strs.length >= start + 4) {
+            setP50Rt(Long.parseLong(strs[start]));
+            setP90Rt(Long.parseLong(strs[start + 1]));
+            setP99Rt(Long.parseLong(strs[start + 2]));
+            setP999Rt(Long.parseLong(strs[start + 3]));
+        }
+    }
+
     @Override
     public String toString() {
         return "MetricNode{" +
@@ -145,6 +216,10 @@ public class MetricNode {
             ", rt=" + rt +
             ", concurrency=" + concurrency +
             ", occupiedPassQps=" + occupiedPassQps +
+            ", p50Rt=" + p50Rt +
+            ", p90Rt=" + p90Rt +
+            ", p99Rt=" + p99Rt +
+            ", p999Rt=" + p999Rt +
             '}';
     }
 
@@ -152,8 +227,11 @@ public class MetricNode {
      * To formatting string. All "|" in {@link #resource} will be replaced with
      * "_", format is: <br/>
      * <code>
-     * timestamp|resource|passQps|blockQps|successQps|exceptionQps|rt|occupiedPassQps
+     * timestamp|resource|passQps|blockQps|successQps|exceptionQps|rt|occupiedPassQps|concurrency|classification
+     * [|p50Rt|p90Rt|p99Rt|p999Rt]
      * </code>
+     * The RT percentiles are only appended when available, parsers of former versions ignore them but also skip
+     * the classification of such lines.
      *
      * @return string format of this.
      */
@@ -170,6 +248,7 @@ public class MetricNode {
         sb.append(occupiedPassQps).append("|");
         sb.append(concurrency).append("|");
         sb.append(classification);
+        appendRtPercentiles(sb);
         return sb.toString();
     }
 
@@ -195,9 +274,10 @@ public class MetricNode {
         if (strs.length >= 9) {
             node.setConcurrency(Integer.parseInt(strs[8]));
         }
-        if (strs.length == 10) {
+        if (strs.length >= 10) {
             node.setClassification(Integer.parseInt(strs[9]));
         }
+        node.parseRtPercentiles(strs, 10);
         return node;
     }
 
@@ -205,8 +285,10 @@ public class MetricNode {
      * To formatting string. All "|" in {@link MetricNode#resource} will be
      * replaced with "_", format is: <br/>
      * <code>
-     * timestamp|yyyy-MM-dd HH:mm:ss|resource|passQps|blockQps|successQps|exceptionQps|rt|occupiedPassQps\n
+     * timestamp|yyyy-MM-dd HH:mm:ss|resource|passQps|blockQps|successQps|exceptionQps|rt|occupiedPassQps|concurrency
+     * |classification[|p50Rt|p90Rt|p99Rt|p999Rt]\n
      * </code>
+     * The RT percentiles are only appended when available, see {@link #toThinString()}.
      *
      * @return string format of this.
      */
@@ -226,6 +308,7 @@ public class MetricNode {
         sb.append(getOccupiedPassQps()).append("|");
         sb.append(concurrency).append("|");
         sb.append(classification);
+        appendRtPercentiles(sb);
         sb.append('\n');
         return sb.toString();
     }
@@ -253,9 +336,10 @@ public class MetricNode {
         if (strs.length >= 10) {
             node.setConcurrency(Integer.parseInt(strs[9]));
         }
-        if (strs.length == 11) {
+        if (strs.length >= 11) {
             node.setClassification(Integer.parseInt(strs[10]));
         }
+        node.parseRtPercentiles(strs, 11);
         return node;
     }
 
@@ -0,0 +1,38 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.node.metric;
+
+import java.util.List;
+
+/**
+ * Receives the aggregated metrics of every second right after {@link MetricTimerListener} writes them
+ * to the metric log, e.g. to push them to the dashboard.
+ *
+ * <p>Reporters are called on the metric timer thread, so implementations should hand the metrics off
+ * (e.g. to a queue) rather than doing blocking I/O.</p>
+ *
+ * @since 1.8.7
+ */
+public interface MetricReporter {
+
+    /**
+     * Report the metrics of a second.
+     *
+     * @param timestamp the second (in milliseconds) of the metrics
+     * @param nodes     metrics of all resources in the second, the list is owned by the reporter afterwards
+     */
+    void report(long timestamp, List<MetricNode> nodes);
+}
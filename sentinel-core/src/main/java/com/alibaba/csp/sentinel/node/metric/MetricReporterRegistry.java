@@ -0,0 +1,60 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.node.metric;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import com.alibaba.csp.sentinel.util.AssertUtil;
+
+/**
+ * Registry for {@link MetricReporter}s.
+ *
+ * @since 1.8.7
+ */
+public final class MetricReporterRegistry {
+
+    private static final Map<String, MetricReporter> REPORTERS = new ConcurrentHashMap<>();
+
+    /**
+     * Register a metric reporter.
+     *
+     * @param name     reporter name
+     * @param reporter a valid reporter
+     */
+    public static void addReporter(String name, MetricReporter reporter) {
+        AssertUtil.notNull(name, "name cannot be null");
+        AssertUtil.notNull(reporter, "reporter cannot be null");
+        REPORTERS.put(name, reporter);
+    }
+
+    public static boolean removeReporter(String name) {
+        AssertUtil.notNull(name, "name cannot be null");
+        return REPORTERS.remove(name) != null;
+    }
+
+    public static List<MetricReporter> getReporters() {
+        return new ArrayList<>(REPORTERS.values());
+    }
+
+    static boolean hasReporters() {
+        return !REPORTERS.isEmpty();
+    }
+
+    private MetricReporterRegistry() {}
+}
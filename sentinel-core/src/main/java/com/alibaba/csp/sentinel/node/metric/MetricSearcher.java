@@ -20,6 +20,7 @@ import java.io.EOFException;
 import java.io.File;
 import java.io.FileInputStream;
 import java.nio.charset.Charset;
+import java.util.ArrayList;
 import java.util.List;
 
 import com.alibaba.csp.sentinel.config.SentinelConfig;
@@ -140,6 +141,40 @@ public class MetricSearcher {
         return null;
     }
 
+    /**
+     * Find metrics between [beginTimeMs, endTimeMs] (both side inclusive) from the position of the cursor, which
+     * avoids searching the index files when metrics are read continuously. Metrics before the cursor are never
+     * returned again, and the position is searched by {@code beginTimeMs} if the cursor is absent or stale.
+     *
+     * @param cursor      cursor returned by the last read, could be null
+     * @param beginTimeMs begin time in milliseconds
+     * @param endTimeMs   end time in milliseconds
+     * @return metrics and the cursor to continue reading from
+     * @throws Exception if error occurs when reading the metric files
+     * @since 1.8.7
+     */
+    public synchronized MetricCursorResult findByCursor(MetricCursor cursor, long beginTimeMs, long endTimeMs)
+        throws Exception {
+        List<String> fileNames = MetricWriter.listMetricFiles(baseDir, baseFileName);
+        if (cursor != null) {
+            for (int i = 0; i < fileNames.size(); i++) {
+                File file = new File(fileNames.get(i));
+                if (file.getName().equals(cursor.getFileName()) && cursor.getOffset() <= file.length()) {
+                    return metricsReader.readMetricsFromCursor(fileNames, i, cursor.getOffset(), beginTimeMs,
+                        endTimeMs);
+                }
+            }
+        }
+        for (int i = 0; i < fileNames.size(); i++) {
+            String fileName = fileNames.get(i);
+            long offset = findOffset(beginTimeMs, fileName, MetricWriter.formIndexFileName(fileName), 0);
+            if (offset != -1) {
+                return metricsReader.readMetricsFromCursor(fileNames, i, offset, beginTimeMs, endTimeMs);
+            }
+        }
+        return new MetricCursorResult(new ArrayList<MetricNode>(), null);
+    }
+
     /**
      * 记录上一次读取的index文件位置和数值
      */
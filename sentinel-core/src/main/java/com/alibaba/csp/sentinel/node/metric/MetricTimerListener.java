@@ -33,8 +33,7 @@ import com.alibaba.csp.sentinel.slots.clusterbuilder.ClusterBuilderSlot;
  */
 public class MetricTimerListener implements Runnable {
 
-    private static final MetricWriter metricWriter = new MetricWriter(SentinelConfig.singleMetricFileSize(),
-        SentinelConfig.totalMetricFileCount());
+    private static final MetricWriter metricWriter = newMetricWriter();
 
     @Override
     public void run() {
@@ -53,9 +52,34 @@ public class MetricTimerListener implements Runnable {
                     RecordLog.warn("[MetricTimerListener] Write metric error", e);
                 }
             }
+            report(maps);
         }
     }
 
+    private void report(Map<Long, List<MetricNode>> maps) {
+        if (!MetricReporterRegistry.hasReporters()) {
+            return;
+        }
+        for (MetricReporter reporter : MetricReporterRegistry.getReporters()) {
+            for (Entry<Long, List<MetricNode>> entry : maps.entrySet()) {
+                try {
+                    reporter.report(entry.getKey(), new ArrayList<>(entry.getValue()));
+                } catch (Throwable e) {
+                    RecordLog.warn("[MetricTimerListener] Report metric error", e);
+                }
+            }
+        }
+    }
+
+    private static MetricWriter newMetricWriter() {
+        long singleFileSize = SentinelConfig.singleMetricFileSize();
+        int totalFileCount = SentinelConfig.totalMetricFileCount();
+        if (SentinelConfig.METRIC_FILE_FORMAT_BINARY.equals(SentinelConfig.metricFileFormat())) {
+            return new BinaryMetricWriter(singleFileSize, totalFileCount);
+        }
+        return new MetricWriter(singleFileSize, totalFileCount);
+    }
+
     private void aggregate(Map<Long, List<MetricNode>> maps, Map<Long, MetricNode> metrics, ClusterNode node) {
         for (Entry<Long, MetricNode> entry : metrics.entrySet()) {
             long time = entry.getKey();
@@ -374,6 +374,10 @@ public class MetricWriter {
      * @return metric file name.
      */
     public static String formMetricFileName(String appName, int pid) {
+        return formMetricFileName(appName, pid, METRIC_FILE);
+    }
+
+    static String formMetricFileName(String appName, int pid, String metricFile) {
         if (appName == null) {
             appName = "";
         }
@@ -383,7 +387,7 @@ public class MetricWriter {
         if (appName.contains(dot)) {
             appName = appName.replace(dot, separator);
         }
-        String name = appName + separator + METRIC_FILE;
+        String name = appName + separator + metricFile;
         if (LogBase.isLogNameUsePid()) {
             name += ".pid" + pid;
         }
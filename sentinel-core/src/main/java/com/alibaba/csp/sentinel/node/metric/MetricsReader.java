@@ -15,7 +15,10 @@
  */
 package com.alibaba.csp.sentinel.node.metric;
 
+import java.io.BufferedInputStream;
 import java.io.BufferedReader;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
 import java.io.FileInputStream;
 import java.io.InputStreamReader;
 import java.nio.charset.Charset;
@@ -139,4 +142,61 @@ class MetricsReader {
         }
         return list;
     }
-}
\ No newline at end of file
+
+    /**
+     * Read metrics within {@code [beginTimeMs, endTimeMs]} from the given position of the metric files, and
+     * record the position of the first unread line. An incomplete line at the end of a file is left unread.
+     */
+    MetricCursorResult readMetricsFromCursor(List<String> fileNames, int pos, long offset,
+                                             long beginTimeMs, long endTimeMs) throws Exception {
+        List<MetricNode> list = new ArrayList<MetricNode>(1024);
+        long beginSecond = beginTimeMs / 1000;
+        long endSecond = endTimeMs / 1000;
+        long lastSecond = -1;
+        ByteArrayOutputStream line = new ByteArrayOutputStream(256);
+        for (; pos < fileNames.size(); pos++, offset = 0) {
+            String fileName = fileNames.get(pos);
+            FileInputStream in = null;
+            try {
+                in = new FileInputStream(fileName);
+                in.getChannel().position(offset);
+                BufferedInputStream bin = new BufferedInputStream(in);
+                long position = offset;
+                line.reset();
+                int b;
+                while ((b = bin.read()) != -1) {
+                    position++;
+                    if (b != '\n') {
+                        line.write(b);
+                        continue;
+                    }
+                    MetricNode node = MetricNode.fromFatString(new String(line.toByteArray(), charset));
+                    line.reset();
+                    long currentSecond = node.getTimestamp() / 1000;
+                    if (currentSecond > endSecond
+                        || (list.size() >= MAX_LINES_RETURN && currentSecond != lastSecond)) {
+                        return new MetricCursorResult(list, cursorOf(fileName, offset));
+                    }
+                    if (currentSecond >= beginSecond) {
+                        list.add(node);
+                    }
+                    lastSecond = currentSecond;
+                    offset = position;
+                }
+            } finally {
+                if (in != null) {
+                    in.close();
+                }
+            }
+            if (line.size() > 0 || pos == fileNames.size() - 1) {
+                // The file is being written, continue from here next time.
+                return new MetricCursorResult(list, cursorOf(fileName, offset));
+            }
+        }
+        return new MetricCursorResult(list, null);
+    }
+
+    private static MetricCursor cursorOf(String fileName, long offset) {
+        return new MetricCursor(new File(fileName).getName(), offset);
+    }
+}
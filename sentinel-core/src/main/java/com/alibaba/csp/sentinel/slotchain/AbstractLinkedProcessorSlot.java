@@ -16,6 +16,7 @@
 package com.alibaba.csp.sentinel.slotchain;
 
 import com.alibaba.csp.sentinel.context.Context;
+import com.alibaba.csp.sentinel.context.SlotLinkHolder;
 
 /**
  * @author qinan.qn
@@ -28,6 +29,7 @@ public abstract class AbstractLinkedProcessorSlot<T> implements ProcessorSlot<T>
     @Override
     public void fireEntry(Context context, ResourceWrapper resourceWrapper, Object obj, int count, boolean prioritized, Object... args)
         throws Throwable {
+        AbstractLinkedProcessorSlot<?> next = nextOf(context);
         if (next != null) {
             next.transformEntry(context, resourceWrapper, obj, count, prioritized, args);
         }
@@ -42,11 +44,26 @@ public abstract class AbstractLinkedProcessorSlot<T> implements ProcessorSlot<T>
 
     @Override
     public void fireExit(Context context, ResourceWrapper resourceWrapper, int count, Object... args) {
+        AbstractLinkedProcessorSlot<?> next = nextOf(context);
         if (next != null) {
             next.exit(context, resourceWrapper, count, args);
         }
     }
 
+    /**
+     * Get the slot to go on with. If the slot is invoked through a {@link SlotLink} of the slot chain in progress,
+     * the link of that chain is followed instead of the {@code next} of the slot, which may be shared by all chains.
+     */
+    private AbstractLinkedProcessorSlot<?> nextOf(Context context) {
+        if (context != null) {
+            SlotLink link = SlotLinkHolder.get(context);
+            if (link != null && link.slot == this) {
+                return link.getNext();
+            }
+        }
+        return next;
+    }
+
     public AbstractLinkedProcessorSlot<?> getNext() {
         return next;
     }
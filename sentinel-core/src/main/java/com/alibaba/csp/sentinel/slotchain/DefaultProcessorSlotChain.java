@@ -15,9 +15,23 @@
  */
 package com.alibaba.csp.sentinel.slotchain;
 
+import java.util.ArrayList;
+import java.util.List;
+
+import com.alibaba.csp.sentinel.config.SentinelConfig;
 import com.alibaba.csp.sentinel.context.Context;
+import com.alibaba.csp.sentinel.context.SlotLinkHolder;
+import com.alibaba.csp.sentinel.slots.block.RuleVersion;
 
 /**
+ * <p>The default slot chain, linking the slots in the order they are added.</p>
+ *
+ * <p>A slot chain is created per resource. Unless disabled by {@link SentinelConfig#SLOT_CHAIN_SPECIALIZE},
+ * the chain skips the {@link RuleCheckingSlot}s that have no rules for its resource, and checks again once the
+ * {@link RuleVersion} changes, so entries of resources without rules don't go through them at all. The slots may
+ * be singletons shared by all chains, so their own {@code next} links are left as they are: the chain goes
+ * through its own {@link SlotLink}s wrapping the slots it does not skip.</p>
+ *
  * @author qinan.qn
  * @author jialiang.linjl
  */
@@ -39,6 +53,21 @@ public class DefaultProcessorSlotChain extends ProcessorSlotChain {
     };
     AbstractLinkedProcessorSlot<?> end = first;
 
+    /**
+     * All slots of the chain in order, including the skipped ones.
+     */
+    private final List<AbstractLinkedProcessorSlot<?>> slots = new ArrayList<>();
+    private final boolean specialize = SentinelConfig.slotChainSpecializeEnabled();
+    /**
+     * Where entries start: {@link #first} if not specialized, otherwise the head of the {@link SlotLink}s
+     * (or null if all slots are skipped).
+     */
+    private volatile AbstractLinkedProcessorSlot<?> start = first;
+    /**
+     * The {@link RuleVersion} the slots are linked with.
+     */
+    private volatile long linkedRuleVersion = -1;
+
     @Override
     public void addFirst(AbstractLinkedProcessorSlot<?> protocolProcessor) {
         protocolProcessor.setNext(first.getNext());
@@ -46,12 +75,16 @@ public class DefaultProcessorSlotChain extends ProcessorSlotChain {
         if (end == first) {
             end = protocolProcessor;
         }
+        slots.add(0, protocolProcessor);
+        resetLinks();
     }
 
     @Override
     public void addLast(AbstractLinkedProcessorSlot<?> protocolProcessor) {
         end.setNext(protocolProcessor);
         end = protocolProcessor;
+        slots.add(protocolProcessor);
+        resetLinks();
     }
 
     /**
@@ -72,12 +105,67 @@ public class DefaultProcessorSlotChain extends ProcessorSlotChain {
     @Override
     public void entry(Context context, ResourceWrapper resourceWrapper, Object t, int count, boolean prioritized, Object... args)
         throws Throwable {
-        first.transformEntry(context, resourceWrapper, t, count, prioritized, args);
+        AbstractLinkedProcessorSlot<?> start = this.start;
+        if (specialize) {
+            long ruleVersion = RuleVersion.current();
+            if (ruleVersion != linkedRuleVersion) {
+                start = relink(resourceWrapper.getName(), ruleVersion);
+            }
+        }
+        // The chain may be entered from a slot of another chain (e.g. an entry of another resource in the slot),
+        // whose link must not be followed by the slots of this chain.
+        SlotLink outerLink = SlotLinkHolder.get(context);
+        SlotLinkHolder.set(context, null);
+        try {
+            if (start != null) {
+                start.transformEntry(context, resourceWrapper, t, count, prioritized, args);
+            }
+        } finally {
+            SlotLinkHolder.set(context, outerLink);
+        }
     }
 
     @Override
     public void exit(Context context, ResourceWrapper resourceWrapper, int count, Object... args) {
-        first.exit(context, resourceWrapper, count, args);
+        AbstractLinkedProcessorSlot<?> start = this.start;
+        SlotLink outerLink = SlotLinkHolder.get(context);
+        SlotLinkHolder.set(context, null);
+        try {
+            if (start != null) {
+                start.exit(context, resourceWrapper, count, args);
+            }
+        } finally {
+            SlotLinkHolder.set(context, outerLink);
+        }
+    }
+
+    private void resetLinks() {
+        start = first;
+        linkedRuleVersion = -1;
+    }
+
+    /**
+     * Link the slots of the chain again, skipping the rule checking slots without rules for the resource.
+     * New links are created, so entries in progress keep going through the former ones.
+     */
+    private synchronized AbstractLinkedProcessorSlot<?> relink(String resourceName, long ruleVersion) {
+        if (ruleVersion != linkedRuleVersion) {
+            start = link(resourceName);
+            linkedRuleVersion = ruleVersion;
+        }
+        return start;
+    }
+
+    private SlotLink link(String resourceName) {
+        SlotLink head = null;
+        for (int i = slots.size() - 1; i >= 0; i--) {
+            AbstractLinkedProcessorSlot<?> slot = slots.get(i);
+            if (slot instanceof RuleCheckingSlot && !((RuleCheckingSlot)slot).hasRules(resourceName)) {
+                continue;
+            }
+            head = new SlotLink(slot, head);
+        }
+        return head;
     }
 
 }
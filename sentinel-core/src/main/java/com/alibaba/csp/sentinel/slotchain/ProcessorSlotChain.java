@@ -15,6 +15,8 @@
  */
 package com.alibaba.csp.sentinel.slotchain;
 
+import com.alibaba.csp.sentinel.util.TimeUtil;
+
 /**
  * Link all processor slots as a chain.
  *
@@ -22,6 +24,12 @@ package com.alibaba.csp.sentinel.slotchain;
  */
 public abstract class ProcessorSlotChain extends AbstractLinkedProcessorSlot<Object> {
 
+    /**
+     * Starts at the creation time, so that a chain is never idle before its first entry is recorded.
+     */
+    private volatile long lastAccessTime = TimeUtil.currentTimeMillis();
+    private volatile boolean evicted;
+
     /**
      * Add a processor to the head of this slot chain.
      *
@@ -35,4 +43,43 @@ public abstract class ProcessorSlotChain extends AbstractLinkedProcessorSlot<Obj
      * @param protocolProcessor processor to be added.
      */
     public abstract void addLast(AbstractLinkedProcessorSlot<?> protocolProcessor);
+
+    /**
+     * Record an access of this slot chain. The time is only written when it changes,
+     * so calling it on every entry is cheap.
+     *
+     * @param timeMillis current time in milliseconds
+     * @since 1.8.7
+     */
+    public void touch(long timeMillis) {
+        if (lastAccessTime != timeMillis) {
+            lastAccessTime = timeMillis;
+        }
+    }
+
+    /**
+     * @return the time of the last access of this slot chain in milliseconds
+     * @since 1.8.7
+     */
+    public long getLastAccessTime() {
+        return lastAccessTime;
+    }
+
+    /**
+     * Mark the slot chain as removed from the slot chain registry, so that holders of the slot chain
+     * (e.g. {@link com.alibaba.csp.sentinel.ResourceHandle}) resolve it again.
+     *
+     * @since 1.8.7
+     */
+    public void markEvicted() {
+        this.evicted = true;
+    }
+
+    /**
+     * @return whether the slot chain has been removed from the slot chain registry
+     * @since 1.8.7
+     */
+    public boolean isEvicted() {
+        return evicted;
+    }
 }
@@ -0,0 +1,107 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.slotchain;
+
+import com.alibaba.csp.sentinel.EntryType;
+import com.alibaba.csp.sentinel.slots.block.RuleVersion;
+import com.alibaba.csp.sentinel.util.function.Function;
+
+/**
+ * <p>A {@link StringResourceWrapper} resolved once and reused for every entry of the resource
+ * (see {@link com.alibaba.csp.sentinel.ResourceHandle}).</p>
+ *
+ * <p>Besides saving the allocation of the wrapper, it caches values looked up by the name of the resource,
+ * e.g. the rules of the resource. Cached values are stamped with the {@link RuleVersion}, and loaded again
+ * once any rule is updated.</p>
+ *
+ * @since 1.8.7
+ */
+public class ResolvedResourceWrapper extends StringResourceWrapper {
+
+    private static final int MAX_CACHED = 8;
+    private static final CachedValue[] EMPTY = new CachedValue[0];
+
+    /**
+     * Copy-on-write, only replaced when the rules are updated.
+     */
+    private volatile CachedValue[] cache = EMPTY;
+
+    public ResolvedResourceWrapper(String name, EntryType e, int resType) {
+        super(name, e, resType);
+    }
+
+    /**
+     * Get the value loaded by the name of the resource. If the resource is a {@link ResolvedResourceWrapper},
+     * the value is cached until the rules are updated.
+     *
+     * @param resource the resource
+     * @param loader   function to load the value by resource name, also used as the cache key,
+     *                 so it should be a constant
+     * @param <T>      type of the value
+     * @return the (cached) value
+     */
+    public static <T> T lookup(ResourceWrapper resource, Function<String, T> loader) {
+        if (resource instanceof ResolvedResourceWrapper) {
+            return ((ResolvedResourceWrapper)resource).getOrLoad(loader);
+        }
+        return loader.apply(resource.getName());
+    }
+
+    @SuppressWarnings("unchecked")
+    public <T> T getOrLoad(Function<String, T> loader) {
+        // The version must be read before loading, so that a concurrent update leaves a stale stamp.
+        long version = RuleVersion.current();
+        CachedValue[] current = cache;
+        for (CachedValue cached : current) {
+            if (cached.loader == loader && cached.version == version) {
+                return (T)cached.value;
+            }
+        }
+        T value = loader.apply(getName());
+        put(current, new CachedValue(loader, version, value));
+        return value;
+    }
+
+    private void put(CachedValue[] current, CachedValue newValue) {
+        int length = current.length;
+        for (int i = 0; i < length; i++) {
+            if (current[i].loader == newValue.loader) {
+                CachedValue[] updated = current.clone();
+                updated[i] = newValue;
+                cache = updated;
+                return;
+            }
+        }
+        if (length < MAX_CACHED) {
+            CachedValue[] updated = new CachedValue[length + 1];
+            System.arraycopy(current, 0, updated, 0, length);
+            updated[length] = newValue;
+            cache = updated;
+        }
+    }
+
+    private static final class CachedValue {
+        private final Object loader;
+        private final long version;
+        private final Object value;
+
+        CachedValue(Object loader, long version, Object value) {
+            this.loader = loader;
+            this.version = version;
+            this.value = value;
+        }
+    }
+}
@@ -0,0 +1,38 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.slotchain;
+
+/**
+ * <p>A {@link ProcessorSlot} that only checks rules. A {@link DefaultProcessorSlotChain} skips the slot
+ * for resources that have no rules of the slot, so the slot must not do anything else (e.g. statistics)
+ * on entry or exit, and must not rely on its exit to be paired with its entry.</p>
+ *
+ * <p>Slot chains check the slot again when {@link com.alibaba.csp.sentinel.slots.block.RuleVersion} is increased,
+ * so the rule manager of the slot must increase it whenever its rules are updated.</p>
+ *
+ * @since 1.8.7
+ */
+public interface RuleCheckingSlot {
+
+    /**
+     * Whether the slot has any rule to check for the resource. Note that a slot chain is shared by
+     * all entries of the resource name, whatever the entry type is.
+     *
+     * @param resourceName name of the resource
+     * @return true if the slot can't be skipped for the resource
+     */
+    boolean hasRules(String resourceName);
+}
@@ -0,0 +1,56 @@
+/*
+ * Copyright 1999-2022 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.slotchain;
+
+import com.alibaba.csp.sentinel.context.Context;
+import com.alibaba.csp.sentinel.context.SlotLinkHolder;
+
+/**
+ * <p>A link of a {@link DefaultProcessorSlotChain}, wrapping a slot which may be shared by other chains.</p>
+ *
+ * <p>The link is recorded in the {@link Context} while its slot is invoked, so that the slot goes on with
+ * the next link of this chain rather than its own {@code next}. Links are never changed once created,
+ * so a chain links its slots again by creating new links.</p>
+ *
+ * @since 1.8.7
+ */
+public final class SlotLink extends AbstractLinkedProcessorSlot<Object> {
+
+    final AbstractLinkedProcessorSlot<?> slot;
+
+    SlotLink(AbstractLinkedProcessorSlot<?> slot, SlotLink next) {
+        this.slot = slot;
+        super.setNext(next);
+    }
+
+    @Override
+    public void entry(Context context, ResourceWrapper resourceWrapper, Object t, int count, boolean prioritized,
+                      Object... args) throws Throwable {
+        SlotLinkHolder.set(context, this);
+        slot.transformEntry(context, resourceWrapper, t, count, prioritized, args);
+    }
+
+    @Override
+    public void exit(Context context, ResourceWrapper resourceWrapper, int count, Object... args) {
+        SlotLinkHolder.set(context, this);
+        slot.exit(context, resourceWrapper, count, args);
+    }
+
+    @Override
+    public void setNext(AbstractLinkedProcessorSlot<?> next) {
+        throw new UnsupportedOperationException("Slot links are immutable");
+    }
+}
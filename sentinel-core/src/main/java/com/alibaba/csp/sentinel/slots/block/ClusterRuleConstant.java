@@ -29,5 +29,7 @@ public final class ClusterRuleConstant {
 
     public static final int DEFAULT_CLUSTER_SAMPLE_COUNT = 10;
 
+    public static final int DEFAULT_CLUSTER_LEASE_TIME_MS = 100;
+
     private ClusterRuleConstant() {}
 }
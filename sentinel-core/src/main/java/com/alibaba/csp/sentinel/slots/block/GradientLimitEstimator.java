@@ -0,0 +1,108 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.slots.block;
+
+/**
+ * <p>Estimates a concurrency limit from the gradient of the response time, in the way of the gradient limit of
+ * Netflix's concurrency-limits.</p>
+ *
+ * <p>On each {@link #update(double, int)}, the recent average RT (short RT) is compared to an exponential moving
+ * average of RT over about {@code longWindow} updates (long RT):</p>
+ *
+ * <pre>
+ * gradient = max(0.5, min(1.0, tolerance * longRt / shortRt))
+ * newLimit = limit * gradient + sqrt(limit)
+ * limit    = limit * (1 - smoothing) + newLimit * smoothing
+ * </pre>
+ *
+ * <p>So the limit grows by about {@code sqrt(limit)} (the allowed queue) while RT stays stable, and shrinks
+ * as soon as requests start queueing (RT grows beyond {@code tolerance} times the long RT). The limit is
+ * not increased when the concurrency didn't reach half of the limit since the last update, and the long RT
+ * decays when it is far above the short RT so that the limit recovers after a long period of high RT.</p>
+ *
+ * <p>Updates should be made by one thread at a time, while the limit can be read by any thread.</p>
+ *
+ * @since 1.8.7
+ */
+public class GradientLimitEstimator {
+
+    private static final double TOLERANCE = 1.5;
+    private static final double SMOOTHING = 0.2;
+
+    private final int minLimit;
+    private final int maxLimit;
+    private final int longWindow;
+
+    private volatile double estimatedLimit;
+    private volatile double longRt = -1;
+    private volatile int limit;
+
+    public GradientLimitEstimator(int minLimit, int maxLimit, int longWindow) {
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.longWindow = longWindow;
+        this.estimatedLimit = minLimit;
+        this.limit = minLimit;
+    }
+
+    /**
+     * Update the limit with the statistics since the last update.
+     *
+     * @param shortRt        recent average response time
+     * @param maxConcurrency max concurrency since the last update
+     */
+    public void update(double shortRt, int maxConcurrency) {
+        double currentLongRt = longRt;
+        if (currentLongRt < 0) {
+            currentLongRt = shortRt;
+        } else {
+            currentLongRt += (shortRt - currentLongRt) / longWindow;
+            // Recover faster from a long period of high RT.
+            if (shortRt > 0 && currentLongRt / shortRt > 2) {
+                currentLongRt *= 0.95;
+            }
+        }
+        longRt = currentLongRt;
+
+        double current = estimatedLimit;
+        // Don't grow the limit if the requests are limited by the application rather than the limit.
+        if (maxConcurrency < current / 2) {
+            return;
+        }
+        double gradient = shortRt <= 0 ? 1.0 : Math.max(0.5, Math.min(1.0, TOLERANCE * currentLongRt / shortRt));
+        double newLimit = current * gradient + Math.sqrt(current);
+        newLimit = current * (1 - SMOOTHING) + newLimit * SMOOTHING;
+        newLimit = Math.max(minLimit, Math.min(maxLimit, newLimit));
+        estimatedLimit = newLimit;
+        limit = (int)newLimit;
+    }
+
+    public int getLimit() {
+        return limit;
+    }
+
+    public int getMinLimit() {
+        return minLimit;
+    }
+
+    public int getMaxLimit() {
+        return maxLimit;
+    }
+
+    public double getLongRt() {
+        return longRt;
+    }
+}
@@ -25,6 +25,12 @@ public final class RuleConstant {
 
     public static final int FLOW_GRADE_THREAD = 0;
     public static final int FLOW_GRADE_QPS = 1;
+    /**
+     * Concurrency limit estimated at runtime, with the count of the rule as the upper bound.
+     *
+     * @since 1.8.7
+     */
+    public static final int FLOW_GRADE_ADAPTIVE_CONCURRENCY = 2;
 
     public static final int DEGRADE_GRADE_RT = 0;
     /**
@@ -35,6 +41,12 @@ public final class RuleConstant {
      * Degrade by biz exception count in the last 60 seconds.
      */
     public static final int DEGRADE_GRADE_EXCEPTION_COUNT = 2;
+    /**
+     * Degrade by the RT at given percentile (e.g. p99) in the statistic interval.
+     *
+     * @since 1.8.7
+     */
+    public static final int DEGRADE_GRADE_RT_PERCENTILE = 3;
 
     public static final int DEGRADE_DEFAULT_SLOW_REQUEST_AMOUNT = 5;
     public static final int DEGRADE_DEFAULT_MIN_REQUEST_AMOUNT = 5;
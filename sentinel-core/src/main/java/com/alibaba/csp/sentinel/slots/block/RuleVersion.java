@@ -0,0 +1,49 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.slots.block;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * <p>Global version of the loaded rules. Rule managers increase the version after publishing new rules,
+ * so that anything derived from the rules (e.g. the rules cached in a
+ * {@link com.alibaba.csp.sentinel.slotchain.ResolvedResourceWrapper}) can be validated with a single
+ * volatile read.</p>
+ *
+ * @since 1.8.7
+ */
+public final class RuleVersion {
+
+    private static final AtomicLong VERSION = new AtomicLong();
+
+    /**
+     * @return current version of the rules
+     */
+    public static long current() {
+        return VERSION.get();
+    }
+
+    /**
+     * Increase the version. Must be called after the new rules become visible.
+     *
+     * @return the new version
+     */
+    public static long increase() {
+        return VERSION.incrementAndGet();
+    }
+
+    private RuleVersion() {}
+}
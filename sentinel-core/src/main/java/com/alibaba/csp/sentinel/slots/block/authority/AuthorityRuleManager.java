@@ -24,6 +24,7 @@ import java.util.concurrent.ConcurrentHashMap;
 
 import com.alibaba.csp.sentinel.log.RecordLog;
 import com.alibaba.csp.sentinel.slots.block.RuleConstant;
+import com.alibaba.csp.sentinel.slots.block.RuleVersion;
 import com.alibaba.csp.sentinel.util.AssertUtil;
 import com.alibaba.csp.sentinel.util.StringUtil;
 import com.alibaba.csp.sentinel.property.DynamicSentinelProperty;
@@ -94,6 +95,7 @@ public final class AuthorityRuleManager {
         @Override
         public synchronized void configLoad(List<AuthorityRule> value) {
             authorityRules = loadAuthorityConf(value);
+            RuleVersion.increase();
 
             RecordLog.info("[AuthorityRuleManager] Authority rules loaded: {}", authorityRules);
         }
@@ -101,6 +103,7 @@ public final class AuthorityRuleManager {
         @Override
         public synchronized void configUpdate(List<AuthorityRule> conf) {
             authorityRules = loadAuthorityConf(conf);
+            RuleVersion.increase();
 
             RecordLog.info("[AuthorityRuleManager] Authority rules received: {}", authorityRules);
         }
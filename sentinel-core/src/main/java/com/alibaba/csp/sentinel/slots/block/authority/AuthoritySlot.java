@@ -23,8 +23,11 @@ import com.alibaba.csp.sentinel.context.Context;
 import com.alibaba.csp.sentinel.node.DefaultNode;
 import com.alibaba.csp.sentinel.slotchain.AbstractLinkedProcessorSlot;
 import com.alibaba.csp.sentinel.slotchain.ProcessorSlot;
+import com.alibaba.csp.sentinel.slotchain.ResolvedResourceWrapper;
 import com.alibaba.csp.sentinel.slotchain.ResourceWrapper;
+import com.alibaba.csp.sentinel.slotchain.RuleCheckingSlot;
 import com.alibaba.csp.sentinel.spi.Spi;
+import com.alibaba.csp.sentinel.util.function.Function;
 
 /**
  * A {@link ProcessorSlot} that dedicates to {@link AuthorityRule} checking.
@@ -34,7 +37,22 @@ import com.alibaba.csp.sentinel.spi.Spi;
  * @author Eric Zhao
  */
 @Spi(order = Constants.ORDER_AUTHORITY_SLOT)
-public class AuthoritySlot extends AbstractLinkedProcessorSlot<DefaultNode> {
+public class AuthoritySlot extends AbstractLinkedProcessorSlot<DefaultNode> implements RuleCheckingSlot {
+
+    private static final Function<String, Set<AuthorityRule>> RULE_PROVIDER =
+        new Function<String, Set<AuthorityRule>>() {
+            @Override
+            public Set<AuthorityRule> apply(String resource) {
+                Map<String, Set<AuthorityRule>> authorityRules = AuthorityRuleManager.getAuthorityRules();
+                return authorityRules == null ? null : authorityRules.get(resource);
+            }
+        };
+
+    @Override
+    public boolean hasRules(String resourceName) {
+        Set<AuthorityRule> rules = RULE_PROVIDER.apply(resourceName);
+        return rules != null && !rules.isEmpty();
+    }
 
     @Override
     public void entry(Context context, ResourceWrapper resourceWrapper, DefaultNode node, int count, boolean prioritized, Object... args)
@@ -49,13 +67,7 @@ public class AuthoritySlot extends AbstractLinkedProcessorSlot<DefaultNode> {
     }
 
     void checkBlackWhiteAuthority(ResourceWrapper resource, Context context) throws AuthorityException {
-        Map<String, Set<AuthorityRule>> authorityRules = AuthorityRuleManager.getAuthorityRules();
-
-        if (authorityRules == null) {
-            return;
-        }
-
-        Set<AuthorityRule> rules = authorityRules.get(resource.getName());
+        Set<AuthorityRule> rules = ResolvedResourceWrapper.lookup(resource, RULE_PROVIDER);
         if (rules == null) {
             return;
         }
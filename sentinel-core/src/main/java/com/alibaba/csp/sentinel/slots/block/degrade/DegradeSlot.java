@@ -23,10 +23,13 @@ import com.alibaba.csp.sentinel.context.Context;
 import com.alibaba.csp.sentinel.node.DefaultNode;
 import com.alibaba.csp.sentinel.slotchain.AbstractLinkedProcessorSlot;
 import com.alibaba.csp.sentinel.slotchain.ProcessorSlot;
+import com.alibaba.csp.sentinel.slotchain.ResolvedResourceWrapper;
 import com.alibaba.csp.sentinel.slotchain.ResourceWrapper;
+import com.alibaba.csp.sentinel.slotchain.RuleCheckingSlot;
 import com.alibaba.csp.sentinel.slots.block.BlockException;
 import com.alibaba.csp.sentinel.slots.block.degrade.circuitbreaker.CircuitBreaker;
 import com.alibaba.csp.sentinel.spi.Spi;
+import com.alibaba.csp.sentinel.util.function.Function;
 
 /**
  * A {@link ProcessorSlot} dedicates to circuit breaking.
@@ -35,7 +38,20 @@ import com.alibaba.csp.sentinel.spi.Spi;
  * @author Eric Zhao
  */
 @Spi(order = Constants.ORDER_DEGRADE_SLOT)
-public class DegradeSlot extends AbstractLinkedProcessorSlot<DefaultNode> {
+public class DegradeSlot extends AbstractLinkedProcessorSlot<DefaultNode> implements RuleCheckingSlot {
+
+    private static final Function<String, List<CircuitBreaker>> CIRCUIT_BREAKER_PROVIDER =
+        new Function<String, List<CircuitBreaker>>() {
+            @Override
+            public List<CircuitBreaker> apply(String resource) {
+                return DegradeRuleManager.getCircuitBreakers(resource);
+            }
+        };
+
+    @Override
+    public boolean hasRules(String resourceName) {
+        return DegradeRuleManager.hasConfig(resourceName);
+    }
 
     @Override
     public void entry(Context context, ResourceWrapper resourceWrapper, DefaultNode node, int count,
@@ -46,7 +62,7 @@ public class DegradeSlot extends AbstractLinkedProcessorSlot<DefaultNode> {
     }
 
     void performChecking(Context context, ResourceWrapper r) throws BlockException {
-        List<CircuitBreaker> circuitBreakers = DegradeRuleManager.getCircuitBreakers(r.getName());
+        List<CircuitBreaker> circuitBreakers = ResolvedResourceWrapper.lookup(r, CIRCUIT_BREAKER_PROVIDER);
         if (circuitBreakers == null || circuitBreakers.isEmpty()) {
             return;
         }
@@ -64,7 +80,7 @@ public class DegradeSlot extends AbstractLinkedProcessorSlot<DefaultNode> {
             fireExit(context, r, count, args);
             return;
         }
-        List<CircuitBreaker> circuitBreakers = DegradeRuleManager.getCircuitBreakers(r.getName());
+        List<CircuitBreaker> circuitBreakers = ResolvedResourceWrapper.lookup(r, CIRCUIT_BREAKER_PROVIDER);
         if (circuitBreakers == null || circuitBreakers.isEmpty()) {
             fireExit(context, r, count, args);
             return;
@@ -0,0 +1,206 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.slots.block.degrade.circuitbreaker;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.LongAdder;
+
+import com.alibaba.csp.sentinel.Entry;
+import com.alibaba.csp.sentinel.config.SentinelConfig;
+import com.alibaba.csp.sentinel.context.Context;
+import com.alibaba.csp.sentinel.slots.block.RuleConstant;
+import com.alibaba.csp.sentinel.slots.block.degrade.DegradeRule;
+import com.alibaba.csp.sentinel.slots.statistic.base.LeapArray;
+import com.alibaba.csp.sentinel.slots.statistic.base.WindowWrap;
+import com.alibaba.csp.sentinel.slots.statistic.data.RtHistogram;
+import com.alibaba.csp.sentinel.util.AssertUtil;
+import com.alibaba.csp.sentinel.util.TimeUtil;
+
+/**
+ * <p>Circuit breaker that opens when the RT at given percentile (e.g. p99) in the rolling statistic interval
+ * exceeds the max allowed RT ({@code count} of the rule).</p>
+ *
+ * <p>Every window of the sliding interval keeps an {@link RtHistogram}, which is merged across windows to
+ * report the current percentile. The p-th percentile exceeds the max allowed RT if and only if fewer than
+ * {@code ceil(p% * total)} requests complete within the max allowed RT, so the slow requests are also counted
+ * exactly and the state is only checked when a slow request completes.</p>
+ *
+ * @since 1.8.7
+ */
+public class RtPercentileCircuitBreaker extends AbstractCircuitBreaker {
+
+    private static final int MAX_SAMPLE_COUNT = 10;
+
+    private final long maxAllowedRt;
+    private final double percentile;
+    private final int minRequestAmount;
+
+    private final LeapArray<RtPercentileCounter> slidingCounter;
+
+    public RtPercentileCircuitBreaker(DegradeRule rule) {
+        this(rule, new RtPercentileLeapArray(sampleCountOf(rule.getStatIntervalMs()), rule.getStatIntervalMs(),
+            Math.max(SentinelConfig.statisticMaxRt(), Math.round(rule.getCount()) + 1)));
+    }
+
+    RtPercentileCircuitBreaker(DegradeRule rule, LeapArray<RtPercentileCounter> stat) {
+        super(rule);
+        AssertUtil.isTrue(rule.getGrade() == RuleConstant.DEGRADE_GRADE_RT_PERCENTILE,
+            "rule metric type should be RT percentile");
+        AssertUtil.notNull(stat, "stat cannot be null");
+        this.maxAllowedRt = Math.round(rule.getCount());
+        this.percentile = rule.getPercentile();
+        this.minRequestAmount = rule.getMinRequestAmount();
+        this.slidingCounter = stat;
+    }
+
+    static int sampleCountOf(int statIntervalMs) {
+        for (int n = MAX_SAMPLE_COUNT; n > 1; n--) {
+            if (statIntervalMs % n == 0) {
+                return n;
+            }
+        }
+        return 1;
+    }
+
+    @Override
+    public void resetStat() {
+        slidingCounter.currentWindow();
+        for (RtPercentileCounter counter : slidingCounter.values()) {
+            counter.reset();
+        }
+    }
+
+    @Override
+    public void onRequestComplete(Context context) {
+        Entry entry = context.getCurEntry();
+        if (entry == null) {
+            return;
+        }
+        RtPercentileCounter counter = slidingCounter.currentWindow().value();
+        long completeTime = entry.getCompleteTimestamp();
+        if (completeTime <= 0) {
+            completeTime = TimeUtil.currentTimeMillis();
+        }
+        long rt = completeTime - entry.getCreateTimestamp();
+        counter.histogram.record(rt);
+        if (rt > maxAllowedRt) {
+            counter.slowCount.add(1);
+        }
+
+        handleStateChangeWhenThresholdExceeded(rt);
+    }
+
+    private void handleStateChangeWhenThresholdExceeded(long rt) {
+        if (currentState.get() == State.OPEN) {
+            return;
+        }
+
+        if (currentState.get() == State.HALF_OPEN) {
+            // In detecting request
+            if (rt > maxAllowedRt) {
+                fromHalfOpenToOpen(rt);
+            } else {
+                fromHalfOpenToClose();
+            }
+            return;
+        }
+
+        // The percentile could only exceed the threshold when a slow request comes.
+        if (rt <= maxAllowedRt) {
+            return;
+        }
+        List<RtPercentileCounter> counters = slidingCounter.values();
+        long slowCount = 0;
+        long totalCount = 0;
+        List<RtHistogram> histograms = new ArrayList<>(counters.size());
+        for (RtPercentileCounter counter : counters) {
+            slowCount += counter.slowCount.sum();
+            totalCount += counter.histogram.totalCount();
+            histograms.add(counter.histogram);
+        }
+        if (totalCount < minRequestAmount) {
+            return;
+        }
+        long rank = Math.max(1, (long)Math.ceil(percentile / 100 * totalCount));
+        if (totalCount - slowCount < rank) {
+            transformToOpen(RtHistogram.percentile(histograms, percentile));
+        }
+    }
+
+    long currentPercentileRt() {
+        slidingCounter.currentWindow();
+        List<RtPercentileCounter> counters = slidingCounter.values();
+        List<RtHistogram> histograms = new ArrayList<>(counters.size());
+        for (RtPercentileCounter counter : counters) {
+            histograms.add(counter.histogram);
+        }
+        return RtHistogram.percentile(histograms, percentile);
+    }
+
+    static class RtPercentileCounter {
+        private final RtHistogram histogram;
+        private final LongAdder slowCount = new LongAdder();
+
+        RtPercentileCounter(long maxRt) {
+            this.histogram = new RtHistogram(maxRt);
+        }
+
+        public RtHistogram getHistogram() {
+            return histogram;
+        }
+
+        public LongAdder getSlowCount() {
+            return slowCount;
+        }
+
+        public RtPercentileCounter reset() {
+            histogram.reset();
+            slowCount.reset();
+            return this;
+        }
+
+        @Override
+        public String toString() {
+            return "RtPercentileCounter{" +
+                "totalCount=" + histogram.totalCount() +
+                ", slowCount=" + slowCount +
+                '}';
+        }
+    }
+
+    static class RtPercentileLeapArray extends LeapArray<RtPercentileCounter> {
+
+        private final long maxRt;
+
+        public RtPercentileLeapArray(int sampleCount, int intervalInMs, long maxRt) {
+            super(sampleCount, intervalInMs);
+            this.maxRt = maxRt;
+        }
+
+        @Override
+        public RtPercentileCounter newEmptyBucket(long timeMillis) {
+            return new RtPercentileCounter(maxRt);
+        }
+
+        @Override
+        protected WindowWrap<RtPercentileCounter> resetWindowTo(WindowWrap<RtPercentileCounter> w, long startTime) {
+            w.resetTo(startTime);
+            w.value().reset();
+            return w;
+        }
+    }
+}
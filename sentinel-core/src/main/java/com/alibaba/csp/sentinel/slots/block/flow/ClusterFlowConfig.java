@@ -73,6 +73,17 @@ public class ClusterFlowConfig {
      */
     private long clientOfflineTime = 2000;
 
+    /**
+     * Count of tokens the client leases from the token server in one go (0 means leasing is disabled).
+     * Leased tokens are consumed locally until the lease runs out or expires.
+     */
+    private int leaseCount = 0;
+
+    /**
+     * Valid time of a token lease (in milliseconds), which should be no longer than {@code windowIntervalMs}.
+     */
+    private int leaseTimeInMs = ClusterRuleConstant.DEFAULT_CLUSTER_LEASE_TIME_MS;
+
     public long getResourceTimeout() {
         return resourceTimeout;
     }
@@ -105,6 +116,24 @@ public class ClusterFlowConfig {
         this.clientOfflineTime = clientOfflineTime;
     }
 
+    public int getLeaseCount() {
+        return leaseCount;
+    }
+
+    public ClusterFlowConfig setLeaseCount(int leaseCount) {
+        this.leaseCount = leaseCount;
+        return this;
+    }
+
+    public int getLeaseTimeInMs() {
+        return leaseTimeInMs;
+    }
+
+    public ClusterFlowConfig setLeaseTimeInMs(int leaseTimeInMs) {
+        this.leaseTimeInMs = leaseTimeInMs;
+        return this;
+    }
+
     public Long getFlowId() {
         return flowId;
     }
@@ -197,6 +226,12 @@ public class ClusterFlowConfig {
         if (acquireRefuseStrategy != that.acquireRefuseStrategy) {
             return false;
         }
+        if (leaseCount != that.leaseCount) {
+            return false;
+        }
+        if (leaseTimeInMs != that.leaseTimeInMs) {
+            return false;
+        }
         return Objects.equals(flowId, that.flowId);
     }
 
@@ -212,6 +247,8 @@ public class ClusterFlowConfig {
         result = (int) (31 * result + clientOfflineTime);
         result = 31 * result + resourceTimeoutStrategy;
         result = 31 * result + acquireRefuseStrategy;
+        result = 31 * result + leaseCount;
+        result = 31 * result + leaseTimeInMs;
         return result;
     }
 
@@ -228,6 +265,8 @@ public class ClusterFlowConfig {
                 ", resourceTimeoutStrategy=" + resourceTimeoutStrategy +
                 ", acquireRefuseStrategy=" + acquireRefuseStrategy +
                 ", clientOfflineTime=" + clientOfflineTime +
+                ", leaseCount=" + leaseCount +
+                ", leaseTimeInMs=" + leaseTimeInMs +
                 '}';
     }
 }
@@ -0,0 +1,307 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.slots.block.flow;
+
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.alibaba.csp.sentinel.cluster.TokenResult;
+import com.alibaba.csp.sentinel.cluster.TokenResultStatus;
+import com.alibaba.csp.sentinel.cluster.TokenService;
+import com.alibaba.csp.sentinel.concurrent.NamedThreadFactory;
+import com.alibaba.csp.sentinel.log.RecordLog;
+import com.alibaba.csp.sentinel.util.TimeUtil;
+
+/**
+ * <p>Client-side holder of token leases for cluster flow rules with leasing enabled
+ * ({@link ClusterFlowConfig#getLeaseCount()} &gt; 0).</p>
+ *
+ * <p>Instead of requesting the token server for every invocation, the client leases a block of tokens
+ * and consumes them locally with an atomic counter. When the lease is running low, a new lease is prefetched
+ * asynchronously; when it is exhausted or expired, the lease is renewed synchronously. Only one renewal
+ * of a lease is in flight at a time, and it is not made under any lock: while it is in flight, other callers
+ * that find the lease exhausted request their tokens directly. Unused tokens of a replaced lease are returned
+ * to the token server, so that the global threshold is not wasted.</p>
+ *
+ * <p>If the token server has no quota left for a lease, the blocked result is cached for one bucket
+ * of the sliding window, so that callers are blocked locally instead of queueing up for renewals.</p>
+ *
+ * <p>Leases of flow IDs that no longer belong to a leasing rule are dropped (and their unused tokens returned)
+ * when the flow rules are reloaded, see {@link #retainLeases(Map)}.</p>
+ *
+ * @since 1.8.7
+ */
+final class ClusterTokenLeaseManager {
+
+    /**
+     * Result of {@link #tryAcquire(TokenService, ClusterFlowConfig, int, boolean)}
+     * indicating that leasing is not applicable and the token should be requested directly.
+     */
+    static final int LEASE_UNAVAILABLE = -1;
+    static final int LEASE_PASS = 0;
+    static final int LEASE_BLOCKED = 1;
+
+    private static final ScheduledExecutorService RENEW_EXECUTOR = new ScheduledThreadPoolExecutor(1,
+        new NamedThreadFactory("sentinel-cluster-lease-renew-task", true));
+
+    private static final Map<Long, LeaseHolder> HOLDERS = new ConcurrentHashMap<>();
+
+    static int tryAcquire(TokenService service, ClusterFlowConfig config, int acquireCount, boolean prioritized) {
+        int leaseCount = config.getLeaseCount();
+        if (leaseCount <= 0 || acquireCount > leaseCount) {
+            return LEASE_UNAVAILABLE;
+        }
+        Long flowId = config.getFlowId();
+        LeaseHolder holder = HOLDERS.get(flowId);
+        if (holder == null) {
+            holder = new LeaseHolder();
+            LeaseHolder old = HOLDERS.putIfAbsent(flowId, holder);
+            if (old != null) {
+                holder = old;
+            }
+        }
+        long now = TimeUtil.currentTimeMillis();
+        if (holder.tryTake(acquireCount, now)) {
+            prefetchIfLow(service, config, holder);
+            return LEASE_PASS;
+        }
+        if (now < holder.unavailableUntil) {
+            return LEASE_UNAVAILABLE;
+        }
+        if (now < holder.blockedUntil) {
+            return blockedResult(prioritized);
+        }
+
+        if (!holder.renewing.compareAndSet(false, true)) {
+            // A renewal is in flight, so request the token directly rather than waiting for it.
+            return LEASE_UNAVAILABLE;
+        }
+        try {
+            // Another thread may have renewed the lease (or been blocked) before we claimed the renewal.
+            now = TimeUtil.currentTimeMillis();
+            if (holder.tryTake(acquireCount, now)) {
+                return LEASE_PASS;
+            }
+            if (now < holder.blockedUntil) {
+                return blockedResult(prioritized);
+            }
+            int status = renew(service, config, holder, now);
+            if (status == TokenResultStatus.OK) {
+                return holder.tryTake(acquireCount, now) ? LEASE_PASS : LEASE_BLOCKED;
+            }
+            if (status == TokenResultStatus.BLOCKED) {
+                return blockedResult(prioritized);
+            }
+            // Leasing is not available for now (e.g. not supported by the token server),
+            // so request tokens directly until the lease time passes.
+            holder.unavailableUntil = now + config.getLeaseTimeInMs();
+            return LEASE_UNAVAILABLE;
+        } finally {
+            holder.renewing.set(false);
+        }
+    }
+
+    private static int blockedResult(boolean prioritized) {
+        // Prioritized requests may still occupy incoming buckets via a direct token request.
+        return prioritized ? LEASE_UNAVAILABLE : LEASE_BLOCKED;
+    }
+
+    /**
+     * Time to cache a blocked lease request for. The quota of the token server is freed as its sliding
+     * window slides, so a renewal is not retried until one bucket of the window passes.
+     */
+    static long blockedBackoffMs(ClusterFlowConfig config) {
+        long bucketLength = config.getWindowIntervalMs() / Math.max(1, config.getSampleCount());
+        return Math.max(1, Math.min(bucketLength, config.getLeaseTimeInMs()));
+    }
+
+    private static void prefetchIfLow(final TokenService service, final ClusterFlowConfig config,
+                                      final LeaseHolder holder) {
+        final TokenLease lease = holder.current;
+        if (lease == null || lease.remaining.get() > lowWatermark(config.getLeaseCount())) {
+            return;
+        }
+        if (!holder.renewing.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            RENEW_EXECUTOR.execute(new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        // Skip if the lease has already been replaced by a synchronous renewal.
+                        if (holder.current == lease) {
+                            renew(service, config, holder, TimeUtil.currentTimeMillis());
+                        }
+                    } catch (Throwable ex) {
+                        RecordLog.warn("[ClusterTokenLeaseManager] Failed to prefetch token lease", ex);
+                    } finally {
+                        holder.renewing.set(false);
+                    }
+                }
+            });
+        } catch (Throwable ex) {
+            holder.renewing.set(false);
+            RecordLog.warn("[ClusterTokenLeaseManager] Failed to schedule token lease prefetch", ex);
+        }
+    }
+
+    /**
+     * Request a new lease and replace the current one. Should be called with the renewal of the holder claimed.
+     *
+     * @return status of the lease request
+     */
+    private static int renew(TokenService service, ClusterFlowConfig config, LeaseHolder holder, long now) {
+        TokenResult result = service.requestTokenLease(config.getFlowId(), config.getLeaseCount(),
+            config.getLeaseTimeInMs());
+        if (result == null || result.getStatus() == null) {
+            return TokenResultStatus.FAIL;
+        }
+        int status = result.getStatus();
+        if (status == TokenResultStatus.BLOCKED) {
+            holder.blockedUntil = now + blockedBackoffMs(config);
+        } else if (status == TokenResultStatus.OK) {
+            holder.blockedUntil = 0;
+            TokenLease old = holder.current;
+            holder.current = new TokenLease(service, result.getTokenId(), result.getRemaining(),
+                now + config.getLeaseTimeInMs());
+            if (old != null) {
+                old.release(now);
+            }
+        }
+        return status;
+    }
+
+    /**
+     * Drop the leases of flow IDs that do not belong to any leasing rule of the given flow rules,
+     * returning their unused tokens to the token server asynchronously.
+     *
+     * @param rules the flow rules that have been loaded
+     */
+    static void retainLeases(Map<String, List<FlowRule>> rules) {
+        if (HOLDERS.isEmpty()) {
+            return;
+        }
+        Set<Long> flowIds = new HashSet<>();
+        for (List<FlowRule> list : rules.values()) {
+            for (FlowRule rule : list) {
+                ClusterFlowConfig config = rule.getClusterConfig();
+                if (rule.isClusterMode() && config != null && config.getLeaseCount() > 0) {
+                    flowIds.add(config.getFlowId());
+                }
+            }
+        }
+        Iterator<Map.Entry<Long, LeaseHolder>> it = HOLDERS.entrySet().iterator();
+        while (it.hasNext()) {
+            Map.Entry<Long, LeaseHolder> e = it.next();
+            if (!flowIds.contains(e.getKey())) {
+                it.remove();
+                releaseAsync(e.getValue().current);
+            }
+        }
+    }
+
+    private static void releaseAsync(final TokenLease lease) {
+        if (lease == null) {
+            return;
+        }
+        try {
+            RENEW_EXECUTOR.execute(new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        lease.release(TimeUtil.currentTimeMillis());
+                    } catch (Throwable ex) {
+                        RecordLog.warn("[ClusterTokenLeaseManager] Failed to release token lease", ex);
+                    }
+                }
+            });
+        } catch (Throwable ex) {
+            RecordLog.warn("[ClusterTokenLeaseManager] Failed to schedule token lease release", ex);
+        }
+    }
+
+    static int lowWatermark(int leaseCount) {
+        return leaseCount / 4;
+    }
+
+    static void clear() {
+        HOLDERS.clear();
+    }
+
+    static TokenLease getCurrentLease(Long flowId) {
+        LeaseHolder holder = HOLDERS.get(flowId);
+        return holder == null ? null : holder.current;
+    }
+
+    private static class LeaseHolder {
+        volatile TokenLease current;
+        volatile long unavailableUntil;
+        volatile long blockedUntil;
+        final AtomicBoolean renewing = new AtomicBoolean(false);
+
+        boolean tryTake(int count, long now) {
+            TokenLease lease = current;
+            return lease != null && now < lease.expireTime && lease.tryTake(count);
+        }
+    }
+
+    static class TokenLease {
+        final TokenService service;
+        final long leaseId;
+        final long expireTime;
+        final AtomicInteger remaining;
+
+        TokenLease(TokenService service, long leaseId, int count, long expireTime) {
+            this.service = service;
+            this.leaseId = leaseId;
+            this.expireTime = expireTime;
+            this.remaining = new AtomicInteger(count);
+        }
+
+        boolean tryTake(int count) {
+            while (true) {
+                int current = remaining.get();
+                if (current < count) {
+                    return false;
+                }
+                if (remaining.compareAndSet(current, current - count)) {
+                    return true;
+                }
+            }
+        }
+
+        /**
+         * Stop consuming this lease and return its unused tokens to the token server.
+         */
+        void release(long now) {
+            int unused = remaining.getAndSet(0);
+            if (unused > 0 && now < expireTime) {
+                service.releaseTokenLease(leaseId, unused);
+            }
+        }
+    }
+
+    private ClusterTokenLeaseManager() {}
+}
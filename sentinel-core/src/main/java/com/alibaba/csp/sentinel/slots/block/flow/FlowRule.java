@@ -47,7 +47,7 @@ public class FlowRule extends AbstractRule {
     }
 
     /**
-     * The threshold type of flow control (0: thread count, 1: QPS).
+     * The threshold type of flow control (0: thread count, 1: QPS, 2: adaptive concurrency).
      */
     private int grade = RuleConstant.FLOW_GRADE_QPS;
 
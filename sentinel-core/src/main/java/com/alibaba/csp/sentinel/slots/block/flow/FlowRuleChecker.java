@@ -27,6 +27,7 @@ import com.alibaba.csp.sentinel.context.Context;
 import com.alibaba.csp.sentinel.log.RecordLog;
 import com.alibaba.csp.sentinel.node.DefaultNode;
 import com.alibaba.csp.sentinel.node.Node;
+import com.alibaba.csp.sentinel.slotchain.ResolvedResourceWrapper;
 import com.alibaba.csp.sentinel.slotchain.ResourceWrapper;
 import com.alibaba.csp.sentinel.slots.block.BlockException;
 import com.alibaba.csp.sentinel.slots.block.RuleConstant;
@@ -46,7 +47,7 @@ public class FlowRuleChecker {
         if (ruleProvider == null || resource == null) {
             return;
         }
-        Collection<FlowRule> rules = ruleProvider.apply(resource.getName());
+        Collection<FlowRule> rules = ResolvedResourceWrapper.lookup(resource, ruleProvider);
         if (rules != null) {
             for (FlowRule rule : rules) {
                 if (!canPassCheck(rule, context, node, count, prioritized)) {
@@ -196,6 +197,11 @@ public class FlowRuleChecker {
             if (clusterService == null) {
                 return fallbackToLocalOrPass(rule, context, node, acquireCount, prioritized);
             }
+            int leaseStatus = ClusterTokenLeaseManager.tryAcquire(clusterService, rule.getClusterConfig(),
+                acquireCount, prioritized);
+            if (leaseStatus != ClusterTokenLeaseManager.LEASE_UNAVAILABLE) {
+                return leaseStatus == ClusterTokenLeaseManager.LEASE_PASS;
+            }
             long flowId = rule.getClusterConfig().getFlowId();
             TokenResult result = clusterService.requestToken(flowId, acquireCount, prioritized);
             return applyTokenResult(result, rule, context, node, acquireCount, prioritized);
@@ -236,16 +242,19 @@ public class FlowRuleChecker {
                 return true;
             case TokenResultStatus.SHOULD_WAIT:
                 // Wait for next tick.
-                try {
-                    Thread.sleep(result.getWaitInMs());
-                } catch (InterruptedException e) {
-                    e.printStackTrace();
+                if (!QueueingDelayHolder.defer(result.getWaitInMs())) {
+                    try {
+                        Thread.sleep(result.getWaitInMs());
+                    } catch (InterruptedException e) {
+                        e.printStackTrace();
+                    }
                 }
                 return true;
             case TokenResultStatus.NO_RULE_EXISTS:
             case TokenResultStatus.BAD_REQUEST:
             case TokenResultStatus.FAIL:
             case TokenResultStatus.TOO_MANY_REQUEST:
+            case TokenResultStatus.NOT_OWNER:
                 return fallbackToLocalOrPass(rule, context, node, acquireCount, prioritized);
             case TokenResultStatus.BLOCKED:
             default:
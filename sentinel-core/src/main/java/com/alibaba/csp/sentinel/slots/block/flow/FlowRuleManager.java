@@ -22,6 +22,7 @@ import com.alibaba.csp.sentinel.node.metric.MetricTimerListener;
 import com.alibaba.csp.sentinel.property.DynamicSentinelProperty;
 import com.alibaba.csp.sentinel.property.PropertyListener;
 import com.alibaba.csp.sentinel.property.SentinelProperty;
+import com.alibaba.csp.sentinel.slots.block.RuleVersion;
 import com.alibaba.csp.sentinel.util.AssertUtil;
 import com.alibaba.csp.sentinel.util.StringUtil;
 
@@ -151,18 +152,26 @@ public class FlowRuleManager {
 
         @Override
         public synchronized void configUpdate(List<FlowRule> value) {
+            Map<FlowRule, TrafficShapingController> controllers = FlowRuleUtil.getAdaptiveControllers(flowRules);
             Map<String, List<FlowRule>> rules = FlowRuleUtil.buildFlowRuleMap(value);
             if (rules != null) {
+                FlowRuleUtil.reuseAdaptiveControllers(rules, controllers);
                 flowRules = rules;
+                RuleVersion.increase();
+                ClusterTokenLeaseManager.retainLeases(rules);
             }
             RecordLog.info("[FlowRuleManager] Flow rules received: {}", rules);
         }
 
         @Override
         public synchronized void configLoad(List<FlowRule> conf) {
+            Map<FlowRule, TrafficShapingController> controllers = FlowRuleUtil.getAdaptiveControllers(flowRules);
             Map<String, List<FlowRule>> rules = FlowRuleUtil.buildFlowRuleMap(conf);
             if (rules != null) {
+                FlowRuleUtil.reuseAdaptiveControllers(rules, controllers);
                 flowRules = rules;
+                RuleVersion.increase();
+                ClusterTokenLeaseManager.retainLeases(rules);
             }
             RecordLog.info("[FlowRuleManager] Flow rules loaded: {}", rules);
         }
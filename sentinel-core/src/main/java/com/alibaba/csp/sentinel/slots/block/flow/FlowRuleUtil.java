@@ -18,6 +18,7 @@ package com.alibaba.csp.sentinel.slots.block.flow;
 import com.alibaba.csp.sentinel.log.RecordLog;
 import com.alibaba.csp.sentinel.slots.block.ClusterRuleConstant;
 import com.alibaba.csp.sentinel.slots.block.RuleConstant;
+import com.alibaba.csp.sentinel.slots.block.flow.controller.AdaptiveConcurrencyController;
 import com.alibaba.csp.sentinel.slots.block.flow.controller.DefaultController;
 import com.alibaba.csp.sentinel.slots.block.flow.controller.RateLimiterController;
 import com.alibaba.csp.sentinel.slots.block.flow.controller.WarmUpController;
@@ -129,7 +130,53 @@ public final class FlowRuleUtil {
         return newRuleMap;
     }
 
+    /**
+     * Get the adaptive concurrency controllers of the rules, so that they can be reused by
+     * {@link #reuseAdaptiveControllers(Map, Map)} after the rules are rebuilt.
+     *
+     * @param ruleMap rules grouped by resource
+     * @return map of rule to its adaptive concurrency controller
+     * @since 1.8.7
+     */
+    static Map<FlowRule, TrafficShapingController> getAdaptiveControllers(Map<String, List<FlowRule>> ruleMap) {
+        Map<FlowRule, TrafficShapingController> controllers = new HashMap<>();
+        for (List<FlowRule> rules : ruleMap.values()) {
+            for (FlowRule rule : rules) {
+                if (rule.getRater() instanceof AdaptiveConcurrencyController) {
+                    controllers.put(rule, rule.getRater());
+                }
+            }
+        }
+        return controllers;
+    }
+
+    /**
+     * Keep the adaptive concurrency controllers of the rules whose settings are unchanged, so that reloading
+     * rules doesn't reset the estimated limit.
+     *
+     * @param ruleMap     rebuilt rules grouped by resource
+     * @param controllers controllers of the previous rules, see {@link #getAdaptiveControllers(Map)}
+     * @since 1.8.7
+     */
+    static void reuseAdaptiveControllers(Map<String, List<FlowRule>> ruleMap,
+                                         Map<FlowRule, TrafficShapingController> controllers) {
+        if (controllers.isEmpty()) {
+            return;
+        }
+        for (List<FlowRule> rules : ruleMap.values()) {
+            for (FlowRule rule : rules) {
+                TrafficShapingController previous = controllers.get(rule);
+                if (previous != null && rule.getRater() instanceof AdaptiveConcurrencyController) {
+                    rule.setRater(previous);
+                }
+            }
+        }
+    }
+
     private static TrafficShapingController generateRater(/*@Valid*/ FlowRule rule) {
+        if (rule.getGrade() == RuleConstant.FLOW_GRADE_ADAPTIVE_CONCURRENCY) {
+            return new AdaptiveConcurrencyController(rule.getCount());
+        }
         if (rule.getGrade() == RuleConstant.FLOW_GRADE_QPS) {
             switch (rule.getControlBehavior()) {
                 case RuleConstant.CONTROL_BEHAVIOR_WARM_UP:
@@ -175,6 +222,9 @@ public final class FlowRuleUtil {
             return checkClusterField(rule) && checkStrategyField(rule) && checkControlBehaviorField(rule);
         } else if (rule.getGrade() == RuleConstant.FLOW_GRADE_THREAD) {
             return checkClusterConcurrentField(rule);
+        } else if (rule.getGrade() == RuleConstant.FLOW_GRADE_ADAPTIVE_CONCURRENCY) {
+            // The limit is estimated locally, so cluster mode is not supported.
+            return !rule.isClusterMode() && checkStrategyField(rule);
         } else {
             return false;
         }
@@ -218,6 +268,13 @@ public final class FlowRuleUtil {
         if (!isWindowConfigValid(clusterConfig.getSampleCount(), clusterConfig.getWindowIntervalMs())) {
             return false;
         }
+        if (clusterConfig.getLeaseCount() < 0 || clusterConfig.getLeaseTimeInMs() <= 0) {
+            return false;
+        }
+        // Leased tokens must not be spent after they slid out of the window of the token server.
+        if (clusterConfig.getLeaseCount() > 0 && clusterConfig.getLeaseTimeInMs() > clusterConfig.getWindowIntervalMs()) {
+            return false;
+        }
         switch (clusterConfig.getStrategy()) {
             case ClusterRuleConstant.FLOW_CLUSTER_STRATEGY_NORMAL:
                 return true;
@@ -20,6 +20,7 @@ import com.alibaba.csp.sentinel.context.Context;
 import com.alibaba.csp.sentinel.node.DefaultNode;
 import com.alibaba.csp.sentinel.slotchain.AbstractLinkedProcessorSlot;
 import com.alibaba.csp.sentinel.slotchain.ResourceWrapper;
+import com.alibaba.csp.sentinel.slotchain.RuleCheckingSlot;
 import com.alibaba.csp.sentinel.slots.block.BlockException;
 import com.alibaba.csp.sentinel.spi.Spi;
 import com.alibaba.csp.sentinel.util.AssertUtil;
@@ -141,7 +142,7 @@ import java.util.Map;
  * @author Eric Zhao
  */
 @Spi(order = Constants.ORDER_FLOW_SLOT)
-public class FlowSlot extends AbstractLinkedProcessorSlot<DefaultNode> {
+public class FlowSlot extends AbstractLinkedProcessorSlot<DefaultNode> implements RuleCheckingSlot {
 
     private final FlowRuleChecker checker;
 
@@ -160,6 +161,11 @@ public class FlowSlot extends AbstractLinkedProcessorSlot<DefaultNode> {
         this.checker = checker;
     }
 
+    @Override
+    public boolean hasRules(String resourceName) {
+        return FlowRuleManager.hasConfig(resourceName);
+    }
+
     @Override
     public void entry(Context context, ResourceWrapper resourceWrapper, DefaultNode node, int count,
                       boolean prioritized, Object... args) throws Throwable {
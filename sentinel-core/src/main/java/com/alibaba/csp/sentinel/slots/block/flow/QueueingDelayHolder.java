@@ -0,0 +1,104 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.slots.block.flow;
+
+/**
+ * <p>Lets non-blocking callers take over the queueing wait of rules, so that the calling thread is not blocked
+ * while the request queues.</p>
+ *
+ * <p>When the caller {@link #begin()}s before making entries, rules that pace requests by queueing (e.g. the
+ * rate limiter control behavior) only reserve the pass and record the wait here, rather than sleeping on the
+ * current thread. The caller gets the wait via {@link #end()}, and should go on with the request after the wait
+ * (e.g. on a timer). As all reservations are made at the same time, the caller waits for the longest one.</p>
+ *
+ * <p>The scopes can be nested (e.g. a reactive operator inside a gateway filter). Each scope gets the longest
+ * wait of the entries made within it, and the wait of an inner scope is carried over to its outer scope.</p>
+ *
+ * <pre>
+ * QueueingDelayHolder.begin();
+ * try {
+ *     entry = SphU.asyncEntry(resourceName);
+ * } finally {
+ *     waitMs = QueueingDelayHolder.end();
+ * }
+ * </pre>
+ *
+ * @since 1.8.7
+ */
+public final class QueueingDelayHolder {
+
+    private static final ThreadLocal<DelayScope> DELAY_HOLDER = new ThreadLocal<>();
+
+    /**
+     * Start taking over the queueing wait of the entries made in current thread.
+     */
+    public static void begin() {
+        DELAY_HOLDER.set(new DelayScope(DELAY_HOLDER.get()));
+    }
+
+    /**
+     * Stop taking over the queueing wait of the innermost scope in current thread.
+     *
+     * @return the time (in milliseconds) the caller should wait before going on with the request
+     */
+    public static long end() {
+        DelayScope scope = DELAY_HOLDER.get();
+        if (scope == null) {
+            return 0;
+        }
+        DelayScope outer = scope.outer;
+        if (outer == null) {
+            DELAY_HOLDER.remove();
+        } else {
+            DELAY_HOLDER.set(outer);
+            outer.update(scope.delay);
+        }
+        return scope.delay;
+    }
+
+    /**
+     * Hand the queueing wait over to the caller if it has {@link #begin()}ed in current thread.
+     *
+     * @param waitMs the time (in milliseconds) to wait
+     * @return true if the wait is taken over by the caller; false if current thread should wait by itself
+     */
+    public static boolean defer(long waitMs) {
+        DelayScope scope = DELAY_HOLDER.get();
+        if (scope == null) {
+            return false;
+        }
+        scope.update(waitMs);
+        return true;
+    }
+
+    private static final class DelayScope {
+
+        private final DelayScope outer;
+        private long delay;
+
+        DelayScope(DelayScope outer) {
+            this.outer = outer;
+        }
+
+        void update(long waitMs) {
+            if (waitMs > delay) {
+                delay = waitMs;
+            }
+        }
+    }
+
+    private QueueingDelayHolder() {}
+}
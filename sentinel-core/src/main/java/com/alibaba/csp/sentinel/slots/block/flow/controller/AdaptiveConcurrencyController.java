@@ -0,0 +1,113 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.slots.block.flow.controller;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.alibaba.csp.sentinel.node.Node;
+import com.alibaba.csp.sentinel.slots.block.GradientLimitEstimator;
+import com.alibaba.csp.sentinel.slots.block.flow.TrafficShapingController;
+import com.alibaba.csp.sentinel.util.TimeUtil;
+
+/**
+ * <p>Concurrency controller whose limit is estimated at runtime from the statistics of the node, rather than
+ * configured statically. The count of the rule is used as the upper bound of the limit.</p>
+ *
+ * <p>The limit is estimated by a {@link GradientLimitEstimator} (same as the adaptive mode of system rules):
+ * every {@link #UPDATE_INTERVAL_MS}, the average RT of the node in the last second is taken as the short RT,
+ * and the long RT averages over about {@link #LONG_WINDOW} updates. The limit is not updated when no request
+ * completed successfully in the last second.</p>
+ *
+ * @since 1.8.7
+ */
+public class AdaptiveConcurrencyController implements TrafficShapingController {
+
+    static final long UPDATE_INTERVAL_MS = 500;
+    static final int LONG_WINDOW = 100;
+
+    private static final int DEFAULT_MIN_LIMIT = 20;
+
+    private final AtomicLong lastUpdateTime;
+    private final AtomicInteger maxConcurrency = new AtomicInteger();
+
+    /**
+     * Only updated by the thread that wins the update of {@link #lastUpdateTime}.
+     */
+    private final GradientLimitEstimator estimator;
+
+    public AdaptiveConcurrencyController(double count) {
+        this((int)Math.min(DEFAULT_MIN_LIMIT, count), (int)count, TimeUtil.currentTimeMillis());
+    }
+
+    AdaptiveConcurrencyController(int minLimit, int maxLimit, long now) {
+        int max = Math.max(0, maxLimit);
+        this.estimator = new GradientLimitEstimator(Math.max(0, Math.min(minLimit, max)), max, LONG_WINDOW);
+        this.lastUpdateTime = new AtomicLong(now);
+    }
+
+    @Override
+    public boolean canPass(Node node, int acquireCount) {
+        return canPass(node, acquireCount, false);
+    }
+
+    @Override
+    public boolean canPass(Node node, int acquireCount, boolean prioritized) {
+        if (node == null) {
+            return true;
+        }
+        tryUpdate(node, TimeUtil.currentTimeMillis());
+        int concurrency = node.curThreadNum() + acquireCount;
+        if (concurrency > estimator.getLimit()) {
+            return false;
+        }
+        updateMax(concurrency);
+        return true;
+    }
+
+    void tryUpdate(Node node, long now) {
+        long last = lastUpdateTime.get();
+        if (now - last < UPDATE_INTERVAL_MS || !lastUpdateTime.compareAndSet(last, now)) {
+            return;
+        }
+        int windowMaxConcurrency = maxConcurrency.getAndSet(0);
+        if (node.successQps() <= 0) {
+            return;
+        }
+        updateLimit(node.avgRt(), windowMaxConcurrency);
+    }
+
+    void updateLimit(double shortRt, int windowMaxConcurrency) {
+        estimator.update(shortRt, windowMaxConcurrency);
+    }
+
+    private void updateMax(int value) {
+        while (true) {
+            int current = maxConcurrency.get();
+            if (value <= current || maxConcurrency.compareAndSet(current, value)) {
+                return;
+            }
+        }
+    }
+
+    public int getLimit() {
+        return estimator.getLimit();
+    }
+
+    public int getMaxLimit() {
+        return estimator.getMaxLimit();
+    }
+}
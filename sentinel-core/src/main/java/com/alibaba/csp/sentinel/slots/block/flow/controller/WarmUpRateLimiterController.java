@@ -18,6 +18,7 @@ package com.alibaba.csp.sentinel.slots.block.flow.controller;
 import java.util.concurrent.atomic.AtomicLong;
 
 import com.alibaba.csp.sentinel.node.Node;
+import com.alibaba.csp.sentinel.slots.block.flow.QueueingDelayHolder;
 import com.alibaba.csp.sentinel.util.TimeUtil;
 
 /**
@@ -41,6 +42,30 @@ public class WarmUpRateLimiterController extends WarmUpController {
 
     @Override
     public boolean canPass(Node node, int acquireCount, boolean prioritized) {
+        long waitTime = canPassAsync(node, acquireCount);
+        if (waitTime < 0) {
+            return false;
+        }
+        if (waitTime > 0 && !QueueingDelayHolder.defer(waitTime)) {
+            try {
+                Thread.sleep(waitTime);
+            } catch (InterruptedException e) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Reserve the pass of given count without blocking. Once the pass is reserved, the caller should go on
+     * after the returned wait time, rather than sleeping in current thread.
+     *
+     * @param node         resource node
+     * @param acquireCount count to acquire
+     * @return the time (in milliseconds) to wait before the request passes, or -1 if it should be blocked
+     * @since 1.8.7
+     */
+    public long canPassAsync(Node node, int acquireCount) {
         long previousQps = (long) node.previousPassQps();
         syncToken(previousQps);
 
@@ -62,27 +87,18 @@ public class WarmUpRateLimiterController extends WarmUpController {
 
         if (expectedTime <= currentTime) {
             latestPassedTime.set(currentTime);
-            return true;
-        } else {
-            long waitTime = costTime + latestPassedTime.get() - currentTime;
-            if (waitTime > timeoutInMs) {
-                return false;
-            } else {
-                long oldTime = latestPassedTime.addAndGet(costTime);
-                try {
-                    waitTime = oldTime - TimeUtil.currentTimeMillis();
-                    if (waitTime > timeoutInMs) {
-                        latestPassedTime.addAndGet(-costTime);
-                        return false;
-                    }
-                    if (waitTime > 0) {
-                        Thread.sleep(waitTime);
-                    }
-                    return true;
-                } catch (InterruptedException e) {
-                }
-            }
+            return 0;
+        }
+        long waitTime = costTime + latestPassedTime.get() - currentTime;
+        if (waitTime > timeoutInMs) {
+            return -1;
+        }
+        long oldTime = latestPassedTime.addAndGet(costTime);
+        waitTime = oldTime - TimeUtil.currentTimeMillis();
+        if (waitTime > timeoutInMs) {
+            latestPassedTime.addAndGet(-costTime);
+            return -1;
         }
-        return false;
+        return Math.max(waitTime, 0);
     }
 }
@@ -15,7 +15,6 @@
  */
 package com.alibaba.csp.sentinel.slots.clusterbuilder;
 
-import java.util.HashMap;
 import java.util.Map;
 
 import com.alibaba.csp.sentinel.Constants;
@@ -32,6 +31,7 @@ import com.alibaba.csp.sentinel.slotchain.ProcessorSlotChain;
 import com.alibaba.csp.sentinel.slotchain.ResourceWrapper;
 import com.alibaba.csp.sentinel.slotchain.StringResourceWrapper;
 import com.alibaba.csp.sentinel.spi.Spi;
+import com.alibaba.csp.sentinel.util.ConcurrentRegistry;
 
 /**
  * <p>
@@ -67,21 +67,18 @@ public class ClusterBuilderSlot extends AbstractLinkedProcessorSlot<DefaultNode>
      * in this map.
      * </p>
      * <p>
-     * The longer the application runs, the more stable this mapping will
-     * become. so we don't concurrent map but a lock. as this lock only happens
-     * at the very beginning while concurrent map will hold the lock all the time.
+     * The mapping is kept in a {@link ConcurrentRegistry}, so that lookups are lock-free
+     * and registering a resource no longer copies the whole map.
      * </p>
      *
      * <p>
      * 整体的意思分为三点：
      * 1）相同的资源是可能在不同的context的，所以进入entry方法的可能是同一个资源但是来自不同的context
      * 2）为了统计资源在不同的context的统计信息，所以所有的资源共享一个 {@link ClusterNode} 一个资源在一台机器中只有一个 ClusterNode
-     * 3）为什么不用 concurrent map 存 ClusterNode ，因为当项目越走到后面 clusterNodeMap 是趋于一个固定的值，那么其实只有前期会慢，后期会快
      * </P>
      */
-    private static volatile Map<ResourceWrapper, ClusterNode> clusterNodeMap = new HashMap<>();
-
-    private static final Object lock = new Object();
+    private static final ConcurrentRegistry<ResourceWrapper, ClusterNode> clusterNodeRegistry
+        = new ConcurrentRegistry<>();
 
     /**
      * 当前这个资源在所有的context中的统计信息的总和
@@ -93,17 +90,9 @@ public class ClusterBuilderSlot extends AbstractLinkedProcessorSlot<DefaultNode>
                       boolean prioritized, Object... args)
         throws Throwable {
         if (clusterNode == null) {
-            synchronized (lock) {
-                if (clusterNode == null) {
-                    // Create the cluster node.
-                    clusterNode = new ClusterNode(resourceWrapper.getName(), resourceWrapper.getResourceType());
-                    HashMap<ResourceWrapper, ClusterNode> newMap = new HashMap<>(Math.max(clusterNodeMap.size(), 16));
-                    newMap.putAll(clusterNodeMap);
-                    newMap.put(node.getId(), clusterNode);
-
-                    clusterNodeMap = newMap;
-                }
-            }
+            // Create the cluster node, or share the one already registered for the resource.
+            clusterNode = clusterNodeRegistry.getOrCreate(node.getId(),
+                k -> new ClusterNode(resourceWrapper.getName(), resourceWrapper.getResourceType()));
         }
 
         //设置当前资源在整个应用中被访问的数据统计
@@ -135,7 +124,7 @@ public class ClusterBuilderSlot extends AbstractLinkedProcessorSlot<DefaultNode>
      * @return the {@link ClusterNode}
      */
     public static ClusterNode getClusterNode(String id, EntryType type) {
-        return clusterNodeMap.get(new StringResourceWrapper(id, type));
+        return clusterNodeRegistry.get(new StringResourceWrapper(id, type));
     }
 
     /**
@@ -151,7 +140,7 @@ public class ClusterBuilderSlot extends AbstractLinkedProcessorSlot<DefaultNode>
         ClusterNode clusterNode = null;
 
         for (EntryType nodeType : EntryType.values()) {
-            clusterNode = clusterNodeMap.get(new StringResourceWrapper(id, nodeType));
+            clusterNode = clusterNodeRegistry.get(new StringResourceWrapper(id, nodeType));
             if (clusterNode != null) {
                 break;
             }
@@ -166,9 +155,33 @@ public class ClusterBuilderSlot extends AbstractLinkedProcessorSlot<DefaultNode>
      * DO NOT MODIFY the map returned.
      *
      * @return all {@link ClusterNode}s
+     * @deprecated modifying the returned map is still supported but deprecated, use
+     * {@link #removeClusterNode(ResourceWrapper)} or {@link #clearClusterNodes()} instead
      */
+    @Deprecated
     public static Map<ResourceWrapper, ClusterNode> getClusterNodeMap() {
-        return clusterNodeMap;
+        return clusterNodeRegistry.asMutableMap();
+    }
+
+    /**
+     * Remove all {@link ClusterNode}s. Only for internal test.
+     *
+     * @since 1.8.7
+     */
+    public static void clearClusterNodes() {
+        clusterNodeRegistry.clear();
+    }
+
+    /**
+     * Remove the {@link ClusterNode} of the resource, e.g. when the idle resource is reclaimed.
+     * Only for internal use.
+     *
+     * @param resourceWrapper target resource
+     * @return the removed {@link ClusterNode}, or null if absent
+     * @since 1.8.7
+     */
+    public static ClusterNode removeClusterNode(ResourceWrapper resourceWrapper) {
+        return clusterNodeRegistry.remove(resourceWrapper);
     }
 
     /**
@@ -176,7 +189,7 @@ public class ClusterBuilderSlot extends AbstractLinkedProcessorSlot<DefaultNode>
      * {@link SampleCountProperty#SAMPLE_COUNT} is changed.
      */
     public static void resetClusterNodes() {
-        for (ClusterNode node : clusterNodeMap.values()) {
+        for (ClusterNode node : clusterNodeRegistry.values()) {
             node.reset();
         }
     }
@@ -24,9 +24,7 @@ import com.alibaba.csp.sentinel.node.EntranceNode;
 import com.alibaba.csp.sentinel.slotchain.AbstractLinkedProcessorSlot;
 import com.alibaba.csp.sentinel.slotchain.ResourceWrapper;
 import com.alibaba.csp.sentinel.spi.Spi;
-
-import java.util.HashMap;
-import java.util.Map;
+import com.alibaba.csp.sentinel.util.ConcurrentRegistry;
 
 /**
  * </p>
@@ -136,7 +134,7 @@ public class NodeSelectorSlot extends AbstractLinkedProcessorSlot<Object> {
      * {@link DefaultNode}s of the same resource in different context.
      * 一个资源在不同Context数据的统计信息，因为NodeSelectorSlot不是单例的，一个资源对应一个NodeSelectorSlot
      */
-    private volatile Map<String, DefaultNode> map = new HashMap<String, DefaultNode>(10);
+    private final ConcurrentRegistry<String, DefaultNode> map = new ConcurrentRegistry<String, DefaultNode>(10);
 
     @Override
     public void entry(Context context, ResourceWrapper resourceWrapper, Object obj, int count, boolean prioritized, Object... args)
@@ -161,20 +159,13 @@ public class NodeSelectorSlot extends AbstractLinkedProcessorSlot<Object> {
          */
         DefaultNode node = map.get(context.getName());
         if (node == null) {
-            synchronized (this) {
-                node = map.get(context.getName());
-                if (node == null) {
-                    //创建资源在链路中的
-                    node = new DefaultNode(resourceWrapper, null);
-                    HashMap<String, DefaultNode> cacheMap = new HashMap<String, DefaultNode>(map.size());
-                    cacheMap.putAll(map);
-                    cacheMap.put(context.getName(), node);
-                    map = cacheMap;
-                    // Build invocation tree
-                    ((DefaultNode) context.getLastNode()).addChild(node);
-                }
-
-            }
+            node = map.getOrCreate(context.getName(), k -> {
+                //创建资源在链路中的
+                DefaultNode newNode = new DefaultNode(resourceWrapper, null);
+                // Build invocation tree
+                ((DefaultNode) context.getLastNode()).addChild(newNode);
+                return newNode;
+            });
         }
 
         context.setCurNode(node);
@@ -17,6 +17,7 @@ package com.alibaba.csp.sentinel.slots.statistic.base;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.atomic.AtomicIntegerArray;
 import java.util.concurrent.atomic.AtomicReferenceArray;
 import java.util.concurrent.locks.ReentrantLock;
 
@@ -67,6 +68,21 @@ public abstract class LeapArray<T> {
      */
     private final ReentrantLock updateLock = new ReentrantLock();
 
+    /**
+     * Whether deprecated buckets are swapped with a spare bucket claimed via CAS rather than
+     * reset in place under {@link #updateLock}.
+     */
+    private final boolean casReset;
+    /**
+     * Per-index rotation claims (1 if a thread is rotating the bucket), only used in CAS reset mode.
+     */
+    private final AtomicIntegerArray rotating;
+    /**
+     * Per-index spare buckets, i.e. the buckets replaced by the last rotation, only accessed by
+     * the thread holding the rotation claim of the index.
+     */
+    private final WindowWrap<T>[] spares;
+
     /**
      * The total bucket count is: {@code sampleCount = intervalInMs / windowLengthInMs}.
      *
@@ -74,6 +90,27 @@ public abstract class LeapArray<T> {
      * @param intervalInMs the total time interval of this {@link LeapArray} in milliseconds
      */
     public LeapArray(int sampleCount, int intervalInMs) {
+        this(sampleCount, intervalInMs, false);
+    }
+
+    /**
+     * <p>If {@code casReset} is enabled, a deprecated bucket is never reset in place. The thread claiming the
+     * rotation of the index via CAS prepares a spare bucket with {@link #resetWindowTo(WindowWrap, long)}
+     * before it is visible to other threads, and then publishes it. The replaced bucket becomes the spare of
+     * the next rotation, so it is left untouched for the threads still holding it during a whole interval,
+     * and no bucket is allocated once every index has rotated once. Threads losing the claim never allocate,
+     * they yield until the new bucket is published, like the threads losing the update lock.</p>
+     *
+     * <p>CAS reset is opted in by each subclass. Subclasses whose {@link #resetWindowTo(WindowWrap, long)} has
+     * side effects outside the given bucket must not enable it, as the spare bucket it is given was replaced
+     * an interval ago.</p>
+     *
+     * @param sampleCount  bucket count of the sliding window
+     * @param intervalInMs the total time interval of this {@link LeapArray} in milliseconds
+     * @param casReset     whether to replace deprecated buckets via CAS
+     * @since 1.8.7
+     */
+    protected LeapArray(int sampleCount, int intervalInMs, boolean casReset) {
         AssertUtil.isTrue(sampleCount > 0, "bucket count is invalid: " + sampleCount);
         AssertUtil.isTrue(intervalInMs > 0, "total time interval of the sliding window should be positive");
         AssertUtil.isTrue(intervalInMs % sampleCount == 0, "time span needs to be evenly divided");
@@ -84,6 +121,14 @@ public abstract class LeapArray<T> {
         this.sampleCount = sampleCount;
 
         this.array = new AtomicReferenceArray<>(sampleCount);
+        this.casReset = casReset;
+        this.rotating = casReset ? new AtomicIntegerArray(sampleCount) : null;
+        this.spares = casReset ? newWindowArray(sampleCount) : null;
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static <T> WindowWrap<T>[] newWindowArray(int length) {
+        return (WindowWrap<T>[])new WindowWrap[length];
     }
 
     /**
@@ -197,8 +242,17 @@ public abstract class LeapArray<T> {
                  *
                  * The update lock is conditional (tiny scope) and will take effect only when
                  * bucket is deprecated, so in most cases it won't lead to performance loss.
+                 *
+                 * In CAS reset mode, the thread claiming the rotation prepares the spare bucket privately
+                 * and swaps it in instead, while the other threads yield and get the new bucket in next round.
                  */
-                if (updateLock.tryLock()) {
+                if (casReset) {
+                    WindowWrap<T> window = rotate(idx, old, windowStart, timeMillis);
+                    if (window != null) {
+                        return window;
+                    }
+                    Thread.yield();
+                } else if (updateLock.tryLock()) {
                     try {
                         // Successfully get the update lock, now we reset the bucket.
                         return resetWindowTo(old, windowStart);
@@ -216,6 +270,29 @@ public abstract class LeapArray<T> {
         }
     }
 
+    private WindowWrap<T> rotate(int idx, WindowWrap<T> old, long windowStart, long timeMillis) {
+        if (!rotating.compareAndSet(idx, 0, 1)) {
+            return null;
+        }
+        try {
+            // Re-read after claiming, as the bucket may have just been rotated by another thread.
+            if (array.get(idx) != old) {
+                return null;
+            }
+            WindowWrap<T> window = spares[idx];
+            if (window == null) {
+                // Only allocated on the first rotation of the index.
+                window = new WindowWrap<T>(windowLengthInMs, old.windowStart(), newEmptyBucket(timeMillis));
+            }
+            window = resetWindowTo(window, windowStart);
+            array.set(idx, window);
+            spares[idx] = old;
+            return window;
+        } finally {
+            rotating.set(idx, 0);
+        }
+    }
+
     /**
      * Get the previous bucket item before provided timestamp.
      *
@@ -17,6 +17,7 @@ package com.alibaba.csp.sentinel.slots.statistic.data;
 
 import com.alibaba.csp.sentinel.config.SentinelConfig;
 import com.alibaba.csp.sentinel.slots.statistic.MetricEvent;
+import java.util.concurrent.atomic.AtomicReferenceFieldUpdater;
 import java.util.concurrent.atomic.LongAdder;
 
 /**
@@ -27,15 +28,51 @@ import java.util.concurrent.atomic.LongAdder;
  */
 public class MetricBucket {
 
+    private static final AtomicReferenceFieldUpdater<MetricBucket, RtHistogram> RT_HISTOGRAM_UPDATER =
+        AtomicReferenceFieldUpdater.newUpdater(MetricBucket.class, RtHistogram.class, "rtHistogram");
+
     private final LongAdder[] counters;
 
     private volatile long minRt;
 
+    private final boolean rtHistogramEnabled;
+    /**
+     * Lazily created on the first RT recorded, and reused when the bucket is reset.
+     */
+    private volatile RtHistogram rtHistogram;
+
     public MetricBucket() {
-        MetricEvent[] events = MetricEvent.values();
-        this.counters = new LongAdder[events.length];
-        for (MetricEvent event : events) {
-            counters[event.ordinal()] = new LongAdder();
+        this(true);
+    }
+
+    /**
+     * Create a bucket. If {@code useAdders} is false, no {@link LongAdder} is allocated and
+     * the subclass is responsible for keeping the event counters, so it must override
+     * {@link #get(MetricEvent)}, {@link #add(MetricEvent, long)}, {@link #reset()} and
+     * {@link #reset(MetricBucket)}.
+     *
+     * @param useAdders whether to keep the event counters in one {@link LongAdder} per event
+     * @since 1.8.7
+     */
+    protected MetricBucket(boolean useAdders) {
+        this(useAdders, MetricBucketProvider.isRtHistogramEnabled());
+    }
+
+    /**
+     * @param useAdders          whether to keep the event counters in one {@link LongAdder} per event
+     * @param rtHistogramEnabled whether to record RT into a {@link RtHistogram}
+     * @since 1.8.7
+     */
+    protected MetricBucket(boolean useAdders, boolean rtHistogramEnabled) {
+        this.rtHistogramEnabled = rtHistogramEnabled;
+        if (useAdders) {
+            MetricEvent[] events = MetricEvent.values();
+            this.counters = new LongAdder[events.length];
+            for (MetricEvent event : events) {
+                counters[event.ordinal()] = new LongAdder();
+            }
+        } else {
+            this.counters = null;
         }
         initMinRt();
     }
@@ -46,13 +83,21 @@ public class MetricBucket {
             counters[event.ordinal()].add(bucket.get(event));
         }
         initMinRt();
+        resetRtHistogram();
         return this;
     }
 
-    private void initMinRt() {
+    protected void initMinRt() {
         this.minRt = SentinelConfig.statisticMaxRt();
     }
 
+    protected void resetRtHistogram() {
+        RtHistogram histogram = rtHistogram;
+        if (histogram != null) {
+            histogram.reset();
+        }
+    }
+
     /**
      * Reset the adders.
      *
@@ -63,6 +108,7 @@ public class MetricBucket {
             counters[event.ordinal()].reset();
         }
         initMinRt();
+        resetRtHistogram();
         return this;
     }
 
@@ -99,6 +145,14 @@ public class MetricBucket {
         return minRt;
     }
 
+    /**
+     * @return the RT histogram of the bucket, or null if RT histograms are disabled or no RT is recorded yet
+     * @since 1.8.7
+     */
+    public RtHistogram rtHistogram() {
+        return rtHistogram;
+    }
+
     public long success() {
         return get(MetricEvent.SUCCESS);
     }
@@ -130,6 +184,24 @@ public class MetricBucket {
         if (rt < minRt) {
             minRt = rt;
         }
+
+        RtHistogram histogram = rtHistogram;
+        if (histogram == null) {
+            if (!rtHistogramEnabled) {
+                return;
+            }
+            histogram = initRtHistogram();
+        }
+        histogram.record(rt);
+    }
+
+    private RtHistogram initRtHistogram() {
+        RtHistogram histogram = rtHistogram;
+        if (histogram == null) {
+            RT_HISTOGRAM_UPDATER.compareAndSet(this, null, new RtHistogram(SentinelConfig.statisticMaxRt()));
+            histogram = rtHistogram;
+        }
+        return histogram;
     }
 
     @Override
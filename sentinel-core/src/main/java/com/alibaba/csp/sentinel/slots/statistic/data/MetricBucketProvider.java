@@ -0,0 +1,59 @@
+/*
+ * Copyright 1999-2022 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.slots.statistic.data;
+
+import com.alibaba.csp.sentinel.config.SentinelConfig;
+import com.alibaba.csp.sentinel.log.RecordLog;
+
+/**
+ * A provider for creating metric buckets of the type configured by
+ * {@link SentinelConfig#STATISTIC_BUCKET_TYPE}.
+ *
+ * @since 1.8.7
+ */
+public final class MetricBucketProvider {
+
+    private static final boolean STRIPED = SentinelConfig.STATISTIC_BUCKET_TYPE_STRIPED.equals(
+        SentinelConfig.statisticBucketType());
+    private static final boolean RT_HISTOGRAM_ENABLED = SentinelConfig.statisticRtHistogramEnabled();
+
+    static {
+        RecordLog.info("[MetricBucketProvider] Metric bucket type resolved: {}",
+            STRIPED ? SentinelConfig.STATISTIC_BUCKET_TYPE_STRIPED : SentinelConfig.STATISTIC_BUCKET_TYPE_ADDER);
+        if (RT_HISTOGRAM_ENABLED) {
+            RecordLog.info("[MetricBucketProvider] RT histogram enabled");
+        }
+    }
+
+    /**
+     * Create a new metric bucket in initial state.
+     *
+     * @return new metric bucket
+     */
+    public static MetricBucket newBucket() {
+        return STRIPED ? new StripedMetricBucket() : new MetricBucket();
+    }
+
+    /**
+     * @return whether RT of the metric buckets is recorded into histograms
+     * @see SentinelConfig#STATISTIC_RT_HISTOGRAM
+     */
+    public static boolean isRtHistogramEnabled() {
+        return RT_HISTOGRAM_ENABLED;
+    }
+
+    private MetricBucketProvider() {}
+}
@@ -0,0 +1,161 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.slots.statistic.data;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * <p>A lock-free log-linear histogram of response time (in milliseconds), in the way of HdrHistogram.</p>
+ *
+ * <p>Values below {@value #SUB_BUCKETS} are counted exactly. Every power-of-two range above is split into
+ * {@value #SUB_BUCKETS} linear sub-buckets, so the relative error of a reported value is at most 12.5%.
+ * Values above the max RT are counted in the last bucket. Recording is a single atomic increment
+ * on a preallocated array, so it neither locks nor allocates.</p>
+ *
+ * @since 1.8.7
+ */
+public class RtHistogram {
+
+    static final int SUB_BUCKET_BITS = 3;
+    static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+
+    private final long maxRt;
+    private final AtomicLongArray counts;
+
+    public RtHistogram(long maxRt) {
+        this.maxRt = Math.max(maxRt, 1);
+        this.counts = new AtomicLongArray(indexOf(this.maxRt) + 1);
+    }
+
+    /**
+     * Record a response time.
+     *
+     * @param rt response time in milliseconds
+     */
+    public void record(long rt) {
+        counts.incrementAndGet(indexOf(Math.max(0, Math.min(rt, maxRt))));
+    }
+
+    public void reset() {
+        for (int i = 0; i < counts.length(); i++) {
+            counts.set(i, 0);
+        }
+    }
+
+    public long totalCount() {
+        long total = 0;
+        for (int i = 0; i < counts.length(); i++) {
+            total += counts.get(i);
+        }
+        return total;
+    }
+
+    /**
+     * Get the RT at given percentile of the recorded values.
+     *
+     * @param percentile percentile in (0, 100], e.g. 99.9
+     * @return the (upper bound of) RT at the percentile, or 0 if nothing is recorded
+     */
+    public long percentile(double percentile) {
+        long total = totalCount();
+        if (total == 0) {
+            return 0;
+        }
+        long rank = rankOf(percentile, total);
+        long seen = 0;
+        int last = 0;
+        for (int i = 0; i < counts.length(); i++) {
+            long count = counts.get(i);
+            if (count == 0) {
+                continue;
+            }
+            seen += count;
+            last = i;
+            if (seen >= rank) {
+                break;
+            }
+        }
+        return Math.min(valueOf(last), maxRt);
+    }
+
+    /**
+     * Get the RT at given percentile of the values recorded in all histograms, e.g. the histograms of all
+     * valid windows of a sliding window. Histograms could be null.
+     *
+     * @param histograms histograms with the same max RT
+     * @param percentile percentile in (0, 100], e.g. 99.9
+     * @return the (upper bound of) RT at the percentile, or 0 if nothing is recorded
+     */
+    public static long percentile(List<RtHistogram> histograms, double percentile) {
+        long total = 0;
+        int length = 0;
+        long maxRt = 0;
+        for (RtHistogram histogram : histograms) {
+            if (histogram != null) {
+                total += histogram.totalCount();
+                length = Math.max(length, histogram.counts.length());
+                maxRt = Math.max(maxRt, histogram.maxRt);
+            }
+        }
+        if (total == 0) {
+            return 0;
+        }
+        long rank = rankOf(percentile, total);
+        long seen = 0;
+        int last = 0;
+        for (int i = 0; i < length && seen < rank; i++) {
+            long count = 0;
+            for (RtHistogram histogram : histograms) {
+                if (histogram != null && i < histogram.counts.length()) {
+                    count += histogram.counts.get(i);
+                }
+            }
+            if (count > 0) {
+                seen += count;
+                last = i;
+            }
+        }
+        return Math.min(valueOf(last), maxRt);
+    }
+
+    private static long rankOf(double percentile, long total) {
+        double p = Math.max(0, Math.min(100, percentile));
+        return Math.max(1, (long)Math.ceil(p / 100 * total));
+    }
+
+    static int indexOf(long value) {
+        if (value < SUB_BUCKETS) {
+            return (int)value;
+        }
+        int exponent = 63 - Long.numberOfLeadingZeros(value);
+        int sub = (int)(value >>> (exponent - SUB_BUCKET_BITS)) & (SUB_BUCKETS - 1);
+        return (exponent - SUB_BUCKET_BITS + 1) * SUB_BUCKETS + sub;
+    }
+
+    /**
+     * @return the highest value counted in the bucket of given index
+     */
+    static long valueOf(int index) {
+        if (index < SUB_BUCKETS) {
+            return index;
+        }
+        int exponent = index / SUB_BUCKETS + SUB_BUCKET_BITS - 1;
+        long sub = index & (SUB_BUCKETS - 1);
+        long width = 1L << (exponent - SUB_BUCKET_BITS);
+        return (1L << exponent) + (sub + 1) * width - 1;
+    }
+}
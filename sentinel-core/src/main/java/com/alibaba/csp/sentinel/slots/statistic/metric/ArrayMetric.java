@@ -23,6 +23,7 @@ import com.alibaba.csp.sentinel.node.metric.MetricNode;
 import com.alibaba.csp.sentinel.slots.statistic.MetricEvent;
 import com.alibaba.csp.sentinel.slots.statistic.base.LeapArray;
 import com.alibaba.csp.sentinel.slots.statistic.data.MetricBucket;
+import com.alibaba.csp.sentinel.slots.statistic.data.RtHistogram;
 import com.alibaba.csp.sentinel.slots.statistic.base.WindowWrap;
 import com.alibaba.csp.sentinel.slots.statistic.metric.occupy.OccupiableBucketLeapArray;
 import com.alibaba.csp.sentinel.util.function.Predicate;
@@ -152,6 +153,17 @@ public class ArrayMetric implements Metric {
         return Math.max(1, rt);
     }
 
+    @Override
+    public double rtPercentile(double percentile) {
+        data.currentWindow();
+        List<MetricBucket> list = data.values();
+        List<RtHistogram> histograms = new ArrayList<>(list.size());
+        for (MetricBucket window : list) {
+            histograms.add(window.rtHistogram());
+        }
+        return RtHistogram.percentile(histograms, percentile);
+    }
+
     @Override
     public List<MetricNode> details() {
         List<MetricNode> details = new ArrayList<>();
@@ -201,6 +213,13 @@ public class ArrayMetric implements Metric {
         }
         node.setTimestamp(wrap.windowStart());
         node.setOccupiedPassQps(wrap.value().occupiedPass());
+        RtHistogram histogram = wrap.value().rtHistogram();
+        if (histogram != null) {
+            node.setP50Rt(histogram.percentile(50));
+            node.setP90Rt(histogram.percentile(90));
+            node.setP99Rt(histogram.percentile(99));
+            node.setP999Rt(histogram.percentile(99.9));
+        }
         return node;
     }
 
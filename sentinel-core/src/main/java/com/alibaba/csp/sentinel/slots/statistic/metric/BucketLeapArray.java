@@ -15,9 +15,11 @@
  */
 package com.alibaba.csp.sentinel.slots.statistic.metric;
 
+import com.alibaba.csp.sentinel.config.SentinelConfig;
 import com.alibaba.csp.sentinel.slots.statistic.base.LeapArray;
 import com.alibaba.csp.sentinel.slots.statistic.base.WindowWrap;
 import com.alibaba.csp.sentinel.slots.statistic.data.MetricBucket;
+import com.alibaba.csp.sentinel.slots.statistic.data.MetricBucketProvider;
 
 /**
  * The fundamental data structure for metric statistics in a time span.
@@ -29,12 +31,13 @@ import com.alibaba.csp.sentinel.slots.statistic.data.MetricBucket;
 public class BucketLeapArray extends LeapArray<MetricBucket> {
 
     public BucketLeapArray(int sampleCount, int intervalInMs) {
-        super(sampleCount, intervalInMs);
+        // Buckets are reset without side effects, so they may be replaced via CAS.
+        super(sampleCount, intervalInMs, SentinelConfig.statisticWindowCasReset());
     }
 
     @Override
     public MetricBucket newEmptyBucket(long time) {
-        return new MetricBucket();
+        return MetricBucketProvider.newBucket();
     }
 
     @Override
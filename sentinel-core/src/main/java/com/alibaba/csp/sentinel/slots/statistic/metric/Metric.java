@@ -78,6 +78,18 @@ public interface Metric extends DebugSupport {
      */
     long minRt();
 
+    /**
+     * Get the RT at given percentile, if RT histograms are enabled.
+     *
+     * @param percentile percentile in (0, 100], e.g. 99.9
+     * @return the RT at the percentile, 0 if no RT is recorded in histograms, or -1 if the metric doesn't
+     * support percentiles
+     * @since 1.8.7
+     */
+    default double rtPercentile(double percentile) {
+        return -1;
+    }
+
     /**
      * Get aggregated metric nodes of all resources.
      *
@@ -0,0 +1,161 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.slots.system;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.alibaba.csp.sentinel.slots.block.GradientLimitEstimator;
+import com.alibaba.csp.sentinel.util.AssertUtil;
+import com.alibaba.csp.sentinel.util.TimeUtil;
+
+/**
+ * <p>A lock-free concurrency limiter whose limit is estimated continuously from the gradient of the response
+ * time by a {@link GradientLimitEstimator}.</p>
+ *
+ * <p>Completed requests are sampled into windows of at least {@link #MIN_WINDOW_MS} and
+ * {@link #MIN_WINDOW_SAMPLES} samples. When a window closes, the average RT of the window is taken as the
+ * short RT, and the long RT averages over about {@link #LONG_WINDOW} windows.</p>
+ *
+ * <p>A limiter is kept for each inbound resource by {@link SystemRuleManager}, and resized rather than replaced
+ * when rules are reloaded, so that in-flight requests are released to the limiter they were acquired from.</p>
+ *
+ * @since 1.8.7
+ */
+public class AdaptiveConcurrencyLimiter {
+
+    static final long MIN_WINDOW_MS = 100;
+    static final int MIN_WINDOW_SAMPLES = 10;
+    static final int LONG_WINDOW = 600;
+
+    private static final int DEFAULT_MIN_LIMIT = 20;
+
+    private final AtomicInteger inflight = new AtomicInteger();
+
+    private final AtomicLong windowStart;
+    private final AtomicLong windowSamples = new AtomicLong();
+    private final AtomicLong windowRtSum = new AtomicLong();
+    private final AtomicInteger windowMaxInflight = new AtomicInteger();
+
+    private final int minLimit;
+    /**
+     * Only updated by the thread closing a window, replaced when resized.
+     */
+    private volatile GradientLimitEstimator estimator;
+
+    public AdaptiveConcurrencyLimiter(int maxLimit) {
+        this(DEFAULT_MIN_LIMIT, maxLimit, TimeUtil.currentTimeMillis());
+    }
+
+    AdaptiveConcurrencyLimiter(int minLimit, int maxLimit, long now) {
+        AssertUtil.isTrue(minLimit > 0 && maxLimit > 0, "invalid concurrency limit range");
+        this.minLimit = minLimit;
+        this.estimator = new GradientLimitEstimator(Math.min(minLimit, maxLimit), maxLimit, LONG_WINDOW);
+        this.windowStart = new AtomicLong(now);
+    }
+
+    /**
+     * Change the max limit, the limit is estimated again from the min limit while in-flight requests are kept.
+     *
+     * @param maxLimit new max limit
+     */
+    void setMaxLimit(int maxLimit) {
+        AssertUtil.isTrue(maxLimit > 0, "invalid concurrency limit range");
+        if (maxLimit != estimator.getMaxLimit()) {
+            this.estimator = new GradientLimitEstimator(Math.min(minLimit, maxLimit), maxLimit, LONG_WINDOW);
+        }
+    }
+
+    /**
+     * Try to acquire an in-flight slot.
+     *
+     * @return true if acquired, false if the in-flight requests reach the limit
+     */
+    public boolean tryAcquire() {
+        while (true) {
+            int current = inflight.get();
+            if (current >= estimator.getLimit()) {
+                return false;
+            }
+            if (inflight.compareAndSet(current, current + 1)) {
+                updateMax(windowMaxInflight, current + 1);
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Release an in-flight slot acquired by {@link #tryAcquire()}. Nothing is released if no slot is in flight,
+     * e.g. the request was acquired before the limiter was created by reloading rules.
+     *
+     * @param rt  response time of the request in milliseconds, or negative if the request didn't complete
+     *            (e.g. blocked afterwards) and should not be sampled
+     * @param now current time in milliseconds
+     */
+    public void release(long rt, long now) {
+        while (true) {
+            int current = inflight.get();
+            if (current <= 0) {
+                return;
+            }
+            if (inflight.compareAndSet(current, current - 1)) {
+                break;
+            }
+        }
+        if (rt >= 0) {
+            sample(rt, now);
+        }
+    }
+
+    private void sample(long rt, long now) {
+        windowRtSum.addAndGet(rt);
+        long samples = windowSamples.incrementAndGet();
+        long start = windowStart.get();
+        if (samples >= MIN_WINDOW_SAMPLES && now - start >= MIN_WINDOW_MS && windowStart.compareAndSet(start, now)) {
+            long count = windowSamples.getAndSet(0);
+            long rtSum = windowRtSum.getAndSet(0);
+            int maxInflight = windowMaxInflight.getAndSet(inflight.get());
+            if (count > 0) {
+                estimator.update((double)rtSum / count, maxInflight);
+            }
+        }
+    }
+
+    private static void updateMax(AtomicInteger max, int value) {
+        while (true) {
+            int current = max.get();
+            if (value <= current || max.compareAndSet(current, value)) {
+                return;
+            }
+        }
+    }
+
+    public int getLimit() {
+        return estimator.getLimit();
+    }
+
+    public int getInflight() {
+        return inflight.get();
+    }
+
+    public int getMaxLimit() {
+        return estimator.getMaxLimit();
+    }
+
+    double getLongRt() {
+        return estimator.getLongRt();
+    }
+}
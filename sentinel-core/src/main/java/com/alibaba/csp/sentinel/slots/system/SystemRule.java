@@ -48,6 +48,11 @@ public class SystemRule extends AbstractRule {
     private double qps = -1;
     private long avgRt = -1;
     private long maxThread = -1;
+    /**
+     * Whether to limit the concurrency of inbound traffic adaptively, see {@link AdaptiveConcurrencyLimiter}.
+     */
+    private boolean adaptiveConcurrency = false;
+    private int maxConcurrency = -1;
 
     public double getQps() {
         return qps;
@@ -131,6 +136,37 @@ public class SystemRule extends AbstractRule {
         this.highestCpuUsage = highestCpuUsage;
     }
 
+    public boolean isAdaptiveConcurrency() {
+        return adaptiveConcurrency;
+    }
+
+    /**
+     * Enable the adaptive concurrency limit of inbound traffic. The limit of concurrent (in-flight) requests
+     * is estimated continuously from the gradient of the response time, so that requests start to be blocked
+     * within milliseconds once they queue up, rather than waiting for the system load to rise.
+     *
+     * @param adaptiveConcurrency whether to enable the adaptive concurrency limit
+     * @since 1.8.7
+     */
+    public void setAdaptiveConcurrency(boolean adaptiveConcurrency) {
+        this.adaptiveConcurrency = adaptiveConcurrency;
+    }
+
+    public int getMaxConcurrency() {
+        return maxConcurrency;
+    }
+
+    /**
+     * Set the upper bound of the adaptive concurrency limit.
+     *
+     * @param maxConcurrency upper bound of the adaptive concurrency limit, values <= 0 mean the default
+     *                       ({@link SystemRuleManager#DEFAULT_MAX_CONCURRENCY})
+     * @since 1.8.7
+     */
+    public void setMaxConcurrency(int maxConcurrency) {
+        this.maxConcurrency = maxConcurrency;
+    }
+
     @Override
     public boolean equals(Object o) {
         if (this == o) {
@@ -159,6 +195,12 @@ public class SystemRule extends AbstractRule {
         if (avgRt != that.avgRt) {
             return false;
         }
+        if (adaptiveConcurrency != that.adaptiveConcurrency) {
+            return false;
+        }
+        if (maxConcurrency != that.maxConcurrency) {
+            return false;
+        }
         return maxThread == that.maxThread;
     }
 
@@ -177,6 +219,8 @@ public class SystemRule extends AbstractRule {
 
         result = 31 * result + (int)(avgRt ^ (avgRt >>> 32));
         result = 31 * result + (int)(maxThread ^ (maxThread >>> 32));
+        result = 31 * result + (adaptiveConcurrency ? 1 : 0);
+        result = 31 * result + maxConcurrency;
         return result;
     }
 
@@ -188,6 +232,8 @@ public class SystemRule extends AbstractRule {
             ", qps=" + qps +
             ", avgRt=" + avgRt +
             ", maxThread=" + maxThread +
+            ", adaptiveConcurrency=" + adaptiveConcurrency +
+            ", maxConcurrency=" + maxConcurrency +
             "}";
     }
 }
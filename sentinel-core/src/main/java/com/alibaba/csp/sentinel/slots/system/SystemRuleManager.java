@@ -17,6 +17,8 @@ package com.alibaba.csp.sentinel.slots.system;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.Executors;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
@@ -31,6 +33,7 @@ import com.alibaba.csp.sentinel.property.SentinelProperty;
 import com.alibaba.csp.sentinel.property.SimplePropertyListener;
 import com.alibaba.csp.sentinel.slotchain.ResourceWrapper;
 import com.alibaba.csp.sentinel.slots.block.BlockException;
+import com.alibaba.csp.sentinel.slots.block.RuleVersion;
 
 /**
  * <p>
@@ -77,6 +80,11 @@ public final class SystemRuleManager {
     private static volatile double qps = Double.MAX_VALUE;
     private static volatile long maxRt = Long.MAX_VALUE;
     private static volatile long maxThread = Long.MAX_VALUE;
+    private static volatile int maxConcurrency = Integer.MAX_VALUE;
+    /**
+     * The adaptive concurrency limiters of inbound resources, created on first use (resource name -> limiter).
+     */
+    private static final Map<String, AdaptiveConcurrencyLimiter> concurrencyLimiters = new ConcurrentHashMap<>();
     /**
      * mark whether the threshold are set by user.
      */
@@ -85,6 +93,12 @@ public final class SystemRuleManager {
     private static volatile boolean qpsIsSet = false;
     private static volatile boolean maxRtIsSet = false;
     private static volatile boolean maxThreadIsSet = false;
+    private static volatile boolean adaptiveConcurrencyIsSet = false;
+
+    /**
+     * Default upper bound of the adaptive concurrency limit.
+     */
+    public static final int DEFAULT_MAX_CONCURRENCY = 1000;
 
     private static AtomicBoolean checkSystemStatus = new AtomicBoolean(false);
 
@@ -169,6 +183,13 @@ public final class SystemRuleManager {
             result.add(qpsRule);
         }
 
+        if (adaptiveConcurrencyIsSet) {
+            SystemRule concurrencyRule = new SystemRule();
+            concurrencyRule.setAdaptiveConcurrency(true);
+            concurrencyRule.setMaxConcurrency(maxConcurrency);
+            result.add(concurrencyRule);
+        }
+
         return result;
     }
 
@@ -184,6 +205,20 @@ public final class SystemRuleManager {
         return maxThread;
     }
 
+    /**
+     * Get the adaptive concurrency limiter of the inbound resource.
+     *
+     * @param resourceWrapper the resource
+     * @return the limiter, or null if adaptive concurrency limiting is not enabled or not applied to the resource
+     * @since 1.8.7
+     */
+    public static AdaptiveConcurrencyLimiter getConcurrencyLimiter(ResourceWrapper resourceWrapper) {
+        if (resourceWrapper == null || resourceWrapper.getEntryType() != EntryType.IN) {
+            return null;
+        }
+        return concurrencyLimiters.get(resourceWrapper.getName());
+    }
+
     static class SystemPropertyListener extends SimplePropertyListener<List<SystemRule>> {
 
         @Override
@@ -197,19 +232,30 @@ public final class SystemRuleManager {
             } else {
                 checkSystemStatus.set(false);
             }
+            if (adaptiveConcurrencyIsSet) {
+                // Resize rather than replace, so that in-flight requests are released to the same limiters.
+                for (AdaptiveConcurrencyLimiter limiter : concurrencyLimiters.values()) {
+                    limiter.setMaxLimit(maxConcurrency);
+                }
+            } else {
+                concurrencyLimiters.clear();
+            }
 
             RecordLog.info(String.format("[SystemRuleManager] Current system check status: %s, "
                     + "highestSystemLoad: %e, "
                     + "highestCpuUsage: %e, "
                     + "maxRt: %d, "
                     + "maxThread: %d, "
-                    + "maxQps: %e",
+                    + "maxQps: %e, "
+                    + "adaptiveConcurrency: %s",
                 checkSystemStatus.get(),
                 highestSystemLoad,
                 highestCpuUsage,
                 maxRt,
                 maxThread,
-                qps));
+                qps,
+                adaptiveConcurrencyIsSet ? "max " + maxConcurrency : "off"));
+            RuleVersion.increase();
         }
 
         protected void restoreSetting() {
@@ -221,12 +267,14 @@ public final class SystemRuleManager {
             maxRt = Long.MAX_VALUE;
             maxThread = Long.MAX_VALUE;
             qps = Double.MAX_VALUE;
+            maxConcurrency = Integer.MAX_VALUE;
 
             highestSystemLoadIsSet = false;
             highestCpuUsageIsSet = false;
             maxRtIsSet = false;
             maxThreadIsSet = false;
             qpsIsSet = false;
+            adaptiveConcurrencyIsSet = false;
         }
 
     }
@@ -281,6 +329,13 @@ public final class SystemRuleManager {
             checkStatus = true;
         }
 
+        if (rule.isAdaptiveConcurrency()) {
+            int max = rule.getMaxConcurrency() > 0 ? rule.getMaxConcurrency() : DEFAULT_MAX_CONCURRENCY;
+            maxConcurrency = Math.min(maxConcurrency, max);
+            adaptiveConcurrencyIsSet = true;
+            checkStatus = true;
+        }
+
         checkSystemStatus.set(checkStatus);
 
     }
@@ -337,6 +392,33 @@ public final class SystemRuleManager {
         }
     }
 
+    /**
+     * Acquire an in-flight slot of the adaptive concurrency limiter of the resource. Only inbound traffic
+     * will be limited, each resource by its own limiter. The slot should be released to the limiter of the
+     * resource when the request completes.
+     *
+     * @param resourceWrapper the resource
+     * @return the limiter the slot is acquired from, or null if adaptive concurrency limiting is not applied
+     * @throws BlockException when the in-flight requests reach the concurrency limit
+     * @since 1.8.7
+     */
+    public static AdaptiveConcurrencyLimiter acquireConcurrency(ResourceWrapper resourceWrapper)
+        throws BlockException {
+        if (!adaptiveConcurrencyIsSet || resourceWrapper == null || resourceWrapper.getEntryType() != EntryType.IN
+            || !checkSystemStatus.get()) {
+            return null;
+        }
+        AdaptiveConcurrencyLimiter limiter = concurrencyLimiters.get(resourceWrapper.getName());
+        if (limiter == null) {
+            limiter = concurrencyLimiters.computeIfAbsent(resourceWrapper.getName(),
+                k -> new AdaptiveConcurrencyLimiter(maxConcurrency));
+        }
+        if (!limiter.tryAcquire()) {
+            throw new SystemBlockException(resourceWrapper.getName(), "concurrency");
+        }
+        return limiter;
+    }
+
     private static boolean checkBbr(int currentThread) {
         if (currentThread > 1 &&
             currentThread > Constants.ENTRY_NODE.maxSuccessQps() * Constants.ENTRY_NODE.minRt() / 1000) {
@@ -16,12 +16,16 @@
 package com.alibaba.csp.sentinel.slots.system;
 
 import com.alibaba.csp.sentinel.Constants;
+import com.alibaba.csp.sentinel.Entry;
 import com.alibaba.csp.sentinel.context.Context;
 import com.alibaba.csp.sentinel.node.DefaultNode;
 import com.alibaba.csp.sentinel.slotchain.AbstractLinkedProcessorSlot;
 import com.alibaba.csp.sentinel.slotchain.ProcessorSlot;
 import com.alibaba.csp.sentinel.slotchain.ResourceWrapper;
+import com.alibaba.csp.sentinel.slotchain.RuleCheckingSlot;
+import com.alibaba.csp.sentinel.slots.block.BlockException;
 import com.alibaba.csp.sentinel.spi.Spi;
+import com.alibaba.csp.sentinel.util.TimeUtil;
 
 /**
  * A {@link ProcessorSlot} that dedicates to {@link SystemRule} checking.
@@ -30,17 +34,44 @@ import com.alibaba.csp.sentinel.spi.Spi;
  * @author leyou
  */
 @Spi(order = Constants.ORDER_SYSTEM_SLOT)
-public class SystemSlot extends AbstractLinkedProcessorSlot<DefaultNode> {
+public class SystemSlot extends AbstractLinkedProcessorSlot<DefaultNode> implements RuleCheckingSlot {
+
+    @Override
+    public boolean hasRules(String resourceName) {
+        // System rules apply to all inbound resources, and the entry type may vary between entries.
+        return SystemRuleManager.getCheckSystemStatus();
+    }
 
     @Override
     public void entry(Context context, ResourceWrapper resourceWrapper, DefaultNode node, int count,
                       boolean prioritized, Object... args) throws Throwable {
         SystemRuleManager.checkSystem(resourceWrapper, count);
-        fireEntry(context, resourceWrapper, node, count, prioritized, args);
+        AdaptiveConcurrencyLimiter limiter = SystemRuleManager.acquireConcurrency(resourceWrapper);
+        if (limiter == null) {
+            fireEntry(context, resourceWrapper, node, count, prioritized, args);
+            return;
+        }
+        try {
+            fireEntry(context, resourceWrapper, node, count, prioritized, args);
+        } catch (BlockException e) {
+            // Blocked by the following slots, so the request didn't complete.
+            limiter.release(-1, TimeUtil.currentTimeMillis());
+            throw e;
+        }
     }
 
     @Override
     public void exit(Context context, ResourceWrapper resourceWrapper, int count, Object... args) {
+        Entry entry = context.getCurEntry();
+        // Entries blocked by this slot never acquired, and the ones blocked by the following slots are released.
+        if (entry != null && entry.getBlockError() == null) {
+            AdaptiveConcurrencyLimiter limiter = SystemRuleManager.getConcurrencyLimiter(resourceWrapper);
+            if (limiter != null) {
+                long now = TimeUtil.currentTimeMillis();
+                long completeTime = entry.getCompleteTimestamp() > 0 ? entry.getCompleteTimestamp() : now;
+                limiter.release(completeTime - entry.getCreateTimestamp(), now);
+            }
+        }
         fireExit(context, resourceWrapper, count, args);
     }
 
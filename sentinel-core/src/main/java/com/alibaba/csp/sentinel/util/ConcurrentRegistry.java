@@ -0,0 +1,268 @@
+/*
+ * Copyright 1999-2022 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.util;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.alibaba.csp.sentinel.util.function.Function;
+
+/**
+ * <p>A registry for objects created once per key (e.g. slot chains and nodes of resources).</p>
+ *
+ * <p>Lookups are lock-free reads of a {@link ConcurrentHashMap}. Registering a new key locks
+ * only a single bin of the map and never copies existing entries, so registering N keys costs
+ * O(N) in total rather than O(N^2) as with a copy-on-write map.</p>
+ *
+ * @param <K> type of the key
+ * @param <V> type of the registered value
+ * @since 1.8.7
+ */
+public final class ConcurrentRegistry<K, V> {
+
+    private final ConcurrentHashMap<K, V> map;
+    private final Map<K, V> view;
+    private final Map<K, V> mutableView = new MutableView();
+
+    /**
+     * Amount of registered values, including the ones being created, so that the size limit
+     * of {@link #getOrCreate(Object, int, Function)} is reserved atomically.
+     */
+    private final AtomicInteger count = new AtomicInteger();
+
+    public ConcurrentRegistry() {
+        this(16);
+    }
+
+    public ConcurrentRegistry(int initialCapacity) {
+        this.map = new ConcurrentHashMap<>(initialCapacity);
+        this.view = Collections.unmodifiableMap(map);
+    }
+
+    /**
+     * Get the value registered for the given key.
+     *
+     * @param key the key
+     * @return the registered value, or null if absent
+     */
+    public V get(K key) {
+        return map.get(key);
+    }
+
+    /**
+     * Get the value registered for the given key, or create and register it if absent. The factory is
+     * invoked at most once per key. If the factory returns null, nothing is registered and null is returned.
+     *
+     * @param key     the key
+     * @param factory function to create the value for an absent key
+     * @return the registered value, or null if the factory declined to create one
+     */
+    public V getOrCreate(K key, Function<? super K, ? extends V> factory) {
+        return getOrCreate(key, Integer.MAX_VALUE, factory);
+    }
+
+    /**
+     * Get the value registered for the given key, or create and register it if absent and less than
+     * {@code maxSize} values have been registered. The capacity is reserved before the factory is invoked,
+     * so concurrent callers can never register more than {@code maxSize} values.
+     *
+     * @param key     the key
+     * @param maxSize max amount of registered values
+     * @param factory function to create the value for an absent key
+     * @return the registered value, or null if the registry is full or the factory declined to create one
+     */
+    public V getOrCreate(K key, int maxSize, Function<? super K, ? extends V> factory) {
+        // Check first, as computeIfAbsent locks the bin even if the key is present in JDK 8.
+        V value = map.get(key);
+        if (value != null) {
+            return value;
+        }
+        return map.computeIfAbsent(key, k -> {
+            if (!reserve(maxSize)) {
+                return null;
+            }
+            V created = null;
+            try {
+                created = factory.apply(k);
+                return created;
+            } finally {
+                if (created == null) {
+                    count.decrementAndGet();
+                }
+            }
+        });
+    }
+
+    private boolean reserve(int maxSize) {
+        for (;;) {
+            int current = count.get();
+            if (current >= maxSize) {
+                return false;
+            }
+            if (count.compareAndSet(current, current + 1)) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Register the value for the given key regardless of the size limit, replacing the existing one.
+     *
+     * @param key   the key
+     * @param value the value
+     * @return the replaced value, or null if absent
+     */
+    public V put(K key, V value) {
+        V old = map.put(key, value);
+        if (old == null) {
+            count.incrementAndGet();
+        }
+        return old;
+    }
+
+    public V remove(K key) {
+        V old = map.remove(key);
+        if (old != null) {
+            count.decrementAndGet();
+        }
+        return old;
+    }
+
+    public boolean remove(K key, V value) {
+        if (map.remove(key, value)) {
+            count.decrementAndGet();
+            return true;
+        }
+        return false;
+    }
+
+    public int size() {
+        return map.size();
+    }
+
+    public Collection<V> values() {
+        return view.values();
+    }
+
+    public void clear() {
+        for (K key : map.keySet()) {
+            remove(key);
+        }
+    }
+
+    /**
+     * Get the live, unmodifiable map view of the registry.
+     *
+     * @return the unmodifiable map view
+     */
+    public Map<K, V> asMap() {
+        return view;
+    }
+
+    /**
+     * Get the live map view of the registry which also supports modification, for the legacy getters that
+     * exposed the modifiable map before. Values put into the view are registered regardless of the size limit.
+     *
+     * @return the modifiable map view
+     */
+    public Map<K, V> asMutableMap() {
+        return mutableView;
+    }
+
+    /**
+     * Map view writing through the registry, so that the amount of registered values stays accurate.
+     */
+    private final class MutableView extends AbstractMap<K, V> {
+
+        private final Set<Map.Entry<K, V>> entrySet = new AbstractSet<Map.Entry<K, V>>() {
+            @Override
+            public Iterator<Map.Entry<K, V>> iterator() {
+                final Iterator<Map.Entry<K, V>> it = map.entrySet().iterator();
+                return new Iterator<Map.Entry<K, V>>() {
+                    private Map.Entry<K, V> last;
+
+                    @Override
+                    public boolean hasNext() {
+                        return it.hasNext();
+                    }
+
+                    @Override
+                    public Map.Entry<K, V> next() {
+                        last = it.next();
+                        return last;
+                    }
+
+                    @Override
+                    public void remove() {
+                        if (last == null) {
+                            throw new IllegalStateException();
+                        }
+                        ConcurrentRegistry.this.remove(last.getKey());
+                        last = null;
+                    }
+                };
+            }
+
+            @Override
+            public int size() {
+                return map.size();
+            }
+        };
+
+        @Override
+        public Set<Map.Entry<K, V>> entrySet() {
+            return entrySet;
+        }
+
+        @Override
+        public int size() {
+            return map.size();
+        }
+
+        @Override
+        public boolean containsKey(Object key) {
+            return map.containsKey(key);
+        }
+
+        @Override
+        public V get(Object key) {
+            return map.get(key);
+        }
+
+        @Override
+        public V put(K key, V value) {
+            return ConcurrentRegistry.this.put(key, value);
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public V remove(Object key) {
+            return ConcurrentRegistry.this.remove((K)key);
+        }
+
+        @Override
+        public void clear() {
+            ConcurrentRegistry.this.clear();
+        }
+    }
+}
@@ -0,0 +1,106 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel;
+
+import com.alibaba.csp.sentinel.context.ContextUtil;
+import com.alibaba.csp.sentinel.slots.block.BlockException;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Test cases for {@link EntryRecycler}.
+ */
+public class EntryRecyclerTest {
+
+    @Before
+    public void setUp() {
+        EntryRecycler.setEnabled(true, false);
+    }
+
+    @After
+    public void tearDown() {
+        EntryRecycler.setEnabled(false, false);
+        ContextUtil.exit();
+    }
+
+    @Test
+    public void testReuseExitedEntry() throws BlockException {
+        ContextUtil.enter("testReuseExitedEntry");
+        Entry entry = SphU.entry("testReuseExitedEntry1");
+        entry.exit();
+
+        Entry reused = SphU.entry("testReuseExitedEntry2");
+        assertSame(entry, reused);
+        assertEquals("testReuseExitedEntry2", reused.getResourceWrapper().getName());
+        assertTrue(reused.getCreateTimestamp() > 0);
+        assertNotNull(reused.getCurNode());
+        assertSame(reused, ContextUtil.getContext().getCurEntry());
+        reused.exit();
+        assertNull(ContextUtil.getContext().getCurEntry());
+    }
+
+    @Test
+    public void testNestedEntries() throws BlockException {
+        ContextUtil.enter("testNestedEntries");
+        Entry outer = SphU.entry("testNestedEntriesOuter");
+        Entry inner = SphU.entry("testNestedEntriesInner");
+        assertSame(outer, ((CtEntry)inner).parent);
+        assertSame(outer.getCurNode(), inner.getLastNode());
+        inner.exit();
+        assertSame(outer, ContextUtil.getContext().getCurEntry());
+        outer.exit();
+
+        // Both entries are reused, the last recycled first.
+        assertSame(outer, SphU.entry("testNestedEntriesOuter"));
+        assertSame(inner, SphU.entry("testNestedEntriesInner"));
+        inner.exit();
+        outer.exit();
+    }
+
+    @Test
+    public void testUseAfterExitInDebugMode() throws BlockException {
+        EntryRecycler.setEnabled(true, true);
+        ContextUtil.enter("testUseAfterExitInDebugMode");
+        Entry entry = SphU.entry("testUseAfterExitInDebugMode");
+        entry.exit();
+
+        assertNotSame(entry, SphU.entry("testUseAfterExitInDebugMode"));
+        ContextUtil.getContext().getCurEntry().exit();
+        try {
+            entry.exit();
+            fail("Exit of recycled entry should fail in debug mode");
+        } catch (IllegalStateException ex) {
+            // Expected.
+        }
+    }
+
+    @Test
+    public void testParentOfAsyncEntryNotRecycled() throws BlockException {
+        ContextUtil.enter("testParentOfAsyncEntryNotRecycled");
+        Entry entry = SphU.entry("testParentOfAsyncEntryNotRecycled");
+        AsyncEntry asyncEntry = SphU.asyncEntry("testParentOfAsyncEntryNotRecycledAsync");
+        entry.exit();
+
+        Entry next = SphU.entry("testParentOfAsyncEntryNotRecycled");
+        assertNotSame(entry, next);
+        next.exit();
+        asyncEntry.exit();
+    }
+}
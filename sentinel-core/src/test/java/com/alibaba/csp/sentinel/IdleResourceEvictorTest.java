@@ -0,0 +1,173 @@
+/*
+ * Copyright 1999-2022 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel;
+
+import java.util.Collections;
+
+import com.alibaba.csp.sentinel.config.SentinelConfig;
+import com.alibaba.csp.sentinel.context.ContextUtil;
+import com.alibaba.csp.sentinel.node.DefaultNode;
+import com.alibaba.csp.sentinel.node.Node;
+import com.alibaba.csp.sentinel.slotchain.ProcessorSlotChain;
+import com.alibaba.csp.sentinel.slotchain.SlotChainProvider;
+import com.alibaba.csp.sentinel.slotchain.StringResourceWrapper;
+import com.alibaba.csp.sentinel.slots.block.flow.FlowRule;
+import com.alibaba.csp.sentinel.slots.block.flow.FlowRuleManager;
+import com.alibaba.csp.sentinel.slots.clusterbuilder.ClusterBuilderSlot;
+import com.alibaba.csp.sentinel.util.TimeUtil;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Test cases for {@link IdleResourceEvictor}.
+ */
+public class IdleResourceEvictorTest {
+
+    private static final String CONTEXT_NAME = "idle-evict-context";
+
+    @Before
+    public void setUp() {
+        SentinelConfig.setConfig(SentinelConfig.STATISTIC_IDLE_TTL, "1");
+        IdleResourceEvictor.startAccessTracking();
+    }
+
+    @After
+    public void tearDown() {
+        SentinelConfig.removeConfig(SentinelConfig.STATISTIC_IDLE_TTL);
+        IdleResourceEvictor.stopAccessTracking();
+        FlowRuleManager.loadRules(Collections.<FlowRule>emptyList());
+        ContextUtil.exit();
+    }
+
+    private void access(String resource) throws Exception {
+        ContextUtil.enter(CONTEXT_NAME);
+        Entry entry = SphU.entry(resource);
+        entry.exit();
+        ContextUtil.exit();
+    }
+
+    private boolean inTree(String resource) {
+        for (Node entrance : Constants.ROOT.getChildList()) {
+            for (Node child : ((DefaultNode) entrance).getChildList()) {
+                if (((DefaultNode) child).getId().getName().equals(resource)) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    @Test
+    public void testEvictIdleResource() throws Exception {
+        String resource = "testEvictIdleResource";
+        access(resource);
+        assertNotNull(ClusterBuilderSlot.getClusterNode(resource));
+        assertTrue(inTree(resource));
+
+        Thread.sleep(50);
+        assertTrue(IdleResourceEvictor.evictIdleResources() > 0);
+
+        assertFalse(CtSph.getChainMap().containsKey(new StringResourceWrapper(resource, EntryType.OUT)));
+        assertNull(ClusterBuilderSlot.getClusterNode(resource));
+        assertFalse(inTree(resource));
+
+        // The resource is rebuilt on next access.
+        access(resource);
+        assertNotNull(ClusterBuilderSlot.getClusterNode(resource));
+        assertTrue(inTree(resource));
+    }
+
+    @Test
+    public void testNewChainIsNotIdle() {
+        long before = TimeUtil.currentTimeMillis();
+        ProcessorSlotChain chain = SlotChainProvider.newSlotChain();
+        assertTrue(chain.getLastAccessTime() >= before);
+    }
+
+    @Test
+    public void testResourceWithRulesIsPinned() throws Exception {
+        String resource = "testResourceWithRulesIsPinned";
+        FlowRule rule = new FlowRule(resource);
+        rule.setCount(100);
+        FlowRuleManager.loadRules(Collections.singletonList(rule));
+        access(resource);
+
+        Thread.sleep(50);
+        IdleResourceEvictor.evictIdleResources();
+
+        assertTrue(CtSph.getChainMap().containsKey(new StringResourceWrapper(resource, EntryType.OUT)));
+        assertNotNull(ClusterBuilderSlot.getClusterNode(resource));
+    }
+
+    @Test
+    public void testDisabledByDefault() throws Exception {
+        SentinelConfig.removeConfig(SentinelConfig.STATISTIC_IDLE_TTL);
+        IdleResourceEvictor.stopAccessTracking();
+        String resource = "testDisabledByDefault";
+        access(resource);
+        ProcessorSlotChain chain = CtSph.getChainMap().get(new StringResourceWrapper(resource, EntryType.OUT));
+        long lastAccessTime = chain.getLastAccessTime();
+
+        Thread.sleep(50);
+        // The access time is not recorded when eviction is disabled.
+        access(resource);
+        assertEquals(lastAccessTime, chain.getLastAccessTime());
+        assertEquals(0, IdleResourceEvictor.evictIdleResources());
+        assertNotNull(ClusterBuilderSlot.getClusterNode(resource));
+    }
+
+    @Test
+    public void testEnabledAtRuntime() throws Exception {
+        IdleResourceEvictor.stopAccessTracking();
+        String resource = "testEnabledAtRuntime";
+        access(resource);
+
+        Thread.sleep(50);
+        // The first sweep only starts tracking, as the access time has not been recorded.
+        assertEquals(0, IdleResourceEvictor.evictIdleResources());
+        assertTrue(IdleResourceEvictor.isAccessTracked());
+        assertNotNull(ClusterBuilderSlot.getClusterNode(resource));
+
+        Thread.sleep(50);
+        assertTrue(IdleResourceEvictor.evictIdleResources() > 0);
+        assertNull(ClusterBuilderSlot.getClusterNode(resource));
+    }
+
+    @Test
+    public void testResourceWithEntriesInFlightIsKept() throws Exception {
+        String resource = "testResourceWithEntriesInFlightIsKept";
+        ContextUtil.enter(CONTEXT_NAME);
+        Entry entry = SphU.entry(resource);
+
+        Thread.sleep(50);
+        IdleResourceEvictor.evictIdleResources();
+        assertNotNull(ClusterBuilderSlot.getClusterNode(resource));
+        assertTrue(inTree(resource));
+
+        entry.exit();
+        ContextUtil.exit();
+        // The exit is recorded in the nodes still in use.
+        assertEquals(0, ClusterBuilderSlot.getClusterNode(resource).curThreadNum());
+
+        Thread.sleep(50);
+        assertTrue(IdleResourceEvictor.evictIdleResources() > 0);
+        assertNull(ClusterBuilderSlot.getClusterNode(resource));
+    }
+}
@@ -0,0 +1,108 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel;
+
+import java.util.Collections;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.alibaba.csp.sentinel.config.SentinelConfig;
+import com.alibaba.csp.sentinel.slotchain.ProcessorSlot;
+import com.alibaba.csp.sentinel.slotchain.ResolvedResourceWrapper;
+import com.alibaba.csp.sentinel.slots.block.BlockException;
+import com.alibaba.csp.sentinel.slots.block.flow.FlowRule;
+import com.alibaba.csp.sentinel.slots.block.flow.FlowRuleManager;
+import com.alibaba.csp.sentinel.util.function.Function;
+
+import org.junit.After;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Test cases for {@link ResourceHandle}.
+ */
+public class ResourceHandleTest {
+
+    @After
+    public void tearDown() {
+        SentinelConfig.removeConfig(SentinelConfig.STATISTIC_IDLE_TTL);
+        IdleResourceEvictor.stopAccessTracking();
+        FlowRuleManager.loadRules(Collections.<FlowRule>emptyList());
+    }
+
+    @Test
+    public void testResolve() {
+        ResourceHandle handle = SphU.resolve("testResolve", EntryType.IN);
+        assertEquals("testResolve", handle.getName());
+        assertEquals(EntryType.IN, handle.getEntryType());
+        assertEquals(ResourceTypeConstants.COMMON, handle.getResourceType());
+        assertNotNull(handle.getChain());
+    }
+
+    @Test
+    public void testEntryWithRuleUpdate() throws Exception {
+        String resource = "testEntryWithRuleUpdate";
+        ResourceHandle handle = SphU.resolve(resource, EntryType.OUT);
+        SphU.entry(handle).exit();
+
+        // The (absent) rules are cached in the handle, and loaded again after the update.
+        FlowRuleManager.loadRules(Collections.singletonList(new FlowRule(resource).setCount(0)));
+        try {
+            SphU.entry(handle);
+            fail("Should be blocked by the flow rule");
+        } catch (BlockException ex) {
+            assertEquals(resource, ex.getRule().getResource());
+        }
+
+        FlowRuleManager.loadRules(Collections.<FlowRule>emptyList());
+        SphU.entry(handle).exit();
+    }
+
+    @Test
+    public void testChainResolvedAgainAfterEviction() throws Exception {
+        SentinelConfig.setConfig(SentinelConfig.STATISTIC_IDLE_TTL, "1");
+        IdleResourceEvictor.startAccessTracking();
+        ResourceHandle handle = SphU.resolve("testChainResolvedAgainAfterEviction", EntryType.OUT);
+        ProcessorSlot<Object> chain = handle.getChain();
+
+        Thread.sleep(50);
+        assertTrue(IdleResourceEvictor.evictIdleResources() > 0);
+
+        SphU.entry(handle).exit();
+        assertNotSame(chain, handle.getChain());
+        assertSame(handle.getChain(), new CtSph().lookProcessChain(handle.getResource()));
+    }
+
+    @Test
+    public void testLookupCachedUntilRuleUpdate() {
+        final AtomicInteger loaded = new AtomicInteger();
+        Function<String, Integer> loader = new Function<String, Integer>() {
+            @Override
+            public Integer apply(String resource) {
+                return loaded.incrementAndGet();
+            }
+        };
+        ResolvedResourceWrapper resource = new ResolvedResourceWrapper("testLookup", EntryType.OUT,
+            ResourceTypeConstants.COMMON);
+
+        assertEquals(1, (int)ResolvedResourceWrapper.lookup(resource, loader));
+        assertEquals(1, (int)ResolvedResourceWrapper.lookup(resource, loader));
+
+        FlowRuleManager.loadRules(Collections.singletonList(new FlowRule("testLookup").setCount(1)));
+        assertEquals(2, (int)ResolvedResourceWrapper.lookup(resource, loader));
+        assertEquals(2, loaded.get());
+    }
+}
@@ -139,4 +139,42 @@ public class ContextTest {
         });
         assertEquals(contextName, ContextUtil.getContext().getName());
     }
+
+    @Test
+    public void testRecycleContext() {
+        ContextUtil.setRecycleEnabled(true, false);
+        try {
+            Context context = ContextUtil.enter("testRecycleContext1", "origin1");
+            ContextUtil.exit();
+
+            Context reused = ContextUtil.enter("testRecycleContext2", "origin2");
+            assertSame(context, reused);
+            assertEquals("testRecycleContext2", reused.getName());
+            assertEquals("origin2", reused.getOrigin());
+            assertNull(reused.getCurEntry());
+            ContextUtil.exit();
+        } finally {
+            ContextUtil.setRecycleEnabled(false, false);
+        }
+    }
+
+    @Test
+    public void testRecycledContextUsedAfterExitInDebugMode() {
+        ContextUtil.setRecycleEnabled(true, true);
+        try {
+            Context context = ContextUtil.enter("testRecycledContextUsedAfterExit");
+            ContextUtil.exit();
+
+            assertNotSame(context, ContextUtil.enter("testRecycledContextUsedAfterExit"));
+            ContextUtil.exit();
+            try {
+                context.getCurEntry();
+                fail("Use of recycled context should fail in debug mode");
+            } catch (IllegalStateException ex) {
+                // Expected.
+            }
+        } finally {
+            ContextUtil.setRecycleEnabled(false, false);
+        }
+    }
 }
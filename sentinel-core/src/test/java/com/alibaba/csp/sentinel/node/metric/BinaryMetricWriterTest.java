@@ -0,0 +1,183 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.node.metric;
+
+import java.io.File;
+import java.io.RandomAccessFile;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+
+import com.alibaba.csp.sentinel.config.SentinelConfig;
+import com.alibaba.csp.sentinel.util.PidUtil;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class BinaryMetricWriterTest {
+
+    private File baseDir;
+    private String baseFileName;
+
+    @Before
+    public void setUp() throws Exception {
+        baseDir = Files.createTempDirectory("sentinel-metric-bin").toFile();
+        baseFileName = BinaryMetricWriter.formBinaryMetricFileName(SentinelConfig.getAppName(), PidUtil.getPid());
+    }
+
+    @After
+    public void tearDown() {
+        File[] files = baseDir.listFiles();
+        if (files != null) {
+            for (File file : files) {
+                file.delete();
+            }
+        }
+        baseDir.delete();
+    }
+
+    @Test
+    public void testWriteAndSearch() throws Exception {
+        long begin = System.currentTimeMillis() / 1000 * 1000;
+        BinaryMetricWriter writer = new BinaryMetricWriter(baseDir.getAbsolutePath(), 1024 * 1024, 6);
+        for (int s = 0; s < 5; s++) {
+            List<MetricNode> nodes = new ArrayList<>();
+            nodes.add(node("resA", s));
+            nodes.add(node("资源B|x", s));
+            writer.write(begin + s * 1000, nodes);
+        }
+
+        BinaryMetricSearcher searcher = new BinaryMetricSearcher(baseDir.getAbsolutePath(), baseFileName);
+        List<MetricNode> all = searcher.findByTimeAndResource(begin + 1000, begin + 3000, null);
+        assertEquals(6, all.size());
+        MetricNode first = all.get(0);
+        assertEquals(begin + 1000, first.getTimestamp());
+        assertEquals("resA", first.getResource());
+        assertEquals(11, first.getPassQps());
+        assertEquals(1, first.getBlockQps());
+        assertEquals(21, first.getSuccessQps());
+        assertEquals(2, first.getExceptionQps());
+        assertEquals(31, first.getRt());
+        assertEquals(3, first.getOccupiedPassQps());
+        assertEquals(4, first.getConcurrency());
+        assertEquals(1, first.getClassification());
+        assertEquals(41, first.getP99Rt());
+        assertEquals("资源B|x", all.get(1).getResource());
+
+        List<MetricNode> one = searcher.findByTimeAndResource(begin, begin + 10000, "资源B|x");
+        assertEquals(5, one.size());
+        for (MetricNode node : one) {
+            assertEquals("资源B|x", node.getResource());
+        }
+        assertTrue(searcher.findByTimeAndResource(begin, begin + 10000, "none").isEmpty());
+        assertNull(searcher.findByTimeAndResource(begin + 10000, begin + 20000, null));
+
+        // Metrics of the same second are never split.
+        List<MetricNode> lines = searcher.find(begin + 2000, 3);
+        assertEquals(4, lines.size());
+        assertEquals(begin + 3000, lines.get(3).getTimestamp());
+        writer.close();
+    }
+
+    @Test
+    public void testRollOverFullSegment() throws Exception {
+        long begin = System.currentTimeMillis() / 1000 * 1000;
+        BinaryMetricWriter writer = new BinaryMetricWriter(baseDir.getAbsolutePath(),
+            BinaryMetricWriter.MIN_SEGMENT_SIZE, 3);
+        // Each segment of the minimum size holds less than 800 records.
+        int seconds = 120;
+        for (int s = 0; s < seconds; s++) {
+            List<MetricNode> nodes = new ArrayList<>();
+            for (int r = 0; r < 30; r++) {
+                nodes.add(node("res-" + r, s));
+            }
+            writer.write(begin + s * 1000, nodes);
+        }
+        writer.close();
+
+        List<String> files = MetricWriter.listMetricFiles(baseDir.getAbsolutePath(), baseFileName);
+        assertEquals(3, files.size());
+
+        BinaryMetricSearcher searcher = new BinaryMetricSearcher(baseDir.getAbsolutePath(), baseFileName);
+        List<MetricNode> tail = searcher.findByTimeAndResource(begin + (seconds - 10) * 1000,
+            begin + seconds * 1000, "res-7");
+        assertEquals(10, tail.size());
+        for (int i = 0; i < tail.size(); i++) {
+            assertEquals(begin + (seconds - 10 + i) * 1000, tail.get(i).getTimestamp());
+            assertEquals(10 + seconds - 10 + i, tail.get(i).getPassQps());
+        }
+        // Earlier seconds are not retained in the remaining segments.
+        List<MetricNode> head = searcher.findByTimeAndResource(begin, begin + seconds * 1000, "res-7");
+        assertTrue(head.size() < seconds);
+        assertEquals(begin + seconds * 1000 - 1000, head.get(head.size() - 1).getTimestamp());
+    }
+
+    @Test
+    public void testTornTailIsIgnored() throws Exception {
+        long begin = System.currentTimeMillis() / 1000 * 1000;
+        BinaryMetricWriter writer = new BinaryMetricWriter(baseDir.getAbsolutePath(), 1024 * 1024, 6);
+        try {
+            for (int s = 0; s < 3; s++) {
+                List<MetricNode> nodes = new ArrayList<>();
+                nodes.add(node("resA", s));
+                nodes.add(node("resB", s));
+                writer.write(begin + s * 1000, nodes);
+            }
+            List<String> files = MetricWriter.listMetricFiles(baseDir.getAbsolutePath(), baseFileName);
+            assertEquals(1, files.size());
+            // Simulate counters that are visible before the data they cover.
+            try (RandomAccessFile file = new RandomAccessFile(files.get(0), "rw")) {
+                bumpInt(file, BinaryMetricWriter.HEADER_RECORD_COUNT);
+                bumpInt(file, BinaryMetricWriter.HEADER_INDEX_COUNT);
+                bumpInt(file, BinaryMetricWriter.HEADER_DICT_COUNT);
+            }
+
+            BinaryMetricSearcher searcher = new BinaryMetricSearcher(baseDir.getAbsolutePath(), baseFileName);
+            List<MetricNode> all = searcher.findByTimeAndResource(begin, begin + 10000, null);
+            assertEquals(6, all.size());
+            assertEquals(begin + 2000, all.get(5).getTimestamp());
+            assertEquals(3, searcher.findByTimeAndResource(begin, begin + 10000, "resB").size());
+            assertEquals(6, searcher.find(begin, 100).size());
+        } finally {
+            writer.close();
+        }
+    }
+
+    private static void bumpInt(RandomAccessFile file, int pos) throws Exception {
+        file.seek(pos);
+        int value = file.readInt();
+        file.seek(pos);
+        file.writeInt(value + 1);
+    }
+
+    private static MetricNode node(String resource, int s) {
+        MetricNode node = new MetricNode();
+        node.setResource(resource);
+        node.setPassQps(10 + s);
+        node.setBlockQps(s);
+        node.setSuccessQps(20 + s);
+        node.setExceptionQps(1 + s);
+        node.setRt(30 + s);
+        node.setOccupiedPassQps(2 + s);
+        node.setConcurrency(3 + s);
+        node.setClassification(1);
+        node.setP99Rt(40 + s);
+        return node;
+    }
+}
@@ -0,0 +1,186 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.node.metric;
+
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class MetricCursorTest {
+
+    private static final String BASE_FILE_NAME = "cursor-test-metrics.log";
+    private static final Charset CHARSET = Charset.forName("UTF-8");
+
+    private File baseDir;
+    private long begin;
+
+    @Before
+    public void setUp() throws Exception {
+        baseDir = Files.createTempDirectory("sentinel-metric-cursor").toFile();
+        begin = System.currentTimeMillis() / 1000 * 1000;
+    }
+
+    @After
+    public void tearDown() {
+        File[] files = baseDir.listFiles();
+        if (files != null) {
+            for (File file : files) {
+                file.delete();
+            }
+        }
+        baseDir.delete();
+    }
+
+    @Test
+    public void testEncodeAndDecode() {
+        MetricCursor cursor = new MetricCursor("app-metrics.log.pid1.2020-01-01.1", 1234);
+        MetricCursor decoded = MetricCursor.decode(cursor.encode());
+        assertNotNull(decoded);
+        assertEquals(cursor.getFileName(), decoded.getFileName());
+        assertEquals(1234, decoded.getOffset());
+
+        assertNull(MetricCursor.decode(""));
+        assertNull(MetricCursor.decode("!!!"));
+        assertNull(MetricCursor.decode(new MetricCursor("file", -1).encode()));
+    }
+
+    @Test
+    public void testFindByCursor() throws Exception {
+        File first = new File(baseDir, BASE_FILE_NAME + ".2020-01-01");
+        appendSeconds(first, 0, 5);
+        MetricSearcher searcher = new MetricSearcher(baseDir.getAbsolutePath(), BASE_FILE_NAME);
+
+        // Search by time without a cursor.
+        MetricCursorResult result = searcher.findByCursor(null, begin + 1000, begin + 2000);
+        assertEquals(4, result.getNodes().size());
+        assertEquals(begin + 1000, result.getNodes().get(0).getTimestamp());
+        assertNotNull(result.getNextCursor());
+
+        // Continue from the cursor, earlier metrics are never returned again.
+        result = searcher.findByCursor(result.getNextCursor(), begin, begin + 10000);
+        assertEquals(4, result.getNodes().size());
+        assertEquals(begin + 3000, result.getNodes().get(0).getTimestamp());
+        MetricCursor cursor = result.getNextCursor();
+        assertEquals(first.length(), cursor.getOffset());
+
+        // An incomplete line being written is left for the next read.
+        appendSeconds(first, 5, 6);
+        String line = node(begin + 6000, "resA", 6).toFatString();
+        appendRaw(first, line.substring(0, 10));
+        result = searcher.findByCursor(cursor, begin, begin + 10000);
+        assertEquals(2, result.getNodes().size());
+        assertEquals(begin + 5000, result.getNodes().get(0).getTimestamp());
+        cursor = result.getNextCursor();
+        assertEquals(first.length() - 10, cursor.getOffset());
+        appendRaw(first, line.substring(10));
+
+        // Continue into the next file after rolling over.
+        File second = new File(baseDir, BASE_FILE_NAME + ".2020-01-01.1");
+        appendSeconds(second, 7, 9);
+        result = searcher.findByCursor(cursor, begin, begin + 10000);
+        assertEquals(5, result.getNodes().size());
+        assertEquals(begin + 6000, result.getNodes().get(0).getTimestamp());
+        assertEquals(begin + 7000, result.getNodes().get(1).getTimestamp());
+        assertEquals(second.getName(), result.getNextCursor().getFileName());
+        assertEquals(second.length(), result.getNextCursor().getOffset());
+
+        // Fall back to search by time when the cursor is stale.
+        result = searcher.findByCursor(new MetricCursor("deleted-file", 10), begin + 8000, begin + 10000);
+        assertEquals(2, result.getNodes().size());
+        assertEquals(begin + 8000, result.getNodes().get(0).getTimestamp());
+    }
+
+    @Test
+    public void testFrameCodec() throws Exception {
+        List<MetricNode> nodes = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            nodes.add(node(begin + i / 2 * 1000, i % 2 == 0 ? "resA" : "资源B", i));
+        }
+        byte[] data = MetricFrameCodec.encode(nodes, "token");
+        assertTrue(MetricFrameCodec.isFrame(data));
+        assertFalse(MetricFrameCodec.isFrame("1|res|1".getBytes(CHARSET)));
+
+        StringBuilder text = new StringBuilder();
+        for (MetricNode node : nodes) {
+            text.append(node.toThinString()).append('\n');
+        }
+        assertTrue(data.length < text.toString().getBytes(CHARSET).length / 2);
+
+        MetricCursorResult result = MetricFrameCodec.decode(data);
+        assertNull(result.getNextCursor());
+        assertEquals(nodes.size(), result.getNodes().size());
+        for (int i = 0; i < nodes.size(); i++) {
+            assertEquals(nodes.get(i).toThinString(), result.getNodes().get(i).toThinString());
+        }
+
+        assertEquals(MetricFrameCodec.VERSION, data[4]);
+        nodes.get(3).setP99Rt(250);
+        byte[] withPercentiles = MetricFrameCodec.encode(nodes, null);
+        assertEquals(MetricFrameCodec.VERSION_RT_PERCENTILES, withPercentiles[4]);
+        assertEquals(250, MetricFrameCodec.decode(withPercentiles).getNodes().get(3).getP99Rt());
+
+        String token = new MetricCursor("file", 42).encode();
+        assertEquals(42, MetricFrameCodec.decode(MetricFrameCodec.encode(nodes, token)).getNextCursor()
+            .getOffset());
+    }
+
+    /**
+     * Write two resources per second in {@code [from, to)} along with the index, like {@link MetricWriter}.
+     */
+    private void appendSeconds(File file, int from, int to) throws Exception {
+        File index = new File(MetricWriter.formIndexFileName(file.getAbsolutePath()));
+        try (FileOutputStream out = new FileOutputStream(file, true);
+             DataOutputStream indexOut = new DataOutputStream(new FileOutputStream(index, true))) {
+            for (int s = from; s < to; s++) {
+                indexOut.writeLong((begin + s * 1000) / 1000);
+                indexOut.writeLong(out.getChannel().position());
+                out.write(node(begin + s * 1000, "resA", s).toFatString().getBytes(CHARSET));
+                out.write(node(begin + s * 1000, "resB", s).toFatString().getBytes(CHARSET));
+            }
+        }
+    }
+
+    private static void appendRaw(File file, String content) throws Exception {
+        try (FileOutputStream out = new FileOutputStream(file, true)) {
+            out.write(content.getBytes(CHARSET));
+        }
+    }
+
+    private static MetricNode node(long timestamp, String resource, int i) {
+        MetricNode node = new MetricNode();
+        node.setTimestamp(timestamp);
+        node.setResource(resource);
+        node.setPassQps(100 + i);
+        node.setBlockQps(i);
+        node.setSuccessQps(100 + i);
+        node.setExceptionQps(0);
+        node.setRt(20);
+        node.setOccupiedPassQps(0);
+        node.setConcurrency(3);
+        node.setClassification(1);
+        return node;
+    }
+}
@@ -34,4 +34,30 @@ public class MetricNodeTest {
         assertEquals(2, node.getConcurrency());
         assertEquals(1, node.getSuccessQps());
     }
+
+    @Test
+    public void testRtPercentilesRoundTrip() {
+        MetricNode node = MetricNode.fromFatString("1564382218000|2019-07-29 14:36:58|/foo/*|1|0|1|0|0|0|2|1");
+        assertFalse(node.hasRtPercentiles());
+        // Lines without percentiles keep the former format.
+        assertEquals(10, node.toThinString().split("\\|").length);
+        assertEquals(11, node.toFatString().trim().split("\\|").length);
+
+        node.setP50Rt(3);
+        node.setP90Rt(9);
+        node.setP99Rt(35);
+        node.setP999Rt(120);
+        // The percentiles are optional trailing fields.
+        assertEquals(14, node.toThinString().split("\\|").length);
+        MetricNode thin = MetricNode.fromThinString(node.toThinString());
+        assertEquals(ResourceTypeConstants.COMMON_WEB, thin.getClassification());
+        assertEquals(3, thin.getP50Rt());
+        assertEquals(9, thin.getP90Rt());
+        assertEquals(35, thin.getP99Rt());
+        assertEquals(120, thin.getP999Rt());
+
+        MetricNode fat = MetricNode.fromFatString(node.toFatString().trim());
+        assertEquals(ResourceTypeConstants.COMMON_WEB, fat.getClassification());
+        assertEquals(120, fat.getP999Rt());
+    }
 }
@@ -0,0 +1,222 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.slotchain;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import com.alibaba.csp.sentinel.Entry;
+import com.alibaba.csp.sentinel.EntryType;
+import com.alibaba.csp.sentinel.SphU;
+import com.alibaba.csp.sentinel.config.SentinelConfig;
+import com.alibaba.csp.sentinel.context.Context;
+import com.alibaba.csp.sentinel.context.SlotLinkHolder;
+import com.alibaba.csp.sentinel.slots.block.RuleVersion;
+import com.alibaba.csp.sentinel.slots.block.flow.FlowException;
+import com.alibaba.csp.sentinel.slots.block.flow.FlowRule;
+import com.alibaba.csp.sentinel.slots.block.flow.FlowRuleManager;
+
+import org.junit.After;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Test cases for {@link DefaultProcessorSlotChain}.
+ */
+public class DefaultProcessorSlotChainTest {
+
+    private final List<String> records = new ArrayList<>();
+    private final Context context = new Context(null, "DefaultProcessorSlotChainTest");
+    private final ResourceWrapper resource = new StringResourceWrapper("DefaultProcessorSlotChainTest",
+        EntryType.IN);
+
+    @After
+    public void tearDown() {
+        SentinelConfig.removeConfig(SentinelConfig.SLOT_CHAIN_SPECIALIZE);
+        FlowRuleManager.loadRules(Collections.<FlowRule>emptyList());
+    }
+
+    private void enterAndExit(ProcessorSlotChain chain) throws Throwable {
+        records.clear();
+        chain.entry(context, resource, null, 1, false);
+        chain.exit(context, resource, 1);
+    }
+
+    @Test
+    public void testSkipSlotsWithoutRules() throws Throwable {
+        RecordingSlot a = new RecordingSlot("a", records);
+        RuleCheckingRecordingSlot b = new RuleCheckingRecordingSlot("b", records, false);
+        ProcessorSlotChain chain = new DefaultProcessorSlotChain();
+        chain.addLast(a);
+        chain.addLast(b);
+        chain.addLast(new RuleCheckingRecordingSlot("c", records, true));
+        chain.addLast(new RuleCheckingRecordingSlot("d", records, false));
+
+        enterAndExit(chain);
+        assertEquals(Arrays.asList("entry-a", "entry-c", "exit-a", "exit-c"), records);
+        // The slots themselves are still linked in order.
+        assertSame(a, chain.getNext());
+        assertSame(b, a.getNext());
+        assertNull(SlotLinkHolder.get(context));
+    }
+
+    @Test
+    public void testRelinkOnRuleVersionChange() throws Throwable {
+        ProcessorSlotChain chain = new DefaultProcessorSlotChain();
+        RuleCheckingRecordingSlot b = new RuleCheckingRecordingSlot("b", records, false);
+        chain.addLast(new RecordingSlot("a", records));
+        chain.addLast(b);
+        chain.addLast(new RecordingSlot("c", records));
+
+        enterAndExit(chain);
+        assertEquals(Arrays.asList("entry-a", "entry-c", "exit-a", "exit-c"), records);
+
+        b.hasRules = true;
+        enterAndExit(chain);
+        // Not re-linked until the rules are updated.
+        assertEquals(Arrays.asList("entry-a", "entry-c", "exit-a", "exit-c"), records);
+
+        RuleVersion.increase();
+        enterAndExit(chain);
+        assertEquals(Arrays.asList("entry-a", "entry-b", "entry-c", "exit-a", "exit-b", "exit-c"), records);
+    }
+
+    @Test
+    public void testSkipSlotsAfterSharedSlot() throws Throwable {
+        RecordingSlot shared = new RecordingSlot("shared", records);
+        RuleCheckingRecordingSlot b = new RuleCheckingRecordingSlot("b", records, true);
+        RecordingSlot c = new RecordingSlot("c", records);
+        ProcessorSlotChain withRules = new DefaultProcessorSlotChain();
+        withRules.addLast(shared);
+        withRules.addLast(b);
+        withRules.addLast(c);
+        ProcessorSlotChain withoutRules = new DefaultProcessorSlotChain();
+        withoutRules.addLast(shared);
+        withoutRules.addLast(new RuleCheckingRecordingSlot("d", records, false));
+        withoutRules.addLast(c);
+
+        enterAndExit(withoutRules);
+        assertEquals(Arrays.asList("entry-shared", "entry-c", "exit-shared", "exit-c"), records);
+        enterAndExit(withRules);
+        assertEquals(Arrays.asList("entry-shared", "entry-b", "entry-c", "exit-shared", "exit-b", "exit-c"), records);
+        enterAndExit(withoutRules);
+        assertEquals(Arrays.asList("entry-shared", "entry-c", "exit-shared", "exit-c"), records);
+    }
+
+    @Test
+    public void testEnterChainFromSharedSlot() throws Throwable {
+        final ProcessorSlotChain inner = new DefaultProcessorSlotChain();
+        RecordingSlot shared = new RecordingSlot("shared", records) {
+            private boolean inInner;
+
+            @Override
+            public void entry(Context context, ResourceWrapper resourceWrapper, Object param, int count,
+                              boolean prioritized, Object... args) throws Throwable {
+                if (!inInner) {
+                    // Enter the inner chain, which also has this slot, before going on with the outer chain.
+                    inInner = true;
+                    try {
+                        inner.entry(context, resourceWrapper, param, count, prioritized, args);
+                    } finally {
+                        inInner = false;
+                    }
+                }
+                super.entry(context, resourceWrapper, param, count, prioritized, args);
+            }
+        };
+        inner.addLast(shared);
+        inner.addLast(new RecordingSlot("inner", records));
+        ProcessorSlotChain outer = new DefaultProcessorSlotChain();
+        outer.addLast(new RuleCheckingRecordingSlot("skipped", records, false));
+        outer.addLast(shared);
+        outer.addLast(new RecordingSlot("outer", records));
+
+        records.clear();
+        outer.entry(context, resource, null, 1, false);
+        assertEquals(Arrays.asList("entry-shared", "entry-inner", "entry-shared", "entry-outer"), records);
+        assertNull(SlotLinkHolder.get(context));
+    }
+
+    @Test
+    public void testSpecializeDisabled() throws Throwable {
+        SentinelConfig.setConfig(SentinelConfig.SLOT_CHAIN_SPECIALIZE, "false");
+        ProcessorSlotChain chain = new DefaultProcessorSlotChain();
+        chain.addLast(new RecordingSlot("a", records));
+        chain.addLast(new RuleCheckingRecordingSlot("b", records, false));
+
+        enterAndExit(chain);
+        assertEquals(Arrays.asList("entry-a", "entry-b", "exit-a", "exit-b"), records);
+    }
+
+    @Test
+    public void testCheckRulesLoadedAfterSkipped() throws Exception {
+        String resourceName = "testCheckRulesLoadedAfterSkipped";
+        SphU.entry(resourceName).exit();
+
+        FlowRuleManager.loadRules(Collections.singletonList(new FlowRule(resourceName).setCount(0)));
+        try {
+            Entry entry = SphU.entry(resourceName);
+            entry.exit();
+            fail("The flow slot should be linked again once the rule is loaded");
+        } catch (FlowException expected) {
+        }
+
+        FlowRuleManager.loadRules(Collections.<FlowRule>emptyList());
+        SphU.entry(resourceName).exit();
+    }
+
+    private static class RecordingSlot extends AbstractLinkedProcessorSlot<Object> {
+
+        final String name;
+        private final List<String> records;
+
+        RecordingSlot(String name, List<String> records) {
+            this.name = name;
+            this.records = records;
+        }
+
+        @Override
+        public void entry(Context context, ResourceWrapper resourceWrapper, Object param, int count,
+                          boolean prioritized, Object... args) throws Throwable {
+            records.add("entry-" + name);
+            fireEntry(context, resourceWrapper, param, count, prioritized, args);
+        }
+
+        @Override
+        public void exit(Context context, ResourceWrapper resourceWrapper, int count, Object... args) {
+            records.add("exit-" + name);
+            fireExit(context, resourceWrapper, count, args);
+        }
+    }
+
+    private static class RuleCheckingRecordingSlot extends RecordingSlot implements RuleCheckingSlot {
+
+        volatile boolean hasRules;
+
+        RuleCheckingRecordingSlot(String name, List<String> records, boolean hasRules) {
+            super(name, records);
+            this.hasRules = hasRules;
+        }
+
+        @Override
+        public boolean hasRules(String resourceName) {
+            return hasRules;
+        }
+    }
+}
@@ -0,0 +1,97 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.slots.block.degrade.circuitbreaker;
+
+import com.alibaba.csp.sentinel.Entry;
+import com.alibaba.csp.sentinel.context.Context;
+import com.alibaba.csp.sentinel.slots.block.RuleConstant;
+import com.alibaba.csp.sentinel.slots.block.degrade.DegradeRule;
+import com.alibaba.csp.sentinel.slots.block.degrade.DegradeRuleManager;
+import com.alibaba.csp.sentinel.slots.block.degrade.circuitbreaker.CircuitBreaker.State;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Test cases for {@link RtPercentileCircuitBreaker}.
+ */
+public class RtPercentileCircuitBreakerTest {
+
+    private static DegradeRule rule(double percentile) {
+        return new DegradeRule("testRtPercentile")
+            .setGrade(RuleConstant.DEGRADE_GRADE_RT_PERCENTILE)
+            .setCount(100)
+            .setPercentile(percentile)
+            .setMinRequestAmount(10)
+            .setStatIntervalMs(60000)
+            .setTimeWindow(10);
+    }
+
+    private static void complete(CircuitBreaker breaker, long rt) {
+        Entry entry = mock(Entry.class);
+        when(entry.getCreateTimestamp()).thenReturn(1000L);
+        when(entry.getCompleteTimestamp()).thenReturn(1000L + rt);
+        Context context = mock(Context.class);
+        when(context.getCurEntry()).thenReturn(entry);
+        breaker.onRequestComplete(context);
+    }
+
+    @Test
+    public void testOpenWhenPercentileExceedsThreshold() {
+        RtPercentileCircuitBreaker breaker = new RtPercentileCircuitBreaker(rule(90));
+        for (int i = 0; i < 90; i++) {
+            complete(breaker, 10);
+        }
+        // p90 is still 10 ms.
+        for (int i = 0; i < 10; i++) {
+            complete(breaker, 500);
+        }
+        assertEquals(State.CLOSED, breaker.currentState());
+        assertEquals(10, breaker.currentPercentileRt());
+
+        // 11 of 101 requests are slow, so p90 exceeds 100 ms.
+        complete(breaker, 500);
+        assertEquals(State.OPEN, breaker.currentState());
+        assertTrue(breaker.currentPercentileRt() > 100);
+    }
+
+    @Test
+    public void testMinRequestAmount() {
+        RtPercentileCircuitBreaker breaker = new RtPercentileCircuitBreaker(rule(99));
+        for (int i = 0; i < 9; i++) {
+            complete(breaker, 500);
+        }
+        assertEquals(State.CLOSED, breaker.currentState());
+        complete(breaker, 500);
+        assertEquals(State.OPEN, breaker.currentState());
+
+        breaker.resetStat();
+        assertEquals(0, breaker.currentPercentileRt());
+    }
+
+    @Test
+    public void testRuleValidity() {
+        assertTrue(DegradeRuleManager.isValidRule(rule(99.9)));
+        assertTrue(DegradeRuleManager.isValidRule(rule(100)));
+        assertFalse(DegradeRuleManager.isValidRule(rule(0)));
+        assertFalse(DegradeRuleManager.isValidRule(rule(101)));
+        assertEquals(10, RtPercentileCircuitBreaker.sampleCountOf(1000));
+        assertEquals(7, RtPercentileCircuitBreaker.sampleCountOf(7));
+        assertEquals(1, RtPercentileCircuitBreaker.sampleCountOf(11));
+    }
+}
@@ -0,0 +1,248 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.slots.block.flow;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.alibaba.csp.sentinel.cluster.TokenResult;
+import com.alibaba.csp.sentinel.cluster.TokenResultStatus;
+import com.alibaba.csp.sentinel.cluster.TokenService;
+import com.alibaba.csp.sentinel.slots.block.RuleConstant;
+
+import org.junit.After;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Test cases for {@link ClusterTokenLeaseManager}.
+ */
+public class ClusterTokenLeaseManagerTest {
+
+    @After
+    public void tearDown() {
+        ClusterTokenLeaseManager.clear();
+    }
+
+    @Test
+    public void testLeaseTimeNoLongerThanWindow() {
+        FlowRule rule = new FlowRule("testLeaseTimeNoLongerThanWindow").setCount(10).setClusterMode(true)
+            .setClusterConfig(new ClusterFlowConfig().setFlowId(1000L).setLeaseCount(10)
+                .setLeaseTimeInMs(RuleConstant.DEFAULT_WINDOW_INTERVAL_MS));
+        assertTrue(FlowRuleUtil.isValidRule(rule));
+
+        rule.getClusterConfig().setLeaseTimeInMs(RuleConstant.DEFAULT_WINDOW_INTERVAL_MS + 1);
+        assertFalse(FlowRuleUtil.isValidRule(rule));
+        // Lease time is ignored if leasing is disabled.
+        rule.getClusterConfig().setLeaseCount(0);
+        assertTrue(FlowRuleUtil.isValidRule(rule));
+    }
+
+    @Test
+    public void testConsumeLeaseLocally() {
+        LeaseTokenService service = new LeaseTokenService(TokenResultStatus.OK, 1000);
+        ClusterFlowConfig config = new ClusterFlowConfig().setFlowId(1001L).setLeaseCount(1000)
+            .setLeaseTimeInMs(60000);
+
+        for (int i = 0; i < 10; i++) {
+            assertEquals(ClusterTokenLeaseManager.LEASE_PASS,
+                ClusterTokenLeaseManager.tryAcquire(service, config, 1, false));
+        }
+        assertEquals(1, service.leaseRequests.get());
+        assertEquals(990, ClusterTokenLeaseManager.getCurrentLease(1001L).remaining.get());
+    }
+
+    @Test
+    public void testRenewExhaustedLease() {
+        LeaseTokenService service = new LeaseTokenService(TokenResultStatus.OK, 2);
+        ClusterFlowConfig config = new ClusterFlowConfig().setFlowId(1002L).setLeaseCount(2)
+            .setLeaseTimeInMs(60000);
+
+        assertEquals(ClusterTokenLeaseManager.LEASE_PASS,
+            ClusterTokenLeaseManager.tryAcquire(service, config, 1, false));
+        // The lease is exhausted, so that a new lease should be requested, and the old lease was fully used.
+        assertEquals(ClusterTokenLeaseManager.LEASE_PASS,
+            ClusterTokenLeaseManager.tryAcquire(service, config, 2, false));
+        assertTrue(service.leaseRequests.get() >= 2);
+        assertEquals(1, service.releasedCount.get());
+    }
+
+    @Test
+    public void testBlockedLease() {
+        LeaseTokenService service = new LeaseTokenService(TokenResultStatus.BLOCKED, 0);
+        ClusterFlowConfig config = new ClusterFlowConfig().setFlowId(1003L).setLeaseCount(10);
+
+        assertEquals(ClusterTokenLeaseManager.LEASE_BLOCKED,
+            ClusterTokenLeaseManager.tryAcquire(service, config, 1, false));
+        // Prioritized requests should go to the token server directly.
+        assertEquals(ClusterTokenLeaseManager.LEASE_UNAVAILABLE,
+            ClusterTokenLeaseManager.tryAcquire(service, config, 1, true));
+    }
+
+    @Test
+    public void testBlockedLeaseCachedWithinBackoff() {
+        LeaseTokenService service = new LeaseTokenService(TokenResultStatus.BLOCKED, 0);
+        ClusterFlowConfig config = new ClusterFlowConfig().setFlowId(1006L).setLeaseCount(10)
+            .setWindowIntervalMs(60000).setSampleCount(1).setLeaseTimeInMs(60000);
+
+        for (int i = 0; i < 100; i++) {
+            assertEquals(ClusterTokenLeaseManager.LEASE_BLOCKED,
+                ClusterTokenLeaseManager.tryAcquire(service, config, 1, false));
+        }
+        // Callers are blocked locally until the backoff passes, rather than renewing the lease one by one.
+        assertEquals(1, service.leaseRequests.get());
+        assertEquals(60000, ClusterTokenLeaseManager.blockedBackoffMs(config));
+    }
+
+    @Test
+    public void testLeaseNotAvailable() {
+        LeaseTokenService service = new LeaseTokenService(TokenResultStatus.NOT_AVAILABLE, 0);
+        ClusterFlowConfig config = new ClusterFlowConfig().setFlowId(1004L).setLeaseCount(10)
+            .setLeaseTimeInMs(60000);
+
+        assertEquals(ClusterTokenLeaseManager.LEASE_UNAVAILABLE,
+            ClusterTokenLeaseManager.tryAcquire(service, config, 1, false));
+        assertEquals(ClusterTokenLeaseManager.LEASE_UNAVAILABLE,
+            ClusterTokenLeaseManager.tryAcquire(service, config, 1, false));
+        // Leasing should not be retried until the lease time passes.
+        assertEquals(1, service.leaseRequests.get());
+
+        // Leasing disabled or too many tokens acquired.
+        assertEquals(ClusterTokenLeaseManager.LEASE_UNAVAILABLE, ClusterTokenLeaseManager.tryAcquire(service,
+            new ClusterFlowConfig().setFlowId(1005L), 1, false));
+        assertEquals(ClusterTokenLeaseManager.LEASE_UNAVAILABLE,
+            ClusterTokenLeaseManager.tryAcquire(service, config, 11, false));
+    }
+
+    @Test
+    public void testSingleRenewalInFlight() throws Exception {
+        final CountDownLatch renewing = new CountDownLatch(1);
+        final CountDownLatch proceed = new CountDownLatch(1);
+        final LeaseTokenService service = new LeaseTokenService(TokenResultStatus.OK, 10) {
+            @Override
+            public TokenResult requestTokenLease(Long ruleId, int leaseCount, int leaseTimeInMs) {
+                renewing.countDown();
+                try {
+                    proceed.await(5, TimeUnit.SECONDS);
+                } catch (InterruptedException ex) {
+                    Thread.currentThread().interrupt();
+                }
+                return super.requestTokenLease(ruleId, leaseCount, leaseTimeInMs);
+            }
+        };
+        final ClusterFlowConfig config = new ClusterFlowConfig().setFlowId(1007L).setLeaseCount(10)
+            .setLeaseTimeInMs(60000);
+        final AtomicInteger firstResult = new AtomicInteger(-2);
+        Thread t = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                firstResult.set(ClusterTokenLeaseManager.tryAcquire(service, config, 1, false));
+            }
+        });
+        t.start();
+        assertTrue(renewing.await(5, TimeUnit.SECONDS));
+
+        // Other callers should not wait for the renewal in flight, nor start another one.
+        assertEquals(ClusterTokenLeaseManager.LEASE_UNAVAILABLE,
+            ClusterTokenLeaseManager.tryAcquire(service, config, 1, false));
+
+        proceed.countDown();
+        t.join(5000);
+        assertEquals(ClusterTokenLeaseManager.LEASE_PASS, firstResult.get());
+        assertEquals(1, service.leaseRequests.get());
+        assertEquals(ClusterTokenLeaseManager.LEASE_PASS,
+            ClusterTokenLeaseManager.tryAcquire(service, config, 1, false));
+    }
+
+    @Test
+    public void testRetainLeasesOfLoadedRules() throws Exception {
+        LeaseTokenService service = new LeaseTokenService(TokenResultStatus.OK, 10);
+        ClusterFlowConfig kept = new ClusterFlowConfig().setFlowId(1008L).setLeaseCount(10)
+            .setLeaseTimeInMs(60000);
+        ClusterFlowConfig removed = new ClusterFlowConfig().setFlowId(1009L).setLeaseCount(10)
+            .setLeaseTimeInMs(60000);
+        assertEquals(ClusterTokenLeaseManager.LEASE_PASS,
+            ClusterTokenLeaseManager.tryAcquire(service, kept, 1, false));
+        assertEquals(ClusterTokenLeaseManager.LEASE_PASS,
+            ClusterTokenLeaseManager.tryAcquire(service, removed, 1, false));
+
+        FlowRule rule = new FlowRule("testRetainLeasesOfLoadedRules").setCount(10).setClusterMode(true)
+            .setClusterConfig(kept);
+        Map<String, List<FlowRule>> rules = Collections.singletonMap(rule.getResource(),
+            Collections.singletonList(rule));
+        ClusterTokenLeaseManager.retainLeases(rules);
+
+        assertNotNull(ClusterTokenLeaseManager.getCurrentLease(1008L));
+        assertNull(ClusterTokenLeaseManager.getCurrentLease(1009L));
+        // Unused tokens of the dropped lease are returned asynchronously.
+        for (int i = 0; i < 50 && service.releasedCount.get() == 0; i++) {
+            Thread.sleep(20);
+        }
+        assertEquals(9, service.releasedCount.get());
+    }
+
+    private static class LeaseTokenService implements TokenService {
+
+        private final int status;
+        private final int grantCount;
+        private final AtomicInteger leaseRequests = new AtomicInteger();
+        private final AtomicInteger releasedCount = new AtomicInteger();
+        private final AtomicInteger leaseIdGenerator = new AtomicInteger();
+
+        LeaseTokenService(int status, int grantCount) {
+            this.status = status;
+            this.grantCount = grantCount;
+        }
+
+        @Override
+        public TokenResult requestTokenLease(Long ruleId, int leaseCount, int leaseTimeInMs) {
+            leaseRequests.incrementAndGet();
+            TokenResult result = new TokenResult(status).setRemaining(grantCount);
+            result.setTokenId(leaseIdGenerator.incrementAndGet());
+            return result;
+        }
+
+        @Override
+        public void releaseTokenLease(Long leaseId, int unusedCount) {
+            releasedCount.addAndGet(unusedCount);
+        }
+
+        @Override
+        public TokenResult requestToken(Long ruleId, int acquireCount, boolean prioritized) {
+            return new TokenResult(TokenResultStatus.OK);
+        }
+
+        @Override
+        public TokenResult requestParamToken(Long ruleId, int acquireCount, Collection<Object> params) {
+            return new TokenResult(TokenResultStatus.OK);
+        }
+
+        @Override
+        public TokenResult requestConcurrentToken(String clientAddress, Long ruleId, int acquireCount) {
+            return new TokenResult(TokenResultStatus.OK);
+        }
+
+        @Override
+        public void releaseConcurrentToken(Long tokenId) {
+        }
+    }
+}
@@ -15,14 +15,22 @@
  */
 package com.alibaba.csp.sentinel.slots.block.flow;
 
+import com.alibaba.csp.sentinel.slots.block.RuleConstant;
+import com.alibaba.csp.sentinel.slots.block.flow.controller.AdaptiveConcurrencyController;
+
 import org.junit.Test;
 
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.TimeUnit;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
 
 /**
  * @author Weihua
@@ -76,4 +84,25 @@ public class FlowRuleManagerTest {
         }
         latchEnd.await(10, TimeUnit.SECONDS);
     }
+
+    @Test
+    public void testReuseAdaptiveControllerOnReload() {
+        String resource = "testReuseAdaptiveControllerOnReload";
+        FlowRuleManager.loadRules(Collections.singletonList(adaptiveRule(resource, 200)));
+        TrafficShapingController controller = FlowRuleManager.getFlowRuleMap().get(resource).get(0).getRater();
+        assertTrue(controller instanceof AdaptiveConcurrencyController);
+
+        // Other rules changed, while the adaptive rule stays the same.
+        FlowRule other = new FlowRule("testReuseAdaptiveControllerOnReloadOther").setCount(10);
+        FlowRuleManager.loadRules(Arrays.asList(adaptiveRule(resource, 200), other));
+        assertSame(controller, FlowRuleManager.getFlowRuleMap().get(resource).get(0).getRater());
+
+        FlowRuleManager.loadRules(Arrays.asList(adaptiveRule(resource, 300), other));
+        assertNotSame(controller, FlowRuleManager.getFlowRuleMap().get(resource).get(0).getRater());
+        FlowRuleManager.loadRules(new ArrayList<FlowRule>());
+    }
+
+    private static FlowRule adaptiveRule(String resource, double count) {
+        return new FlowRule(resource).setGrade(RuleConstant.FLOW_GRADE_ADAPTIVE_CONCURRENCY).setCount(count);
+    }
 }
@@ -0,0 +1,57 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.slots.block.flow;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Test cases for {@link QueueingDelayHolder}.
+ */
+public class QueueingDelayHolderTest {
+
+    @Test
+    public void testDeferWithoutBegin() {
+        assertFalse(QueueingDelayHolder.defer(100));
+        assertEquals(0, QueueingDelayHolder.end());
+    }
+
+    @Test
+    public void testLongestWaitInScope() {
+        QueueingDelayHolder.begin();
+        assertTrue(QueueingDelayHolder.defer(200));
+        assertTrue(QueueingDelayHolder.defer(100));
+        assertEquals(200, QueueingDelayHolder.end());
+        assertFalse(QueueingDelayHolder.defer(100));
+    }
+
+    @Test
+    public void testNestedScopes() {
+        QueueingDelayHolder.begin();
+        assertTrue(QueueingDelayHolder.defer(100));
+
+        QueueingDelayHolder.begin();
+        assertTrue(QueueingDelayHolder.defer(300));
+        // The inner end should not drop the outer scope.
+        assertEquals(300, QueueingDelayHolder.end());
+        assertTrue(QueueingDelayHolder.defer(200));
+
+        // The outer scope carries over the wait of the inner one.
+        assertEquals(300, QueueingDelayHolder.end());
+        assertFalse(QueueingDelayHolder.defer(100));
+    }
+}
@@ -0,0 +1,106 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.slots.block.flow.controller;
+
+import com.alibaba.csp.sentinel.node.Node;
+import com.alibaba.csp.sentinel.slots.block.RuleConstant;
+import com.alibaba.csp.sentinel.slots.block.flow.FlowRule;
+import com.alibaba.csp.sentinel.slots.block.flow.FlowRuleUtil;
+import com.alibaba.csp.sentinel.util.TimeUtil;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Test cases for {@link AdaptiveConcurrencyController}.
+ */
+public class AdaptiveConcurrencyControllerTest {
+
+    @Test
+    public void testCanPassWithinLimit() {
+        AdaptiveConcurrencyController controller = new AdaptiveConcurrencyController(10, 100, 0);
+        Node node = mock(Node.class);
+        when(node.curThreadNum()).thenReturn(9).thenReturn(10);
+
+        assertTrue(controller.canPass(node, 1));
+        assertFalse(controller.canPass(node, 1));
+    }
+
+    @Test
+    public void testLimitGrowsWithStableRtAndShrinksWithQueueing() {
+        AdaptiveConcurrencyController controller = new AdaptiveConcurrencyController(10, 100, 0);
+        for (int i = 0; i < 50; i++) {
+            controller.updateLimit(10, controller.getLimit());
+        }
+        int grown = controller.getLimit();
+        assertTrue(grown > 10);
+        assertTrue(grown <= 100);
+
+        for (int i = 0; i < 20; i++) {
+            controller.updateLimit(100, controller.getLimit());
+        }
+        assertTrue(controller.getLimit() < grown);
+    }
+
+    @Test
+    public void testLimitNotGrowingWhenApplicationLimited() {
+        AdaptiveConcurrencyController controller = new AdaptiveConcurrencyController(10, 100, 0);
+        for (int i = 0; i < 50; i++) {
+            controller.updateLimit(10, 1);
+        }
+        assertEquals(10, controller.getLimit());
+    }
+
+    @Test
+    public void testUpdateFromNodeStatistics() {
+        long now = TimeUtil.currentTimeMillis();
+        long interval = AdaptiveConcurrencyController.UPDATE_INTERVAL_MS;
+        AdaptiveConcurrencyController controller = new AdaptiveConcurrencyController(10, 100, now);
+        Node node = mock(Node.class);
+        when(node.successQps()).thenReturn(0d);
+        when(node.avgRt()).thenReturn(10d);
+
+        // No completed requests: the limit stays unchanged.
+        controller.tryUpdate(node, now + interval);
+        verify(node, never()).avgRt();
+
+        when(node.successQps()).thenReturn(100d);
+        when(node.curThreadNum()).thenReturn(9);
+        assertTrue(controller.canPass(node, 1));
+        // Not reaching the update interval yet.
+        controller.tryUpdate(node, now + interval + 1);
+        verify(node, never()).avgRt();
+
+        controller.tryUpdate(node, now + interval * 2);
+        verify(node).avgRt();
+        for (int i = 3; i < 10; i++) {
+            assertTrue(controller.canPass(node, 1));
+            controller.tryUpdate(node, now + interval * i);
+        }
+        assertTrue(controller.getLimit() > 10);
+    }
+
+    @Test
+    public void testAdaptiveConcurrencyRuleValidity() {
+        FlowRule rule = new FlowRule("abc").setGrade(RuleConstant.FLOW_GRADE_ADAPTIVE_CONCURRENCY).setCount(200);
+        assertTrue(FlowRuleUtil.isValidRule(rule));
+
+        rule.setClusterMode(true);
+        assertFalse(FlowRuleUtil.isValidRule(rule));
+    }
+}
@@ -0,0 +1,81 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.slots.block.flow.controller;
+
+import com.alibaba.csp.sentinel.node.Node;
+import com.alibaba.csp.sentinel.slots.block.flow.QueueingDelayHolder;
+import com.alibaba.csp.sentinel.test.AbstractTimeBasedTest;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Test cases for reserving the pass of {@link RateLimiterController} and {@link WarmUpRateLimiterController}
+ * without blocking.
+ */
+public class RateLimiterControllerAsyncTest extends AbstractTimeBasedTest {
+
+    @Test
+    public void testPaceAsync() {
+        setCurrentMillis(10000);
+        RateLimiterController paceController = new RateLimiterController(500, 10d);
+        Node node = mock(Node.class);
+
+        // Reservations are made at once with the time frozen, rather than after waiting.
+        assertEquals(0, paceController.canPassAsync(node, 1));
+        for (int i = 1; i <= 5; i++) {
+            assertEquals(i * 100, paceController.canPassAsync(node, 1));
+        }
+        assertEquals(-1, paceController.canPassAsync(node, 1));
+
+        sleep(100);
+        assertEquals(500, paceController.canPassAsync(node, 1));
+    }
+
+    @Test
+    public void testWarmUpPaceAsync() {
+        setCurrentMillis(10000);
+        WarmUpRateLimiterController controller = new WarmUpRateLimiterController(10, 10, 1000, 3);
+        Node node = mock(Node.class);
+        when(node.passQps()).thenReturn(100d);
+        when(node.previousPassQps()).thenReturn(100d);
+
+        assertEquals(0, controller.canPassAsync(node, 1));
+        assertEquals(100, controller.canPassAsync(node, 1));
+        assertEquals(200, controller.canPassAsync(node, 1));
+    }
+
+    @Test
+    public void testDeferredWait() {
+        setCurrentMillis(10000);
+        RateLimiterController paceController = new RateLimiterController(500, 10d);
+        Node node = mock(Node.class);
+
+        QueueingDelayHolder.begin();
+        long waitMs;
+        try {
+            for (int i = 0; i < 4; i++) {
+                assertTrue(paceController.canPass(node, 1));
+            }
+        } finally {
+            waitMs = QueueingDelayHolder.end();
+        }
+        assertEquals(300, waitMs);
+        assertFalse(QueueingDelayHolder.defer(100));
+    }
+}
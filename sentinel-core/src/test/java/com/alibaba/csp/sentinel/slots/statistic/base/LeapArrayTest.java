@@ -19,6 +19,7 @@ import java.util.concurrent.atomic.AtomicInteger;
 
 import org.junit.Test;
 
+import com.alibaba.csp.sentinel.config.SentinelConfig;
 import com.alibaba.csp.sentinel.test.AbstractTimeBasedTest;
 
 import static org.junit.Assert.*;
@@ -62,4 +63,31 @@ public class LeapArrayTest extends AbstractTimeBasedTest {
         assertSame(expected2, leapArray.getValidHead());
     }
 
+    @Test
+    public void testCasResetNotAppliedWithoutOptIn() {
+        SentinelConfig.setConfig(SentinelConfig.STATISTIC_WINDOW_CAS_RESET, "true");
+        try {
+            LeapArray<AtomicInteger> leapArray = new LeapArray<AtomicInteger>(2, 1000) {
+                @Override
+                public AtomicInteger newEmptyBucket(long time) {
+                    return new AtomicInteger(0);
+                }
+
+                @Override
+                protected WindowWrap<AtomicInteger> resetWindowTo(WindowWrap<AtomicInteger> windowWrap, long startTime) {
+                    windowWrap.resetTo(startTime);
+                    windowWrap.value().set(0);
+                    return windowWrap;
+                }
+            };
+            WindowWrap<AtomicInteger> window = leapArray.currentWindow(1000);
+            window.value().addAndGet(3);
+            // Reset in place under the update lock rather than replaced by a spare bucket.
+            assertSame(window, leapArray.currentWindow(2000));
+            assertEquals(0, window.value().get());
+        } finally {
+            SentinelConfig.removeConfig(SentinelConfig.STATISTIC_WINDOW_CAS_RESET);
+        }
+    }
+
 }
\ No newline at end of file
@@ -0,0 +1,128 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.slots.statistic.data;
+
+import java.util.Arrays;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Test cases for {@link RtHistogram}.
+ */
+public class RtHistogramTest {
+
+    @Test
+    public void testIndexAndValue() {
+        for (long v = 0; v < 1 << 16; v++) {
+            int index = RtHistogram.indexOf(v);
+            long upper = RtHistogram.valueOf(index);
+            assertTrue(upper >= v);
+            // Relative error is at most 1 / SUB_BUCKETS.
+            assertTrue(upper - v <= v / RtHistogram.SUB_BUCKETS);
+            if (index > 0) {
+                assertTrue(RtHistogram.valueOf(index - 1) < v);
+            }
+        }
+    }
+
+    @Test
+    public void testPercentile() {
+        RtHistogram histogram = new RtHistogram(5000);
+        assertEquals(0, histogram.percentile(99));
+        for (int i = 1; i <= 1000; i++) {
+            histogram.record(i);
+        }
+        assertEquals(1000, histogram.totalCount());
+        assertWithin(500, histogram.percentile(50));
+        assertWithin(900, histogram.percentile(90));
+        assertWithin(990, histogram.percentile(99));
+        assertWithin(999, histogram.percentile(99.9));
+
+        histogram.record(100000);
+        assertEquals(5000, histogram.percentile(100));
+
+        histogram.reset();
+        assertEquals(0, histogram.totalCount());
+        assertEquals(0, histogram.percentile(50));
+    }
+
+    @Test
+    public void testPercentileOfHistograms() {
+        RtHistogram fast = new RtHistogram(5000);
+        RtHistogram slow = new RtHistogram(5000);
+        for (int i = 0; i < 98; i++) {
+            fast.record(5);
+        }
+        slow.record(1000);
+        slow.record(2000);
+
+        assertEquals(5, RtHistogram.percentile(Arrays.asList(fast, null, slow), 50));
+        assertEquals(5, RtHistogram.percentile(Arrays.asList(fast, null, slow), 98));
+        assertWithin(1000, RtHistogram.percentile(Arrays.asList(fast, null, slow), 99));
+        assertWithin(2000, RtHistogram.percentile(Arrays.asList(fast, null, slow), 99.9));
+        assertEquals(0, RtHistogram.percentile(Arrays.<RtHistogram>asList(null, null), 99));
+    }
+
+    @Test
+    public void testBucketRecordsHistogramLazily() {
+        MetricBucket disabled = new MetricBucket(true, false);
+        disabled.addRT(10);
+        assertNull(disabled.rtHistogram());
+
+        MetricBucket enabled = new MetricBucket(true, true);
+        assertNull(enabled.rtHistogram());
+        enabled.addRT(10);
+        enabled.addRT(20);
+        RtHistogram histogram = enabled.rtHistogram();
+        assertNotNull(histogram);
+        assertEquals(2, histogram.totalCount());
+
+        enabled.reset();
+        assertSame(histogram, enabled.rtHistogram());
+        assertEquals(0, histogram.totalCount());
+    }
+
+    @Test
+    public void testConcurrentRecord() throws Exception {
+        final RtHistogram histogram = new RtHistogram(5000);
+        final int threads = 8;
+        final int perThread = 10000;
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        final CountDownLatch latch = new CountDownLatch(threads);
+        for (int t = 0; t < threads; t++) {
+            pool.submit(() -> {
+                for (int i = 0; i < perThread; i++) {
+                    histogram.record(i % 100);
+                }
+                latch.countDown();
+            });
+        }
+        assertTrue(latch.await(10, TimeUnit.SECONDS));
+        pool.shutdown();
+        assertEquals(threads * perThread, histogram.totalCount());
+    }
+
+    private static void assertWithin(long expected, long actual) {
+        assertTrue("expected about " + expected + " but was " + actual,
+            actual >= expected && actual <= expected + expected / RtHistogram.SUB_BUCKETS);
+    }
+}
@@ -0,0 +1,109 @@
+/*
+ * Copyright 1999-2022 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.slots.statistic.data;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import com.alibaba.csp.sentinel.slots.statistic.MetricEvent;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Test cases for {@link StripedMetricBucket}.
+ */
+public class StripedMetricBucketTest {
+
+    @Test
+    public void testAddAndReset() {
+        StripedMetricBucket bucket = new StripedMetricBucket();
+        bucket.addPass(3);
+        bucket.addBlock(2);
+        bucket.addSuccess(1);
+        bucket.addRT(20);
+        bucket.addRT(10);
+
+        assertEquals(3, bucket.pass());
+        assertEquals(2, bucket.block());
+        assertEquals(1, bucket.success());
+        assertEquals(0, bucket.exception());
+        assertEquals(30, bucket.rt());
+        assertEquals(10, bucket.minRt());
+
+        MetricBucket other = new MetricBucket();
+        other.addOccupiedPass(5);
+        other.addPass(7);
+        bucket.reset(other);
+        assertEquals(7, bucket.pass());
+        assertEquals(5, bucket.occupiedPass());
+        assertEquals(0, bucket.block());
+
+        bucket.reset();
+        for (MetricEvent event : MetricEvent.values()) {
+            assertEquals(0, bucket.get(event));
+        }
+    }
+
+    @Test
+    public void testConcurrentAdd() throws Exception {
+        final StripedMetricBucket bucket = new StripedMetricBucket();
+        final int threads = 16;
+        final int loops = 10000;
+        final CountDownLatch latch = new CountDownLatch(threads);
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        for (int i = 0; i < threads; i++) {
+            pool.submit(new Runnable() {
+                @Override
+                public void run() {
+                    for (int j = 0; j < loops; j++) {
+                        bucket.addPass(1);
+                        bucket.addRT(2);
+                    }
+                    latch.countDown();
+                }
+            });
+        }
+        assertTrue(latch.await(10, TimeUnit.SECONDS));
+        pool.shutdownNow();
+
+        assertTrue(bucket.stripeTableSize() <= StripedMetricBucket.STRIPES);
+        assertEquals(threads * loops, bucket.pass());
+        assertEquals(threads * loops * 2L, bucket.rt());
+        assertEquals(0, bucket.block());
+    }
+
+    @Test
+    public void testNoStripesWithoutContention() {
+        StripedMetricBucket bucket = new StripedMetricBucket();
+        for (int i = 0; i < 1000; i++) {
+            bucket.addPass(1);
+        }
+        assertEquals(1000, bucket.pass());
+        assertEquals(0, bucket.stripeTableSize());
+    }
+
+    @Test
+    public void testStripeCount() {
+        assertEquals(1, StripedMetricBucket.stripeCount(1));
+        assertEquals(8, StripedMetricBucket.stripeCount(6));
+        assertEquals(16, StripedMetricBucket.stripeCount(16));
+        assertEquals(64, StripedMetricBucket.stripeCount(256));
+    }
+}
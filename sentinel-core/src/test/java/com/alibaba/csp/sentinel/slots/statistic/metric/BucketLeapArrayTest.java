@@ -21,6 +21,7 @@ import java.util.List;
 import java.util.Set;
 import java.util.concurrent.CountDownLatch;
 
+import com.alibaba.csp.sentinel.config.SentinelConfig;
 import com.alibaba.csp.sentinel.slots.statistic.base.WindowWrap;
 import com.alibaba.csp.sentinel.slots.statistic.data.MetricBucket;
 import com.alibaba.csp.sentinel.util.TimeUtil;
@@ -105,6 +106,36 @@ public class BucketLeapArrayTest {
         assertEquals(0L, currentWindow.block());
     }
 
+    @Test
+    public void testCasResetDeprecatedWindow() {
+        SentinelConfig.setConfig(SentinelConfig.STATISTIC_WINDOW_CAS_RESET, "true");
+        try {
+            BucketLeapArray leapArray = new BucketLeapArray(sampleCount, intervalInMs);
+            long firstTime = TimeUtil.currentTimeMillis();
+            long windowStart = firstTime - firstTime % windowLengthInMs;
+            WindowWrap<MetricBucket> window = leapArray.currentWindow(windowStart);
+            window.value().addPass(3);
+
+            long nextTime = windowStart + intervalInMs;
+            WindowWrap<MetricBucket> newWindow = leapArray.currentWindow(nextTime);
+            assertNotSame(window, newWindow);
+            assertEquals(nextTime, newWindow.windowStart());
+            assertEquals(0L, newWindow.value().pass());
+            // The replaced bucket is left untouched for threads still holding it.
+            assertEquals(3L, window.value().pass());
+            assertSame(newWindow, leapArray.currentWindow(nextTime + windowLengthInMs / 2));
+
+            // The replaced bucket is reused by the next rotation of the index, rather than allocating.
+            long thirdTime = nextTime + intervalInMs;
+            WindowWrap<MetricBucket> reusedWindow = leapArray.currentWindow(thirdTime);
+            assertSame(window, reusedWindow);
+            assertEquals(thirdTime, reusedWindow.windowStart());
+            assertEquals(0L, reusedWindow.value().pass());
+        } finally {
+            SentinelConfig.removeConfig(SentinelConfig.STATISTIC_WINDOW_CAS_RESET);
+        }
+    }
+
     @Deprecated
     public void testWindowDeprecatedRefresh() {
         BucketLeapArray leapArray = new BucketLeapArray(sampleCount, intervalInMs);
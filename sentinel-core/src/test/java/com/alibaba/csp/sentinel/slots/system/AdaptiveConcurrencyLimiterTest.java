@@ -0,0 +1,105 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.slots.system;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Test cases for {@link AdaptiveConcurrencyLimiter}.
+ */
+public class AdaptiveConcurrencyLimiterTest {
+
+    private final AtomicLong clock = new AtomicLong(1000);
+
+    @Test
+    public void testGrowWhileRtIsStableAndShrinkWhenQueueing() {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(10, 200, clock.get());
+        assertEquals(10, limiter.getLimit());
+
+        for (int i = 0; i < 50; i++) {
+            runWindow(limiter, limiter.getLimit(), 10);
+        }
+        int grownLimit = limiter.getLimit();
+        assertTrue("limit should grow while RT is stable: " + grownLimit, grownLimit > 50);
+        assertTrue(grownLimit <= 200);
+
+        // Requests start to queue up: RT triples.
+        for (int i = 0; i < 20; i++) {
+            runWindow(limiter, limiter.getLimit(), 30);
+        }
+        assertTrue("limit should shrink once RT grows: " + limiter.getLimit(), limiter.getLimit() < grownLimit / 2);
+        assertEquals(0, limiter.getInflight());
+    }
+
+    @Test
+    public void testNotGrowWhenApplicationLimited() {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(20, 200, clock.get());
+        for (int i = 0; i < 50; i++) {
+            // Only a few requests in flight, far below the limit.
+            runWindow(limiter, 3, 10);
+        }
+        assertEquals(20, limiter.getLimit());
+    }
+
+    @Test
+    public void testBlockAtLimit() {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(2, 10, clock.get());
+        assertTrue(limiter.tryAcquire());
+        assertTrue(limiter.tryAcquire());
+        assertFalse(limiter.tryAcquire());
+        limiter.release(-1, clock.get());
+        assertTrue(limiter.tryAcquire());
+        limiter.release(-1, clock.get());
+        limiter.release(-1, clock.get());
+        assertEquals(0, limiter.getInflight());
+        // Releasing a slot never acquired from the limiter is ignored.
+        limiter.release(-1, clock.get());
+        assertEquals(0, limiter.getInflight());
+        assertTrue(limiter.tryAcquire());
+        assertTrue(limiter.tryAcquire());
+        assertFalse(limiter.tryAcquire());
+    }
+
+    @Test
+    public void testResizeKeepsInflight() {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(2, 10, clock.get());
+        assertTrue(limiter.tryAcquire());
+        limiter.setMaxLimit(1);
+        assertEquals(1, limiter.getMaxLimit());
+        assertEquals(1, limiter.getLimit());
+        assertEquals(1, limiter.getInflight());
+        assertFalse(limiter.tryAcquire());
+        limiter.release(-1, clock.get());
+        assertTrue(limiter.tryAcquire());
+    }
+
+    private void runWindow(AdaptiveConcurrencyLimiter limiter, int concurrency, long rt) {
+        int acquired = 0;
+        for (int i = 0; i < Math.max(concurrency, AdaptiveConcurrencyLimiter.MIN_WINDOW_SAMPLES); i++) {
+            if (i < concurrency && limiter.tryAcquire()) {
+                acquired++;
+            }
+        }
+        long now = clock.addAndGet(AdaptiveConcurrencyLimiter.MIN_WINDOW_MS);
+        for (int i = 0; i < Math.max(acquired, AdaptiveConcurrencyLimiter.MIN_WINDOW_SAMPLES); i++) {
+            limiter.release(rt, now);
+        }
+    }
+}
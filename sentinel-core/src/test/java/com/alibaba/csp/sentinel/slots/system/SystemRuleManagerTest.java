@@ -20,9 +20,14 @@ import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
 
+import com.alibaba.csp.sentinel.Entry;
 import com.alibaba.csp.sentinel.EntryType;
+import com.alibaba.csp.sentinel.SphU;
 import com.alibaba.csp.sentinel.slotchain.StringResourceWrapper;
 import com.alibaba.csp.sentinel.slots.block.BlockException;
+import com.alibaba.csp.sentinel.slots.block.flow.FlowException;
+import com.alibaba.csp.sentinel.slots.block.flow.FlowRule;
+import com.alibaba.csp.sentinel.slots.block.flow.FlowRuleManager;
 
 import org.junit.After;
 import org.junit.Before;
@@ -100,6 +105,92 @@ public class SystemRuleManagerTest {
         assertTrue("The entry should be blocked under SystemRule maxCpuUsage=0", blocked);
     }
 
+    @Test
+    public void testAdaptiveConcurrencyRule() throws Exception {
+        SystemRule rule = new SystemRule();
+        rule.setAdaptiveConcurrency(true);
+        rule.setMaxConcurrency(300);
+        SystemRuleManager.loadRules(Collections.singletonList(rule));
+
+        List<SystemRule> rules = SystemRuleManager.getRules();
+        assertEquals(1, rules.size());
+        assertTrue(rules.get(0).isAdaptiveConcurrency());
+        assertEquals(300, rules.get(0).getMaxConcurrency());
+        StringResourceWrapper resourceWrapper = new StringResourceWrapper("testAdaptiveConcurrencyRule", EntryType.IN);
+        assertNull(SystemRuleManager.getConcurrencyLimiter(resourceWrapper));
+        AdaptiveConcurrencyLimiter limiter = SystemRuleManager.acquireConcurrency(resourceWrapper);
+        assertNotNull(limiter);
+        assertSame(limiter, SystemRuleManager.getConcurrencyLimiter(resourceWrapper));
+
+        int limit = limiter.getLimit();
+        for (int i = 1; i < limit; i++) {
+            assertSame(limiter, SystemRuleManager.acquireConcurrency(resourceWrapper));
+        }
+        try {
+            SystemRuleManager.acquireConcurrency(resourceWrapper);
+            fail("The entry should be blocked when the in-flight requests reach the limit");
+        } catch (SystemBlockException ex) {
+            assertEquals("concurrency", ex.getLimitType());
+        }
+        limiter.release(5, System.currentTimeMillis());
+        assertSame(limiter, SystemRuleManager.acquireConcurrency(resourceWrapper));
+        // Other resources are limited by their own limiters.
+        StringResourceWrapper otherResource = new StringResourceWrapper("testAdaptiveConcurrencyRuleOther",
+            EntryType.IN);
+        AdaptiveConcurrencyLimiter otherLimiter = SystemRuleManager.acquireConcurrency(otherResource);
+        assertNotSame(limiter, otherLimiter);
+        otherLimiter.release(5, System.currentTimeMillis());
+        // Outbound traffic is not limited.
+        assertNull(SystemRuleManager.acquireConcurrency(
+            new StringResourceWrapper("testAdaptiveConcurrencyRuleOut", EntryType.OUT)));
+        for (int i = 0; i < limit; i++) {
+            limiter.release(5, System.currentTimeMillis());
+        }
+
+        // Reloading the same rule keeps the limiter.
+        SystemRuleManager.loadRules(Collections.singletonList(rule));
+        assertSame(limiter, SystemRuleManager.getConcurrencyLimiter(resourceWrapper));
+        SystemRuleManager.loadRules(new ArrayList<SystemRule>());
+        assertNull(SystemRuleManager.getConcurrencyLimiter(resourceWrapper));
+    }
+
+    @Test
+    public void testReleaseOnExit() throws Exception {
+        SystemRule rule = new SystemRule();
+        rule.setAdaptiveConcurrency(true);
+        rule.setMaxConcurrency(300);
+        SystemRuleManager.loadRules(Collections.singletonList(rule));
+        StringResourceWrapper resourceWrapper = new StringResourceWrapper("testReleaseOnExit", EntryType.IN);
+
+        Entry entry = SphU.entry(resourceWrapper.getName(), EntryType.IN);
+        AdaptiveConcurrencyLimiter limiter = SystemRuleManager.getConcurrencyLimiter(resourceWrapper);
+        assertEquals(1, limiter.getInflight());
+
+        // The limiter is resized rather than replaced while the request is in flight.
+        SystemRule newRule = new SystemRule();
+        newRule.setAdaptiveConcurrency(true);
+        newRule.setMaxConcurrency(200);
+        SystemRuleManager.loadRules(Collections.singletonList(newRule));
+        assertSame(limiter, SystemRuleManager.getConcurrencyLimiter(resourceWrapper));
+        assertEquals(200, limiter.getMaxLimit());
+
+        entry.exit();
+        assertEquals(0, limiter.getInflight());
+
+        // Requests blocked by the following slots are released as well.
+        FlowRule flowRule = new FlowRule(resourceWrapper.getName());
+        flowRule.setCount(0);
+        FlowRuleManager.loadRules(Collections.singletonList(flowRule));
+        try {
+            SphU.entry(resourceWrapper.getName(), EntryType.IN);
+            fail("The entry should be blocked by the flow rule");
+        } catch (FlowException ex) {
+            assertEquals(0, limiter.getInflight());
+        } finally {
+            FlowRuleManager.loadRules(new ArrayList<FlowRule>());
+        }
+    }
+
     @Before
     public void setUp() throws Exception {
         SystemRuleManager.loadRules(new ArrayList<SystemRule>());
@@ -0,0 +1,127 @@
+/*
+ * Copyright 1999-2022 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.util;
+
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Test cases for {@link ConcurrentRegistry}.
+ */
+public class ConcurrentRegistryTest {
+
+    @Test
+    public void testGetOrCreate() {
+        ConcurrentRegistry<String, Object> registry = new ConcurrentRegistry<>();
+        Object value = registry.getOrCreate("a", k -> new Object());
+        assertSame(value, registry.get("a"));
+        assertSame(value, registry.getOrCreate("a", k -> new Object()));
+        assertEquals(1, registry.size());
+
+        assertNull(registry.getOrCreate("b", k -> null));
+        assertNull(registry.get("b"));
+        assertEquals(1, registry.size());
+
+        assertTrue(registry.remove("a", value));
+        assertEquals(0, registry.size());
+    }
+
+    @Test
+    public void testConcurrentGetOrCreateOnlyCreatesOnce() throws Exception {
+        final ConcurrentRegistry<Integer, Object> registry = new ConcurrentRegistry<>();
+        final AtomicInteger created = new AtomicInteger();
+        final int threads = 8;
+        final int keys = 1000;
+        final CountDownLatch latch = new CountDownLatch(threads);
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        for (int i = 0; i < threads; i++) {
+            pool.submit(() -> {
+                for (int k = 0; k < keys; k++) {
+                    registry.getOrCreate(k, key -> {
+                        created.incrementAndGet();
+                        return new Object();
+                    });
+                }
+                latch.countDown();
+            });
+        }
+        assertTrue(latch.await(10, TimeUnit.SECONDS));
+        pool.shutdownNow();
+
+        assertEquals(keys, registry.size());
+        assertEquals(keys, created.get());
+    }
+
+    @Test
+    public void testConcurrentGetOrCreateNeverExceedsMaxSize() throws Exception {
+        final ConcurrentRegistry<Integer, Object> registry = new ConcurrentRegistry<>();
+        final int threads = 8;
+        final int maxSize = 100;
+        final CountDownLatch latch = new CountDownLatch(threads);
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        for (int i = 0; i < threads; i++) {
+            final int base = i * 1000;
+            pool.submit(() -> {
+                for (int k = 0; k < 1000; k++) {
+                    registry.getOrCreate(base + k, maxSize, key -> new Object());
+                }
+                latch.countDown();
+            });
+        }
+        assertTrue(latch.await(10, TimeUnit.SECONDS));
+        pool.shutdownNow();
+
+        assertEquals(maxSize, registry.size());
+        assertNull(registry.getOrCreate(-1, maxSize, key -> new Object()));
+
+        registry.clear();
+        assertEquals(0, registry.size());
+        assertNotNull(registry.getOrCreate(-1, maxSize, key -> new Object()));
+    }
+
+    @Test
+    public void testMutableMapKeepsSizeLimit() {
+        ConcurrentRegistry<Integer, Object> registry = new ConcurrentRegistry<>();
+        Map<Integer, Object> map = registry.asMutableMap();
+        map.put(1, new Object());
+        map.put(2, new Object());
+        assertEquals(2, registry.size());
+        assertNull(registry.getOrCreate(3, 2, key -> new Object()));
+
+        map.remove(1);
+        assertNotNull(registry.getOrCreate(3, 2, key -> new Object()));
+        assertNull(registry.getOrCreate(4, 2, key -> new Object()));
+
+        Iterator<Map.Entry<Integer, Object>> it = map.entrySet().iterator();
+        it.next();
+        it.remove();
+        assertEquals(1, map.size());
+        assertNotNull(registry.getOrCreate(4, 2, key -> new Object()));
+
+        map.clear();
+        assertTrue(registry.asMap().isEmpty());
+        assertNotNull(registry.getOrCreate(5, 2, key -> new Object()));
+    }
+}
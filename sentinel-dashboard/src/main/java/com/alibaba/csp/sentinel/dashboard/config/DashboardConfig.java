@@ -64,6 +64,28 @@ public class DashboardConfig {
      */
     public static final String CONFIG_AUTO_REMOVE_MACHINE_MILLIS = "sentinel.dashboard.autoRemoveMachineMillis";
 
+    /**
+     * Storage of metrics, {@code memory} (default) or {@code timeseries}.
+     */
+    public static final String CONFIG_METRIC_STORAGE = "sentinel.dashboard.metric.storage";
+    /**
+     * Retention of metrics in the time-series storage in millisecond.
+     */
+    public static final String CONFIG_METRIC_RETENTION_MILLIS = "sentinel.dashboard.metric.retentionMillis";
+    /**
+     * Retention of metrics kept in heap by the time-series storage in millisecond, older metrics are read from disk.
+     */
+    public static final String CONFIG_METRIC_MEMORY_RETENTION_MILLIS = "sentinel.dashboard.metric.memoryRetentionMillis";
+    /**
+     * Directory of the metric segment files of the time-series storage.
+     */
+    public static final String CONFIG_METRIC_STORAGE_DIR = "sentinel.dashboard.metric.storageDir";
+
+    public static final String METRIC_STORAGE_MEMORY = "memory";
+    public static final String METRIC_STORAGE_TIMESERIES = "timeseries";
+    public static final int DEFAULT_METRIC_RETENTION_MS = 1000 * 60 * 60 * 24;
+    public static final int DEFAULT_METRIC_MEMORY_RETENTION_MS = 1000 * 60 * 30;
+
     private static final ConcurrentMap<String, Object> cacheMap = new ConcurrentHashMap<>();
     
     @NonNull
@@ -134,6 +156,22 @@ public class DashboardConfig {
         return getConfigInt(CONFIG_UNHEALTHY_MACHINE_MILLIS, DEFAULT_MACHINE_HEALTHY_TIMEOUT_MS, 30000);
     }
     
+    public static int getMetricRetentionMillis() {
+        return getConfigInt(CONFIG_METRIC_RETENTION_MILLIS, DEFAULT_METRIC_RETENTION_MS, 60000 * 5);
+    }
+
+    public static int getMetricMemoryRetentionMillis() {
+        return getConfigInt(CONFIG_METRIC_MEMORY_RETENTION_MILLIS, DEFAULT_METRIC_MEMORY_RETENTION_MS, 60000 * 5);
+    }
+
+    public static String getMetricStorageDir() {
+        String dir = getConfigStr(CONFIG_METRIC_STORAGE_DIR);
+        if (StringUtils.isBlank(dir)) {
+            dir = System.getProperty("user.home") + "/logs/csp/sentinel-dashboard-metrics";
+        }
+        return dir;
+    }
+
     public static void clearCache() {
         cacheMap.clear();
     }
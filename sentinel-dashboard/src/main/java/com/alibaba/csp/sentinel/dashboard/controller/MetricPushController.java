@@ -0,0 +1,88 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.dashboard.controller;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+
+import javax.servlet.http.HttpServletRequest;
+
+import com.alibaba.csp.sentinel.dashboard.domain.Result;
+import com.alibaba.csp.sentinel.dashboard.metric.MetricPushReceiver;
+import com.alibaba.csp.sentinel.util.StringUtil;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Controller;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.ResponseBody;
+
+/**
+ * Ingest endpoint of the metrics pushed by machines. The endpoint is excluded from login, pushes are
+ * authenticated by the shared token configured by {@code metric.push.token} instead, and rejected if no
+ * token is configured.
+ *
+ * @since 1.8.7
+ */
+@Controller
+@RequestMapping(value = "/metric", produces = MediaType.APPLICATION_JSON_VALUE)
+public class MetricPushController {
+
+    private final Logger logger = LoggerFactory.getLogger(MetricPushController.class);
+
+    @Autowired
+    private MetricPushReceiver metricPushReceiver;
+
+    @Value("${metric.push.token:}")
+    private String pushToken;
+
+    @ResponseBody
+    @PostMapping("/push")
+    public Result<?> receiveMetrics(String app, String ip, Integer port, HttpServletRequest request,
+                                    @RequestHeader(value = MetricPushReceiver.TOKEN_HEADER, required = false)
+                                        String token) {
+        if (StringUtil.isBlank(pushToken)) {
+            return Result.ofFail(-1, "metric push disabled");
+        }
+        if (token == null || !MessageDigest.isEqual(pushToken.getBytes(StandardCharsets.UTF_8),
+            token.getBytes(StandardCharsets.UTF_8))) {
+            return Result.ofFail(-1, "invalid token");
+        }
+        if (StringUtil.isBlank(app) || app.length() > 256) {
+            return Result.ofFail(-1, "invalid appName");
+        }
+        if (StringUtil.isBlank(ip) || ip.length() > 128) {
+            return Result.ofFail(-1, "invalid ip: " + ip);
+        }
+        if (port == null || port <= 0) {
+            return Result.ofFail(-1, "invalid port");
+        }
+        if (request.getContentLengthLong() > MetricPushReceiver.MAX_BODY_BYTES) {
+            return Result.ofFail(-1, "body too large");
+        }
+        try {
+            return Result.ofSuccess(metricPushReceiver.receive(app, ip, port, request.getInputStream()));
+        } catch (Exception e) {
+            logger.warn("Invalid metrics pushed from {}:{} of {}", ip, port, app, e);
+            return Result.ofFail(-1, "invalid metric frame");
+        }
+    }
+}
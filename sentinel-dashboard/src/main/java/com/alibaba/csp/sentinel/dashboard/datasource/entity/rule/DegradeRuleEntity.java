@@ -38,6 +38,7 @@ public class DegradeRuleEntity implements RuleEntity {
     private Integer minRequestAmount;
     private Double slowRatioThreshold;
     private Integer statIntervalMs;
+    private Double percentile;
 
     private Date gmtCreate;
     private Date gmtModified;
@@ -55,6 +56,7 @@ public class DegradeRuleEntity implements RuleEntity {
         entity.setMinRequestAmount(rule.getMinRequestAmount());
         entity.setSlowRatioThreshold(rule.getSlowRatioThreshold());
         entity.setStatIntervalMs(rule.getStatIntervalMs());
+        entity.setPercentile(rule.getPercentile());
         return entity;
     }
 
@@ -162,6 +164,15 @@ public class DegradeRuleEntity implements RuleEntity {
         return this;
     }
 
+    public Double getPercentile() {
+        return percentile;
+    }
+
+    public DegradeRuleEntity setPercentile(Double percentile) {
+        this.percentile = percentile;
+        return this;
+    }
+
     @Override
     public Date getGmtCreate() {
         return gmtCreate;
@@ -196,6 +207,9 @@ public class DegradeRuleEntity implements RuleEntity {
         if (statIntervalMs != null) {
             rule.setStatIntervalMs(statIntervalMs);
         }
+        if (percentile != null) {
+            rule.setPercentile(percentile);
+        }
 
         return rule;
     }
@@ -15,9 +15,15 @@
  */
 package com.alibaba.csp.sentinel.dashboard.metric;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
 import java.net.ConnectException;
 import java.net.SocketTimeoutException;
+import java.net.URLEncoder;
 import java.nio.charset.Charset;
+import java.util.ArrayList;
 import java.util.Date;
 import java.util.HashSet;
 import java.util.List;
@@ -34,6 +40,7 @@ import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.ThreadPoolExecutor.DiscardPolicy;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.GZIPInputStream;
 
 import com.alibaba.csp.sentinel.Constants;
 import com.alibaba.csp.sentinel.concurrent.NamedThreadFactory;
@@ -42,6 +49,9 @@ import com.alibaba.csp.sentinel.dashboard.datasource.entity.MetricEntity;
 import com.alibaba.csp.sentinel.dashboard.discovery.AppInfo;
 import com.alibaba.csp.sentinel.dashboard.discovery.AppManagement;
 import com.alibaba.csp.sentinel.dashboard.discovery.MachineInfo;
+import com.alibaba.csp.sentinel.command.handler.SendMetricCommandHandler;
+import com.alibaba.csp.sentinel.node.metric.MetricCursorResult;
+import com.alibaba.csp.sentinel.node.metric.MetricFrameCodec;
 import com.alibaba.csp.sentinel.node.metric.MetricNode;
 import com.alibaba.csp.sentinel.util.StringUtil;
 
@@ -74,16 +84,26 @@ public class MetricFetcher {
     private static final long MAX_LAST_FETCH_INTERVAL_MS = 1000 * 15;
     private static final long FETCH_INTERVAL_SECOND = 6;
     private static final Charset DEFAULT_CHARSET = Charset.forName(SentinelConfig.charset());
+    /**
+     * Metric responses and pushed batches larger than this once gunzipped are rejected.
+     */
+    static final int MAX_INFLATED_BYTES = 16 * 1024 * 1024;
     private final static String METRIC_URL_PATH = "metric";
     private static Logger logger = LoggerFactory.getLogger(MetricFetcher.class);
     private final long intervalSecond = 1;
 
     private Map<String, AtomicLong> appLastFetchTime = new ConcurrentHashMap<>();
+    /**
+     * {@code app@ip:port -> cursor of the metric files of the machine}
+     */
+    private final Map<String, String> machineCursors = new ConcurrentHashMap<>();
 
     @Autowired
     private MetricsRepository<MetricEntity> metricStore;
     @Autowired
     private AppManagement appManagement;
+    @Autowired
+    private MetricPushReceiver metricPushReceiver;
 
     private CloseableHttpAsyncClient httpclient;
 
@@ -138,12 +158,31 @@ public class MetricFetcher {
         if (map.isEmpty()) {
             return;
         }
-        Date date = new Date();
+        List<MetricEntity> direct = new ArrayList<>(map.size());
+        List<MetricEntity> merged = null;
         for (MetricEntity entity : map.values()) {
+            // Other machines of the app may push metrics of the same seconds, so write through the push receiver.
+            if (metricPushReceiver.hasPushedRecently(entity.getApp())) {
+                if (merged == null) {
+                    merged = new ArrayList<>();
+                }
+                merged.add(entity);
+            } else {
+                direct.add(entity);
+            }
+        }
+        if (merged != null) {
+            direct.addAll(metricPushReceiver.mergePulled(merged, System.currentTimeMillis()));
+        }
+        if (direct.isEmpty()) {
+            return;
+        }
+        Date date = new Date();
+        for (MetricEntity entity : direct) {
             entity.setGmtCreate(date);
             entity.setGmtModified(date);
         }
-        metricStore.saveAll(map.values());
+        metricStore.saveAll(direct);
     }
 
     /**
@@ -199,6 +238,7 @@ public class MetricFetcher {
             if (machine.isDead()) {
                 latch.countDown();
                 appManagement.getDetailApp(app).removeMachine(machine.getIp(), machine.getPort());
+                machineCursors.remove(cursorKey(machine));
                 logger.info("Dead machine removed: {}:{} of {}", machine.getIp(), machine.getPort(), app);
                 continue;
             }
@@ -207,10 +247,19 @@ public class MetricFetcher {
                 unhealthy.incrementAndGet();
                 continue;
             }
+            if (metricPushReceiver.isPushing(machine)) {
+                // The machine pushes its metrics to MetricPushReceiver.
+                latch.countDown();
+                continue;
+            }
+            // Continue from the cursor of the last fetch, so that the machine doesn't search its metric index.
             final String url = "http://" + machine.getIp() + ":" + machine.getPort() + "/" + METRIC_URL_PATH
-                + "?startTime=" + startTime + "&endTime=" + endTime + "&refetch=" + false;
+                + "?startTime=" + startTime + "&endTime=" + endTime + "&refetch=" + false
+                + "&cursor=" + encodeCursor(machineCursors.get(cursorKey(machine)));
             final HttpGet httpGet = new HttpGet(url);
             httpGet.setHeader(HTTP.CONN_DIRECTIVE, HTTP.CONN_CLOSE);
+            httpGet.setHeader("Accept", MetricFrameCodec.CONTENT_TYPE + ", text/plain");
+            httpGet.setHeader("Accept-Encoding", "gzip");
             httpclient.execute(httpGet, new FutureCallback<HttpResponse>() {
                 @Override
                 public void completed(final HttpResponse response) {
@@ -304,7 +353,33 @@ public class MetricFetcher {
             }
         } catch (Exception ignore) {
         }
-        String body = EntityUtils.toString(response.getEntity(), charset != null ? charset : DEFAULT_CHARSET);
+        if (response.getEntity().getContentLength() > MAX_INFLATED_BYTES) {
+            logger.warn("Metric response of {} is too large: {} bytes", cursorKey(machine),
+                response.getEntity().getContentLength());
+            return;
+        }
+        byte[] data = EntityUtils.toByteArray(response.getEntity());
+        if (data == null) {
+            return;
+        }
+        if (isGzip(data)) {
+            data = gunzip(data, MAX_INFLATED_BYTES);
+        }
+        if (MetricFrameCodec.isFrame(data)) {
+            MetricCursorResult result = MetricFrameCodec.decode(data);
+            updateCursor(machine, result.getNextCursor() == null ? null : result.getNextCursor().encode());
+            for (MetricNode node : result.getNodes()) {
+                aggregateNode(node, machine, metricMap);
+            }
+            return;
+        }
+        String body = new String(data, charset != null ? charset : DEFAULT_CHARSET);
+        if (body.startsWith(SendMetricCommandHandler.CURSOR_LINE_PREFIX)) {
+            int lineEnd = body.indexOf('\n');
+            String cursorLine = lineEnd < 0 ? body : body.substring(0, lineEnd);
+            updateCursor(machine, cursorLine.substring(SendMetricCommandHandler.CURSOR_LINE_PREFIX.length()).trim());
+            body = lineEnd < 0 ? "" : body.substring(lineEnd + 1);
+        }
         if (StringUtil.isEmpty(body) || body.startsWith(NO_METRICS)) {
             //logger.info(machine.getApp() + ":" + machine.getIp() + ":" + machine.getPort() + ", bodyStr is empty");
             return;
@@ -323,43 +398,98 @@ public class MetricFetcher {
 
         for (String line : lines) {
             try {
-                MetricNode node = MetricNode.fromThinString(line);
-                if (shouldFilterOut(node.getResource())) {
-                    continue;
-                }
-                /*
-                 * aggregation metrics by app_resource_timeSecond, ignore ip and port.
-                 */
-                String key = buildMetricKey(machine.getApp(), node.getResource(), node.getTimestamp());
-
-                MetricEntity metricEntity = map.computeIfAbsent(key, s -> {
-                    MetricEntity initMetricEntity = new MetricEntity();
-                    initMetricEntity.setApp(machine.getApp());
-                    initMetricEntity.setTimestamp(new Date(node.getTimestamp()));
-                    initMetricEntity.setPassQps(0L);
-                    initMetricEntity.setBlockQps(0L);
-                    initMetricEntity.setRtAndSuccessQps(0, 0L);
-                    initMetricEntity.setExceptionQps(0L);
-                    initMetricEntity.setCount(0);
-                    initMetricEntity.setResource(node.getResource());
-                    return initMetricEntity;
-                });
-                metricEntity.addPassQps(node.getPassQps());
-                metricEntity.addBlockQps(node.getBlockQps());
-                metricEntity.addRtAndSuccessQps(node.getRt(), node.getSuccessQps());
-                metricEntity.addExceptionQps(node.getExceptionQps());
-                metricEntity.addCount(1);
+                aggregateNode(MetricNode.fromThinString(line), machine, map);
             } catch (Exception e) {
                 logger.warn("handleBody line exception, machine: {}, line: {}", machine.toLogString(), line);
             }
         }
     }
 
+    private void aggregateNode(MetricNode node, MachineInfo machine, Map<String, MetricEntity> map) {
+        if (shouldFilterOut(node.getResource())) {
+            return;
+        }
+        /*
+         * aggregation metrics by app_resource_timeSecond, ignore ip and port.
+         */
+        String key = buildMetricKey(machine.getApp(), node.getResource(), node.getTimestamp());
+
+        MetricEntity metricEntity = map.computeIfAbsent(key, s -> {
+            MetricEntity initMetricEntity = new MetricEntity();
+            initMetricEntity.setApp(machine.getApp());
+            initMetricEntity.setTimestamp(new Date(node.getTimestamp()));
+            initMetricEntity.setPassQps(0L);
+            initMetricEntity.setBlockQps(0L);
+            initMetricEntity.setRtAndSuccessQps(0, 0L);
+            initMetricEntity.setExceptionQps(0L);
+            initMetricEntity.setCount(0);
+            initMetricEntity.setResource(node.getResource());
+            return initMetricEntity;
+        });
+        metricEntity.addPassQps(node.getPassQps());
+        metricEntity.addBlockQps(node.getBlockQps());
+        metricEntity.addRtAndSuccessQps(node.getRt(), node.getSuccessQps());
+        metricEntity.addExceptionQps(node.getExceptionQps());
+        metricEntity.addCount(1);
+    }
+
+    private void updateCursor(MachineInfo machine, String cursor) {
+        if (StringUtil.isBlank(cursor)) {
+            machineCursors.remove(cursorKey(machine));
+        } else {
+            machineCursors.put(cursorKey(machine), cursor);
+        }
+    }
+
+    private static String cursorKey(MachineInfo machine) {
+        return machine.getApp() + "@" + machine.getIp() + ":" + machine.getPort();
+    }
+
+    private static String encodeCursor(String cursor) {
+        if (cursor == null) {
+            return SendMetricCommandHandler.NO_CURSOR;
+        }
+        try {
+            return URLEncoder.encode(cursor, "UTF-8");
+        } catch (Exception ex) {
+            return SendMetricCommandHandler.NO_CURSOR;
+        }
+    }
+
+    static boolean isGzip(byte[] data) {
+        return data.length >= 2 && (data[0] & 0xFF) == 0x1F && (data[1] & 0xFF) == 0x8B;
+    }
+
+    /**
+     * Gunzip the data, failing once more than {@code maxSize} bytes are inflated.
+     */
+    static byte[] gunzip(byte[] data, int maxSize) throws IOException {
+        try (InputStream in = new GZIPInputStream(new ByteArrayInputStream(data))) {
+            return readAtMost(in, maxSize, data.length * 4);
+        }
+    }
+
+    /**
+     * Read the stream to its end, failing once more than {@code maxSize} bytes are read.
+     */
+    static byte[] readAtMost(InputStream in, int maxSize, int sizeHint) throws IOException {
+        ByteArrayOutputStream bos = new ByteArrayOutputStream(Math.max(Math.min(sizeHint, maxSize), 32));
+        byte[] buf = new byte[4096];
+        int n;
+        while ((n = in.read(buf)) > 0) {
+            if (n > maxSize - bos.size()) {
+                throw new IOException("data exceeds " + maxSize + " bytes");
+            }
+            bos.write(buf, 0, n);
+        }
+        return bos.toByteArray();
+    }
+
     private String buildMetricKey(String app, String resource, long timestamp) {
         return app + "__" + resource + "__" + (timestamp / 1000);
     }
 
-    private boolean shouldFilterOut(String resource) {
+    static boolean shouldFilterOut(String resource) {
         return RES_EXCLUSION_SET.contains(resource);
     }
 
@@ -0,0 +1,306 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.dashboard.metric;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import javax.annotation.PreDestroy;
+
+import com.alibaba.csp.sentinel.concurrent.NamedThreadFactory;
+import com.alibaba.csp.sentinel.dashboard.datasource.entity.MetricEntity;
+import com.alibaba.csp.sentinel.dashboard.discovery.MachineInfo;
+import com.alibaba.csp.sentinel.dashboard.repository.metric.MetricsRepository;
+import com.alibaba.csp.sentinel.node.metric.MetricCursorResult;
+import com.alibaba.csp.sentinel.node.metric.MetricFrameCodec;
+import com.alibaba.csp.sentinel.node.metric.MetricNode;
+import com.alibaba.csp.sentinel.util.TimeUtil;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+/**
+ * Receives metrics pushed by machines (see {@code csp.sentinel.metric.push.enabled} of the client).
+ *
+ * <p>Pushed metrics are aggregated by app, resource and second like {@link MetricFetcher} does, and
+ * written to the {@link MetricsRepository} by a single thread once per second, so the cost of the
+ * dashboard doesn't grow with the number of machines. Seconds still receiving metrics of other machines
+ * are written again on the next round. {@link MetricFetcher} stops pulling from machines that are
+ * pushing, and merges the metrics pulled from other machines into the same aggregation, so that pushed
+ * and pulled metrics of a second are written as one total rather than overwriting each other. Metrics
+ * pulled for apps without pushing machines are written directly.</p>
+ *
+ * <p>Pushes must carry the token configured by {@code metric.push.token} in {@link #TOKEN_HEADER}, push is
+ * rejected if no token is configured. Bodies larger than {@link #MAX_BODY_BYTES}, or larger than
+ * {@link MetricFetcher#MAX_INFLATED_BYTES} once gunzipped, are rejected.</p>
+ *
+ * @since 1.8.7
+ */
+@Component
+public class MetricPushReceiver {
+
+    private static final Logger logger = LoggerFactory.getLogger(MetricPushReceiver.class);
+
+    /**
+     * A machine is considered as pushing if it pushed metrics within this period.
+     */
+    static final long PUSH_EXPIRE_MS = 1000 * 10;
+    /**
+     * Metrics older than this period are no longer aggregated.
+     */
+    static final long AGGREGATE_WINDOW_MS = 1000 * 60;
+    private static final long FLUSH_INTERVAL_MS = 1000;
+
+    /**
+     * Header carrying the shared push token, see {@code csp.sentinel.metric.push.token} of the client.
+     */
+    public static final String TOKEN_HEADER = "X-Sentinel-Metric-Push-Token";
+    /**
+     * Max size of a pushed body before gunzip. A full batch of the client is far smaller.
+     */
+    public static final int MAX_BODY_BYTES = 2 * 1024 * 1024;
+
+    /**
+     * {@code app@ip:port -> last push time}
+     */
+    private final Map<String, Long> lastPushTimes = new ConcurrentHashMap<>();
+    /**
+     * {@code app -> last push time}
+     */
+    private final Map<String, Long> lastAppPushTimes = new ConcurrentHashMap<>();
+    /**
+     * {@code app_resource_timeSecond -> metric}
+     */
+    private final Map<String, PushedMetric> pendingMetrics = new ConcurrentHashMap<>();
+
+    private final MetricsRepository<MetricEntity> metricStore;
+
+    @SuppressWarnings("PMD.ThreadPoolCreationRule")
+    private final ScheduledExecutorService flushService = Executors.newSingleThreadScheduledExecutor(
+        new NamedThreadFactory("sentinel-dashboard-metrics-push-flush", true));
+
+    @Autowired
+    public MetricPushReceiver(MetricsRepository<MetricEntity> metricStore) {
+        this.metricStore = metricStore;
+        flushService.scheduleWithFixedDelay(() -> {
+            try {
+                flush(TimeUtil.currentTimeMillis());
+            } catch (Exception e) {
+                logger.warn("Failed to write pushed metrics", e);
+            }
+        }, FLUSH_INTERVAL_MS, FLUSH_INTERVAL_MS, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Receive a batch of metrics pushed by a machine.
+     *
+     * @param app  app name of the machine
+     * @param ip   ip of the machine
+     * @param port command port of the machine
+     * @param body metric frame encoded by {@link MetricFrameCodec}, may be gzipped
+     * @return number of metrics accepted
+     * @throws Exception if the body is not a valid metric frame
+     */
+    public int receive(String app, String ip, int port, byte[] body) throws Exception {
+        if (body.length > MAX_BODY_BYTES) {
+            throw new IOException("body exceeds " + MAX_BODY_BYTES + " bytes");
+        }
+        byte[] data = MetricFetcher.isGzip(body) ? MetricFetcher.gunzip(body, MetricFetcher.MAX_INFLATED_BYTES)
+            : body;
+        if (!MetricFrameCodec.isFrame(data)) {
+            throw new IllegalArgumentException("not a metric frame");
+        }
+        MetricCursorResult result = MetricFrameCodec.decode(data);
+        long now = TimeUtil.currentTimeMillis();
+        lastPushTimes.put(machineKey(app, ip, port), now);
+        lastAppPushTimes.put(app, now);
+        return aggregate(app, result.getNodes(), now);
+    }
+
+    /**
+     * Receive a batch of metrics pushed by a machine, reading at most {@link #MAX_BODY_BYTES} bytes.
+     *
+     * @see #receive(String, String, int, byte[])
+     */
+    public int receive(String app, String ip, int port, InputStream body) throws Exception {
+        return receive(app, ip, port, MetricFetcher.readAtMost(body, MAX_BODY_BYTES, 4096));
+    }
+
+    int aggregate(String app, List<MetricNode> nodes, long now) {
+        int accepted = 0;
+        for (MetricNode node : nodes) {
+            if (MetricFetcher.shouldFilterOut(node.getResource())
+                || node.getTimestamp() < now - AGGREGATE_WINDOW_MS) {
+                continue;
+            }
+            pendingMetrics.compute(metricKey(app, node.getResource(), node.getTimestamp()), (k, metric) -> {
+                if (metric == null) {
+                    metric = new PushedMetric(app, node.getResource(), node.getTimestamp());
+                }
+                metric.add(node);
+                return metric;
+            });
+            accepted++;
+        }
+        return accepted;
+    }
+
+    /**
+     * Merge metrics pulled by {@link MetricFetcher} (already aggregated by app, resource and second) into
+     * the aggregation, to be written together with the pushed metrics of the same second.
+     *
+     * @param entities pulled metrics
+     * @param now      current time
+     * @return pulled metrics out of the aggregation window, which should be written directly
+     */
+    public List<MetricEntity> mergePulled(Collection<MetricEntity> entities, long now) {
+        List<MetricEntity> outdated = new ArrayList<>();
+        for (MetricEntity entity : entities) {
+            long timestamp = entity.getTimestamp().getTime();
+            if (timestamp < now - AGGREGATE_WINDOW_MS) {
+                outdated.add(entity);
+                continue;
+            }
+            pendingMetrics.compute(metricKey(entity.getApp(), entity.getResource(), timestamp), (k, metric) -> {
+                if (metric == null) {
+                    metric = new PushedMetric(entity.getApp(), entity.getResource(), timestamp);
+                }
+                metric.add(entity);
+                return metric;
+            });
+        }
+        return outdated;
+    }
+
+    /**
+     * Whether any machine of the app pushed metrics within the aggregation window, so that metrics pulled
+     * for the app must be merged by {@link #mergePulled(Collection, long)}.
+     */
+    public boolean hasPushedRecently(String app) {
+        Long lastPushTime = lastAppPushTimes.get(app);
+        return lastPushTime != null && lastPushTime > TimeUtil.currentTimeMillis() - AGGREGATE_WINDOW_MS;
+    }
+
+    /**
+     * Whether the machine pushes its metrics so that they needn't be pulled.
+     */
+    public boolean isPushing(MachineInfo machine) {
+        Long lastPushTime = lastPushTimes.get(machineKey(machine.getApp(), machine.getIp(), machine.getPort()));
+        return lastPushTime != null && lastPushTime > TimeUtil.currentTimeMillis() - PUSH_EXPIRE_MS;
+    }
+
+    /**
+     * Write metrics changed since the last flush to the repository, and forget metrics out of the
+     * aggregation window.
+     */
+    void flush(long now) {
+        List<MetricEntity> changed = new ArrayList<>();
+        Date date = new Date(now);
+        for (String key : pendingMetrics.keySet()) {
+            pendingMetrics.computeIfPresent(key, (k, metric) -> {
+                MetricEntity snapshot = metric.takeIfDirty();
+                if (snapshot != null) {
+                    snapshot.setGmtCreate(date);
+                    snapshot.setGmtModified(date);
+                    changed.add(snapshot);
+                }
+                return metric.timestamp < now - AGGREGATE_WINDOW_MS ? null : metric;
+            });
+        }
+        lastPushTimes.values().removeIf(t -> t < now - AGGREGATE_WINDOW_MS);
+        lastAppPushTimes.values().removeIf(t -> t < now - AGGREGATE_WINDOW_MS);
+        if (!changed.isEmpty()) {
+            metricStore.saveAll(changed);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        flushService.shutdown();
+        flush(TimeUtil.currentTimeMillis());
+    }
+
+    private static String metricKey(String app, String resource, long timestamp) {
+        return app + "__" + resource + "__" + (timestamp / 1000);
+    }
+
+    private static String machineKey(String app, String ip, int port) {
+        return app + "@" + ip + ":" + port;
+    }
+
+    /**
+     * Aggregated metric of a resource in a second, pushed or pulled. Guarded by the lock of its entry in
+     * {@link #pendingMetrics}.
+     */
+    private static class PushedMetric {
+        private final MetricEntity entity;
+        private final long timestamp;
+        private boolean dirty;
+
+        PushedMetric(String app, String resource, long timestamp) {
+            this.timestamp = timestamp;
+            this.entity = new MetricEntity();
+            entity.setApp(app);
+            entity.setResource(resource);
+            entity.setTimestamp(new Date(timestamp));
+            entity.setPassQps(0L);
+            entity.setBlockQps(0L);
+            entity.setRtAndSuccessQps(0, 0L);
+            entity.setExceptionQps(0L);
+            entity.setCount(0);
+        }
+
+        void add(MetricNode node) {
+            entity.addPassQps(node.getPassQps());
+            entity.addBlockQps(node.getBlockQps());
+            entity.addRtAndSuccessQps(node.getRt(), node.getSuccessQps());
+            entity.addExceptionQps(node.getExceptionQps());
+            entity.addCount(1);
+            dirty = true;
+        }
+
+        void add(MetricEntity pulled) {
+            entity.addPassQps(pulled.getPassQps());
+            entity.addBlockQps(pulled.getBlockQps());
+            // The RT of an aggregated entity is the total RT of its successful requests.
+            if (pulled.getSuccessQps() > 0) {
+                entity.addRtAndSuccessQps(pulled.getRt() / pulled.getSuccessQps(), pulled.getSuccessQps());
+            }
+            entity.addExceptionQps(pulled.getExceptionQps());
+            entity.addCount(pulled.getCount());
+            dirty = true;
+        }
+
+        MetricEntity takeIfDirty() {
+            if (!dirty) {
+                return null;
+            }
+            dirty = false;
+            return MetricEntity.copyOf(entity);
+        }
+    }
+}
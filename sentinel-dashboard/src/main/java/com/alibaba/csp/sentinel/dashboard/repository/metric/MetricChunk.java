@@ -0,0 +1,298 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.dashboard.repository.metric;
+
+import java.util.Arrays;
+import java.util.Date;
+import java.util.List;
+
+import com.alibaba.csp.sentinel.dashboard.datasource.entity.MetricEntity;
+
+/**
+ * <p>An immutable chunk of metrics of one resource, stored in compressed columns.</p>
+ *
+ * <p>Timestamps are encoded as delta-of-delta, and the other columns (including the bits of the average RT)
+ * are encoded as the XOR of the previous value, so that a steady series takes only a few bits per point.</p>
+ *
+ * @since 1.8.7
+ */
+final class MetricChunk {
+
+    static final int COLUMN_PASS = 0;
+    static final int COLUMN_SUCCESS = 1;
+    static final int COLUMN_BLOCK = 2;
+    static final int COLUMN_EXCEPTION = 3;
+    static final int COLUMN_COUNT = 4;
+    static final int COLUMN_RT = 5;
+    static final int VALUE_COLUMNS = 6;
+
+    private final long startTime;
+    private final long endTime;
+    private final int size;
+    private final byte[] data;
+
+    private volatile boolean persisted;
+
+    MetricChunk(long startTime, long endTime, int size, byte[] data) {
+        this.startTime = startTime;
+        this.endTime = endTime;
+        this.size = size;
+        this.data = data;
+    }
+
+    /**
+     * Compress the points into a chunk.
+     *
+     * @param timestamps timestamps of the points in ascending order
+     * @param columns    value columns of the points, indexed by {@code COLUMN_*}, RT stored as raw long bits
+     * @param size       count of points
+     * @return the compressed chunk
+     */
+    static MetricChunk encode(long[] timestamps, long[][] columns, int size) {
+        BitWriter writer = new BitWriter(size * 4 + 16);
+        long prevTime = timestamps[0];
+        long prevDelta = 0;
+        for (int i = 1; i < size; i++) {
+            long delta = timestamps[i] - prevTime;
+            writeDeltaOfDelta(writer, delta - prevDelta);
+            prevTime = timestamps[i];
+            prevDelta = delta;
+        }
+        for (int c = 0; c < VALUE_COLUMNS; c++) {
+            long[] column = columns[c];
+            writer.writeBits(column[0], 64);
+            int prevLeading = -1;
+            int prevTrailing = 0;
+            for (int i = 1; i < size; i++) {
+                long xor = column[i] ^ column[i - 1];
+                if (xor == 0) {
+                    writer.writeBit(false);
+                    continue;
+                }
+                writer.writeBit(true);
+                int leading = Long.numberOfLeadingZeros(xor);
+                int trailing = Long.numberOfTrailingZeros(xor);
+                if (prevLeading >= 0 && leading >= prevLeading && trailing >= prevTrailing) {
+                    // Reuse the meaningful bit window of the previous value.
+                    writer.writeBit(false);
+                    writer.writeBits(xor >>> prevTrailing, 64 - prevLeading - prevTrailing);
+                } else {
+                    int length = 64 - leading - trailing;
+                    writer.writeBit(true);
+                    writer.writeBits(leading, 6);
+                    writer.writeBits(length - 1, 6);
+                    writer.writeBits(xor >>> trailing, length);
+                    prevLeading = leading;
+                    prevTrailing = trailing;
+                }
+            }
+        }
+        return new MetricChunk(timestamps[0], timestamps[size - 1], size, writer.toByteArray());
+    }
+
+    private static void writeDeltaOfDelta(BitWriter writer, long dod) {
+        if (dod == 0) {
+            writer.writeBit(false);
+        } else if (fits(dod, 7)) {
+            writer.writeBits(0b10, 2);
+            writer.writeBits(dod, 7);
+        } else if (fits(dod, 9)) {
+            writer.writeBits(0b110, 3);
+            writer.writeBits(dod, 9);
+        } else if (fits(dod, 12)) {
+            writer.writeBits(0b1110, 4);
+            writer.writeBits(dod, 12);
+        } else {
+            writer.writeBits(0b1111, 4);
+            writer.writeBits(dod, 64);
+        }
+    }
+
+    private static long readDeltaOfDelta(BitReader reader) {
+        if (!reader.readBit()) {
+            return 0;
+        }
+        if (!reader.readBit()) {
+            return reader.readSignedBits(7);
+        }
+        if (!reader.readBit()) {
+            return reader.readSignedBits(9);
+        }
+        if (!reader.readBit()) {
+            return reader.readSignedBits(12);
+        }
+        return reader.readBits(64);
+    }
+
+    private static boolean fits(long value, int bits) {
+        long bound = 1L << (bits - 1);
+        return value >= -bound && value < bound;
+    }
+
+    /**
+     * Decompress the points within {@code [from, to]} (both inclusive) into metric entities.
+     *
+     * @param app      application name
+     * @param resource resource name
+     * @param from     start timestamp
+     * @param to       end timestamp
+     * @param results  list to collect the entities into
+     */
+    void collect(String app, String resource, long from, long to, List<MetricEntity> results) {
+        if (to < startTime || from > endTime) {
+            return;
+        }
+        BitReader reader = new BitReader(data);
+        long[] timestamps = new long[size];
+        timestamps[0] = startTime;
+        long delta = 0;
+        for (int i = 1; i < size; i++) {
+            delta += readDeltaOfDelta(reader);
+            timestamps[i] = timestamps[i - 1] + delta;
+        }
+        long[][] columns = new long[VALUE_COLUMNS][size];
+        for (int c = 0; c < VALUE_COLUMNS; c++) {
+            long[] column = columns[c];
+            column[0] = reader.readBits(64);
+            int leading = 0;
+            int trailing = 0;
+            for (int i = 1; i < size; i++) {
+                if (!reader.readBit()) {
+                    column[i] = column[i - 1];
+                    continue;
+                }
+                if (reader.readBit()) {
+                    leading = (int)reader.readBits(6);
+                    trailing = 64 - leading - ((int)reader.readBits(6) + 1);
+                }
+                long xor = reader.readBits(64 - leading - trailing) << trailing;
+                column[i] = column[i - 1] ^ xor;
+            }
+        }
+        for (int i = 0; i < size; i++) {
+            if (timestamps[i] >= from && timestamps[i] <= to) {
+                results.add(toEntity(app, resource, timestamps[i], columns, i));
+            }
+        }
+    }
+
+    static MetricEntity toEntity(String app, String resource, long timestamp, long[][] columns, int i) {
+        MetricEntity entity = new MetricEntity();
+        Date time = new Date(timestamp);
+        entity.setApp(app);
+        entity.setResource(resource);
+        entity.setTimestamp(time);
+        entity.setGmtCreate(time);
+        entity.setGmtModified(time);
+        entity.setPassQps(columns[COLUMN_PASS][i]);
+        entity.setSuccessQps(columns[COLUMN_SUCCESS][i]);
+        entity.setBlockQps(columns[COLUMN_BLOCK][i]);
+        entity.setExceptionQps(columns[COLUMN_EXCEPTION][i]);
+        entity.setCount((int)columns[COLUMN_COUNT][i]);
+        entity.setRt(Double.longBitsToDouble(columns[COLUMN_RT][i]));
+        return entity;
+    }
+
+    long getStartTime() {
+        return startTime;
+    }
+
+    long getEndTime() {
+        return endTime;
+    }
+
+    int getSize() {
+        return size;
+    }
+
+    byte[] getData() {
+        return data;
+    }
+
+    boolean isPersisted() {
+        return persisted;
+    }
+
+    void markPersisted() {
+        this.persisted = true;
+    }
+
+    static final class BitWriter {
+        private byte[] buffer;
+        private int bitPosition;
+
+        BitWriter(int initialBytes) {
+            this.buffer = new byte[Math.max(initialBytes, 8)];
+        }
+
+        void writeBit(boolean bit) {
+            ensureCapacity(1);
+            if (bit) {
+                buffer[bitPosition >>> 3] |= (byte)(0x80 >>> (bitPosition & 7));
+            }
+            bitPosition++;
+        }
+
+        void writeBits(long value, int bits) {
+            ensureCapacity(bits);
+            for (int i = bits - 1; i >= 0; i--) {
+                if (((value >>> i) & 1L) != 0) {
+                    buffer[bitPosition >>> 3] |= (byte)(0x80 >>> (bitPosition & 7));
+                }
+                bitPosition++;
+            }
+        }
+
+        private void ensureCapacity(int bits) {
+            int required = (bitPosition + bits + 7) >>> 3;
+            if (required > buffer.length) {
+                buffer = Arrays.copyOf(buffer, Math.max(required, buffer.length * 2));
+            }
+        }
+
+        byte[] toByteArray() {
+            return Arrays.copyOf(buffer, (bitPosition + 7) >>> 3);
+        }
+    }
+
+    static final class BitReader {
+        private final byte[] buffer;
+        private int bitPosition;
+
+        BitReader(byte[] buffer) {
+            this.buffer = buffer;
+        }
+
+        boolean readBit() {
+            boolean bit = (buffer[bitPosition >>> 3] & (0x80 >>> (bitPosition & 7))) != 0;
+            bitPosition++;
+            return bit;
+        }
+
+        long readBits(int bits) {
+            long value = 0;
+            for (int i = 0; i < bits; i++) {
+                value = (value << 1) | (readBit() ? 1L : 0L);
+            }
+            return value;
+        }
+
+        long readSignedBits(int bits) {
+            long value = readBits(bits);
+            return (value << (64 - bits)) >> (64 - bits);
+        }
+    }
+}
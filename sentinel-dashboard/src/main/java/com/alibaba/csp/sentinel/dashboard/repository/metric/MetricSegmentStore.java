@@ -0,0 +1,231 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.dashboard.repository.metric;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import com.alibaba.csp.sentinel.dashboard.datasource.entity.MetricEntity;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * <p>Stores sealed metric chunks in local segment files, one file per hour.</p>
+ *
+ * <p>Each record of a segment file is a chunk of one resource:
+ * {@code app, resource, startTime, endTime, size, dataLength, data}. Records are only appended, and a
+ * truncated record at the end of a file (e.g. written before a crash) is ignored.</p>
+ *
+ * @since 1.8.7
+ */
+final class MetricSegmentStore {
+
+    private static final Logger logger = LoggerFactory.getLogger(MetricSegmentStore.class);
+
+    static final long SEGMENT_SPAN_MS = 1000 * 60 * 60;
+    static final String SEGMENT_FILE_SUFFIX = ".seg";
+
+    private final File baseDir;
+
+    MetricSegmentStore(String baseDir) {
+        this.baseDir = new File(baseDir);
+        if (!this.baseDir.exists() && !this.baseDir.mkdirs()) {
+            logger.warn("Failed to create metric segment directory: {}", baseDir);
+        }
+        File[] files = this.baseDir.listFiles();
+        if (files != null) {
+            for (File file : files) {
+                if (file.getName().endsWith(SEGMENT_FILE_SUFFIX)) {
+                    truncateIncompleteRecord(file);
+                }
+            }
+        }
+    }
+
+    /**
+     * Drop the incomplete record at the end of a segment file, so that records appended later can be read.
+     */
+    private static void truncateIncompleteRecord(File file) {
+        long validLength = 0;
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file)))) {
+            while (true) {
+                in.readUTF();
+                in.readUTF();
+                in.readLong();
+                in.readLong();
+                in.readInt();
+                int length = in.readInt();
+                skipFully(in, length);
+                validLength = file.length() - in.available();
+            }
+        } catch (EOFException ex) {
+            // End of segment.
+        } catch (IOException ex) {
+            logger.warn("Failed to check metric segment: {}", file, ex);
+            return;
+        }
+        if (validLength < file.length()) {
+            try (RandomAccessFile raf = new RandomAccessFile(file, "rw")) {
+                raf.setLength(validLength);
+            } catch (IOException ex) {
+                logger.warn("Failed to truncate metric segment: {}", file, ex);
+            }
+        }
+    }
+
+    /**
+     * Append sealed chunks to the segment files of their start time.
+     *
+     * @param chunks chunks to append
+     */
+    synchronized void append(List<PendingChunk> chunks) {
+        Map<Long, List<PendingChunk>> segments = new TreeMap<>();
+        for (PendingChunk pending : chunks) {
+            segments.computeIfAbsent(segmentStart(pending.chunk.getStartTime()), e -> new ArrayList<>())
+                .add(pending);
+        }
+        for (Map.Entry<Long, List<PendingChunk>> e : segments.entrySet()) {
+            File file = segmentFile(e.getKey());
+            try (DataOutputStream out = new DataOutputStream(
+                new BufferedOutputStream(new FileOutputStream(file, true)))) {
+                for (PendingChunk pending : e.getValue()) {
+                    MetricChunk chunk = pending.chunk;
+                    out.writeUTF(pending.app);
+                    out.writeUTF(pending.resource);
+                    out.writeLong(chunk.getStartTime());
+                    out.writeLong(chunk.getEndTime());
+                    out.writeInt(chunk.getSize());
+                    out.writeInt(chunk.getData().length);
+                    out.write(chunk.getData());
+                }
+            } catch (IOException ex) {
+                logger.warn("Failed to write metric segment: {}", file, ex);
+                continue;
+            }
+            for (PendingChunk pending : e.getValue()) {
+                pending.chunk.markPersisted();
+            }
+        }
+    }
+
+    /**
+     * Read the points of a resource within {@code [from, to]} (both inclusive).
+     */
+    void collect(String app, String resource, long from, long to, List<MetricEntity> results) {
+        if (from > to) {
+            return;
+        }
+        for (long start = segmentStart(from); start <= to; start += SEGMENT_SPAN_MS) {
+            File file = segmentFile(start);
+            if (file.exists()) {
+                collect(file, app, resource, from, to, results);
+            }
+        }
+    }
+
+    private void collect(File file, String app, String resource, long from, long to,
+                         List<MetricEntity> results) {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file)))) {
+            while (true) {
+                String chunkApp = in.readUTF();
+                String chunkResource = in.readUTF();
+                long startTime = in.readLong();
+                long endTime = in.readLong();
+                int size = in.readInt();
+                int length = in.readInt();
+                if (!app.equals(chunkApp) || !resource.equals(chunkResource) || endTime < from || startTime > to) {
+                    skipFully(in, length);
+                    continue;
+                }
+                byte[] data = new byte[length];
+                in.readFully(data);
+                new MetricChunk(startTime, endTime, size, data).collect(app, resource, from, to, results);
+            }
+        } catch (EOFException ex) {
+            // End of segment.
+        } catch (IOException ex) {
+            logger.warn("Failed to read metric segment: {}", file, ex);
+        }
+    }
+
+    /**
+     * Delete segment files that only contain points before the given time.
+     */
+    void purgeBefore(long time) {
+        File[] files = baseDir.listFiles();
+        if (files == null) {
+            return;
+        }
+        for (File file : files) {
+            String name = file.getName();
+            if (!name.endsWith(SEGMENT_FILE_SUFFIX)) {
+                continue;
+            }
+            try {
+                long start = Long.parseLong(name.substring(0, name.length() - SEGMENT_FILE_SUFFIX.length()));
+                if (start + SEGMENT_SPAN_MS <= time && !file.delete()) {
+                    logger.warn("Failed to delete expired metric segment: {}", file);
+                }
+            } catch (NumberFormatException ex) {
+                // Not a segment file.
+            }
+        }
+    }
+
+    private File segmentFile(long start) {
+        return new File(baseDir, start + SEGMENT_FILE_SUFFIX);
+    }
+
+    private static long segmentStart(long time) {
+        return time - time % SEGMENT_SPAN_MS;
+    }
+
+    private static void skipFully(DataInputStream in, int length) throws IOException {
+        int remaining = length;
+        while (remaining > 0) {
+            int skipped = in.skipBytes(remaining);
+            if (skipped <= 0) {
+                throw new EOFException();
+            }
+            remaining -= skipped;
+        }
+    }
+
+    static final class PendingChunk {
+        final String app;
+        final String resource;
+        final MetricChunk chunk;
+
+        PendingChunk(String app, String resource, MetricChunk chunk) {
+            this.app = app;
+            this.resource = resource;
+            this.chunk = chunk;
+        }
+    }
+}
@@ -0,0 +1,261 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.dashboard.repository.metric;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+
+import com.alibaba.csp.sentinel.dashboard.datasource.entity.MetricEntity;
+
+/**
+ * <p>Metrics of one resource of an application.</p>
+ *
+ * <p>New points are appended to an uncompressed head, which may span several chunk periods. Each chunk period
+ * is sealed into a {@link MetricChunk} only after a grace period since it ended, so that points fetched late
+ * still make it into their chunk. Points of chunks already sealed are dropped. All operations are guarded by
+ * the lock of the series, so different series never contend with each other.</p>
+ *
+ * @since 1.8.7
+ */
+final class MetricSeries {
+
+    private static final int INITIAL_HEAD_CAPACITY = 16;
+
+    private final String app;
+    private final String resource;
+    private final long chunkSpanMs;
+    private final long sealGraceMs;
+
+    private final Deque<MetricChunk> sealedChunks = new ArrayDeque<>();
+
+    /**
+     * Points earlier than this time belong to sealed chunks.
+     */
+    private long sealedUntil = Long.MIN_VALUE;
+    private int headSize;
+    private long[] headTimestamps = new long[INITIAL_HEAD_CAPACITY];
+    private long[][] headColumns = new long[MetricChunk.VALUE_COLUMNS][INITIAL_HEAD_CAPACITY];
+
+    private long lastUpdateTime;
+    private volatile boolean retired;
+
+    MetricSeries(String app, String resource, long chunkSpanMs, long sealGraceMs) {
+        this.app = app;
+        this.resource = resource;
+        this.chunkSpanMs = chunkSpanMs;
+        this.sealGraceMs = sealGraceMs;
+    }
+
+    /**
+     * Append a point to the series.
+     *
+     * @param entity the metric point
+     * @return the chunks sealed by this point, as the grace period of their chunk periods has passed;
+     * or null if the series has been retired, then the point should go to a new series
+     */
+    synchronized List<MetricChunk> append(MetricEntity entity, long now) {
+        if (retired) {
+            return null;
+        }
+        long timestamp = entity.getTimestamp().getTime();
+        if (timestamp < sealedUntil) {
+            // Late points of sealed chunks cannot be appended.
+            return Collections.emptyList();
+        }
+        int index = Arrays.binarySearch(headTimestamps, 0, headSize, timestamp);
+        if (index < 0) {
+            index = -index - 1;
+            ensureHeadCapacity();
+            int moved = headSize - index;
+            if (moved > 0) {
+                System.arraycopy(headTimestamps, index, headTimestamps, index + 1, moved);
+                for (long[] column : headColumns) {
+                    System.arraycopy(column, index, column, index + 1, moved);
+                }
+            }
+            headSize++;
+        }
+        headTimestamps[index] = timestamp;
+        headColumns[MetricChunk.COLUMN_PASS][index] = valueOf(entity.getPassQps());
+        headColumns[MetricChunk.COLUMN_SUCCESS][index] = valueOf(entity.getSuccessQps());
+        headColumns[MetricChunk.COLUMN_BLOCK][index] = valueOf(entity.getBlockQps());
+        headColumns[MetricChunk.COLUMN_EXCEPTION][index] = valueOf(entity.getExceptionQps());
+        headColumns[MetricChunk.COLUMN_COUNT][index] = entity.getCount();
+        headColumns[MetricChunk.COLUMN_RT][index] = Double.doubleToLongBits(entity.getRt());
+        lastUpdateTime = now;
+        // Points arrive in time order per machine, so the latest point tells how far the series has gone.
+        return sealBefore(chunkStartOf(headTimestamps[headSize - 1] - sealGraceMs));
+    }
+
+    /**
+     * Seal all points in the head.
+     *
+     * @return the sealed chunks
+     */
+    synchronized List<MetricChunk> sealHead() {
+        if (headSize == 0) {
+            return Collections.emptyList();
+        }
+        return sealBefore(chunkStartOf(headTimestamps[headSize - 1]) + chunkSpanMs);
+    }
+
+    /**
+     * Seal the chunk periods in the head whose grace period has passed.
+     *
+     * @return the sealed chunks
+     */
+    synchronized List<MetricChunk> sealHeadIfExpired(long now) {
+        return sealBefore(chunkStartOf(now - sealGraceMs));
+    }
+
+    /**
+     * Seal the points earlier than the given chunk boundary, one chunk per chunk period.
+     */
+    private List<MetricChunk> sealBefore(long boundary) {
+        if (boundary <= sealedUntil) {
+            return Collections.emptyList();
+        }
+        sealedUntil = boundary;
+        if (headSize == 0 || headTimestamps[0] >= boundary) {
+            return Collections.emptyList();
+        }
+        List<MetricChunk> sealed = new ArrayList<>(1);
+        int from = 0;
+        while (from < headSize && headTimestamps[from] < boundary) {
+            long end = chunkStartOf(headTimestamps[from]) + chunkSpanMs;
+            int to = from;
+            while (to < headSize && headTimestamps[to] < end) {
+                to++;
+            }
+            MetricChunk chunk = encodeHead(from, to);
+            sealedChunks.addLast(chunk);
+            sealed.add(chunk);
+            from = to;
+        }
+        removeHead(from);
+        return sealed;
+    }
+
+    private MetricChunk encodeHead(int from, int to) {
+        if (from == 0) {
+            return MetricChunk.encode(headTimestamps, headColumns, to);
+        }
+        long[][] columns = new long[MetricChunk.VALUE_COLUMNS][];
+        for (int c = 0; c < columns.length; c++) {
+            columns[c] = Arrays.copyOfRange(headColumns[c], from, to);
+        }
+        return MetricChunk.encode(Arrays.copyOfRange(headTimestamps, from, to), columns, to - from);
+    }
+
+    private void removeHead(int count) {
+        int remaining = headSize - count;
+        if (remaining == 0 && headTimestamps.length > INITIAL_HEAD_CAPACITY * 4) {
+            headTimestamps = new long[INITIAL_HEAD_CAPACITY];
+            headColumns = new long[MetricChunk.VALUE_COLUMNS][INITIAL_HEAD_CAPACITY];
+        } else if (remaining > 0) {
+            System.arraycopy(headTimestamps, count, headTimestamps, 0, remaining);
+            for (long[] column : headColumns) {
+                System.arraycopy(column, count, column, 0, remaining);
+            }
+        }
+        headSize = remaining;
+    }
+
+    private long chunkStartOf(long timestamp) {
+        return timestamp - Math.floorMod(timestamp, chunkSpanMs);
+    }
+
+    /**
+     * Remove persisted chunks that end before the given time from memory, and retire the series if nothing is
+     * left in memory and it has not been updated since then. A retired series accepts no more points.
+     *
+     * @return true if the series is retired
+     */
+    synchronized boolean evictBefore(long time) {
+        Iterator<MetricChunk> iterator = sealedChunks.iterator();
+        while (iterator.hasNext()) {
+            MetricChunk chunk = iterator.next();
+            if (chunk.getEndTime() >= time) {
+                break;
+            }
+            if (chunk.isPersisted()) {
+                iterator.remove();
+            }
+        }
+        if (headSize == 0 && sealedChunks.isEmpty() && lastUpdateTime < time) {
+            retired = true;
+        }
+        return retired;
+    }
+
+    boolean isRetired() {
+        return retired;
+    }
+
+    /**
+     * Collect the points within {@code [from, to]} kept in memory.
+     *
+     * @param results list to collect the points into
+     * @return the start time of the points kept in memory, earlier points should be read from disk
+     */
+    long collect(long from, long to, List<MetricEntity> results) {
+        List<MetricChunk> chunks;
+        long memoryStart;
+        synchronized (this) {
+            chunks = new ArrayList<>(sealedChunks);
+            for (int i = 0; i < headSize; i++) {
+                if (headTimestamps[i] >= from && headTimestamps[i] <= to) {
+                    results.add(MetricChunk.toEntity(app, resource, headTimestamps[i], headColumns, i));
+                }
+            }
+            memoryStart = chunks.isEmpty() ? (headSize == 0 ? Long.MAX_VALUE : headTimestamps[0])
+                : chunks.get(0).getStartTime();
+        }
+        // Decompress outside the lock, as sealed chunks are immutable.
+        for (MetricChunk chunk : chunks) {
+            chunk.collect(app, resource, from, to, results);
+        }
+        return memoryStart;
+    }
+
+    private void ensureHeadCapacity() {
+        if (headSize < headTimestamps.length) {
+            return;
+        }
+        int capacity = headTimestamps.length * 2;
+        headTimestamps = Arrays.copyOf(headTimestamps, capacity);
+        for (int c = 0; c < headColumns.length; c++) {
+            headColumns[c] = Arrays.copyOf(headColumns[c], capacity);
+        }
+    }
+
+    private static long valueOf(Long value) {
+        return value == null ? 0 : value;
+    }
+
+    String getApp() {
+        return app;
+    }
+
+    String getResource() {
+        return resource;
+    }
+}
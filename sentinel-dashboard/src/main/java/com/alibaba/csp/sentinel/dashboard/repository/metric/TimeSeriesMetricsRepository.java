@@ -0,0 +1,266 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.dashboard.repository.metric;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import javax.annotation.PreDestroy;
+
+import com.alibaba.csp.sentinel.concurrent.NamedThreadFactory;
+import com.alibaba.csp.sentinel.dashboard.config.DashboardConfig;
+import com.alibaba.csp.sentinel.dashboard.datasource.entity.MetricEntity;
+import com.alibaba.csp.sentinel.dashboard.repository.metric.MetricSegmentStore.PendingChunk;
+import com.alibaba.csp.sentinel.util.StringUtil;
+import com.alibaba.csp.sentinel.util.TimeUtil;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+/**
+ * <p>Stores metrics as compressed time series, enabled by
+ * {@code sentinel.dashboard.metric.storage=timeseries}.</p>
+ *
+ * <p>Each resource of an application is a {@link MetricSeries} with its own lock, so saving metrics of
+ * different resources never contends. Points are compressed into {@link MetricChunk}s of 10 minutes, which are
+ * persisted to local segment files and kept in heap for a configurable period. Queries for older metrics read
+ * the segment files, which are deleted after the retention period.</p>
+ *
+ * @since 1.8.7
+ */
+@Component
+@ConditionalOnProperty(name = DashboardConfig.CONFIG_METRIC_STORAGE,
+    havingValue = DashboardConfig.METRIC_STORAGE_TIMESERIES)
+public class TimeSeriesMetricsRepository implements MetricsRepository<MetricEntity> {
+
+    private static final Logger logger = LoggerFactory.getLogger(TimeSeriesMetricsRepository.class);
+
+    static final long CHUNK_SPAN_MS = 1000 * 60 * 10;
+    /**
+     * Chunks are sealed a while after they end, longer than metrics may be fetched late.
+     */
+    static final long CHUNK_SEAL_GRACE_MS = 1000 * 60;
+    private static final long MAINTAIN_INTERVAL_MS = 1000 * 10;
+
+    /**
+     * {@code app -> resource -> series}
+     */
+    private final Map<String, Map<String, MetricSeries>> allSeries = new ConcurrentHashMap<>();
+    private final Queue<PendingChunk> pendingChunks = new ConcurrentLinkedQueue<>();
+
+    private final MetricSegmentStore segmentStore;
+    private final long retentionMs;
+    private final long memoryRetentionMs;
+
+    private final ScheduledExecutorService maintainService;
+
+    @SuppressWarnings("PMD.ThreadPoolCreationRule")
+    public TimeSeriesMetricsRepository() {
+        this(DashboardConfig.getMetricStorageDir(), DashboardConfig.getMetricRetentionMillis(),
+            DashboardConfig.getMetricMemoryRetentionMillis(), Executors.newSingleThreadScheduledExecutor(
+                new NamedThreadFactory("sentinel-dashboard-metrics-maintain-task", true)));
+    }
+
+    TimeSeriesMetricsRepository(String storageDir, long retentionMs, long memoryRetentionMs,
+                                ScheduledExecutorService maintainService) {
+        this.segmentStore = new MetricSegmentStore(storageDir);
+        this.retentionMs = retentionMs;
+        this.memoryRetentionMs = Math.min(memoryRetentionMs, retentionMs);
+        this.maintainService = maintainService;
+        if (maintainService != null) {
+            maintainService.scheduleAtFixedRate(() -> {
+                try {
+                    maintain(TimeUtil.currentTimeMillis());
+                } catch (Throwable e) {
+                    logger.warn("Failed to maintain metric time series", e);
+                }
+            }, MAINTAIN_INTERVAL_MS, MAINTAIN_INTERVAL_MS, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    @Override
+    public void save(MetricEntity entity) {
+        if (entity == null || StringUtil.isBlank(entity.getApp()) || entity.getResource() == null
+            || entity.getTimestamp() == null) {
+            return;
+        }
+        long now = TimeUtil.currentTimeMillis();
+        List<MetricChunk> sealed;
+        MetricSeries series;
+        do {
+            series = seriesOf(entity.getApp(), entity.getResource());
+            // Null if the series has just been retired as idle, then retry with a new series.
+        } while ((sealed = series.append(entity, now)) == null);
+        addPendingChunks(series, sealed);
+    }
+
+    private MetricSeries seriesOf(String app, String resource) {
+        Map<String, MetricSeries> resourceMap = allSeries.get(app);
+        MetricSeries series = resourceMap == null ? null : resourceMap.get(resource);
+        if (series != null && !series.isRetired()) {
+            return series;
+        }
+        // Create the series within the app entry, so that it never races with removing the empty app entry.
+        MetricSeries[] created = new MetricSeries[1];
+        allSeries.compute(app, (k, v) -> {
+            Map<String, MetricSeries> map = v == null ? new ConcurrentHashMap<>(16) : v;
+            created[0] = map.compute(resource, (r, old) -> old == null || old.isRetired()
+                ? new MetricSeries(app, r, CHUNK_SPAN_MS, CHUNK_SEAL_GRACE_MS) : old);
+            return map;
+        });
+        return created[0];
+    }
+
+    private void addPendingChunks(MetricSeries series, List<MetricChunk> sealed) {
+        for (MetricChunk chunk : sealed) {
+            pendingChunks.add(new PendingChunk(series.getApp(), series.getResource(), chunk));
+        }
+    }
+
+    @Override
+    public void saveAll(Iterable<MetricEntity> metrics) {
+        if (metrics == null) {
+            return;
+        }
+        metrics.forEach(this::save);
+    }
+
+    @Override
+    public List<MetricEntity> queryByAppAndResourceBetween(String app, String resource,
+                                                           long startTime, long endTime) {
+        List<MetricEntity> results = new ArrayList<>();
+        if (StringUtil.isBlank(app) || resource == null) {
+            return results;
+        }
+        Map<String, MetricSeries> resourceMap = allSeries.get(app);
+        MetricSeries series = resourceMap == null ? null : resourceMap.get(resource);
+        long memoryStart = series == null ? Long.MAX_VALUE : series.collect(startTime, endTime, results);
+        if (startTime < memoryStart) {
+            segmentStore.collect(app, resource, startTime, Math.min(endTime, memoryStart - 1), results);
+        }
+        results.sort(Comparator.comparing(MetricEntity::getTimestamp));
+        return results;
+    }
+
+    @Override
+    public List<String> listResourcesOfApp(String app) {
+        List<String> results = new ArrayList<>();
+        if (StringUtil.isBlank(app)) {
+            return results;
+        }
+        Map<String, MetricSeries> resourceMap = allSeries.get(app);
+        if (resourceMap == null) {
+            return results;
+        }
+        final long minTimeMs = System.currentTimeMillis() - 1000 * 60;
+        Map<String, MetricEntity> resourceCount = new HashMap<>(32);
+        for (Entry<String, MetricSeries> resourceSeries : resourceMap.entrySet()) {
+            List<MetricEntity> metrics = new ArrayList<>();
+            resourceSeries.getValue().collect(minTimeMs, Long.MAX_VALUE, metrics);
+            for (MetricEntity newEntity : metrics) {
+                MetricEntity oldEntity = resourceCount.get(resourceSeries.getKey());
+                if (oldEntity != null) {
+                    oldEntity.addPassQps(newEntity.getPassQps());
+                    oldEntity.addRtAndSuccessQps(newEntity.getRt(), newEntity.getSuccessQps());
+                    oldEntity.addBlockQps(newEntity.getBlockQps());
+                    oldEntity.addExceptionQps(newEntity.getExceptionQps());
+                    oldEntity.addCount(1);
+                } else {
+                    resourceCount.put(resourceSeries.getKey(), newEntity);
+                }
+            }
+        }
+        // Order by last minute b_qps DESC.
+        return resourceCount.entrySet()
+            .stream()
+            .sorted((o1, o2) -> {
+                MetricEntity e1 = o1.getValue();
+                MetricEntity e2 = o2.getValue();
+                int t = e2.getBlockQps().compareTo(e1.getBlockQps());
+                if (t != 0) {
+                    return t;
+                }
+                return e2.getPassQps().compareTo(e1.getPassQps());
+            })
+            .map(Entry::getKey)
+            .collect(Collectors.toList());
+    }
+
+    /**
+     * Seal idle head chunks, persist sealed chunks, and drop metrics out of retention.
+     *
+     * @param now current time
+     */
+    void maintain(long now) {
+        for (Map<String, MetricSeries> resourceMap : allSeries.values()) {
+            for (MetricSeries series : resourceMap.values()) {
+                addPendingChunks(series, series.sealHeadIfExpired(now));
+            }
+        }
+        flushPendingChunks();
+
+        for (Entry<String, Map<String, MetricSeries>> appEntry : allSeries.entrySet()) {
+            Map<String, MetricSeries> resourceMap = appEntry.getValue();
+            for (Entry<String, MetricSeries> entry : resourceMap.entrySet()) {
+                if (entry.getValue().evictBefore(now - memoryRetentionMs)) {
+                    resourceMap.remove(entry.getKey(), entry.getValue());
+                }
+            }
+            allSeries.computeIfPresent(appEntry.getKey(), (k, v) -> v.isEmpty() ? null : v);
+        }
+        segmentStore.purgeBefore(now - retentionMs);
+    }
+
+    private void flushPendingChunks() {
+        List<PendingChunk> chunks = new ArrayList<>();
+        PendingChunk chunk;
+        while ((chunk = pendingChunks.poll()) != null) {
+            chunks.add(chunk);
+        }
+        if (!chunks.isEmpty()) {
+            segmentStore.append(chunks);
+        }
+    }
+
+    /**
+     * Persist all metrics in heap, including the unsealed head chunks.
+     */
+    @PreDestroy
+    public void shutdown() {
+        if (maintainService != null) {
+            maintainService.shutdown();
+        }
+        for (Map<String, MetricSeries> resourceMap : allSeries.values()) {
+            for (MetricSeries series : resourceMap.values()) {
+                addPendingChunks(series, series.sealHead());
+            }
+        }
+        flushPendingChunks();
+    }
+}
@@ -0,0 +1,159 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.dashboard.metric;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.List;
+import java.util.zip.GZIPOutputStream;
+
+import com.alibaba.csp.sentinel.Constants;
+import com.alibaba.csp.sentinel.dashboard.datasource.entity.MetricEntity;
+import com.alibaba.csp.sentinel.dashboard.discovery.MachineInfo;
+import com.alibaba.csp.sentinel.dashboard.repository.metric.InMemoryMetricsRepository;
+import com.alibaba.csp.sentinel.node.metric.MetricFrameCodec;
+import com.alibaba.csp.sentinel.node.metric.MetricNode;
+import com.alibaba.csp.sentinel.util.TimeUtil;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Test cases for {@link MetricPushReceiver}.
+ */
+public class MetricPushReceiverTest {
+
+    private static final String APP = "defaultApp";
+
+    private InMemoryMetricsRepository repository;
+    private MetricPushReceiver receiver;
+
+    @Before
+    public void setUp() {
+        repository = new InMemoryMetricsRepository();
+        receiver = new MetricPushReceiver(repository);
+    }
+
+    @After
+    public void tearDown() {
+        receiver.shutdown();
+    }
+
+    @Test
+    public void testAggregateMachinesAndRewriteLateMetrics() throws Exception {
+        long second = TimeUtil.currentTimeMillis() / 1000 * 1000 - 5000;
+        assertEquals(1, receiver.receive(APP, "10.0.0.1", 8719,
+            MetricFrameCodec.encode(Arrays.asList(node("res", second, 10)), null)));
+        receiver.receive(APP, "10.0.0.2", 8719, MetricFrameCodec.encode(Arrays.asList(node("res", second, 5)), null));
+        receiver.flush(TimeUtil.currentTimeMillis());
+
+        List<MetricEntity> saved = repository.queryByAppAndResourceBetween(APP, "res", second, second);
+        assertEquals(1, saved.size());
+        assertEquals(15L, (long)saved.get(0).getPassQps());
+        assertEquals(2, saved.get(0).getCount());
+
+        // A machine reporting late is merged into the already written second.
+        receiver.receive(APP, "10.0.0.3", 8719, MetricFrameCodec.encode(Arrays.asList(node("res", second, 1)), null));
+        receiver.flush(TimeUtil.currentTimeMillis());
+        saved = repository.queryByAppAndResourceBetween(APP, "res", second, second);
+        assertEquals(16L, (long)saved.get(0).getPassQps());
+        assertEquals(3, saved.get(0).getCount());
+    }
+
+    @Test
+    public void testMergePulledAndPushedMetrics() throws Exception {
+        long now = TimeUtil.currentTimeMillis();
+        long second = now / 1000 * 1000 - 5000;
+        receiver.receive(APP, "10.0.0.1", 8719, MetricFrameCodec.encode(Arrays.asList(node("res", second, 10)), null));
+        receiver.flush(now);
+
+        // Metrics pulled from other machines are added to the pushed ones, with the RT weighted by success QPS.
+        MetricEntity pulled = new MetricEntity();
+        pulled.setApp(APP);
+        pulled.setResource("res");
+        pulled.setTimestamp(new Date(second));
+        pulled.setPassQps(5L);
+        pulled.setBlockQps(1L);
+        pulled.setRtAndSuccessQps(8, 5L);
+        pulled.setExceptionQps(0L);
+        pulled.setCount(2);
+        MetricEntity outdated = MetricEntity.copyOf(pulled);
+        outdated.setTimestamp(new Date(now - MetricPushReceiver.AGGREGATE_WINDOW_MS - 1000));
+        List<MetricEntity> rest = receiver.mergePulled(Arrays.asList(pulled, outdated), now);
+        assertEquals(1, rest.size());
+        assertSame(outdated, rest.get(0));
+        receiver.flush(now);
+
+        List<MetricEntity> saved = repository.queryByAppAndResourceBetween(APP, "res", second, second);
+        assertEquals(1, saved.size());
+        MetricEntity entity = saved.get(0);
+        assertEquals(15L, (long)entity.getPassQps());
+        assertEquals(1L, (long)entity.getBlockQps());
+        assertEquals(15L, (long)entity.getSuccessQps());
+        assertEquals(2 * 10 + 8 * 5, entity.getRt(), 0.01);
+        assertEquals(3, entity.getCount());
+    }
+
+    @Test
+    public void testPushingMachinesAndExpiredMetrics() throws Exception {
+        long now = TimeUtil.currentTimeMillis();
+        List<MetricNode> nodes = new ArrayList<>();
+        nodes.add(node("res", now - MetricPushReceiver.AGGREGATE_WINDOW_MS - 1000, 1));
+        nodes.add(node(Constants.TOTAL_IN_RESOURCE_NAME, now, 1));
+        assertEquals(0, receiver.receive(APP, "10.0.0.1", 8719, MetricFrameCodec.encode(nodes, null)));
+
+        MachineInfo pushing = MachineInfo.of(APP, "10.0.0.1", 8719);
+        MachineInfo pulled = MachineInfo.of(APP, "10.0.0.2", 8719);
+        assertTrue(receiver.isPushing(pushing));
+        assertFalse(receiver.isPushing(pulled));
+        assertTrue(receiver.hasPushedRecently(APP));
+        assertFalse(receiver.hasPushedRecently("otherApp"));
+    }
+
+    @Test(expected = IOException.class)
+    public void testRejectOversizedBody() throws Exception {
+        receiver.receive(APP, "10.0.0.1", 8719, new byte[MetricPushReceiver.MAX_BODY_BYTES + 1]);
+    }
+
+    @Test(expected = IOException.class)
+    public void testRejectOversizedInflatedBody() throws Exception {
+        ByteArrayOutputStream bos = new ByteArrayOutputStream();
+        try (GZIPOutputStream gzip = new GZIPOutputStream(bos)) {
+            byte[] zeros = new byte[1024 * 1024];
+            for (int i = 0; i <= MetricFetcher.MAX_INFLATED_BYTES / zeros.length; i++) {
+                gzip.write(zeros);
+            }
+        }
+        assertTrue(bos.size() < MetricPushReceiver.MAX_BODY_BYTES);
+        receiver.receive(APP, "10.0.0.1", 8719, bos.toByteArray());
+    }
+
+    private static MetricNode node(String resource, long timestamp, long passQps) {
+        MetricNode node = new MetricNode();
+        node.setResource(resource);
+        node.setTimestamp(timestamp);
+        node.setPassQps(passQps);
+        node.setSuccessQps(passQps);
+        node.setRt(2);
+        return node;
+    }
+}
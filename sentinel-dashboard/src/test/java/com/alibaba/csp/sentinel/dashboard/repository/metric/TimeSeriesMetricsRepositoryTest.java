@@ -0,0 +1,199 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.dashboard.repository.metric;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+
+import com.alibaba.csp.sentinel.dashboard.datasource.entity.MetricEntity;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Test cases for {@link TimeSeriesMetricsRepository}.
+ */
+public class TimeSeriesMetricsRepositoryTest {
+
+    private static final String APP = "defaultApp";
+    private static final String RESOURCE = "defaultResource";
+    private static final long HOUR = 1000 * 60 * 60;
+
+    private File storageDir;
+    private TimeSeriesMetricsRepository repository;
+
+    @Before
+    public void setUp() throws Exception {
+        storageDir = Files.createTempDirectory("sentinel-metrics").toFile();
+        repository = new TimeSeriesMetricsRepository(storageDir.getAbsolutePath(), 24 * HOUR, HOUR, null);
+    }
+
+    @After
+    public void tearDown() {
+        File[] files = storageDir.listFiles();
+        if (files != null) {
+            for (File file : files) {
+                file.delete();
+            }
+        }
+        storageDir.delete();
+    }
+
+    @Test
+    public void testChunkRoundTrip() {
+        int size = 300;
+        long[] timestamps = new long[size];
+        long[][] columns = new long[MetricChunk.VALUE_COLUMNS][size];
+        long time = 1_600_000_000_000L;
+        for (int i = 0; i < size; i++) {
+            time += i % 7 == 0 ? 3000 : 1000;
+            timestamps[i] = time;
+            columns[MetricChunk.COLUMN_PASS][i] = i % 10 == 0 ? 0 : 100 + i % 3;
+            columns[MetricChunk.COLUMN_SUCCESS][i] = 100;
+            columns[MetricChunk.COLUMN_BLOCK][i] = i * 31L;
+            columns[MetricChunk.COLUMN_EXCEPTION][i] = -i;
+            columns[MetricChunk.COLUMN_COUNT][i] = 1;
+            columns[MetricChunk.COLUMN_RT][i] = Double.doubleToLongBits(i % 20 == 0 ? i / 3.0 : 12.5);
+        }
+        MetricChunk chunk = MetricChunk.encode(timestamps, columns, size);
+        // Far less than the 56 bytes per point of raw columns.
+        assertTrue(chunk.getData().length < size * 16);
+
+        List<MetricEntity> entities = new ArrayList<>();
+        chunk.collect(APP, RESOURCE, Long.MIN_VALUE, Long.MAX_VALUE, entities);
+        assertEquals(size, entities.size());
+        for (int i = 0; i < size; i++) {
+            MetricEntity entity = entities.get(i);
+            assertEquals(timestamps[i], entity.getTimestamp().getTime());
+            assertEquals(columns[MetricChunk.COLUMN_PASS][i], entity.getPassQps().longValue());
+            assertEquals(columns[MetricChunk.COLUMN_BLOCK][i], entity.getBlockQps().longValue());
+            assertEquals(columns[MetricChunk.COLUMN_EXCEPTION][i], entity.getExceptionQps().longValue());
+            assertEquals(i % 20 == 0 ? i / 3.0 : 12.5, entity.getRt(), 0);
+        }
+    }
+
+    @Test
+    public void testQueryAcrossChunksAndDisk() {
+        long start = System.currentTimeMillis() - 2 * HOUR;
+        start -= start % HOUR;
+        int seconds = 3600;
+        for (int i = 0; i < seconds; i++) {
+            repository.save(newEntity(start + i * 1000L, i));
+        }
+        List<MetricEntity> list = repository.queryByAppAndResourceBetween(APP, RESOURCE, start + 1000,
+            start + 1000 * 1000);
+        assertEquals(1000, list.size());
+        assertEquals(1, list.get(0).getPassQps().longValue());
+
+        // Persist sealed chunks and evict them from heap.
+        repository.maintain(start + 3 * HOUR);
+        list = repository.queryByAppAndResourceBetween(APP, RESOURCE, start, start + seconds * 1000L);
+        assertEquals(seconds, list.size());
+        for (int i = 0; i < seconds; i++) {
+            assertEquals(start + i * 1000L, list.get(i).getTimestamp().getTime());
+            assertEquals(i, list.get(i).getPassQps().longValue());
+        }
+
+        // Out of retention.
+        repository.maintain(start + 26 * HOUR);
+        assertTrue(repository.queryByAppAndResourceBetween(APP, RESOURCE, start, start + HOUR).isEmpty());
+    }
+
+    @Test
+    public void testReplaceAndLatePoints() {
+        long now = System.currentTimeMillis();
+        long start = now - now % TimeSeriesMetricsRepository.CHUNK_SPAN_MS - HOUR;
+        repository.save(newEntity(start + 2000, 1));
+        repository.save(newEntity(start + 1000, 2));
+        repository.save(newEntity(start + 2000, 3));
+        List<MetricEntity> list = repository.queryByAppAndResourceBetween(APP, RESOURCE, start, start + 3000);
+        assertEquals(2, list.size());
+        assertEquals(2, list.get(0).getPassQps().longValue());
+        assertEquals(3, list.get(1).getPassQps().longValue());
+
+        // Late points of the previous chunk are kept within the grace period.
+        repository.save(newEntity(start - 1000, 4));
+        list = repository.queryByAppAndResourceBetween(APP, RESOURCE, start - 1000, start - 1);
+        assertEquals(1, list.size());
+        assertEquals(4, list.get(0).getPassQps().longValue());
+
+        // Points of sealed chunks are dropped once the grace period has passed.
+        repository.save(newEntity(start + TimeSeriesMetricsRepository.CHUNK_SEAL_GRACE_MS + 1000, 5));
+        repository.save(newEntity(start - 2000, 6));
+        list = repository.queryByAppAndResourceBetween(APP, RESOURCE, start - 2000, start - 1);
+        assertEquals(1, list.size());
+        assertEquals(4, list.get(0).getPassQps().longValue());
+        assertEquals(3, repository.queryByAppAndResourceBetween(APP, RESOURCE, start, start + HOUR).size());
+    }
+
+    @Test
+    public void testSaveAfterIdleSeriesRetired() {
+        long now = System.currentTimeMillis();
+        MetricEntity entity = new MetricEntity();
+        entity.setApp(APP);
+        entity.setTimestamp(new Date(now));
+        repository.save(entity);
+        assertTrue(repository.listResourcesOfApp(APP).isEmpty());
+
+        repository.save(newEntity(now, 1));
+        // The idle series is persisted and removed from heap.
+        repository.maintain(now + 2 * HOUR);
+        assertTrue(repository.listResourcesOfApp(APP).isEmpty());
+
+        repository.save(newEntity(now + 1000, 2));
+        List<MetricEntity> list = repository.queryByAppAndResourceBetween(APP, RESOURCE, now, now + 1000);
+        assertEquals(2, list.size());
+        assertEquals(1, list.get(0).getPassQps().longValue());
+        assertEquals(2, list.get(1).getPassQps().longValue());
+    }
+
+    @Test
+    public void testListResourcesOfApp() {
+        long now = System.currentTimeMillis();
+        for (int i = 0; i < 5; i++) {
+            MetricEntity entity = newEntity(now - i * 1000, 10);
+            entity.setResource("res" + i);
+            entity.setBlockQps((long)i);
+            repository.save(entity);
+        }
+        List<String> resources = repository.listResourcesOfApp(APP);
+        assertEquals(5, resources.size());
+        assertEquals("res4", resources.get(0));
+        assertEquals("res0", resources.get(4));
+    }
+
+    private static MetricEntity newEntity(long timestamp, long passQps) {
+        MetricEntity entity = new MetricEntity();
+        entity.setApp(APP);
+        entity.setResource(RESOURCE);
+        entity.setTimestamp(new Date(timestamp));
+        entity.setGmtCreate(new Date());
+        entity.setGmtModified(new Date());
+        entity.setPassQps(passQps);
+        entity.setSuccessQps(passQps);
+        entity.setBlockQps(0L);
+        entity.setExceptionQps(0L);
+        entity.setRt(12.5);
+        entity.setCount(1);
+        return entity;
+    }
+}
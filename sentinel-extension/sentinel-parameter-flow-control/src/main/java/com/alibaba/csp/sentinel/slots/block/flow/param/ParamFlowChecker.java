@@ -34,6 +34,7 @@ import com.alibaba.csp.sentinel.cluster.server.EmbeddedClusterTokenServerProvide
 import com.alibaba.csp.sentinel.log.RecordLog;
 import com.alibaba.csp.sentinel.slotchain.ResourceWrapper;
 import com.alibaba.csp.sentinel.slots.block.RuleConstant;
+import com.alibaba.csp.sentinel.slots.block.flow.QueueingDelayHolder;
 import com.alibaba.csp.sentinel.slots.statistic.cache.CacheMap;
 import com.alibaba.csp.sentinel.util.TimeUtil;
 
@@ -45,6 +46,13 @@ import com.alibaba.csp.sentinel.util.TimeUtil;
  */
 public final class ParamFlowChecker {
 
+    /**
+     * Low bits of the packed token state for the rest tokens, the high bits are for the time in milliseconds
+     * when tokens were last added, which is enough until year 2109.
+     */
+    private static final int TOKEN_BITS = 22;
+    private static final long MAX_PACKED_TOKENS = (1L << TOKEN_BITS) - 1;
+
     public static boolean passCheck(ResourceWrapper resourceWrapper, /*@Valid*/ ParamFlowRule rule, /*@Valid*/ int count,
                              Object... args) {
         if (args == null) {
@@ -107,6 +115,8 @@ public final class ParamFlowChecker {
         if (rule.getGrade() == RuleConstant.FLOW_GRADE_QPS) {
             if (rule.getControlBehavior() == RuleConstant.CONTROL_BEHAVIOR_RATE_LIMITER) {
                 return passThrottleLocalCheck(resourceWrapper, rule, acquireCount, value);
+            } else if (ParamFlowRuleUtil.isHeavyHitterRule(rule)) {
+                return passHeavyHitterLocalCheck(resourceWrapper, rule, acquireCount, value);
             } else {
                 return passDefaultLocalCheck(resourceWrapper, rule, acquireCount, value);
             }
@@ -150,28 +160,39 @@ public final class ParamFlowChecker {
             return false;
         }
 
+        long windowMs = rule.getDurationInSec() * 1000;
+        if (maxCount <= MAX_PACKED_TOKENS) {
+            return passPackedTokenCheck(tokenCounters, value, acquireCount, tokenCount, maxCount, windowMs);
+        }
+
         while (true) {
             long currentTime = TimeUtil.currentTimeMillis();
 
-            AtomicLong lastAddTokenTime = timeCounters.putIfAbsent(value, new AtomicLong(currentTime));
+            AtomicLong lastAddTokenTime = timeCounters.get(value);
             if (lastAddTokenTime == null) {
-                // Token never added, just replenish the tokens and consume {@code acquireCount} immediately.
-                tokenCounters.putIfAbsent(value, new AtomicLong(maxCount - acquireCount));
-                return true;
+                lastAddTokenTime = timeCounters.putIfAbsent(value, new AtomicLong(currentTime));
+                if (lastAddTokenTime == null) {
+                    // Token never added, just replenish the tokens and consume {@code acquireCount} immediately.
+                    tokenCounters.putIfAbsent(value, new AtomicLong(maxCount - acquireCount));
+                    return true;
+                }
             }
 
             // Calculate the time duration since last token was added.
             long passTime = currentTime - lastAddTokenTime.get();
             // A simplified token bucket algorithm that will replenish the tokens only when statistic window has passed.
-            if (passTime > rule.getDurationInSec() * 1000) {
-                AtomicLong oldQps = tokenCounters.putIfAbsent(value, new AtomicLong(maxCount - acquireCount));
+            if (passTime > windowMs) {
+                AtomicLong oldQps = tokenCounters.get(value);
+                if (oldQps == null) {
+                    oldQps = tokenCounters.putIfAbsent(value, new AtomicLong(maxCount - acquireCount));
+                }
                 if (oldQps == null) {
                     // Might not be accurate here.
                     lastAddTokenTime.set(currentTime);
                     return true;
                 } else {
                     long restQps = oldQps.get();
-                    long toAddCount = (passTime * tokenCount) / (rule.getDurationInSec() * 1000);
+                    long toAddCount = (passTime * tokenCount) / windowMs;
                     long newQps = toAddCount + restQps > maxCount ? (maxCount - acquireCount)
                         : (restQps + toAddCount - acquireCount);
 
@@ -201,6 +222,82 @@ public final class ParamFlowChecker {
         }
     }
 
+    /**
+     * The same token bucket as {@link #passDefaultLocalCheck}, but the time when tokens were last added
+     * and the rest tokens are packed into one {@code long} of the token counter, so that they are updated
+     * together by a single CAS, and the counter is allocated only when the value is seen for the first time.
+     */
+    private static boolean passPackedTokenCheck(CacheMap<Object, AtomicLong> tokenCounters, Object value,
+                                                int acquireCount, long tokenCount, long maxCount, long windowMs) {
+        long currentTime = TimeUtil.currentTimeMillis();
+        AtomicLong tokenState = tokenCounters.get(value);
+        if (tokenState == null) {
+            tokenState = tokenCounters.putIfAbsent(value,
+                new AtomicLong(packTokenState(currentTime, maxCount - acquireCount)));
+            if (tokenState == null) {
+                // Token never added, just replenish the tokens and consume {@code acquireCount} immediately.
+                return true;
+            }
+        }
+
+        while (true) {
+            long state = tokenState.get();
+            long lastAddTokenTime = state >>> TOKEN_BITS;
+            long restQps = state & MAX_PACKED_TOKENS;
+            long newState;
+
+            long passTime = currentTime - lastAddTokenTime;
+            if (passTime > windowMs) {
+                long toAddCount = (passTime * tokenCount) / windowMs;
+                long newQps = toAddCount + restQps > maxCount ? (maxCount - acquireCount)
+                    : (restQps + toAddCount - acquireCount);
+                if (newQps < 0) {
+                    return false;
+                }
+                newState = packTokenState(currentTime, newQps);
+            } else {
+                if (restQps - acquireCount < 0) {
+                    return false;
+                }
+                newState = packTokenState(lastAddTokenTime, restQps - acquireCount);
+            }
+            if (tokenState.compareAndSet(state, newState)) {
+                return true;
+            }
+            currentTime = TimeUtil.currentTimeMillis();
+        }
+    }
+
+    private static long packTokenState(long lastAddTokenTime, long restTokens) {
+        return (lastAddTokenTime << TOKEN_BITS) | restTokens;
+    }
+
+    static boolean passHeavyHitterLocalCheck(ResourceWrapper resourceWrapper, ParamFlowRule rule, int acquireCount,
+                                             Object value) {
+        ParameterMetric metric = getParameterMetric(resourceWrapper);
+        ParamHeavyHitterCounter counter = metric == null ? null : metric.getRuleHeavyHitterCounter(rule);
+        if (counter == null) {
+            return true;
+        }
+
+        // Calculate max token count (threshold)
+        Set<Object> exclusionItems = rule.getParsedHotItems().keySet();
+        long tokenCount = (long)rule.getCount();
+        if (exclusionItems.contains(value)) {
+            tokenCount = rule.getParsedHotItems().get(value);
+        }
+
+        if (tokenCount == 0) {
+            return false;
+        }
+
+        long maxCount = tokenCount + rule.getBurstCount();
+        if (acquireCount > maxCount) {
+            return false;
+        }
+        return counter.tryAcquire(value, acquireCount, tokenCount, maxCount, TimeUtil.currentTimeMillis());
+    }
+
     static boolean passThrottleLocalCheck(ResourceWrapper resourceWrapper, ParamFlowRule rule, int acquireCount,
                                           Object value) {
         ParameterMetric metric = getParameterMetric(resourceWrapper);
@@ -223,20 +320,24 @@ public final class ParamFlowChecker {
         long costTime = Math.round(1.0 * 1000 * acquireCount * rule.getDurationInSec() / tokenCount);
         while (true) {
             long currentTime = TimeUtil.currentTimeMillis();
-            AtomicLong timeRecorder = timeRecorderMap.putIfAbsent(value, new AtomicLong(currentTime));
-            if (timeRecorder == null) {
-                return true;
+            AtomicLong lastPastTimeRef = timeRecorderMap.get(value);
+            if (lastPastTimeRef == null) {
+                lastPastTimeRef = timeRecorderMap.putIfAbsent(value, new AtomicLong(currentTime));
+                if (lastPastTimeRef == null) {
+                    return true;
+                }
             }
-            //AtomicLong timeRecorder = timeRecorderMap.get(value);
-            long lastPassTime = timeRecorder.get();
+            long lastPassTime = lastPastTimeRef.get();
             long expectedTime = lastPassTime + costTime;
 
             if (expectedTime <= currentTime || expectedTime - currentTime < rule.getMaxQueueingTimeMs()) {
-                AtomicLong lastPastTimeRef = timeRecorderMap.get(value);
                 if (lastPastTimeRef.compareAndSet(lastPassTime, currentTime)) {
                     long waitTime = expectedTime - currentTime;
                     if (waitTime > 0) {
                         lastPastTimeRef.set(expectedTime);
+                        if (QueueingDelayHolder.defer(waitTime)) {
+                            return true;
+                        }
                         try {
                             TimeUnit.MILLISECONDS.sleep(waitTime);
                         } catch (InterruptedException e) {
@@ -82,6 +82,13 @@ public class ParamFlowRule extends AbstractRule {
      */
     private ParamFlowClusterConfig clusterConfig;
 
+    /**
+     * Max number of heavy-hitter parameter values tracked with exact token buckets (since 1.8.7).
+     * If positive, the QPS rule with default control behavior works in heavy-hitter mode, whose memory
+     * is bounded regardless of the number of distinct values, see {@link ParamHeavyHitterCounter}.
+     */
+    private int heavyHitterCapacity = 0;
+
     public int getControlBehavior() {
         return controlBehavior;
     }
@@ -188,6 +195,15 @@ public class ParamFlowRule extends AbstractRule {
         return this;
     }
 
+    public int getHeavyHitterCapacity() {
+        return heavyHitterCapacity;
+    }
+
+    public ParamFlowRule setHeavyHitterCapacity(int heavyHitterCapacity) {
+        this.heavyHitterCapacity = heavyHitterCapacity;
+        return this;
+    }
+
     @Override
     public boolean equals(Object o) {
         if (this == o) { return true; }
@@ -203,6 +219,7 @@ public class ParamFlowRule extends AbstractRule {
         if (burstCount != that.burstCount) { return false; }
         if (durationInSec != that.durationInSec) { return false; }
         if (clusterMode != that.clusterMode) { return false; }
+        if (heavyHitterCapacity != that.heavyHitterCapacity) { return false; }
         if (!Objects.equals(paramIdx, that.paramIdx)) { return false; }
         if (!Objects.equals(paramFlowItemList, that.paramFlowItemList)) { return false; }
         return Objects.equals(clusterConfig, that.clusterConfig);
@@ -223,6 +240,7 @@ public class ParamFlowRule extends AbstractRule {
         result = 31 * result + (paramFlowItemList != null ? paramFlowItemList.hashCode() : 0);
         result = 31 * result + (clusterMode ? 1 : 0);
         result = 31 * result + (clusterConfig != null ? clusterConfig.hashCode() : 0);
+        result = 31 * result + heavyHitterCapacity;
         return result;
     }
 
@@ -239,6 +257,7 @@ public class ParamFlowRule extends AbstractRule {
             ", paramFlowItemList=" + paramFlowItemList +
             ", clusterMode=" + clusterMode +
             ", clusterConfig=" + clusterConfig +
+            ", heavyHitterCapacity=" + heavyHitterCapacity +
             '}';
     }
 }
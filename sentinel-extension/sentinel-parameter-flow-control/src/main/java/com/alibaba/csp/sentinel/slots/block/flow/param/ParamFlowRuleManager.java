@@ -20,10 +20,12 @@ import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
 
+import com.alibaba.csp.sentinel.IdleResourceEvictor;
 import com.alibaba.csp.sentinel.log.RecordLog;
 import com.alibaba.csp.sentinel.property.DynamicSentinelProperty;
 import com.alibaba.csp.sentinel.property.PropertyListener;
 import com.alibaba.csp.sentinel.property.SentinelProperty;
+import com.alibaba.csp.sentinel.slots.block.RuleVersion;
 import com.alibaba.csp.sentinel.util.AssertUtil;
 
 /**
@@ -42,6 +44,9 @@ public final class ParamFlowRuleManager {
 
     static {
         currentProperty.addListener(PROPERTY_LISTENER);
+        // Resources with parameter flow rules must keep their statistics.
+        IdleResourceEvictor.addPinnedResourceChecker(ParamFlowRuleManager.class.getName(),
+            ParamFlowRuleManager::hasRules);
     }
 
     /**
@@ -104,6 +109,7 @@ public final class ParamFlowRuleManager {
             if (rules != null) {
                 PARAM_FLOW_RULES.clear();
                 PARAM_FLOW_RULES.putAll(rules);
+                RuleVersion.increase();
             }
             RecordLog.info("[ParamFlowRuleManager] Parameter flow rules received: {}", PARAM_FLOW_RULES);
         }
@@ -114,6 +120,7 @@ public final class ParamFlowRuleManager {
             if (rules != null) {
                 PARAM_FLOW_RULES.clear();
                 PARAM_FLOW_RULES.putAll(rules);
+                RuleVersion.increase();
             }
             RecordLog.info("[ParamFlowRuleManager] Parameter flow rules received: {}", PARAM_FLOW_RULES);
         }
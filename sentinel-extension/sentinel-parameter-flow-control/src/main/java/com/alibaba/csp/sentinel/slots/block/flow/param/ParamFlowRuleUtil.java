@@ -48,7 +48,20 @@ public final class ParamFlowRuleUtil {
             && rule.getGrade() >= 0 && rule.getParamIdx() != null
             && rule.getBurstCount() >= 0 && rule.getControlBehavior() >= 0
             && rule.getDurationInSec() > 0 && rule.getMaxQueueingTimeMs() >= 0
-            && checkCluster(rule);
+            && rule.getHeavyHitterCapacity() >= 0 && checkCluster(rule);
+    }
+
+    /**
+     * Check whether the rule works in heavy-hitter mode, which only applies to QPS rules
+     * with default control behavior.
+     *
+     * @param rule valid parameter rule
+     * @return true if the rule works in heavy-hitter mode, otherwise false
+     * @since 1.8.7
+     */
+    public static boolean isHeavyHitterRule(/*@Valid*/ ParamFlowRule rule) {
+        return rule.getHeavyHitterCapacity() > 0 && rule.getGrade() == RuleConstant.FLOW_GRADE_QPS
+            && rule.getControlBehavior() == RuleConstant.CONTROL_BEHAVIOR_DEFAULT;
     }
 
     private static boolean checkCluster(/*@PreChecked*/ ParamFlowRule rule) {
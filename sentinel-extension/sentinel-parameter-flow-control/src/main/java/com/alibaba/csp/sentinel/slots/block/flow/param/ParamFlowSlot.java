@@ -19,6 +19,7 @@ import com.alibaba.csp.sentinel.context.Context;
 import com.alibaba.csp.sentinel.node.DefaultNode;
 import com.alibaba.csp.sentinel.slotchain.AbstractLinkedProcessorSlot;
 import com.alibaba.csp.sentinel.slotchain.ResourceWrapper;
+import com.alibaba.csp.sentinel.slotchain.RuleCheckingSlot;
 import com.alibaba.csp.sentinel.slots.block.BlockException;
 import com.alibaba.csp.sentinel.spi.Spi;
 
@@ -32,7 +33,12 @@ import java.util.List;
  * @since 0.2.0
  */
 @Spi(order = -3000)
-public class ParamFlowSlot extends AbstractLinkedProcessorSlot<DefaultNode> {
+public class ParamFlowSlot extends AbstractLinkedProcessorSlot<DefaultNode> implements RuleCheckingSlot {
+
+    @Override
+    public boolean hasRules(String resourceName) {
+        return ParamFlowRuleManager.hasRules(resourceName);
+    }
 
     @Override
     public void entry(Context context, ResourceWrapper resourceWrapper, DefaultNode node, int count,
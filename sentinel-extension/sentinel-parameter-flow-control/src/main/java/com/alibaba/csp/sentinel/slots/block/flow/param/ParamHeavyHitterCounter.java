@@ -0,0 +1,268 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.slots.block.flow.param;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.alibaba.csp.sentinel.slots.statistic.data.CountMinSketch;
+import com.alibaba.csp.sentinel.util.AssertUtil;
+
+/**
+ * <p>Token counter of a parameter flow rule in heavy-hitter mode (see {@link ParamFlowRule#getHeavyHitterCapacity()}),
+ * whose memory is bounded and independent of the number of distinct parameter values.</p>
+ *
+ * <p>The count of every value in the current statistic window is estimated by a {@link CountMinSketch}.
+ * The values with the largest counts (heavy hitters) are tracked with the Space-Saving algorithm:
+ * once the estimated count of a value exceeds the smallest count of the tracked heavy hitters, the smallest
+ * one is replaced. The heavy hitters are kept in a min-heap ordered by count, so that the replacement takes
+ * O(log K) time. Heavy hitters have exact token buckets, as in the default mode, while the other values
+ * are checked against their estimated count in a fixed window, which may over-count but never under-count.</p>
+ *
+ * @since 1.8.7
+ */
+public class ParamHeavyHitterCounter {
+
+    private static final int SKETCH_WIDTH_PER_HEAVY_HITTER = 8;
+    private static final int MIN_SKETCH_WIDTH = 256;
+    /**
+     * A value seen only once in the window is never tracked, even if a heavy hitter count decays to 0.
+     */
+    private static final long MIN_HEAVY_HITTER_FLOOR = 1;
+
+    private final int capacity;
+    private final long windowMs;
+    private final CountMinSketch sketch;
+    private final Map<Object, HeavyHitter> heavyHitters;
+    /**
+     * Min-heap of the heavy hitters by {@link HeavyHitter#heapCount}, guarded by the lock.
+     */
+    private final HeavyHitter[] heap;
+    private int heapSize = 0;
+
+    private final Object lock = new Object();
+
+    private volatile long windowStart = 0;
+    /**
+     * A value could be a heavy hitter only if its count exceeds this floor, which is the smallest count
+     * of the heavy hitters when full, and never less than {@link #MIN_HEAVY_HITTER_FLOOR}.
+     */
+    private volatile long minHeavyHitterCount = MIN_HEAVY_HITTER_FLOOR;
+
+    public ParamHeavyHitterCounter(int capacity, long windowMs) {
+        AssertUtil.isTrue(capacity > 0, "capacity should be positive");
+        AssertUtil.isTrue(windowMs > 0, "windowMs should be positive");
+        this.capacity = capacity;
+        this.windowMs = windowMs;
+        this.sketch = new CountMinSketch(Math.max(capacity * SKETCH_WIDTH_PER_HEAVY_HITTER, MIN_SKETCH_WIDTH));
+        this.heavyHitters = new ConcurrentHashMap<>(capacity * 4 / 3 + 1);
+        this.heap = new HeavyHitter[capacity];
+    }
+
+    /**
+     * Try to acquire tokens for the parameter value.
+     *
+     * @param value        the parameter value
+     * @param acquireCount tokens to acquire
+     * @param tokenCount   tokens added to the value per statistic window
+     * @param maxCount     max tokens of the value, including the burst count
+     * @param currentTime  current time in milliseconds
+     * @return true if acquired, otherwise false
+     */
+    public boolean tryAcquire(Object value, int acquireCount, long tokenCount, long maxCount, long currentTime) {
+        rollWindowIfNeeded(currentTime);
+
+        long estimate = sketch.add(value, acquireCount);
+        HeavyHitter heavyHitter = heavyHitters.get(value);
+        if (heavyHitter != null) {
+            if (estimate > heavyHitter.count) {
+                heavyHitter.count = estimate;
+            }
+            return heavyHitter.tryAcquire(acquireCount, tokenCount, maxCount, currentTime, windowMs);
+        }
+
+        boolean pass = estimate <= maxCount;
+        if (estimate > minHeavyHitterCount) {
+            long passedCount = pass ? estimate : estimate - acquireCount;
+            offer(value, estimate, Math.max(maxCount - passedCount, 0));
+        }
+        return pass;
+    }
+
+    private void offer(Object value, long estimate, long restTokens) {
+        synchronized (lock) {
+            if (heavyHitters.containsKey(value)) {
+                return;
+            }
+            HeavyHitter heavyHitter = new HeavyHitter(value, estimate, restTokens, windowStart);
+            if (heapSize < capacity) {
+                heap[heapSize] = heavyHitter;
+                siftUp(heapSize++);
+            } else {
+                HeavyHitter min = refreshMin();
+                if (min.heapCount >= estimate) {
+                    updateMinHeavyHitterCount();
+                    return;
+                }
+                heavyHitters.remove(min.value);
+                heap[0] = heavyHitter;
+                siftDown(0);
+            }
+            heavyHitters.put(value, heavyHitter);
+            updateMinHeavyHitterCount();
+        }
+    }
+
+    private void rollWindowIfNeeded(long currentTime) {
+        if (currentTime - windowStart < windowMs) {
+            return;
+        }
+        synchronized (lock) {
+            if (currentTime - windowStart < windowMs) {
+                return;
+            }
+            sketch.reset();
+            // Decay rather than reset the counts, so that the heavy hitters are not replaced at the window start.
+            // Halving keeps the heap order, so the heap need not be rebuilt.
+            for (int i = 0; i < heapSize; i++) {
+                HeavyHitter heavyHitter = heap[i];
+                heavyHitter.count >>= 1;
+                heavyHitter.heapCount >>= 1;
+            }
+            updateMinHeavyHitterCount();
+            windowStart = currentTime;
+        }
+    }
+
+    private void updateMinHeavyHitterCount() {
+        long min = heapSize < capacity ? 0 : refreshMin().heapCount;
+        minHeavyHitterCount = Math.max(min, MIN_HEAVY_HITTER_FLOOR);
+    }
+
+    /**
+     * The counts of the heavy hitters are increased out of the lock, so the heap keys may fall behind.
+     * Re-sift the root until its key is up to date, then it's the smallest heavy hitter.
+     */
+    private HeavyHitter refreshMin() {
+        HeavyHitter root = heap[0];
+        long count;
+        while ((count = root.count) != root.heapCount) {
+            root.heapCount = count;
+            siftDown(0);
+            root = heap[0];
+        }
+        return root;
+    }
+
+    private void siftUp(int i) {
+        HeavyHitter heavyHitter = heap[i];
+        while (i > 0) {
+            int parent = (i - 1) >>> 1;
+            if (heap[parent].heapCount <= heavyHitter.heapCount) {
+                break;
+            }
+            heap[i] = heap[parent];
+            i = parent;
+        }
+        heap[i] = heavyHitter;
+    }
+
+    private void siftDown(int i) {
+        HeavyHitter heavyHitter = heap[i];
+        int half = heapSize >>> 1;
+        while (i < half) {
+            int child = 2 * i + 1;
+            int right = child + 1;
+            if (right < heapSize && heap[right].heapCount < heap[child].heapCount) {
+                child = right;
+            }
+            if (heavyHitter.heapCount <= heap[child].heapCount) {
+                break;
+            }
+            heap[i] = heap[child];
+            i = child;
+        }
+        heap[i] = heavyHitter;
+    }
+
+    public boolean isHeavyHitter(Object value) {
+        return heavyHitters.containsKey(value);
+    }
+
+    public int heavyHitterSize() {
+        return heavyHitters.size();
+    }
+
+    public long estimate(Object value) {
+        return sketch.estimate(value);
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    static final class HeavyHitter {
+
+        private final Object value;
+        private final AtomicLong lastAddTokenTime;
+        private final AtomicLong tokens;
+        /**
+         * Estimated count in current window, updated without synchronization (Space-Saving counter).
+         */
+        private volatile long count;
+        /**
+         * The count seen by the heap, refreshed lazily under the lock.
+         */
+        private long heapCount;
+
+        HeavyHitter(Object value, long count, long tokens, long lastAddTokenTime) {
+            this.value = value;
+            this.count = count;
+            this.heapCount = count;
+            this.tokens = new AtomicLong(tokens);
+            this.lastAddTokenTime = new AtomicLong(lastAddTokenTime);
+        }
+
+        boolean tryAcquire(int acquireCount, long tokenCount, long maxCount, long currentTime, long windowMs) {
+            while (true) {
+                long passTime = currentTime - lastAddTokenTime.get();
+                long restQps = tokens.get();
+                // Same simplified token bucket as the default mode, see ParamFlowChecker#passDefaultLocalCheck.
+                if (passTime > windowMs) {
+                    long toAddCount = (passTime * tokenCount) / windowMs;
+                    long newQps = toAddCount + restQps > maxCount ? (maxCount - acquireCount)
+                        : (restQps + toAddCount - acquireCount);
+                    if (newQps < 0) {
+                        return false;
+                    }
+                    if (tokens.compareAndSet(restQps, newQps)) {
+                        lastAddTokenTime.set(currentTime);
+                        return true;
+                    }
+                } else {
+                    if (restQps - acquireCount < 0) {
+                        return false;
+                    }
+                    if (tokens.compareAndSet(restQps, restQps - acquireCount)) {
+                        return true;
+                    }
+                }
+                Thread.yield();
+            }
+        }
+    }
+}
@@ -53,9 +53,16 @@ public class ParameterMetric {
      */
     private final Map<ParamFlowRule, CacheMap<Object, AtomicLong>> ruleTokenCounter = new HashMap<>();
     private final Map<Integer, CacheMap<Object, AtomicInteger>> threadCountMap = new HashMap<>();
+    /**
+     * Format: (rule, heavyHitterCounter), only for rules in heavy-hitter mode.
+     *
+     * @since 1.8.7
+     */
+    private final Map<ParamFlowRule, ParamHeavyHitterCounter> ruleHeavyHitterCounters = new HashMap<>();
 
     /**
-     * Get the token counter for given parameter rule.
+     * Get the token counter for given parameter rule. Unless the max token count is too large, the counter value
+     * also holds the time when tokens were last added, packed by {@link ParamFlowChecker}.
      *
      * @param rule valid parameter rule
      * @return the associated token counter
@@ -76,11 +83,23 @@ public class ParameterMetric {
         return ruleTimeCounters.get(rule);
     }
 
+    /**
+     * Get the heavy-hitter counter for given parameter rule in heavy-hitter mode.
+     *
+     * @param rule valid parameter rule
+     * @return the associated heavy-hitter counter
+     * @since 1.8.7
+     */
+    public ParamHeavyHitterCounter getRuleHeavyHitterCounter(ParamFlowRule rule) {
+        return ruleHeavyHitterCounters.get(rule);
+    }
+
     public void clear() {
         synchronized (lock) {
             threadCountMap.clear();
             ruleTimeCounters.clear();
             ruleTokenCounter.clear();
+            ruleHeavyHitterCounters.clear();
         }
     }
 
@@ -88,11 +107,40 @@ public class ParameterMetric {
         synchronized (lock) {
             ruleTimeCounters.remove(rule);
             ruleTokenCounter.remove(rule);
+            ruleHeavyHitterCounters.remove(rule);
             threadCountMap.remove(rule.getParamIdx());
         }
     }
 
     public void initialize(ParamFlowRule rule) {
+        if (ParamFlowRuleUtil.isHeavyHitterRule(rule)) {
+            initializeHeavyHitterCounter(rule);
+        } else {
+            initializeTokenCounters(rule);
+        }
+
+        if (!threadCountMap.containsKey(rule.getParamIdx())) {
+            synchronized (lock) {
+                if (threadCountMap.get(rule.getParamIdx()) == null) {
+                    threadCountMap.put(rule.getParamIdx(),
+                        new ConcurrentLinkedHashMapWrapper<Object, AtomicInteger>(THREAD_COUNT_MAX_CAPACITY));
+                }
+            }
+        }
+    }
+
+    private void initializeHeavyHitterCounter(ParamFlowRule rule) {
+        if (!ruleHeavyHitterCounters.containsKey(rule)) {
+            synchronized (lock) {
+                if (ruleHeavyHitterCounters.get(rule) == null) {
+                    ruleHeavyHitterCounters.put(rule,
+                        new ParamHeavyHitterCounter(rule.getHeavyHitterCapacity(), rule.getDurationInSec() * 1000));
+                }
+            }
+        }
+    }
+
+    private void initializeTokenCounters(ParamFlowRule rule) {
         if (!ruleTimeCounters.containsKey(rule)) {
             synchronized (lock) {
                 if (ruleTimeCounters.get(rule) == null) {
@@ -110,15 +158,6 @@ public class ParameterMetric {
                 }
             }
         }
-
-        if (!threadCountMap.containsKey(rule.getParamIdx())) {
-            synchronized (lock) {
-                if (threadCountMap.get(rule.getParamIdx()) == null) {
-                    threadCountMap.put(rule.getParamIdx(),
-                        new ConcurrentLinkedHashMapWrapper<Object, AtomicInteger>(THREAD_COUNT_MAX_CAPACITY));
-                }
-            }
-        }
     }
 
     @SuppressWarnings("rawtypes")
@@ -264,4 +303,8 @@ public class ParameterMetric {
     Map<ParamFlowRule, CacheMap<Object, AtomicLong>> getRuleTimeCounterMap() {
         return ruleTimeCounters;
     }
+
+    Map<ParamFlowRule, ParamHeavyHitterCounter> getRuleHeavyHitterCounterMap() {
+        return ruleHeavyHitterCounters;
+    }
 }
@@ -0,0 +1,120 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.slots.statistic.data;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import com.alibaba.csp.sentinel.util.AssertUtil;
+
+/**
+ * A concurrent Count-Min sketch that estimates the count of values within a bounded memory,
+ * independent of the number of distinct values. The estimate never under-counts a value,
+ * but may over-count it when it collides with other values in all rows.
+ *
+ * @since 1.8.7
+ */
+public class CountMinSketch {
+
+    private static final int DEPTH = 4;
+    private static final int MAX_WIDTH = 1 << 24;
+
+    private final int mask;
+    private final AtomicLongArray counters;
+
+    /**
+     * @param width the number of counters per row, which will be rounded up to a power of two
+     */
+    public CountMinSketch(int width) {
+        AssertUtil.isTrue(width > 0, "width should be positive");
+        int w = 4;
+        while (w < width && w < MAX_WIDTH) {
+            w <<= 1;
+        }
+        this.mask = w - 1;
+        this.counters = new AtomicLongArray(DEPTH * w);
+    }
+
+    /**
+     * Add the count of the value and get the estimated count after adding.
+     *
+     * @param value the value, should not be null
+     * @param count the count to add
+     * @return estimated count of the value, including the given count
+     */
+    public long add(Object value, long count) {
+        int h = hash(value);
+        int h2 = rehash(h);
+        long min = Long.MAX_VALUE;
+        for (int i = 0; i < DEPTH; i++) {
+            long c = counters.addAndGet(indexOf(i, h, h2), count);
+            if (c < min) {
+                min = c;
+            }
+        }
+        return min;
+    }
+
+    /**
+     * Get the estimated count of the value.
+     *
+     * @param value the value, should not be null
+     * @return estimated count of the value
+     */
+    public long estimate(Object value) {
+        int h = hash(value);
+        int h2 = rehash(h);
+        long min = Long.MAX_VALUE;
+        for (int i = 0; i < DEPTH; i++) {
+            long c = counters.get(indexOf(i, h, h2));
+            if (c < min) {
+                min = c;
+            }
+        }
+        return min;
+    }
+
+    /**
+     * Reset all counters. Concurrent updates may partially survive the reset.
+     */
+    public void reset() {
+        for (int i = 0; i < counters.length(); i++) {
+            counters.set(i, 0);
+        }
+    }
+
+    public int width() {
+        return mask + 1;
+    }
+
+    private int indexOf(int row, int h, int h2) {
+        // Derive the hash of each row from two independent hashes (Kirsch-Mitzenmacher).
+        return row * (mask + 1) + ((h + row * h2) & mask);
+    }
+
+    private static int hash(Object value) {
+        int h = value.hashCode();
+        h ^= h >>> 16;
+        h *= 0x85ebca6b;
+        h ^= h >>> 13;
+        h *= 0xc2b2ae35;
+        return h ^ (h >>> 16);
+    }
+
+    private static int rehash(int h) {
+        // Odd, so that a value is mapped to a different index in each row.
+        return (Integer.rotateLeft(h, 16) * 0x9e3779b9) | 1;
+    }
+}
@@ -32,7 +32,11 @@ import java.util.Map;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicLong;
 
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.when;
@@ -96,6 +100,104 @@ public class ParamFlowCheckerTest {
         TimeUnit.SECONDS.sleep(3);
     }
 
+    @Test
+    public void testSingleValueCheckQpsWithPackedTokenState() {
+        final String resourceName = "testSingleValueCheckQpsWithPackedTokenState";
+        final ResourceWrapper resourceWrapper = new StringResourceWrapper(resourceName, EntryType.IN);
+        int paramIdx = 0;
+
+        ParamFlowRule rule = new ParamFlowRule();
+        rule.setResource(resourceName);
+        rule.setCount(3);
+        rule.setBurstCount(1);
+        rule.setParamIdx(paramIdx);
+        // Long enough so that tokens are not replenished during the test.
+        rule.setDurationInSec(3600);
+
+        String valueA = "valueA";
+        String valueB = "valueB";
+        ParameterMetric metric = new ParameterMetric();
+        ParameterMetricStorage.getMetricsMap().put(resourceWrapper.getName(), metric);
+        metric.initialize(rule);
+
+        assertFalse(ParamFlowChecker.passSingleValueCheck(resourceWrapper, rule, 5, valueA));
+        assertTrue(ParamFlowChecker.passSingleValueCheck(resourceWrapper, rule, 2, valueA));
+        AtomicLong tokenState = metric.getRuleTokenCounter(rule).get(valueA);
+        assertTrue(ParamFlowChecker.passSingleValueCheck(resourceWrapper, rule, 1, valueA));
+        assertTrue(ParamFlowChecker.passSingleValueCheck(resourceWrapper, rule, 1, valueA));
+        assertFalse(ParamFlowChecker.passSingleValueCheck(resourceWrapper, rule, 1, valueA));
+        // The token counter is only allocated on the first check of the value.
+        assertSame(tokenState, metric.getRuleTokenCounter(rule).get(valueA));
+        assertNull(metric.getRuleTimeCounter(rule).get(valueA));
+
+        assertTrue(ParamFlowChecker.passSingleValueCheck(resourceWrapper, rule, 4, valueB));
+        assertFalse(ParamFlowChecker.passSingleValueCheck(resourceWrapper, rule, 1, valueB));
+    }
+
+    @Test
+    public void testSingleValueCheckQpsWithTooManyTokensToPack() {
+        final String resourceName = "testSingleValueCheckQpsWithTooManyTokensToPack";
+        final ResourceWrapper resourceWrapper = new StringResourceWrapper(resourceName, EntryType.IN);
+        int paramIdx = 0;
+
+        long threshold = 1L << 30;
+        ParamFlowRule rule = new ParamFlowRule();
+        rule.setResource(resourceName);
+        rule.setCount(threshold);
+        rule.setParamIdx(paramIdx);
+        rule.setDurationInSec(3600);
+
+        String valueA = "valueA";
+        ParameterMetric metric = new ParameterMetric();
+        ParameterMetricStorage.getMetricsMap().put(resourceWrapper.getName(), metric);
+        metric.initialize(rule);
+
+        assertTrue(ParamFlowChecker.passSingleValueCheck(resourceWrapper, rule, 1, valueA));
+        assertTrue(ParamFlowChecker.passSingleValueCheck(resourceWrapper, rule, 1, valueA));
+        assertEquals(threshold - 2, metric.getRuleTokenCounter(rule).get(valueA).get());
+        assertNotNull(metric.getRuleTimeCounter(rule).get(valueA));
+    }
+
+    @Test
+    public void testSingleValueCheckQpsInHeavyHitterMode() {
+        final String resourceName = "testSingleValueCheckQpsInHeavyHitterMode";
+        final ResourceWrapper resourceWrapper = new StringResourceWrapper(resourceName, EntryType.IN);
+        int paramIdx = 0;
+
+        ParamFlowRule rule = new ParamFlowRule();
+        rule.setResource(resourceName);
+        rule.setCount(2);
+        rule.setParamIdx(paramIdx);
+        // Long enough so that tokens are not replenished during the test.
+        rule.setDurationInSec(3600);
+        rule.setHeavyHitterCapacity(1);
+
+        String valueA = "valueA";
+        String valueB = "valueB";
+        String valueC = "valueC";
+        Map<Object, Integer> map = new HashMap<Object, Integer>();
+        map.put(valueB, 0);
+        map.put(valueC, 3);
+        rule.setParsedHotItems(map);
+
+        ParameterMetric metric = new ParameterMetric();
+        ParameterMetricStorage.getMetricsMap().put(resourceWrapper.getName(), metric);
+        metric.initialize(rule);
+
+        // Value A becomes the only heavy hitter.
+        assertTrue(ParamFlowChecker.passSingleValueCheck(resourceWrapper, rule, 1, valueA));
+        assertTrue(ParamFlowChecker.passSingleValueCheck(resourceWrapper, rule, 1, valueA));
+        assertFalse(ParamFlowChecker.passSingleValueCheck(resourceWrapper, rule, 1, valueA));
+        assertTrue(metric.getRuleHeavyHitterCounter(rule).isHeavyHitter(valueA));
+
+        assertFalse(ParamFlowChecker.passSingleValueCheck(resourceWrapper, rule, 1, valueB));
+
+        assertFalse(ParamFlowChecker.passSingleValueCheck(resourceWrapper, rule, 4, valueC));
+        assertTrue(ParamFlowChecker.passSingleValueCheck(resourceWrapper, rule, 1, valueC));
+        assertTrue(ParamFlowChecker.passSingleValueCheck(resourceWrapper, rule, 2, valueC));
+        assertFalse(ParamFlowChecker.passSingleValueCheck(resourceWrapper, rule, 1, valueC));
+    }
+
     @Test
     public void testSingleValueCheckThreadCountWithExceptionItems() {
         final String resourceName = "testSingleValueCheckThreadCountWithExceptionItems";
@@ -0,0 +1,151 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.slots.block.flow.param;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Test cases for {@link ParamHeavyHitterCounter}.
+ */
+public class ParamHeavyHitterCounterTest {
+
+    @Test
+    public void testHeavyHitterTokenBucket() {
+        ParamHeavyHitterCounter counter = new ParamHeavyHitterCounter(2, 1000);
+        long time = 10000;
+
+        for (int i = 0; i < 3; i++) {
+            assertTrue(counter.tryAcquire("a", 1, 3, 3, time));
+        }
+        assertTrue(counter.isHeavyHitter("a"));
+        assertFalse(counter.tryAcquire("a", 1, 3, 3, time));
+
+        // Tokens are replenished after the statistic window.
+        time += 1001;
+        for (int i = 0; i < 3; i++) {
+            assertTrue(counter.tryAcquire("a", 1, 3, 3, time));
+        }
+        assertFalse(counter.tryAcquire("a", 1, 3, 3, time));
+    }
+
+    @Test
+    public void testSpaceSavingReplacement() {
+        ParamHeavyHitterCounter counter = new ParamHeavyHitterCounter(2, 1000);
+        long time = 10000;
+
+        for (int i = 0; i < 4; i++) {
+            counter.tryAcquire("a", 1, 5, 5, time);
+        }
+        // A value seen only once is not tracked.
+        counter.tryAcquire("b", 1, 5, 5, time);
+        assertFalse(counter.isHeavyHitter("b"));
+        counter.tryAcquire("b", 1, 5, 5, time);
+        assertTrue(counter.isHeavyHitter("a"));
+        assertTrue(counter.isHeavyHitter("b"));
+
+        // Not more frequent than the smallest heavy hitter "b".
+        assertTrue(counter.tryAcquire("c", 1, 5, 5, time));
+        assertTrue(counter.tryAcquire("c", 1, 5, 5, time));
+        assertFalse(counter.isHeavyHitter("c"));
+        // Now "c" replaces "b", with the tokens left in current window.
+        assertTrue(counter.tryAcquire("c", 1, 5, 5, time));
+        assertTrue(counter.isHeavyHitter("c"));
+        assertFalse(counter.isHeavyHitter("b"));
+        assertEquals(2, counter.heavyHitterSize());
+        assertTrue(counter.tryAcquire("c", 1, 5, 5, time));
+        assertTrue(counter.tryAcquire("c", 1, 5, 5, time));
+        assertFalse(counter.tryAcquire("c", 1, 5, 5, time));
+    }
+
+    @Test
+    public void testReplaceHeavyHitterWithUpdatedCount() {
+        ParamHeavyHitterCounter counter = new ParamHeavyHitterCounter(2, 1000);
+        long time = 10000;
+
+        for (int i = 0; i < 2; i++) {
+            counter.tryAcquire("a", 1, 100, 100, time);
+            counter.tryAcquire("b", 1, 100, 100, time);
+        }
+        // "a" gets hotter than "b" after being tracked, so "b" is the one to be replaced.
+        for (int i = 0; i < 8; i++) {
+            counter.tryAcquire("a", 1, 100, 100, time);
+        }
+        for (int i = 0; i < 3; i++) {
+            counter.tryAcquire("c", 1, 100, 100, time);
+        }
+        assertTrue(counter.isHeavyHitter("a"));
+        assertTrue(counter.isHeavyHitter("c"));
+        assertFalse(counter.isHeavyHitter("b"));
+    }
+
+    @Test
+    public void testNoReplacementByRareValuesAfterDecay() {
+        ParamHeavyHitterCounter counter = new ParamHeavyHitterCounter(2, 1000);
+        long time = 10000;
+
+        for (int i = 0; i < 2; i++) {
+            counter.tryAcquire("a", 1, 5, 5, time);
+            counter.tryAcquire("b", 1, 5, 5, time);
+        }
+        assertEquals(2, counter.heavyHitterSize());
+
+        // The counts of the heavy hitters decay to 1 and then 0, but values seen once are still not tracked.
+        time += 1000;
+        counter.tryAcquire("c", 1, 5, 5, time);
+        time += 1000;
+        counter.tryAcquire("d", 1, 5, 5, time);
+        assertFalse(counter.isHeavyHitter("c"));
+        assertFalse(counter.isHeavyHitter("d"));
+        assertTrue(counter.isHeavyHitter("a"));
+        assertTrue(counter.isHeavyHitter("b"));
+    }
+
+    @Test
+    public void testEstimatedCountForOtherValues() {
+        ParamHeavyHitterCounter counter = new ParamHeavyHitterCounter(1, 1000);
+        long time = 10000;
+
+        for (int i = 0; i < 10; i++) {
+            assertTrue(counter.tryAcquire("hot", 1, 100, 100, time));
+        }
+        assertTrue(counter.isHeavyHitter("hot"));
+
+        for (int i = 0; i < 3; i++) {
+            assertTrue(counter.tryAcquire("cold", 1, 3, 3, time));
+        }
+        assertFalse(counter.tryAcquire("cold", 1, 3, 3, time));
+        assertFalse(counter.isHeavyHitter("cold"));
+        assertEquals(4, counter.estimate("cold"));
+
+        // The estimated counts are reset in the next window.
+        time += 1000;
+        assertTrue(counter.tryAcquire("cold", 1, 3, 3, time));
+        assertEquals(1, counter.estimate("cold"));
+        assertTrue(counter.isHeavyHitter("hot"));
+    }
+
+    @Test
+    public void testBoundedHeavyHitters() {
+        ParamHeavyHitterCounter counter = new ParamHeavyHitterCounter(16, 1000);
+        for (int i = 0; i < 10000; i++) {
+            counter.tryAcquire("user-" + i, 1, 5, 5, 10000);
+            counter.tryAcquire("user-" + i, 1, 5, 5, 10000);
+        }
+        assertEquals(16, counter.heavyHitterSize());
+    }
+}
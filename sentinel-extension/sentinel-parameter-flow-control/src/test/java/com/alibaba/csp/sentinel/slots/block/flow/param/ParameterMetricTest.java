@@ -18,6 +18,7 @@ package com.alibaba.csp.sentinel.slots.block.flow.param;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
 
@@ -76,6 +77,36 @@ public class ParameterMetricTest {
         assertEquals(0, metric.getRuleTokenCounterMap().size());
     }
 
+    @Test
+    public void testInitAndClearHeavyHitterCounter() {
+        ParameterMetric metric = new ParameterMetric();
+
+        ParamFlowRule rule = new ParamFlowRule("abc")
+            .setParamIdx(1)
+            .setHeavyHitterCapacity(100);
+        metric.initialize(rule);
+        ParamHeavyHitterCounter counter = metric.getRuleHeavyHitterCounter(rule);
+        assertNotNull(counter);
+        assertEquals(100, counter.getCapacity());
+        assertNull(metric.getRuleTokenCounter(rule));
+        assertNull(metric.getRuleTimeCounter(rule));
+        metric.initialize(rule);
+        assertSame(counter, metric.getRuleHeavyHitterCounter(rule));
+
+        // Heavy-hitter mode doesn't apply to rate limiter.
+        ParamFlowRule rule2 = new ParamFlowRule("abc")
+            .setParamIdx(1)
+            .setHeavyHitterCapacity(100)
+            .setControlBehavior(RuleConstant.CONTROL_BEHAVIOR_RATE_LIMITER);
+        metric.initialize(rule2);
+        assertNull(metric.getRuleHeavyHitterCounter(rule2));
+        assertNotNull(metric.getRuleTimeCounter(rule2));
+
+        metric.clearForRule(rule);
+        assertNull(metric.getRuleHeavyHitterCounter(rule));
+        assertEquals(0, metric.getRuleHeavyHitterCounterMap().size());
+    }
+
     @Test
     public void testAddAndDecreaseThreadCountCommon() {
         testAddAndDecreaseThreadCount(PARAM_TYPE_NORMAL);
@@ -0,0 +1,68 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.slots.statistic.data;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Test cases for {@link CountMinSketch}.
+ */
+public class CountMinSketchTest {
+
+    @Test
+    public void testWidthRoundedUpToPowerOfTwo() {
+        assertEquals(4, new CountMinSketch(1).width());
+        assertEquals(256, new CountMinSketch(256).width());
+        assertEquals(512, new CountMinSketch(300).width());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testIllegalWidth() {
+        new CountMinSketch(0);
+    }
+
+    @Test
+    public void testAddAndEstimate() {
+        CountMinSketch sketch = new CountMinSketch(1024);
+        assertEquals(0, sketch.estimate("a"));
+        assertEquals(3, sketch.add("a", 3));
+        assertEquals(5, sketch.add("a", 2));
+        assertEquals(5, sketch.estimate("a"));
+        assertEquals(1, sketch.add("b", 1));
+
+        sketch.reset();
+        assertEquals(0, sketch.estimate("a"));
+        assertEquals(0, sketch.estimate("b"));
+    }
+
+    @Test
+    public void testNeverUnderEstimate() {
+        // Many more values than counters, so that collisions happen.
+        CountMinSketch sketch = new CountMinSketch(64);
+        for (int i = 0; i < 10000; i++) {
+            sketch.add(i, 1);
+        }
+        for (int i = 0; i < 100; i++) {
+            sketch.add("hot", 1);
+        }
+        for (int i = 0; i < 10000; i++) {
+            assertTrue(sketch.estimate(i) >= 1);
+        }
+        assertTrue(sketch.estimate("hot") >= 100);
+    }
+}
@@ -15,8 +15,10 @@
  */
 package com.alibaba.csp.sentinel.command.handler;
 
+import java.io.ByteArrayOutputStream;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.zip.GZIPOutputStream;
 
 import com.alibaba.csp.sentinel.Constants;
 import com.alibaba.csp.sentinel.command.CommandHandler;
@@ -24,30 +26,51 @@ import com.alibaba.csp.sentinel.command.CommandRequest;
 import com.alibaba.csp.sentinel.command.CommandResponse;
 import com.alibaba.csp.sentinel.command.annotation.CommandMapping;
 import com.alibaba.csp.sentinel.config.SentinelConfig;
+import com.alibaba.csp.sentinel.node.metric.BinaryMetricSearcher;
+import com.alibaba.csp.sentinel.node.metric.BinaryMetricWriter;
+import com.alibaba.csp.sentinel.node.metric.MetricCursor;
+import com.alibaba.csp.sentinel.node.metric.MetricCursorResult;
+import com.alibaba.csp.sentinel.node.metric.MetricFrameCodec;
 import com.alibaba.csp.sentinel.node.metric.MetricNode;
 import com.alibaba.csp.sentinel.node.metric.MetricSearcher;
 import com.alibaba.csp.sentinel.node.metric.MetricWriter;
 import com.alibaba.csp.sentinel.slots.system.SystemRuleManager;
+import com.alibaba.csp.sentinel.transport.util.HttpCommandUtils;
 import com.alibaba.csp.sentinel.util.PidUtil;
 import com.alibaba.csp.sentinel.util.StringUtil;
 import com.alibaba.csp.sentinel.util.TimeUtil;
 
 /**
- * Retrieve and aggregate {@link MetricNode} metrics.
+ * <p>Retrieve and aggregate {@link MetricNode} metrics.</p>
+ *
+ * <p>When the {@code cursor} param is present, metrics are read incrementally from the cursor returned by the
+ * last request (see {@link MetricCursor}), or searched by time if the cursor is {@link #NO_CURSOR}, and the
+ * response carries the next cursor.
+ * The response is a binary frame (see {@link MetricFrameCodec}) if the {@code Accept} header contains
+ * {@link MetricFrameCodec#CONTENT_TYPE}, otherwise text lines with the cursor in the first line
+ * ({@code #cursor=token}). The response is gzipped if the {@code Accept-Encoding} header contains gzip.</p>
  *
  * @author leyou
  * @author Eric Zhao
  */
 @CommandMapping(name = "metric", desc = "get and aggregate metrics, accept param: "
-    + "startTime={startTime}&endTime={endTime}&maxLines={maxLines}&identify={resourceName}")
-public class SendMetricCommandHandler implements CommandHandler<String> {
+    + "startTime={startTime}&endTime={endTime}&maxLines={maxLines}&identify={resourceName}&cursor={cursor}")
+public class SendMetricCommandHandler implements CommandHandler<Object> {
+
+    public static final String CURSOR_LINE_PREFIX = "#cursor=";
+    /**
+     * Cursor param value to start reading incrementally, as empty params are dropped by command centers.
+     */
+    public static final String NO_CURSOR = "-";
+
+    private static final String GZIP = "gzip";
 
     private volatile MetricSearcher searcher;
 
     private final Object lock = new Object();
 
     @Override
-    public CommandResponse<String> handle(CommandRequest request) {
+    public CommandResponse<Object> handle(CommandRequest request) {
         // Note: not thread-safe.
         if (searcher == null) {
             synchronized (lock) {
@@ -56,8 +79,13 @@ public class SendMetricCommandHandler implements CommandHandler<String> {
                     appName = "";
                 }
                 if (searcher == null) {
-                    searcher = new MetricSearcher(MetricWriter.METRIC_BASE_DIR,
-                        MetricWriter.formMetricFileName(appName, PidUtil.getPid()));
+                    if (SentinelConfig.METRIC_FILE_FORMAT_BINARY.equals(SentinelConfig.metricFileFormat())) {
+                        searcher = new BinaryMetricSearcher(MetricWriter.METRIC_BASE_DIR,
+                            BinaryMetricWriter.formBinaryMetricFileName(appName, PidUtil.getPid()));
+                    } else {
+                        searcher = new MetricSearcher(MetricWriter.METRIC_BASE_DIR,
+                            MetricWriter.formMetricFileName(appName, PidUtil.getPid()));
+                    }
                 }
             }
         }
@@ -65,6 +93,7 @@ public class SendMetricCommandHandler implements CommandHandler<String> {
         String endTimeStr = request.getParam("endTime");
         String maxLinesStr = request.getParam("maxLines");
         String identity = request.getParam("identity");
+        String cursor = request.getParam("cursor");
         long startTime = -1;
         int maxLines = 6000;
         if (StringUtil.isNotBlank(startTimeStr)) {
@@ -72,6 +101,9 @@ public class SendMetricCommandHandler implements CommandHandler<String> {
         } else {
             return CommandResponse.ofSuccess("");
         }
+        if (cursor != null && StringUtil.isNotBlank(endTimeStr)) {
+            return handleCursorRequest(request, MetricCursor.decode(cursor), startTime, Long.parseLong(endTimeStr));
+        }
         List<MetricNode> list;
         try {
             // Find by end time if set.
@@ -101,6 +133,49 @@ public class SendMetricCommandHandler implements CommandHandler<String> {
         return CommandResponse.ofSuccess(sb.toString());
     }
 
+    private CommandResponse<Object> handleCursorRequest(CommandRequest request, MetricCursor cursor,
+                                                        long startTime, long endTime) {
+        try {
+            MetricCursorResult result = searcher.findByCursor(cursor, startTime, endTime);
+            List<MetricNode> list = new ArrayList<>(result.getNodes());
+            addCpuUsageAndLoad(list);
+            String nextCursor = result.getNextCursor() == null ? "" : result.getNextCursor().encode();
+
+            String accept = HttpCommandUtils.getHeader(request, HttpCommandUtils.HEADER_ACCEPT);
+            String acceptEncoding = HttpCommandUtils.getHeader(request, HttpCommandUtils.HEADER_ACCEPT_ENCODING);
+            boolean binary = accept != null && accept.contains(MetricFrameCodec.CONTENT_TYPE);
+            boolean gzip = acceptEncoding != null && acceptEncoding.toLowerCase().contains(GZIP);
+            if (!binary && !gzip) {
+                return CommandResponse.ofSuccess(toCursorText(list, nextCursor));
+            }
+            byte[] data = binary ? MetricFrameCodec.encode(list, nextCursor)
+                : toCursorText(list, nextCursor).getBytes(SentinelConfig.charset());
+            return CommandResponse.ofSuccess(gzip ? gzip(data) : data);
+        } catch (Exception ex) {
+            return CommandResponse.ofFailure(new RuntimeException("Error when retrieving metrics", ex));
+        }
+    }
+
+    private static String toCursorText(List<MetricNode> list, String nextCursor) {
+        StringBuilder sb = new StringBuilder();
+        sb.append(CURSOR_LINE_PREFIX).append(nextCursor).append("\n");
+        for (MetricNode node : list) {
+            sb.append(node.toThinString()).append("\n");
+        }
+        return sb.toString();
+    }
+
+    private static byte[] gzip(byte[] data) throws Exception {
+        ByteArrayOutputStream bos = new ByteArrayOutputStream(data.length / 4 + 64);
+        GZIPOutputStream out = new GZIPOutputStream(bos);
+        try {
+            out.write(data);
+        } finally {
+            out.close();
+        }
+        return bos.toByteArray();
+    }
+
     /**
      * add current cpu usage and load to the metric list.
      *
@@ -38,7 +38,14 @@ public class TransportConfig {
     public static final String HEARTBEAT_CLIENT_IP = "csp.sentinel.heartbeat.client.ip";
     public static final String HEARTBEAT_API_PATH = "csp.sentinel.heartbeat.api.path";
 
+    public static final String METRIC_PUSH_ENABLED = "csp.sentinel.metric.push.enabled";
+    public static final String METRIC_PUSH_API_PATH = "csp.sentinel.metric.push.api.path";
+    public static final String METRIC_PUSH_INTERVAL_MS = "csp.sentinel.metric.push.interval.ms";
+    public static final String METRIC_PUSH_TOKEN = "csp.sentinel.metric.push.token";
+
     public static final String HEARTBEAT_DEFAULT_PATH = "/registry/machine";
+    public static final String METRIC_PUSH_DEFAULT_PATH = "/metric/push";
+    public static final long METRIC_PUSH_DEFAULT_INTERVAL_MS = 1000;
 
     private static int runtimePort = -1;
 
@@ -183,4 +190,61 @@ public class TransportConfig {
         }
         return apiPath;
     }
+
+    /**
+     * Whether the metrics should be pushed to the dashboard instead of being pulled by the dashboard.
+     *
+     * @return true if metric push is enabled, false by default
+     * @since 1.8.7
+     */
+    public static boolean isMetricPushEnabled() {
+        return Boolean.parseBoolean(SentinelConfig.getConfig(METRIC_PUSH_ENABLED));
+    }
+
+    /**
+     * Get the metric push api path of the dashboard.
+     *
+     * @return the metric push api path
+     * @since 1.8.7
+     */
+    public static String getMetricPushApiPath() {
+        String apiPath = SentinelConfig.getConfig(METRIC_PUSH_API_PATH);
+        if (StringUtil.isBlank(apiPath)) {
+            return METRIC_PUSH_DEFAULT_PATH;
+        }
+        if (!apiPath.startsWith("/")) {
+            apiPath = "/" + apiPath;
+        }
+        return apiPath;
+    }
+
+    /**
+     * Get the interval in milliseconds between two metric pushes, metrics of the seconds in between
+     * are pushed in one batch.
+     *
+     * @return metric push interval in milliseconds
+     * @since 1.8.7
+     */
+    public static long getMetricPushIntervalMs() {
+        String interval = SentinelConfig.getConfig(METRIC_PUSH_INTERVAL_MS);
+        try {
+            long value = interval == null ? METRIC_PUSH_DEFAULT_INTERVAL_MS : Long.parseLong(interval);
+            return value > 0 ? value : METRIC_PUSH_DEFAULT_INTERVAL_MS;
+        } catch (Exception ex) {
+            RecordLog.warn("[TransportConfig] Failed to parse metric push interval: " + interval);
+            return METRIC_PUSH_DEFAULT_INTERVAL_MS;
+        }
+    }
+
+    /**
+     * Get the token sent with the pushed metrics, which must match the {@code metric.push.token} of the
+     * dashboard.
+     *
+     * @return the metric push token, or null if not configured
+     * @since 1.8.7
+     */
+    public static String getMetricPushToken() {
+        String token = SentinelConfig.getConfig(METRIC_PUSH_TOKEN);
+        return StringUtil.isBlank(token) ? null : token.trim();
+    }
 }
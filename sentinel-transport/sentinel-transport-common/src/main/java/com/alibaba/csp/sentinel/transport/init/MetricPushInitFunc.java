@@ -0,0 +1,58 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.transport.init;
+
+import java.util.List;
+
+import com.alibaba.csp.sentinel.init.InitFunc;
+import com.alibaba.csp.sentinel.init.InitOrder;
+import com.alibaba.csp.sentinel.log.RecordLog;
+import com.alibaba.csp.sentinel.node.metric.MetricReporterRegistry;
+import com.alibaba.csp.sentinel.transport.config.TransportConfig;
+import com.alibaba.csp.sentinel.transport.endpoint.Endpoint;
+import com.alibaba.csp.sentinel.transport.metric.HttpMetricPusher;
+
+/**
+ * Starts pushing metrics to the dashboard if {@link TransportConfig#METRIC_PUSH_ENABLED} is set.
+ *
+ * @since 1.8.7
+ */
+@InitOrder(-1)
+public class MetricPushInitFunc implements InitFunc {
+
+    static final String REPORTER_NAME = "dashboard-metric-push";
+
+    @Override
+    public void init() {
+        if (!TransportConfig.isMetricPushEnabled()) {
+            return;
+        }
+        List<Endpoint> dashboardList = TransportConfig.getConsoleServerList();
+        if (dashboardList.isEmpty()) {
+            RecordLog.warn("[MetricPushInitFunc] Metric push enabled but no dashboard server configured");
+            return;
+        }
+        String token = TransportConfig.getMetricPushToken();
+        if (token == null) {
+            RecordLog.warn("[MetricPushInitFunc] Metric push enabled but no token configured by "
+                + TransportConfig.METRIC_PUSH_TOKEN + ", the dashboard will reject the pushes");
+        }
+        HttpMetricPusher pusher = new HttpMetricPusher(dashboardList.get(0), TransportConfig.getMetricPushApiPath(),
+            TransportConfig.getMetricPushIntervalMs(), token);
+        pusher.start();
+        MetricReporterRegistry.addReporter(REPORTER_NAME, pusher);
+    }
+}
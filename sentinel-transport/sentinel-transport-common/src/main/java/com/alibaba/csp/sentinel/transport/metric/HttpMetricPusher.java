@@ -0,0 +1,273 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.transport.metric;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.net.URLEncoder;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPOutputStream;
+
+import javax.net.ssl.HostnameVerifier;
+import javax.net.ssl.HttpsURLConnection;
+import javax.net.ssl.SSLSession;
+
+import com.alibaba.csp.sentinel.concurrent.NamedThreadFactory;
+import com.alibaba.csp.sentinel.log.RecordLog;
+import com.alibaba.csp.sentinel.node.metric.MetricFrameCodec;
+import com.alibaba.csp.sentinel.node.metric.MetricNode;
+import com.alibaba.csp.sentinel.node.metric.MetricReporter;
+import com.alibaba.csp.sentinel.transport.config.TransportConfig;
+import com.alibaba.csp.sentinel.transport.endpoint.Endpoint;
+import com.alibaba.csp.sentinel.transport.ssl.SslFactory;
+import com.alibaba.csp.sentinel.util.AppNameUtil;
+
+/**
+ * Pushes the metrics of every second to the dashboard, so that the dashboard doesn't need to pull them
+ * from every machine.
+ *
+ * <p>Metrics reported by {@link com.alibaba.csp.sentinel.node.metric.MetricTimerListener} are queued and
+ * sent in batches (one per {@link TransportConfig#getMetricPushIntervalMs()}) by a single thread, encoded
+ * with {@link MetricFrameCodec} and gzipped. The HTTP connection is kept alive between batches. Batches that
+ * failed to be sent are retried with the next batch, the oldest metrics are dropped once more than
+ * {@link #MAX_PENDING_NODES} metrics are pending. The configured token is sent in the
+ * {@link #TOKEN_HEADER} header, the dashboard rejects pushes without it.</p>
+ *
+ * @since 1.8.7
+ */
+public class HttpMetricPusher implements MetricReporter {
+
+    static final int MAX_PENDING_NODES = 64 * 1024;
+    static final int MAX_BATCH_NODES = 8 * 1024;
+
+    static final String TOKEN_HEADER = "X-Sentinel-Metric-Push-Token";
+
+    private static final int OK_STATUS = 200;
+    private static final int TIMEOUT_MS = 3000;
+
+    private static final HostnameVerifier NOOP_HOSTNAME_VERIFIER = new HostnameVerifier() {
+        @Override
+        public boolean verify(String hostname, SSLSession session) {
+            return true;
+        }
+    };
+
+    private final Endpoint endpoint;
+    private final String apiPath;
+    private final long intervalMs;
+    private final String token;
+
+    private final ArrayDeque<MetricNode> pending = new ArrayDeque<MetricNode>();
+    private final byte[] readBuffer = new byte[512];
+
+    private ScheduledExecutorService pushScheduler;
+    private volatile URL pushUrl;
+    private boolean lastPushFailed = false;
+
+    public HttpMetricPusher(Endpoint endpoint, String apiPath, long intervalMs) {
+        this(endpoint, apiPath, intervalMs, null);
+    }
+
+    public HttpMetricPusher(Endpoint endpoint, String apiPath, long intervalMs, String token) {
+        this.endpoint = endpoint;
+        this.apiPath = apiPath;
+        this.intervalMs = intervalMs;
+        this.token = token;
+    }
+
+    public synchronized void start() {
+        if (pushScheduler != null) {
+            return;
+        }
+        pushScheduler = new ScheduledThreadPoolExecutor(1,
+            new NamedThreadFactory("sentinel-metric-push-task", true));
+        pushScheduler.scheduleWithFixedDelay(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    pushPending();
+                } catch (Throwable e) {
+                    RecordLog.warn("[HttpMetricPusher] Push metric error", e);
+                }
+            }
+        }, intervalMs, intervalMs, TimeUnit.MILLISECONDS);
+        RecordLog.info("[HttpMetricPusher] Pushing metrics to {} every {} ms", endpoint, intervalMs);
+    }
+
+    public synchronized void stop() {
+        if (pushScheduler != null) {
+            pushScheduler.shutdownNow();
+            pushScheduler = null;
+        }
+    }
+
+    @Override
+    public void report(long timestamp, List<MetricNode> nodes) {
+        synchronized (pending) {
+            pending.addAll(nodes);
+            dropOverflow();
+        }
+    }
+
+    /**
+     * Push the pending metrics in batches of at most {@link #MAX_BATCH_NODES} metrics.
+     *
+     * @return number of metrics pushed
+     */
+    int pushPending() {
+        int pushed = 0;
+        while (true) {
+            List<MetricNode> batch = pollBatch();
+            if (batch.isEmpty()) {
+                return pushed;
+            }
+            if (!pushBatch(batch)) {
+                requeue(batch);
+                return pushed;
+            }
+            pushed += batch.size();
+        }
+    }
+
+    private boolean pushBatch(List<MetricNode> batch) {
+        try {
+            int statusCode = post(gzip(MetricFrameCodec.encode(batch, null)));
+            if (statusCode == OK_STATUS) {
+                if (lastPushFailed) {
+                    RecordLog.info("[HttpMetricPusher] Metric push to {} recovered", endpoint);
+                    lastPushFailed = false;
+                }
+                return true;
+            }
+            if (!lastPushFailed) {
+                RecordLog.warn("[HttpMetricPusher] Failed to push metrics to " + endpoint
+                    + ", http status code: " + statusCode);
+            }
+        } catch (Exception e) {
+            if (!lastPushFailed) {
+                RecordLog.warn("[HttpMetricPusher] Failed to push metrics to " + endpoint, e);
+            }
+        }
+        lastPushFailed = true;
+        return false;
+    }
+
+    private int post(byte[] body) throws IOException {
+        HttpURLConnection connection = (HttpURLConnection)getPushUrl().openConnection();
+        if (connection instanceof HttpsURLConnection) {
+            HttpsURLConnection httpsConnection = (HttpsURLConnection)connection;
+            httpsConnection.setSSLSocketFactory(SslFactory.getSslConnectionSocketFactory().getSocketFactory());
+            httpsConnection.setHostnameVerifier(NOOP_HOSTNAME_VERIFIER);
+        }
+        connection.setRequestMethod("POST");
+        connection.setConnectTimeout(TIMEOUT_MS);
+        connection.setReadTimeout(TIMEOUT_MS);
+        connection.setDoOutput(true);
+        connection.setFixedLengthStreamingMode(body.length);
+        connection.setRequestProperty("Content-Type", MetricFrameCodec.CONTENT_TYPE);
+        connection.setRequestProperty("Content-Encoding", "gzip");
+        if (token != null) {
+            connection.setRequestProperty(TOKEN_HEADER, token);
+        }
+        OutputStream out = connection.getOutputStream();
+        try {
+            out.write(body);
+        } finally {
+            out.close();
+        }
+        int statusCode = connection.getResponseCode();
+        // Drain the response so that the connection goes back to the keep-alive cache.
+        InputStream in = statusCode < 400 ? connection.getInputStream() : connection.getErrorStream();
+        if (in != null) {
+            try {
+                while (in.read(readBuffer) >= 0) {
+                    // Discard.
+                }
+            } finally {
+                in.close();
+            }
+        }
+        return statusCode;
+    }
+
+    private URL getPushUrl() throws IOException {
+        URL url = pushUrl;
+        if (url == null) {
+            // The command port is only known after the command center has started.
+            String port = TransportConfig.getPort();
+            if (port == null) {
+                throw new IOException("command center port not initialized");
+            }
+            url = new URL(endpoint.getProtocol().getProtocol(), endpoint.getHost(),
+                endpoint.getPort(), apiPath + "?app=" + URLEncoder.encode(AppNameUtil.getAppName(), "UTF-8")
+                + "&ip=" + URLEncoder.encode(TransportConfig.getHeartbeatClientIp(), "UTF-8") + "&port=" + port);
+            pushUrl = url;
+        }
+        return url;
+    }
+
+    private List<MetricNode> pollBatch() {
+        synchronized (pending) {
+            int size = Math.min(pending.size(), MAX_BATCH_NODES);
+            List<MetricNode> batch = new ArrayList<MetricNode>(size);
+            for (int i = 0; i < size; i++) {
+                batch.add(pending.pollFirst());
+            }
+            return batch;
+        }
+    }
+
+    private void requeue(List<MetricNode> batch) {
+        synchronized (pending) {
+            for (int i = batch.size() - 1; i >= 0; i--) {
+                pending.addFirst(batch.get(i));
+            }
+            dropOverflow();
+        }
+    }
+
+    private void dropOverflow() {
+        while (pending.size() > MAX_PENDING_NODES) {
+            pending.pollFirst();
+        }
+    }
+
+    int pendingCount() {
+        synchronized (pending) {
+            return pending.size();
+        }
+    }
+
+    private static byte[] gzip(byte[] data) throws IOException {
+        ByteArrayOutputStream bos = new ByteArrayOutputStream(data.length / 2 + 64);
+        GZIPOutputStream gzip = new GZIPOutputStream(bos);
+        try {
+            gzip.write(data);
+        } finally {
+            gzip.close();
+        }
+        return bos.toByteArray();
+    }
+}
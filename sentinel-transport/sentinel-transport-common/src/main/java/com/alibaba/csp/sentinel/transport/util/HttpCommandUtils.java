@@ -25,6 +25,15 @@ import com.alibaba.csp.sentinel.command.CommandRequest;
 public final class HttpCommandUtils {
 
     public static final String REQUEST_TARGET = "command-target";
+    /**
+     * Prefix of the metadata keys of HTTP request headers.
+     *
+     * @since 1.8.7
+     */
+    public static final String REQUEST_HEADER_PREFIX = "header-";
+
+    public static final String HEADER_ACCEPT = "accept";
+    public static final String HEADER_ACCEPT_ENCODING = "accept-encoding";
 
     public static String getTarget(CommandRequest request) {
         if (request == null) {
@@ -33,5 +42,33 @@ public final class HttpCommandUtils {
         return request.getMetadata().get(REQUEST_TARGET);
     }
 
+    /**
+     * Carry an HTTP request header in the metadata of the command request.
+     *
+     * @param request command request
+     * @param name    header name (case-insensitive)
+     * @param value   header value
+     * @since 1.8.7
+     */
+    public static void addHeader(CommandRequest request, String name, String value) {
+        if (name == null || value == null) {
+            return;
+        }
+        request.addMetadata(REQUEST_HEADER_PREFIX + name.trim().toLowerCase(), value);
+    }
+
+    /**
+     * @param request command request
+     * @param name    header name (case-insensitive)
+     * @return value of the HTTP request header, or null if absent
+     * @since 1.8.7
+     */
+    public static String getHeader(CommandRequest request, String name) {
+        if (request == null || name == null) {
+            return null;
+        }
+        return request.getMetadata().get(REQUEST_HEADER_PREFIX + name.toLowerCase());
+    }
+
     private HttpCommandUtils() {}
 }
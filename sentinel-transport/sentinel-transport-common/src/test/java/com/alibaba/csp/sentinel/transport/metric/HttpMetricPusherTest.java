@@ -0,0 +1,131 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.transport.metric;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.InetSocketAddress;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.zip.GZIPInputStream;
+
+import com.alibaba.csp.sentinel.node.metric.MetricFrameCodec;
+import com.alibaba.csp.sentinel.node.metric.MetricNode;
+import com.alibaba.csp.sentinel.transport.config.TransportConfig;
+import com.alibaba.csp.sentinel.transport.endpoint.Endpoint;
+import com.alibaba.csp.sentinel.transport.endpoint.Protocol;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Test cases for {@link HttpMetricPusher}.
+ */
+public class HttpMetricPusherTest {
+
+    private HttpServer server;
+    private final List<MetricNode> received = new CopyOnWriteArrayList<>();
+    private final List<String> queries = new CopyOnWriteArrayList<>();
+    private final List<String> tokens = new CopyOnWriteArrayList<>();
+    private volatile int statusCode = 200;
+
+    @Before
+    public void setUp() throws IOException {
+        TransportConfig.setRuntimePort(8719);
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext(TransportConfig.METRIC_PUSH_DEFAULT_PATH, new HttpHandler() {
+            @Override
+            public void handle(HttpExchange exchange) throws IOException {
+                queries.add(exchange.getRequestURI().getQuery());
+                tokens.add(String.valueOf(exchange.getRequestHeaders().getFirst(HttpMetricPusher.TOKEN_HEADER)));
+                if (statusCode == 200) {
+                    try (InputStream in = new GZIPInputStream(exchange.getRequestBody())) {
+                        received.addAll(MetricFrameCodec.decode(readAll(in)).getNodes());
+                    }
+                }
+                exchange.sendResponseHeaders(statusCode, -1);
+                exchange.close();
+            }
+        });
+        server.start();
+    }
+
+    @After
+    public void tearDown() {
+        server.stop(0);
+        TransportConfig.setRuntimePort(-1);
+    }
+
+    @Test
+    public void testPushInBatchesAndRetry() {
+        HttpMetricPusher pusher = new HttpMetricPusher(new Endpoint(Protocol.HTTP, "127.0.0.1",
+            server.getAddress().getPort()), TransportConfig.METRIC_PUSH_DEFAULT_PATH, 1000, "secret");
+        pusher.report(1000, nodes(1000, HttpMetricPusher.MAX_BATCH_NODES));
+        pusher.report(2000, nodes(2000, 10));
+
+        statusCode = 500;
+        assertEquals(0, pusher.pushPending());
+        assertEquals(HttpMetricPusher.MAX_BATCH_NODES + 10, pusher.pendingCount());
+
+        statusCode = 200;
+        assertEquals(HttpMetricPusher.MAX_BATCH_NODES + 10, pusher.pushPending());
+        assertEquals(0, pusher.pendingCount());
+        assertEquals(HttpMetricPusher.MAX_BATCH_NODES + 10, received.size());
+        assertEquals(1000, received.get(0).getTimestamp());
+        assertEquals(2000, received.get(received.size() - 1).getTimestamp());
+        assertTrue(queries.get(0).contains("port=8719"));
+        assertEquals("secret", tokens.get(0));
+    }
+
+    @Test
+    public void testDropOldestWhenTooManyPending() {
+        HttpMetricPusher pusher = new HttpMetricPusher(new Endpoint(Protocol.HTTP, "127.0.0.1", 1),
+            TransportConfig.METRIC_PUSH_DEFAULT_PATH, 1000);
+        pusher.report(1000, nodes(1000, HttpMetricPusher.MAX_PENDING_NODES));
+        pusher.report(2000, nodes(2000, 1));
+        assertEquals(HttpMetricPusher.MAX_PENDING_NODES, pusher.pendingCount());
+    }
+
+    private static List<MetricNode> nodes(long timestamp, int count) {
+        List<MetricNode> nodes = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            MetricNode node = new MetricNode();
+            node.setTimestamp(timestamp);
+            node.setResource("res-" + i);
+            node.setPassQps(i);
+            nodes.add(node);
+        }
+        return nodes;
+    }
+
+    private static byte[] readAll(InputStream in) throws IOException {
+        ByteArrayOutputStream bos = new ByteArrayOutputStream();
+        byte[] buf = new byte[4096];
+        int n;
+        while ((n = in.read(buf)) > 0) {
+            bos.write(buf, 0, n);
+        }
+        return bos.toByteArray();
+    }
+}
@@ -127,9 +127,13 @@ public class HttpServerHandler extends SimpleChannelInboundHandler<Object> {
     private void writeResponse(CommandResponse response, ChannelHandlerContext ctx, boolean keepAlive)
         throws Exception {
         byte[] body;
+        boolean binary = false;
         if (response.isSuccess()) {
             if (response.getResult() == null) {
                 body = new byte[] {};
+            } else if (response.getResult() instanceof byte[]) {
+                body = (byte[])response.getResult();
+                binary = true;
             } else {
                 Encoder encoder = pickEncoder(response.getResult().getClass());
                 if (encoder == null) {
@@ -149,7 +153,8 @@ public class HttpServerHandler extends SimpleChannelInboundHandler<Object> {
         FullHttpResponse httpResponse = new DefaultFullHttpResponse(HttpVersion.HTTP_1_1, status,
             Unpooled.copiedBuffer(body));
 
-        httpResponse.headers().set("Content-Type", "text/plain; charset=" + SentinelConfig.charset());
+        httpResponse.headers().set("Content-Type",
+            binary ? "application/octet-stream" : "text/plain; charset=" + SentinelConfig.charset());
 
         //if (keepAlive) {
         //    httpResponse.headers().setInt(HttpHeaderNames.CONTENT_LENGTH, httpResponse.content().readableBytes());
@@ -206,6 +211,9 @@ public class HttpServerHandler extends SimpleChannelInboundHandler<Object> {
         // Parse command name.
         String target = parseTarget(queryStringDecoder.rawPath());
         serverRequest.addMetadata(HttpCommandUtils.REQUEST_TARGET, target);
+        for (Entry<String, String> header : request.headers()) {
+            HttpCommandUtils.addHeader(serverRequest, header.getKey(), header.getValue());
+        }
         // Parse body.
         if (request.content().readableBytes() <= 0) {
             serverRequest.setBody(null);
@@ -0,0 +1,130 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.transport.command.http;
+
+import java.io.UnsupportedEncodingException;
+
+import com.alibaba.csp.sentinel.command.CommandHandler;
+import com.alibaba.csp.sentinel.command.CommandResponse;
+import com.alibaba.csp.sentinel.config.SentinelConfig;
+import com.alibaba.csp.sentinel.transport.command.SimpleHttpCommandCenter;
+import com.alibaba.csp.sentinel.transport.command.exception.RequestException;
+import com.alibaba.csp.sentinel.transport.command.http.HttpRequestDecoder.DecodedRequest;
+import com.alibaba.csp.sentinel.transport.log.CommandCenterLog;
+import com.alibaba.csp.sentinel.transport.util.HttpCommandUtils;
+import com.alibaba.csp.sentinel.util.StringUtil;
+
+/**
+ * Handles decoded command requests and encodes the HTTP responses.
+ *
+ * @since 1.8.7
+ */
+final class HttpCommandProcessor {
+
+    static final String SERVER_ERROR_MESSAGE = "Command server error";
+    static final String INVALID_COMMAND_MESSAGE = "Invalid command";
+
+    private static final String CONTENT_TYPE_BINARY = "application/octet-stream";
+
+    /**
+     * Handle the request with the matching command handler.
+     *
+     * @param decoded decoded request
+     * @param address remote address of the connection, for logging
+     * @return the encoded response
+     */
+    static byte[] process(DecodedRequest decoded, String address) {
+        long start = System.currentTimeMillis();
+        boolean keepAlive = decoded.isKeepAlive();
+        CommandCenterLog.info("[SimpleHttpCommandCenter] Socket income: " + decoded.getFirstLine()
+            + ", addr: " + address);
+        try {
+            // Validate the target command.
+            String commandName = HttpCommandUtils.getTarget(decoded.getRequest());
+            if (StringUtil.isBlank(commandName)) {
+                return encodeResponse(StatusCode.BAD_REQUEST, INVALID_COMMAND_MESSAGE, keepAlive);
+            }
+            // Find the matching command handler.
+            CommandHandler<?> commandHandler = SimpleHttpCommandCenter.getHandler(commandName);
+            if (commandHandler == null) {
+                return encodeResponse(StatusCode.BAD_REQUEST, "Unknown command `" + commandName + '`', keepAlive);
+            }
+            byte[] response = encodeResponse(commandHandler.handle(decoded.getRequest()), keepAlive);
+            long cost = System.currentTimeMillis() - start;
+            CommandCenterLog.info("[SimpleHttpCommandCenter] Deal a socket task: " + decoded.getFirstLine()
+                + ", address: " + address + ", time cost: " + cost + " ms");
+            return response;
+        } catch (Throwable e) {
+            CommandCenterLog.warn("[SimpleHttpCommandCenter] CommandCenter error", e);
+            return encodeResponse(StatusCode.INTERNAL_SERVER_ERROR, SERVER_ERROR_MESSAGE, keepAlive);
+        }
+    }
+
+    static byte[] encodeError(RequestException e) {
+        return encodeResponse(e.getStatusCode(), e.getMessage(), false);
+    }
+
+    private static <T> byte[] encodeResponse(CommandResponse<T> response, boolean keepAlive) {
+        if (!response.isSuccess()) {
+            String msg = SERVER_ERROR_MESSAGE;
+            if (response.getException() != null) {
+                msg = response.getException().getMessage();
+            }
+            return encodeResponse(StatusCode.BAD_REQUEST, msg, keepAlive);
+        }
+        T result = response.getResult();
+        if (result == null) {
+            return encodeResponse(StatusCode.OK, null, keepAlive);
+        }
+        if (result instanceof byte[]) {
+            return encode(StatusCode.OK, CONTENT_TYPE_BINARY, (byte[])result, keepAlive);
+        }
+        // Here we directly use `toString` to encode the result to plain text.
+        return encodeResponse(StatusCode.OK, result.toString(), keepAlive);
+    }
+
+    static byte[] encodeResponse(StatusCode statusCode, String message, boolean keepAlive) {
+        byte[] body = null;
+        if (message != null) {
+            try {
+                body = message.getBytes(SentinelConfig.charset());
+            } catch (UnsupportedEncodingException e) {
+                body = message.getBytes();
+            }
+        }
+        return encode(statusCode, null, body, keepAlive);
+    }
+
+    private static byte[] encode(StatusCode statusCode, String contentType, byte[] body, boolean keepAlive) {
+        int bodyLength = body == null ? 0 : body.length;
+        StringBuilder head = new StringBuilder(128)
+            .append("HTTP/1.1 ").append(statusCode.toString()).append("\r\n");
+        if (contentType != null) {
+            head.append("Content-Type: ").append(contentType).append("\r\n");
+        }
+        head.append("Content-Length: ").append(bodyLength).append("\r\n")
+            .append("Connection: ").append(keepAlive ? "keep-alive" : "close").append("\r\n\r\n");
+        byte[] headBytes = head.toString().getBytes();
+        byte[] response = new byte[headBytes.length + bodyLength];
+        System.arraycopy(headBytes, 0, response, 0, headBytes.length);
+        if (bodyLength > 0) {
+            System.arraycopy(body, 0, response, headBytes.length, bodyLength);
+        }
+        return response;
+    }
+
+    private HttpCommandProcessor() {}
+}
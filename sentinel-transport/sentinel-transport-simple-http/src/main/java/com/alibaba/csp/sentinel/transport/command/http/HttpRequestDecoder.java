@@ -0,0 +1,325 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.transport.command.http;
+
+import java.io.UnsupportedEncodingException;
+import java.net.URLDecoder;
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+import java.util.HashMap;
+import java.util.Map;
+
+import com.alibaba.csp.sentinel.command.CommandRequest;
+import com.alibaba.csp.sentinel.config.SentinelConfig;
+import com.alibaba.csp.sentinel.transport.command.exception.RequestException;
+import com.alibaba.csp.sentinel.transport.log.CommandCenterLog;
+import com.alibaba.csp.sentinel.transport.util.HttpCommandUtils;
+import com.alibaba.csp.sentinel.util.StringUtil;
+
+/**
+ * Incrementally decodes HTTP requests from the input buffer of a connection. Bytes following a complete
+ * request are left in the buffer for the next (pipelined) request. Only form-encoded POST requests are
+ * supported.
+ *
+ * @since 1.8.7
+ */
+class HttpRequestDecoder {
+
+    static final int MAX_HEADER_BYTES = 64 * 1024;
+
+    private final int maxRequestBytes;
+
+    /**
+     * Bytes of the current request already scanned for the end of headers, relative to the buffer position.
+     */
+    private int scanned = 0;
+
+    HttpRequestDecoder(int maxRequestBytes) {
+        this.maxRequestBytes = maxRequestBytes;
+    }
+
+    /**
+     * Decode a request from the buffer (in read mode). On success the buffer position is moved past the
+     * request, otherwise the position is left unchanged.
+     *
+     * @param buf input buffer of the connection
+     * @return decoded request, or null if the request is not complete yet
+     * @throws RequestException if the request is illegal or too large
+     */
+    DecodedRequest decode(ByteBuffer buf) throws RequestException {
+        skipLeadingLineBreaks(buf);
+        int start = buf.position();
+        int headerEnd = findHeaderEnd(buf, start);
+        if (headerEnd < 0) {
+            if (buf.remaining() > MAX_HEADER_BYTES) {
+                throw new RequestException(StatusCode.PAYLOAD_TOO_LARGE, "Request header too large");
+            }
+            return null;
+        }
+        Charset charset = Charset.forName(SentinelConfig.charset());
+        String head = new String(buf.array(), buf.arrayOffset() + start, headerEnd - start, charset);
+        String[] lines = head.split("\n");
+        String firstLine = trimLineEnd(lines[0]);
+        Map<String, String> headerMap = new HashMap<String, String>(8);
+        for (int i = 1; i < lines.length; i++) {
+            parseHeaderLine(trimLineEnd(lines[i]), headerMap);
+        }
+
+        boolean post = firstLine.length() > 4 && StringUtil.equalsIgnoreCase("POST", firstLine.substring(0, 4));
+        int bodyLength = parseContentLength(headerMap.get("content-length"));
+        if (post) {
+            if (headerMap.containsKey("content-type")
+                && !checkContentTypeSupported(headerMap.get("content-type"))) {
+                CommandCenterLog.warn("Request not supported: unsupported Content-Type: "
+                    + headerMap.get("content-type"));
+                throw new RequestException(StatusCode.UNSUPPORTED_MEDIA_TYPE,
+                    "Only form-encoded post request is supported");
+            }
+            if (bodyLength < 1) {
+                CommandCenterLog.warn("Request not supported: no available Content-Length in headers");
+                throw new RequestException(StatusCode.LENGTH_REQUIRED, "No legal Content-Length");
+            }
+        }
+        if (bodyLength < 0) {
+            bodyLength = 0;
+        }
+        if ((long)headerEnd - start + bodyLength > maxRequestBytes) {
+            throw new RequestException(StatusCode.PAYLOAD_TOO_LARGE, "Request too large");
+        }
+        if (buf.limit() - headerEnd < bodyLength) {
+            return null;
+        }
+
+        CommandRequest request = processQueryString(firstLine);
+        for (Map.Entry<String, String> header : headerMap.entrySet()) {
+            HttpCommandUtils.addHeader(request, header.getKey(), header.getValue());
+        }
+        if (post) {
+            parseParams(new String(buf.array(), buf.arrayOffset() + headerEnd, bodyLength, charset),
+                request);
+        }
+        // Call via Buffer, as the covariant overrides of JDK 9+ don't exist on Java 8.
+        ((Buffer) buf).position(headerEnd + bodyLength);
+        scanned = 0;
+        return new DecodedRequest(firstLine, request, isKeepAlive(firstLine, headerMap.get("connection")));
+    }
+
+    private void skipLeadingLineBreaks(ByteBuffer buf) {
+        // Tolerate the line breaks some clients send after the body of a request.
+        while (scanned == 0 && buf.hasRemaining()) {
+            byte b = buf.get(buf.position());
+            if (b != '\r' && b != '\n') {
+                return;
+            }
+            ((Buffer) buf).position(buf.position() + 1);
+        }
+    }
+
+    private int findHeaderEnd(ByteBuffer buf, int start) {
+        int limit = buf.limit();
+        for (int i = start + Math.max(0, scanned - 3); i < limit; i++) {
+            if (buf.get(i) != '\n') {
+                continue;
+            }
+            if (i + 1 < limit && buf.get(i + 1) == '\n') {
+                return i + 2;
+            }
+            if (i + 2 < limit && buf.get(i + 1) == '\r' && buf.get(i + 2) == '\n') {
+                return i + 3;
+            }
+        }
+        scanned = limit - start;
+        return -1;
+    }
+
+    private static void parseHeaderLine(String line, Map<String, String> headerMap) {
+        int index = line.indexOf(':');
+        if (index < 1) {
+            return;
+        }
+        String headerName = line.substring(0, index).trim().toLowerCase();
+        String headerValue = line.substring(index + 1).trim();
+        if (headerValue.length() > 0) {
+            headerMap.put(headerName, headerValue);
+        }
+    }
+
+    private static int parseContentLength(String value) {
+        if (value == null) {
+            return -1;
+        }
+        try {
+            return Integer.parseInt(value);
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    private static String trimLineEnd(String line) {
+        return line.endsWith("\r") ? line.substring(0, line.length() - 1) : line;
+    }
+
+    static boolean checkContentTypeSupported(String contentType) {
+        int idx = contentType.indexOf(";");
+        String type;
+        if (idx > 0) {
+            type = contentType.substring(0, idx).toLowerCase().trim();
+        } else {
+            type = contentType.toLowerCase();
+        }
+        // Actually in RFC "x-*" shouldn't have any properties like "type/subtype; key=val"
+        // But some library do add it. So we will be compatible with that but force to
+        // encoding specified in configuration as legacy processing will do.
+        if (!type.contains("application/x-www-form-urlencoded")) {
+            // Not supported request type
+            // Now simple-http only support form-encoded post request.
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * Consume all the body submitted and parse params into {@link CommandRequest}
+     *
+     * @param queryString
+     * @param request
+     */
+    static void parseParams(String queryString, CommandRequest request) {
+        if (queryString == null || queryString.length() < 1) {
+            return;
+        }
+
+        int offset = 0, pos = -1;
+
+        // check anchor
+        queryString = removeAnchor(queryString);
+
+        while (true) {
+            offset = pos + 1;
+            pos = queryString.indexOf('&', offset);
+            if (offset == pos) {
+                // empty
+                continue;
+            }
+            parseSingleParam(queryString.substring(offset, pos == -1 ? queryString.length() : pos), request);
+
+            if (pos < 0) {
+                // reach the end
+                break;
+            }
+        }
+    }
+
+    /**
+     * Parse raw HTTP request line to a {@link CommandRequest}.
+     *
+     * @param line HTTP request line
+     * @return parsed command request
+     */
+    static CommandRequest processQueryString(String line) {
+        CommandRequest request = new CommandRequest();
+        if (StringUtil.isBlank(line)) {
+            return request;
+        }
+        int start = line.indexOf('/');
+        int ask = line.indexOf('?') == -1 ? line.lastIndexOf(' ') : line.indexOf('?');
+        int space = line.lastIndexOf(' ');
+        String target = line.substring(start != -1 ? start + 1 : 0, ask != -1 ? ask : line.length());
+        request.addMetadata(HttpCommandUtils.REQUEST_TARGET, target);
+        if (ask == -1 || ask == space) {
+            return request;
+        }
+        String parameterStr = line.substring(ask != -1 ? ask + 1 : 0, space != -1 ? space : line.length());
+        parseParams(parameterStr, request);
+        return request;
+    }
+
+    /**
+     * Truncate query from "a=1&b=2#mark" to "a=1&b=2"
+     *
+     * @param str
+     * @return
+     */
+    static String removeAnchor(String str) {
+        if (str == null || str.length() == 0) {
+            return str;
+        }
+
+        int anchor = str.indexOf('#');
+
+        if (anchor == 0) {
+            return "";
+        } else if (anchor > 0) {
+            return str.substring(0, anchor);
+        }
+
+        return str;
+    }
+
+    static void parseSingleParam(String single, CommandRequest request) {
+        if (single == null || single.length() < 3) {
+            return;
+        }
+
+        int index = single.indexOf('=');
+        if (index <= 0 || index >= single.length() - 1) {
+            // empty key/val or nothing found
+            return;
+        }
+
+        String value = StringUtil.trim(single.substring(index + 1));
+        String key = StringUtil.trim(single.substring(0, index));
+        try {
+            key = URLDecoder.decode(key, SentinelConfig.charset());
+            value = URLDecoder.decode(value, SentinelConfig.charset());
+        } catch (UnsupportedEncodingException e) {
+        }
+
+        request.addParam(key, value);
+    }
+
+    static boolean isKeepAlive(String firstLine, String connection) {
+        if (firstLine.endsWith("HTTP/1.1")) {
+            return !"close".equalsIgnoreCase(connection);
+        }
+        return "keep-alive".equalsIgnoreCase(connection);
+    }
+
+    static class DecodedRequest {
+        private final String firstLine;
+        private final CommandRequest request;
+        private final boolean keepAlive;
+
+        DecodedRequest(String firstLine, CommandRequest request, boolean keepAlive) {
+            this.firstLine = firstLine;
+            this.request = request;
+            this.keepAlive = keepAlive;
+        }
+
+        String getFirstLine() {
+            return firstLine;
+        }
+
+        CommandRequest getRequest() {
+            return request;
+        }
+
+        boolean isKeepAlive() {
+            return keepAlive;
+        }
+    }
+}
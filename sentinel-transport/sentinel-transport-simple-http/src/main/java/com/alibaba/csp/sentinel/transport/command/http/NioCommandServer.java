@@ -0,0 +1,394 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.transport.command.http;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.StandardSocketOptions;
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.util.ArrayDeque;
+import java.util.Iterator;
+import java.util.Queue;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import com.alibaba.csp.sentinel.concurrent.NamedThreadFactory;
+import com.alibaba.csp.sentinel.transport.command.exception.RequestException;
+import com.alibaba.csp.sentinel.transport.command.http.HttpRequestDecoder.DecodedRequest;
+import com.alibaba.csp.sentinel.transport.log.CommandCenterLog;
+
+/**
+ * A non-blocking HTTP command server running on two threads: a selector thread doing all the network I/O
+ * and request parsing, and a worker thread running the command handlers.
+ *
+ * <p>Connections are kept alive unless the client asks otherwise (or speaks HTTP/1.0 without
+ * {@code Connection: keep-alive}). Pipelined requests of a connection are handled one at a time and
+ * answered in order. Each connection buffers at most one request of up to {@link #DEFAULT_MAX_REQUEST_BYTES}
+ * bytes plus the pipelined requests fitting in the same buffer, and at most one pending response; reading
+ * from a connection pauses while its buffers are full. Idle connections are closed after
+ * {@link #IDLE_TIMEOUT_MS}.</p>
+ *
+ * @since 1.8.7
+ */
+public class NioCommandServer {
+
+    static final int DEFAULT_MAX_REQUEST_BYTES = 4 * 1024 * 1024;
+    static final long IDLE_TIMEOUT_MS = 30 * 1000;
+
+    private static final int INITIAL_BUFFER_SIZE = 4096;
+    private static final int WORKER_QUEUE_SIZE = 64;
+    private static final int BACKLOG = 100;
+    private static final long SELECT_TIMEOUT_MS = 1000;
+
+    private final ServerSocketChannel serverChannel;
+    private final Selector selector;
+    private final int maxRequestBytes;
+    private final Queue<Runnable> selectorTasks = new ConcurrentLinkedQueue<Runnable>();
+
+    private ThreadPoolExecutor worker;
+    private Thread selectorThread;
+    private volatile boolean running = false;
+
+    NioCommandServer(ServerSocketChannel serverChannel, int maxRequestBytes) throws IOException {
+        this.serverChannel = serverChannel;
+        this.maxRequestBytes = maxRequestBytes;
+        this.selector = Selector.open();
+        serverChannel.configureBlocking(false);
+        serverChannel.register(selector, SelectionKey.OP_ACCEPT);
+    }
+
+    /**
+     * Bind a server from an available port from a base port.<br>
+     * Increasing on port number will occur when the port has already been used.
+     *
+     * @param basePort base port to start
+     * @return new server with available port, or null if interrupted
+     */
+    public static NioCommandServer bindFromBasePort(int basePort) {
+        int tryCount = 0;
+        while (true) {
+            ServerSocketChannel channel = null;
+            try {
+                channel = ServerSocketChannel.open();
+                channel.setOption(StandardSocketOptions.SO_REUSEADDR, true);
+                channel.bind(new InetSocketAddress(basePort + tryCount / 3), BACKLOG);
+                return new NioCommandServer(channel, DEFAULT_MAX_REQUEST_BYTES);
+            } catch (IOException e) {
+                closeQuietly(channel);
+                tryCount++;
+                try {
+                    TimeUnit.MILLISECONDS.sleep(30);
+                } catch (InterruptedException e1) {
+                    return null;
+                }
+            }
+        }
+    }
+
+    public int getPort() {
+        return serverChannel.socket().getLocalPort();
+    }
+
+    public synchronized void start() {
+        if (running) {
+            return;
+        }
+        running = true;
+        worker = new ThreadPoolExecutor(1, 1, 0L, TimeUnit.MILLISECONDS,
+            new ArrayBlockingQueue<Runnable>(WORKER_QUEUE_SIZE),
+            new NamedThreadFactory("sentinel-command-center-worker", true));
+        selectorThread = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                runSelectorLoop();
+            }
+        }, "sentinel-command-center-selector");
+        selectorThread.setDaemon(true);
+        selectorThread.start();
+    }
+
+    public synchronized void stop() {
+        running = false;
+        selector.wakeup();
+        if (worker != null) {
+            worker.shutdownNow();
+        }
+        if (selectorThread == null) {
+            closeQuietly(serverChannel);
+            closeQuietly(selector);
+        }
+    }
+
+    private void runSelectorLoop() {
+        long lastIdleCheck = System.currentTimeMillis();
+        while (running) {
+            try {
+                selector.select(SELECT_TIMEOUT_MS);
+                runSelectorTasks();
+                Iterator<SelectionKey> it = selector.selectedKeys().iterator();
+                while (it.hasNext()) {
+                    SelectionKey key = it.next();
+                    it.remove();
+                    if (!key.isValid()) {
+                        continue;
+                    }
+                    if (key.isAcceptable()) {
+                        accept();
+                        continue;
+                    }
+                    Connection connection = (Connection)key.attachment();
+                    try {
+                        if (key.isReadable()) {
+                            connection.read();
+                        }
+                        if (key.isValid() && key.isWritable()) {
+                            connection.write();
+                        }
+                    } catch (IOException e) {
+                        connection.close();
+                    }
+                }
+                long now = System.currentTimeMillis();
+                if (now - lastIdleCheck >= SELECT_TIMEOUT_MS) {
+                    lastIdleCheck = now;
+                    closeIdleConnections(now);
+                }
+            } catch (Throwable e) {
+                CommandCenterLog.warn("[SimpleHttpCommandCenter] Command server error", e);
+            }
+        }
+        for (SelectionKey key : selector.keys()) {
+            if (key.attachment() instanceof Connection) {
+                ((Connection)key.attachment()).close();
+            }
+        }
+        closeQuietly(serverChannel);
+        closeQuietly(selector);
+    }
+
+    private void runSelectorTasks() {
+        Runnable task;
+        while ((task = selectorTasks.poll()) != null) {
+            try {
+                task.run();
+            } catch (Throwable e) {
+                CommandCenterLog.warn("[SimpleHttpCommandCenter] Command server error", e);
+            }
+        }
+    }
+
+    private void accept() throws IOException {
+        SocketChannel channel;
+        while ((channel = serverChannel.accept()) != null) {
+            try {
+                channel.configureBlocking(false);
+                channel.setOption(StandardSocketOptions.TCP_NODELAY, true);
+                SelectionKey key = channel.register(selector, SelectionKey.OP_READ);
+                key.attach(new Connection(channel, key));
+            } catch (IOException e) {
+                CommandCenterLog.info("Error when accepting a connection", e);
+                closeQuietly(channel);
+            }
+        }
+    }
+
+    private void closeIdleConnections(long now) {
+        for (SelectionKey key : selector.keys()) {
+            if (key.attachment() instanceof Connection) {
+                Connection connection = (Connection)key.attachment();
+                if (!connection.processing && now - connection.lastActiveTime > IDLE_TIMEOUT_MS) {
+                    connection.close();
+                }
+            }
+        }
+    }
+
+    private static void closeQuietly(Closeable closeable) {
+        if (closeable != null) {
+            try {
+                closeable.close();
+            } catch (IOException e) {
+                CommandCenterLog.warn("[SimpleHttpCommandCenter] Close resource failed", e);
+            }
+        }
+    }
+
+    /**
+     * State of a client connection, only accessed by the selector thread.
+     */
+    private final class Connection {
+        private final SocketChannel channel;
+        private final SelectionKey key;
+        private final String address;
+        private final HttpRequestDecoder decoder = new HttpRequestDecoder(maxRequestBytes);
+        private final ArrayDeque<ByteBuffer> out = new ArrayDeque<ByteBuffer>(2);
+
+        private ByteBuffer in = ByteBuffer.allocate(INITIAL_BUFFER_SIZE);
+        private boolean processing = false;
+        private boolean inputShutdown = false;
+        private boolean closeAfterWrite = false;
+        private long lastActiveTime = System.currentTimeMillis();
+
+        Connection(SocketChannel channel, SelectionKey key) {
+            this.channel = channel;
+            this.key = key;
+            this.address = String.valueOf(channel.socket().getInetAddress());
+        }
+
+        void read() throws IOException {
+            if (!in.hasRemaining()) {
+                if (in.capacity() >= maxRequestBytes) {
+                    updateInterestOps();
+                    return;
+                }
+                ByteBuffer grown = ByteBuffer.allocate(Math.min(in.capacity() * 2, maxRequestBytes));
+                // Call via Buffer, as the covariant overrides of JDK 9+ don't exist on Java 8.
+                ((Buffer) in).flip();
+                grown.put(in);
+                in = grown;
+            }
+            int n = channel.read(in);
+            if (n < 0) {
+                inputShutdown = true;
+            } else if (n > 0) {
+                lastActiveTime = System.currentTimeMillis();
+            }
+            dispatchNext();
+        }
+
+        void write() throws IOException {
+            while (!out.isEmpty()) {
+                ByteBuffer head = out.peek();
+                channel.write(head);
+                if (head.hasRemaining()) {
+                    break;
+                }
+                out.poll();
+            }
+            lastActiveTime = System.currentTimeMillis();
+            if (out.isEmpty()) {
+                if (closeAfterWrite) {
+                    close();
+                    return;
+                }
+                dispatchNext();
+            } else {
+                updateInterestOps();
+            }
+        }
+
+        /**
+         * Decode and dispatch the next buffered request if no request is in progress.
+         */
+        private void dispatchNext() throws IOException {
+            while (!processing && !closeAfterWrite && out.isEmpty()) {
+                DecodedRequest decoded;
+                ((Buffer) in).flip();
+                try {
+                    decoded = decoder.decode(in);
+                } catch (RequestException e) {
+                    respond(HttpCommandProcessor.encodeError(e), false);
+                    return;
+                } finally {
+                    in.compact();
+                }
+                if (decoded == null) {
+                    break;
+                }
+                if (!submit(decoded)) {
+                    // Shed the connection (including its pipelined requests) while the worker is overloaded.
+                    respond(HttpCommandProcessor.encodeResponse(StatusCode.SERVICE_UNAVAILABLE,
+                        "Too many requests", false), false);
+                    return;
+                }
+            }
+            if (inputShutdown && !processing && out.isEmpty()) {
+                close();
+                return;
+            }
+            updateInterestOps();
+        }
+
+        private boolean submit(final DecodedRequest decoded) {
+            processing = true;
+            try {
+                worker.execute(new Runnable() {
+                    @Override
+                    public void run() {
+                        final byte[] response = HttpCommandProcessor.process(decoded, address);
+                        selectorTasks.add(new Runnable() {
+                            @Override
+                            public void run() {
+                                processing = false;
+                                try {
+                                    respond(response, decoded.isKeepAlive());
+                                } catch (IOException e) {
+                                    close();
+                                }
+                            }
+                        });
+                        selector.wakeup();
+                    }
+                });
+                return true;
+            } catch (RejectedExecutionException e) {
+                CommandCenterLog.info("EventTask rejected");
+                processing = false;
+                return false;
+            }
+        }
+
+        private void respond(byte[] response, boolean keepAlive) throws IOException {
+            if (!channel.isOpen()) {
+                return;
+            }
+            if (!keepAlive) {
+                closeAfterWrite = true;
+            }
+            out.add(ByteBuffer.wrap(response));
+            write();
+        }
+
+        private void updateInterestOps() {
+            if (!key.isValid()) {
+                return;
+            }
+            int ops = 0;
+            boolean bufferFull = !in.hasRemaining() && in.capacity() >= maxRequestBytes;
+            if (!inputShutdown && !closeAfterWrite && !bufferFull) {
+                ops |= SelectionKey.OP_READ;
+            }
+            if (!out.isEmpty()) {
+                ops |= SelectionKey.OP_WRITE;
+            }
+            key.interestOps(ops);
+        }
+
+        void close() {
+            key.cancel();
+            closeQuietly(channel);
+        }
+    }
+}
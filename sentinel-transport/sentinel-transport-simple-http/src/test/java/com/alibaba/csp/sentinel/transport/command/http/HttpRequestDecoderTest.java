@@ -0,0 +1,252 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.transport.command.http;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+import java.util.Arrays;
+
+import org.junit.Test;
+
+import com.alibaba.csp.sentinel.command.CommandRequest;
+import com.alibaba.csp.sentinel.transport.command.exception.RequestException;
+import com.alibaba.csp.sentinel.transport.util.HttpCommandUtils;
+
+public class HttpRequestDecoderTest {
+
+    private static final int MAX_REQUEST_BYTES = 4 * 1024 * 1024;
+    private static final Charset UTF_8 = Charset.forName("UTF-8");
+    
+    @Test
+    public void processQueryString() {
+        CommandRequest request;
+        
+        request = HttpRequestDecoder.processQueryString(null);
+        assertNotNull(request);
+        
+        request = HttpRequestDecoder.processQueryString(null);
+        assertNotNull(request);
+        
+        request = HttpRequestDecoder.processQueryString("get /?a=1&b=2&c=3#mark HTTP/1.0");
+        assertNotNull(request);
+        assertEquals("1", request.getParam("a"));
+        assertEquals("2", request.getParam("b"));
+        assertEquals("3", request.getParam("c"));
+        
+        request = HttpRequestDecoder.processQueryString("post /test?a=3&b=4&c=3#mark HTTP/1.0");
+        assertNotNull(request);
+        assertEquals("3", request.getParam("a"));
+        assertEquals("4", request.getParam("b"));
+        assertEquals("3", request.getParam("c"));
+    }
+    
+    @Test
+    public void removeAnchor() {
+        assertNull(HttpRequestDecoder.removeAnchor(null));
+        assertEquals("", HttpRequestDecoder.removeAnchor(""));
+        assertEquals("", HttpRequestDecoder.removeAnchor("#mark"));
+        assertEquals("a", HttpRequestDecoder.removeAnchor("a#mark"));
+    }
+    
+    @Test
+    public void parseSingleParam() {
+        CommandRequest request;
+        
+        request = new CommandRequest();
+        HttpRequestDecoder.parseSingleParam(null, request);
+        assertEquals(0, request.getParameters().size());
+        
+        request = new CommandRequest();
+        HttpRequestDecoder.parseSingleParam("", request);
+        assertEquals(0, request.getParameters().size());
+        
+        request = new CommandRequest();
+        HttpRequestDecoder.parseSingleParam("a", request);
+        assertEquals(0, request.getParameters().size());
+        
+        request = new CommandRequest();
+        HttpRequestDecoder.parseSingleParam("=", request);
+        assertEquals(0, request.getParameters().size());
+        
+        request = new CommandRequest();
+        HttpRequestDecoder.parseSingleParam("a=", request);
+        assertEquals(0, request.getParameters().size());
+        
+        request = new CommandRequest();
+        HttpRequestDecoder.parseSingleParam("=a", request);
+        assertEquals(0, request.getParameters().size());
+        
+        request = new CommandRequest();
+        HttpRequestDecoder.parseSingleParam("test=", request);
+        assertEquals(0, request.getParameters().size());
+        
+        request = new CommandRequest();
+        HttpRequestDecoder.parseSingleParam("=test", request);
+        assertEquals(0, request.getParameters().size());
+        
+        request = new CommandRequest();
+        HttpRequestDecoder.parseSingleParam("a=1", request);
+        assertEquals(1, request.getParameters().size());
+        assertEquals("1", request.getParam("a"));
+        
+        request = new CommandRequest();
+        HttpRequestDecoder.parseSingleParam("a_+=1+", request);
+        assertEquals(1, request.getParameters().size());
+        assertEquals("1 ", request.getParam("a_ "));
+    }
+    
+    @Test
+    public void parseParams() {
+        CommandRequest request;
+        
+        // mixed
+        request = new CommandRequest();
+        HttpRequestDecoder.parseParams("a=1&&b&=3&&c=4&a_+1=3_3%20&%E7%9A%84=test%E7%9A%84#mark", request);
+        assertEquals(4, request.getParameters().size());
+        assertEquals("1", request.getParam("a"));
+        assertNull(request.getParam("b"));
+        assertEquals("4", request.getParam("c"));
+        assertEquals("3_3 ", request.getParam("a_ 1"));
+        assertEquals("test的", request.getParam("的"));
+        
+        request = new CommandRequest();
+        HttpRequestDecoder.parseParams(null, request);
+        assertEquals(0, request.getParameters().size());
+        
+        request = new CommandRequest();
+        HttpRequestDecoder.parseParams("", request);
+        assertEquals(0, request.getParameters().size());
+        
+        request = new CommandRequest();
+        HttpRequestDecoder.parseParams("&&b&=3&", request);
+        assertEquals(0, request.getParameters().size());
+    }
+    
+    @Test
+    public void parseHeaders() throws RequestException {
+        CommandRequest request;
+
+        request = decode("GET /test HTTP/1.0\r\n\r\n");
+        assertTrue(request.getMetadata().size() == 1);
+
+        request = decode("GET /test HTTP/1.0\r\nContent-type:  test \r\n\r\n");
+        assertEquals("test", HttpCommandUtils.getHeader(request, "content-type"));
+
+        request = decode("GET /test HTTP/1.0\r\nContent-Encoding: utf-8\r\n\r\n");
+        assertEquals("utf-8", HttpCommandUtils.getHeader(request, "content-encoding"));
+    }
+
+    @Test
+    public void decodePostRequest() throws RequestException {
+        CommandRequest request;
+
+        // illegal request without body
+        try {
+            decode("POST /test HTTP/1.0\r\n\r\n");
+            assertFalse(true); // should not reach here
+        } catch (RequestException e) {
+            assertTrue(e.getStatusCode() == StatusCode.LENGTH_REQUIRED);
+        }
+
+        // normal request
+        request = decode("POST /test?a=1 HTTP/1.0\r\n" +
+                "Host: demo.com\r\n" +
+                "Accept: */*\r\n" +
+                "Accept-Language: en-us\r\n" +
+                "Accept-Encoding: gzip, deflate\r\n" +
+                "Content-Type: application/x-www-form-urlencoded; charset=UTF-8\r\n" +
+                "Connection: keep-alive\r\n" +
+                "Content-Length: 10\r\n" +
+                "\r\n" +
+                "a=3&b=5的");
+        assertEquals("3", request.getParam("a"));
+        assertEquals("5的", request.getParam("b"));
+
+        // not supported request
+        try {
+            decode("POST /test HTTP/1.0\r\n" +
+                    "Host: demo.com\r\n" +
+                    "Accept: */*\r\n" +
+                    "Accept-Language: en-us\r\n" +
+                    "Accept-Encoding: gzip, deflate\r\n" +
+                    "Content-Type: application/json\r\n" +
+                    "Connection: keep-alive\r\n" +
+                    "Content-Length: 7\r\n" +
+                    "\r\n" +
+                    "a=1&b=2");
+            assertTrue(false); // should not reach here
+        } catch (RequestException e) {
+            assertTrue(e.getStatusCode() == StatusCode.UNSUPPORTED_MEDIA_TYPE);
+        }
+
+        // Capacity test
+        char[] buf = new char[1024 * 1024];
+        Arrays.fill(buf, '&');
+        String padding = new String(buf);
+        request = decode("POST /test HTTP/1.0\r\n" +
+                "Host: demo.com\r\n" +
+                "Accept: */*\r\n" +
+                "Accept-Language: en-us\r\n" +
+                "Accept-Encoding: gzip, deflate\r\n" +
+                "Content-Type: application/x-www-form-urlencoded\r\n" +
+                "Connection: keep-alive\r\n" +
+                "Content-Length: 7\r\n" +
+                "\r\n" +
+                padding +
+                "a=1&b=2");
+        assertEquals(0, request.getParameters().size());
+
+        String querystring = "a+=+&b=%E7%9A%84的";
+        request = decode("POST /test HTTP/1.0\r\n" +
+                "Host: demo.com\r\n" +
+                "Accept: */*\r\n" +
+                "Accept-Language: en-us\r\n" +
+                "Accept-Encoding: gzip, deflate\r\n" +
+                "Content-Type: application/x-www-form-urlencoded\r\n" +
+                "Connection: keep-alive\r\n" +
+                "Content-Length: " + (padding.length() + querystring.getBytes(UTF_8).length) + "\r\n" +
+                "\r\n" +
+                padding +
+                querystring);
+        assertEquals(2, request.getParameters().size());
+        assertEquals(" ", request.getParam("a "));
+        assertEquals("的的", request.getParam("b"));
+    }
+
+    @Test
+    public void decodeIncompleteRequest() throws RequestException {
+        HttpRequestDecoder decoder = new HttpRequestDecoder(MAX_REQUEST_BYTES);
+        ByteBuffer buf = ByteBuffer.wrap(("POST /test HTTP/1.0\r\n" +
+                "Content-Length: 7\r\n" +
+                "\r\n" +
+                "a=1").getBytes(UTF_8));
+        assertNull(decoder.decode(buf));
+        assertEquals(0, buf.position());
+    }
+
+    private static CommandRequest decode(String request) throws RequestException {
+        HttpRequestDecoder.DecodedRequest decoded = new HttpRequestDecoder(MAX_REQUEST_BYTES)
+            .decode(ByteBuffer.wrap(request.getBytes(UTF_8)));
+        assertNotNull(decoded);
+        return decoded.getRequest();
+    }
+}
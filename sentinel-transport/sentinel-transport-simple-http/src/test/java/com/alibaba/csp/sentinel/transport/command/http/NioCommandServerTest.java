@@ -0,0 +1,164 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.transport.command.http;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.Socket;
+
+import com.alibaba.csp.sentinel.command.CommandHandler;
+import com.alibaba.csp.sentinel.command.CommandRequest;
+import com.alibaba.csp.sentinel.command.CommandResponse;
+import com.alibaba.csp.sentinel.transport.command.SimpleHttpCommandCenter;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Test cases for {@link NioCommandServer}.
+ */
+public class NioCommandServerTest {
+
+    private NioCommandServer server;
+
+    @Before
+    public void setUp() {
+        SimpleHttpCommandCenter.registerCommand("nioEcho", new CommandHandler<String>() {
+            @Override
+            public CommandResponse<String> handle(CommandRequest request) {
+                return CommandResponse.ofSuccess("echo:" + request.getParam("v"));
+            }
+        });
+        server = NioCommandServer.bindFromBasePort(0);
+        assertNotNull(server);
+        server.start();
+    }
+
+    @After
+    public void tearDown() {
+        server.stop();
+    }
+
+    @Test
+    public void testPipelinedKeepAliveRequests() throws Exception {
+        try (Socket socket = new Socket("127.0.0.1", server.getPort())) {
+            socket.setSoTimeout(3000);
+            String body = "v=post";
+            write(socket, "GET /nioEcho?v=1 HTTP/1.1\r\nHost: localhost\r\n\r\n"
+                + "POST /nioEcho HTTP/1.1\r\nContent-Type: application/x-www-form-urlencoded\r\n"
+                + "Content-Length: " + body.length() + "\r\n\r\n" + body
+                + "GET /nioEcho?v=3 HTTP/1.1\r\n\r\n");
+            InputStream in = socket.getInputStream();
+            assertEquals("echo:1", readBody(in, "HTTP/1.1 200 OK", "keep-alive"));
+            assertEquals("echo:post", readBody(in, "HTTP/1.1 200 OK", "keep-alive"));
+            assertEquals("echo:3", readBody(in, "HTTP/1.1 200 OK", "keep-alive"));
+
+            // The connection stays open for further requests.
+            write(socket, "GET /nioEcho?v=4 HTTP/1.1\r\nConnection: close\r\n\r\n");
+            assertEquals("echo:4", readBody(in, "HTTP/1.1 200 OK", "close"));
+            assertEquals(-1, in.read());
+        }
+    }
+
+    @Test
+    public void testRequestSplitAcrossPackets() throws Exception {
+        try (Socket socket = new Socket("127.0.0.1", server.getPort())) {
+            socket.setSoTimeout(3000);
+            write(socket, "GET /nioEcho?v=sp");
+            Thread.sleep(50);
+            write(socket, "lit HTTP/1.0\r\n");
+            Thread.sleep(50);
+            write(socket, "\r\n");
+            InputStream in = socket.getInputStream();
+            assertEquals("echo:split", readBody(in, "HTTP/1.1 200 OK", "close"));
+            assertEquals(-1, in.read());
+        }
+    }
+
+    @Test
+    public void testIllegalRequests() throws Exception {
+        try (Socket socket = new Socket("127.0.0.1", server.getPort())) {
+            socket.setSoTimeout(3000);
+            write(socket, "GET /unknownNioCommand HTTP/1.1\r\n\r\n");
+            InputStream in = socket.getInputStream();
+            assertEquals("Unknown command `unknownNioCommand`", readBody(in, "HTTP/1.1 400 Bad Request", "keep-alive"));
+
+            write(socket, "POST /nioEcho HTTP/1.1\r\n\r\n");
+            assertEquals("No legal Content-Length", readBody(in, "HTTP/1.1 411 Length Required", "close"));
+            assertEquals(-1, in.read());
+        }
+        try (Socket socket = new Socket("127.0.0.1", server.getPort())) {
+            socket.setSoTimeout(3000);
+            StringBuilder header = new StringBuilder("GET /nioEcho HTTP/1.1\r\n");
+            while (header.length() <= HttpRequestDecoder.MAX_HEADER_BYTES) {
+                header.append("X-Padding: 0123456789abcdef\r\n");
+            }
+            write(socket, header.toString());
+            assertEquals("Request header too large",
+                readBody(socket.getInputStream(), "HTTP/1.1 413 Payload Too Large", "close"));
+        }
+    }
+
+    private static void write(Socket socket, String data) throws IOException {
+        OutputStream out = socket.getOutputStream();
+        out.write(data.getBytes("UTF-8"));
+        out.flush();
+    }
+
+    private static String readBody(InputStream in, String expectedStatus, String expectedConnection)
+        throws IOException {
+        String statusLine = readLine(in);
+        assertEquals(expectedStatus, statusLine);
+        int contentLength = -1;
+        String connection = null;
+        String line;
+        while (!(line = readLine(in)).isEmpty()) {
+            int index = line.indexOf(':');
+            String name = line.substring(0, index).trim();
+            String value = line.substring(index + 1).trim();
+            if ("Content-Length".equalsIgnoreCase(name)) {
+                contentLength = Integer.parseInt(value);
+            } else if ("Connection".equalsIgnoreCase(name)) {
+                connection = value;
+            }
+        }
+        assertEquals(expectedConnection, connection);
+        byte[] body = new byte[contentLength];
+        int read = 0;
+        while (read < contentLength) {
+            int n = in.read(body, read, contentLength - read);
+            assertTrue(n > 0);
+            read += n;
+        }
+        return new String(body, "UTF-8");
+    }
+
+    private static String readLine(InputStream in) throws IOException {
+        ByteArrayOutputStream bos = new ByteArrayOutputStream();
+        int b;
+        while ((b = in.read()) >= 0 && b != '\n') {
+            if (b != '\r') {
+                bos.write(b);
+            }
+        }
+        return new String(bos.toByteArray(), "UTF-8");
+    }
+}